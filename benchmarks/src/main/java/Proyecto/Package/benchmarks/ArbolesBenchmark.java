@@ -0,0 +1,149 @@
+package Proyecto.Package.benchmarks;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mide insertar, buscar y eliminar en TArbolB con distintos grados mínimos, en TArbolBB y en TArbolAVL,
+ * reemplazando las mediciones de Main.medirPerformance, que no tienen calentamiento ni forks y quedan dominadas por
+ * la compilación JIT.
+ *
+ * Cada invocación ejecuta un lote de OPERACIONES operaciones sobre un árbol con cantidadClaves claves. Las claves del
+ * lote se eligen según la distribución y, con probabilidad proporcionAciertos, están en el árbol; si no, caen entre
+ * dos claves cargadas. Las claves y los lotes se generan antes de medir y con semilla fija, para que todas las
+ * estructuras reciban la misma secuencia. Después de cada invocación de insertar o eliminar se deshacen sus cambios
+ * fuera de la medición, de modo que el árbol conserva su tamaño durante toda la corrida.
+ *
+ * TArbolBB cargado en orden ascendente degenera en una lista y la carga es cuadrática, así que esa combinación solo
+ * se ejecuta hasta MAXIMO_CLAVES_DEGENERADO claves; con más, la preparación falla con un mensaje y JMH continúa con
+ * la combinación siguiente, en lugar de quedar cargando el árbol indefinidamente.
+ *
+ * El resultado es la cantidad de operaciones por milisegundo; la tasa de asignación de memoria se obtiene con el
+ * profiler de GC, que EjecutarBenchmarks agrega por defecto (o con -prof gc al usar el runner de JMH).
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 2, jvmArgsAppend = {"-Xms2g", "-Xmx2g"})
+public class ArbolesBenchmark {
+
+    static final int OPERACIONES = 10_000; //Operaciones por invocación
+    private static final long SEMILLA = 42;
+    static final int MAXIMO_CLAVES_DEGENERADO = 10_000; //Claves máximas de una estructura que degenera con la carga
+
+    @State(Scope.Thread)
+    public abstract static class EstadoArbol {
+        @Param({"ARBOL_B_2", "ARBOL_B_8", "ARBOL_B_32", "ARBOL_BB", "ARBOL_AVL"})
+        public Estructura estructura;
+
+        @Param({"10000", "1000000"})
+        public int cantidadClaves;
+
+        @Param({"UNIFORME", "SECUENCIAL", "ZIPF"})
+        public DistribucionClaves distribucion;
+
+        @Param({"1.0", "0.5"})
+        public double proporcionAciertos;
+
+        Estructura.Arbol arbol;
+        Integer[] lote; //Claves de las operaciones de cada invocación, ya encapsuladas para no medir su creación
+
+        @Setup(Level.Trial)
+        public void preparar() {
+            if(estructura.degeneraConCargaOrdenada() && distribucion.cargaOrdenada()
+                    && cantidadClaves > MAXIMO_CLAVES_DEGENERADO) {
+                throw new IllegalStateException(estructura + " con carga " + distribucion + " se omite con más de "
+                        + MAXIMO_CLAVES_DEGENERADO + " claves: la carga ordenada es cuadrática.");
+            }
+            SplittableRandom random = new SplittableRandom(SEMILLA);
+            int[] cargadas = distribucion.clavesCargadas(cantidadClaves, random);
+            arbol = estructura.crear();
+            for(int clave : cargadas) {
+                arbol.insertar(clave);
+            }
+
+            int[] posiciones = distribucion.posiciones(cantidadClaves, OPERACIONES, random);
+            lote = new Integer[OPERACIONES];
+            for(int i = 0; i < OPERACIONES; i++) {
+                int clave = cargadas[posiciones[i]];
+                lote[i] = random.nextDouble() < proporcionAciertos ? clave : clave + 1;
+            }
+        }
+
+        /**
+         * Indica si la clave es una de las cargadas, que son todas pares.
+         */
+        static boolean estaCargada(Integer clave) {
+            return (clave & 1) == 0;
+        }
+    }
+
+    public static class EstadoBusqueda extends EstadoArbol {
+    }
+
+    public static class EstadoInsercion extends EstadoArbol {
+        @TearDown(Level.Invocation)
+        public void quitarInsertadas() {
+            for(Integer clave : lote) {
+                if(!estaCargada(clave)) {
+                    arbol.eliminar(clave);
+                }
+            }
+        }
+    }
+
+    public static class EstadoEliminacion extends EstadoArbol {
+        @TearDown(Level.Invocation)
+        public void restaurarEliminadas() {
+            for(Integer clave : lote) {
+                if(estaCargada(clave)) {
+                    arbol.insertar(clave);
+                }
+            }
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERACIONES)
+    public void buscar(EstadoBusqueda estado, Blackhole blackhole) {
+        Estructura.Arbol arbol = estado.arbol;
+        for(Integer clave : estado.lote) {
+            blackhole.consume(arbol.buscar(clave));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERACIONES)
+    public void insertar(EstadoInsercion estado, Blackhole blackhole) {
+        Estructura.Arbol arbol = estado.arbol;
+        for(Integer clave : estado.lote) {
+            blackhole.consume(arbol.insertar(clave));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(OPERACIONES)
+    public void eliminar(EstadoEliminacion estado) {
+        Estructura.Arbol arbol = estado.arbol;
+        for(Integer clave : estado.lote) {
+            arbol.eliminar(clave);
+        }
+    }
+}
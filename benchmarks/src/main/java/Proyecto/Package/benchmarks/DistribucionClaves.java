@@ -0,0 +1,104 @@
+package Proyecto.Package.benchmarks;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+
+/**
+ * Distribuciones con las que los benchmarks eligen qué clave del árbol usa cada operación. Cada distribución
+ * devuelve posiciones en [0, n) del arreglo de claves cargadas; el orden de ese arreglo es también el orden en
+ * que se insertaron.
+ */
+public enum DistribucionClaves {
+    /**
+     * Claves cargadas en orden aleatorio y operaciones sobre posiciones uniformes.
+     */
+    UNIFORME {
+        @Override
+        int[] posiciones(int n, int cantidad, SplittableRandom random) {
+            return random.ints(cantidad, 0, n).toArray();
+        }
+    },
+    /**
+     * Claves cargadas en orden ascendente y operaciones que las recorren en ese mismo orden.
+     */
+    SECUENCIAL {
+        @Override
+        boolean cargaOrdenada() {
+            return true;
+        }
+
+        @Override
+        int[] posiciones(int n, int cantidad, SplittableRandom random) {
+            int[] posiciones = new int[cantidad];
+            int inicio = random.nextInt(n);
+            for(int i = 0; i < cantidad; i++) {
+                posiciones[i] = (inicio + i) % n;
+            }
+            return posiciones;
+        }
+    },
+    /**
+     * Claves cargadas en orden aleatorio y operaciones con distribución de Zipf de exponente 0.99: unas pocas
+     * claves, dispersas por el árbol, concentran la mayoría de los accesos.
+     */
+    ZIPF {
+        @Override
+        int[] posiciones(int n, int cantidad, SplittableRandom random) {
+            double[] acumulada = new double[n];
+            double suma = 0;
+            for(int i = 0; i < n; i++) {
+                suma += 1 / Math.pow(i + 1, EXPONENTE_ZIPF);
+                acumulada[i] = suma;
+            }
+            int[] posiciones = new int[cantidad];
+            for(int i = 0; i < cantidad; i++) {
+                int rango = Arrays.binarySearch(acumulada, random.nextDouble() * suma);
+                posiciones[i] = Math.min(n - 1, rango >= 0 ? rango : -rango - 1);
+            }
+            return posiciones;
+        }
+    };
+
+    private static final double EXPONENTE_ZIPF = 0.99;
+
+    /**
+     * Indica si las claves se cargan en el árbol en orden ascendente.
+     */
+    boolean cargaOrdenada() {
+        return false;
+    }
+
+    /**
+     * Genera las posiciones de las claves que usan las operaciones.
+     *
+     * @param n Cantidad de claves cargadas.
+     * @param cantidad Cantidad de posiciones a generar.
+     * @param random Generador de números aleatorios.
+     * @return Las posiciones, en [0, n).
+     */
+    abstract int[] posiciones(int n, int cantidad, SplittableRandom random);
+
+    /**
+     * Genera las claves que se cargan en el árbol: los números pares de 0 a 2(n - 1), para que sumando uno se
+     * obtengan claves que no están en el árbol. Si la distribución no carga en orden, se mezclan.
+     *
+     * @param n Cantidad de claves.
+     * @param random Generador de números aleatorios.
+     * @return Las claves en el orden en que se insertan.
+     */
+    int[] clavesCargadas(int n, SplittableRandom random) {
+        int[] claves = new int[n];
+        for(int i = 0; i < n; i++) {
+            claves[i] = 2 * i;
+        }
+        if(!cargaOrdenada()) {
+            for(int i = n - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int auxiliar = claves[i];
+                claves[i] = claves[j];
+                claves[j] = auxiliar;
+            }
+        }
+        return claves;
+    }
+}
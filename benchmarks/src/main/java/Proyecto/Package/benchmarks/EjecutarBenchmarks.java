@@ -0,0 +1,25 @@
+package Proyecto.Package.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Punto de entrada de benchmarks.jar. Ejecuta ArbolesBenchmark con el profiler de GC, que agrega al resultado los
+ * bytes asignados por operación y la tasa de asignación. Acepta las mismas opciones que el runner de JMH, por
+ * ejemplo -p estructura=ARBOL_B_8 -p cantidadClaves=100000 para restringir los parámetros.
+ */
+public class EjecutarBenchmarks {
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException {
+        Options opciones = new OptionsBuilder()
+                .parent(new CommandLineOptions(args))
+                .include(ArbolesBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(opciones).run();
+    }
+}
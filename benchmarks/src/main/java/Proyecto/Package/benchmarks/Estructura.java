@@ -0,0 +1,114 @@
+package Proyecto.Package.benchmarks;
+
+import Proyecto.Package.IArbolBB;
+import Proyecto.Package.TArbolAVL;
+import Proyecto.Package.TArbolB;
+import Proyecto.Package.TArbolBB;
+
+/**
+ * Estructuras que se comparan en los benchmarks. Cada una se adapta a la interfaz Arbol para que el cuerpo de los
+ * benchmarks sea el mismo; como cada fork usa una sola estructura, las llamadas a través de la interfaz siguen
+ * siendo monomórficas y el JIT las resuelve en línea.
+ */
+public enum Estructura {
+    ARBOL_B_2 {
+        @Override
+        Arbol crear() {
+            return arbolB(2);
+        }
+    },
+    ARBOL_B_8 {
+        @Override
+        Arbol crear() {
+            return arbolB(8);
+        }
+    },
+    ARBOL_B_32 {
+        @Override
+        Arbol crear() {
+            return arbolB(32);
+        }
+    },
+    ARBOL_BB {
+        @Override
+        Arbol crear() {
+            return arbolBinario(new TArbolBB<>());
+        }
+
+        @Override
+        boolean degeneraConCargaOrdenada() {
+            return true;
+        }
+    },
+    ARBOL_AVL {
+        @Override
+        Arbol crear() {
+            return arbolBinario(new TArbolAVL<>());
+        }
+    };
+
+    /**
+     * Operaciones medidas, con la clave también como dato para no medir la creación de los datos.
+     */
+    interface Arbol {
+        boolean insertar(Integer clave);
+
+        Integer buscar(Integer clave);
+
+        void eliminar(Integer clave);
+    }
+
+    /**
+     * Indica si la estructura no se balancea, de modo que cargarla con claves en orden ascendente la convierte en
+     * una lista y cada operación cuesta O(n).
+     */
+    boolean degeneraConCargaOrdenada() {
+        return false;
+    }
+
+    /**
+     * Crea una estructura vacía.
+     *
+     * @return La estructura adaptada a la interfaz Arbol.
+     */
+    abstract Arbol crear();
+
+    private static Arbol arbolBinario(IArbolBB<Integer> arbol) {
+        return new Arbol() {
+            @Override
+            public boolean insertar(Integer clave) {
+                return arbol.insertar(clave, clave);
+            }
+
+            @Override
+            public Integer buscar(Integer clave) {
+                return arbol.buscar(clave);
+            }
+
+            @Override
+            public void eliminar(Integer clave) {
+                arbol.eliminar(clave);
+            }
+        };
+    }
+
+    private static Arbol arbolB(int t) {
+        TArbolB<Integer> arbol = new TArbolB<>(t);
+        return new Arbol() {
+            @Override
+            public boolean insertar(Integer clave) {
+                return arbol.insertar(clave, clave);
+            }
+
+            @Override
+            public Integer buscar(Integer clave) {
+                return arbol.buscar(clave);
+            }
+
+            @Override
+            public void eliminar(Integer clave) {
+                arbol.eliminar(clave);
+            }
+        };
+    }
+}
@@ -1,13 +1,417 @@
 package Proyecto.Package;
 
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+import java.util.stream.Stream;
 
-//Clase encargada de simular la base de datos
-public class BaseDeDatos {
-    private TArbolB<RegistroBD> indice;
+//Clase encargada de simular la base de datos. Es segura para uso concurrente: las lecturas avanzan en paralelo y,
+//si el índice es concurrente o está particionado, también las escrituras; las fusiones excluyen a las demás operaciones
+//y a las escrituras de la base de datos que se fusiona.
+public class BaseDeDatos implements Closeable {
+    private volatile IArbolB<RegistroBD> indice;   //Índice de los registros por id; la fusión puede reemplazarlo
+    private final TipoIndice tipoIndice;           //Estructura usada como índice, null si el índice está en disco
+    private final int t;                           //Grado mínimo del índice
+    private final int particiones;                 //Cantidad de árboles independientes entre los que se reparten los ids
+    private final boolean indiceConcurrente;       //Indica si el índice admite operaciones concurrentes por sí mismo
+    private volatile BitacoraEscritura bitacora;   //Bitácora donde se registran los cambios, o null si no son durables
+    private volatile CacheRegistros cache;         //Caché de las búsquedas por id, o null si no se usa
+    private final ReentrantReadWriteLock cerrojo = new ReentrantReadWriteLock(); //Exclusivo para fusionar y cerrar
+    private final Object[] franjas = new Object[FRANJAS];  //Ordenan la bitácora de las escrituras de cada id
 
+    /**
+     * Cantidad de locks entre los que se reparten los ids para ordenar las escrituras durables. Cada registro de la
+     * bitácora se refiere a un solo id, así que basta con que los de un mismo id queden en el orden en que se
+     * aplicaron al índice; los de ids de franjas distintas se registran en paralelo.
+     */
+    private static final int FRANJAS = 64;
+
+    /**
+     * Ordena la toma de los locks de dos fusiones cruzadas entre bases de datos con el mismo identityHashCode.
+     */
+    private static final Object DESEMPATE = new Object();
+
+    /**
+     * Capacidad inicial máxima de la lista de una página. Las páginas más grandes la agrandan a medida que se
+     * llenan, para que un tamaño de página como Integer.MAX_VALUE, que pide todos los registros, no reserve un
+     * arreglo de ese tamaño.
+     */
+    private static final int CAPACIDAD_INICIAL_PAGINA = 1024;
+
+    /**
+     * Crea una base de datos vacía indexada con un árbol B especializado en ids enteros.
+     *
+     * @param t Grado mínimo del índice.
+     */
     public BaseDeDatos(int t) {
-        this.indice = new TArbolB<>(t);
+        this(t, TipoIndice.ARBOL_B_ENTERO);
+    }
+
+    /**
+     * Crea una base de datos vacía con el tipo de índice dado.
+     *
+     * @param t Grado mínimo del índice.
+     * @param tipoIndice Estructura a usar como índice; ARBOL_B_MAS conviene si predominan los recorridos y rangos.
+     */
+    public BaseDeDatos(int t, TipoIndice tipoIndice) {
+        this(t, tipoIndice, 1, tipoIndice.crear(t));
+    }
+
+    /**
+     * Crea una base de datos vacía cuyos ids se reparten entre varios índices independientes del tipo dado, cada uno
+     * con su propio lock, como hace TArbolBParticionado. Buscar, insertar y eliminar solo bloquean al índice del id,
+     * así que las escrituras de varios hilos avanzan en paralelo aunque el tipo de índice no sea concurrente; los
+     * listados intercalan los recorridos ordenados de todos los índices.
+     *
+     * @param t Grado mínimo de cada índice.
+     * @param tipoIndice Estructura de cada índice.
+     * @param particiones Cantidad de índices; conviene que sea del orden de la cantidad de núcleos. Con 1 la base de
+     *                    datos no se particiona.
+     * @throws IllegalArgumentException Si la cantidad de particiones no es positiva.
+     */
+    public BaseDeDatos(int t, TipoIndice tipoIndice, int particiones) {
+        this(t, tipoIndice, particiones, particiones == 1 ? tipoIndice.crear(t)
+                : new TArbolBParticionado<>(t, particiones, tipoIndice, RegistroBD::getId));
+    }
+
+    /**
+     * Crea una base de datos sobre un índice ya construido.
+     *
+     * @param t Grado mínimo del índice.
+     * @param tipoIndice Estructura del índice, o null si está en disco.
+     * @param particiones Cantidad de índices entre los que se reparten los ids; el índice debe estar particionado
+     *                    si es mayor que 1.
+     * @param indice Índice de los registros por id.
+     * @throws IllegalArgumentException Si la cantidad de particiones no es positiva.
+     */
+    BaseDeDatos(int t, TipoIndice tipoIndice, int particiones, IArbolB<RegistroBD> indice) {
+        if(particiones < 1) {
+            throw new IllegalArgumentException("La cantidad de particiones debe ser positiva.");
+        }
+        this.t = t;
+        this.tipoIndice = tipoIndice;
+        this.particiones = particiones;
+        this.indice = indice;
+        for(int i = 0; i < FRANJAS; i++) {
+            franjas[i] = new Object();
+        }
+        //El índice en disco sincroniza cada operación, y el particionado tiene un lock por partición
+        this.indiceConcurrente = tipoIndice == null || particiones > 1 || tipoIndice.esConcurrente();
+    }
+
+    /**
+     * Abre una base de datos durable: reconstruye el índice reproduciendo la bitácora del archivo dado, creándola si
+     * no existe, y registra en ella cada inserción, eliminación y fusión posterior antes de confirmarla.
+     *
+     * Las escrituras de varios hilos se confirman en disco en grupo, por lo que la bitácora no limita la cantidad de
+     * inserciones por segundo a la cantidad de sincronizaciones que admite el disco.
+     *
+     * Si falla la escritura de la bitácora, cada operación cuyo lote falló lanza UncheckedIOException, pero ya está
+     * aplicada en memoria y no estará al reabrir. Las inserciones, eliminaciones y fusiones posteriores lanzan
+     * UncheckedIOException sin modificar el índice, así que lo que queda en memoria solo difiere de lo que se
+     * reproduce en esas operaciones ya informadas como fallidas.
+     *
+     * @param t Grado mínimo del índice.
+     * @param tipoIndice Estructura a usar como índice.
+     * @param archivoBitacora Archivo de la bitácora.
+     * @param latenciaMaxima Tiempo máximo que una escritura espera a otras para confirmarse juntas.
+     * @return La base de datos con los registros de la bitácora.
+     * @throws IOException Si la bitácora no se puede leer.
+     *
+     * Orden de tiempo de ejecución: O(m log n), siendo m la cantidad de operaciones registradas en la bitácora.
+     */
+    public static BaseDeDatos abrir(int t, TipoIndice tipoIndice, Path archivoBitacora, Duration latenciaMaxima)
+            throws IOException {
+        return abrir(t, tipoIndice, BitacoraEscritura.abrirArchivo(archivoBitacora), latenciaMaxima);
+    }
+
+    /**
+     * Abre una base de datos durable cuya bitácora se escribe en el canal dado, como abrir(int, TipoIndice, Path,
+     * Duration).
+     */
+    static BaseDeDatos abrir(int t, TipoIndice tipoIndice, FileChannel canalBitacora, Duration latenciaMaxima)
+            throws IOException {
+        BaseDeDatos baseDeDatos = new BaseDeDatos(t, tipoIndice);
+        baseDeDatos.bitacora = BitacoraEscritura.abrir(canalBitacora, latenciaMaxima,
+                (id, data) -> baseDeDatos.insertarEnIndice(id, new RegistroBD(id, data)), baseDeDatos::eliminarEnIndice);
+        return baseDeDatos;
+    }
+
+    /**
+     * Abre una base de datos cuyo índice y registros se guardan en un archivo de páginas, de modo que puede tener
+     * más registros de los que entran en memoria. Solo se mantienen en memoria las páginas del buffer, y buscar un
+     * registro lee a lo sumo tantas páginas como la altura del árbol más una.
+     *
+     * @param archivo Archivo de la base de datos; si no existe se crea vacía.
+     * @param tamañoPagina Tamaño de página en bytes para un archivo nuevo, por ejemplo 4096 o 16384.
+     * @param paginasEnMemoria Cantidad de páginas del buffer.
+     * @return La base de datos abierta. Debe cerrarse para que el archivo quede consistente.
+     * @throws IOException Si el archivo no se puede leer o no es una base de datos en disco.
+     */
+    public static BaseDeDatos abrirEnDisco(Path archivo, int tamañoPagina, int paginasEnMemoria) throws IOException {
+        TArbolBDisco indice = TArbolBDisco.abrir(archivo, tamañoPagina, paginasEnMemoria);
+        return new BaseDeDatos(indice.getGradoMinimo(), null, 1, indice);
+    }
+
+    /**
+     * Obtiene el tipo de índice de la base de datos.
+     *
+     * @return El tipo de índice elegido al crearla, o null si el índice está en disco.
+     */
+    public TipoIndice getTipoIndice() {
+        return tipoIndice;
+    }
+
+    /**
+     * Obtiene la cantidad de índices independientes entre los que se reparten los ids.
+     *
+     * @return La cantidad de particiones, 1 si la base de datos no está particionada.
+     */
+    public int getParticiones() {
+        return particiones;
+    }
+
+    /**
+     * Pone una caché acotada delante de buscarRegistro, reemplazando la anterior si había una. Las inserciones,
+     * eliminaciones y fusiones quitan de la caché los registros que modifican.
+     *
+     * @param capacidad Cantidad máxima de registros en la caché.
+     * @param politica Política de desalojo; W_TINY_LFU conviene si pocos ids concentran la mayoría de las búsquedas.
+     * @throws IllegalArgumentException Si la capacidad no es positiva.
+     */
+    public void usarCache(int capacidad, PoliticaCache politica) {
+        cache = new CacheRegistros(capacidad, politica);
+    }
+
+    /**
+     * Deja de usar la caché de búsquedas, descartando sus registros y contadores.
+     */
+    public void quitarCache() {
+        cache = null;
+    }
+
+    /**
+     * Obtiene la cantidad de búsquedas por id que encontraron el registro en la caché.
+     *
+     * @return La cantidad de aciertos desde que se puso la caché, o 0 si no se usa.
+     */
+    public long getAciertosCache() {
+        CacheRegistros actual = cache;
+        return actual == null ? 0 : actual.getAciertos();
+    }
+
+    /**
+     * Obtiene la cantidad de búsquedas por id que no encontraron el registro en la caché y descendieron por el índice.
+     *
+     * @return La cantidad de fallos desde que se puso la caché, o 0 si no se usa.
+     */
+    public long getFallosCache() {
+        CacheRegistros actual = cache;
+        return actual == null ? 0 : actual.getFallos();
+    }
+
+    /**
+     * Obtiene la cantidad de registros que la caché descartó por falta de lugar, incluidos los que W-TinyLFU no
+     * admitió en su región principal. Las invalidaciones no se cuentan.
+     *
+     * @return La cantidad de desalojos desde que se puso la caché, o 0 si no se usa.
+     */
+    public long getDesalojosCache() {
+        CacheRegistros actual = cache;
+        return actual == null ? 0 : actual.getDesalojos();
+    }
+
+    /**
+     * Obtiene la bitácora de la base de datos.
+     *
+     * @return La bitácora, o null si la base de datos no es durable.
+     */
+    BitacoraEscritura getBitacora() {
+        return bitacora;
+    }
+
+    /**
+     * Crea una base de datos cargando el índice de una sola vez, sin insertar los registros uno a uno.
+     *
+     * @param t Grado mínimo del índice.
+     * @param registros Registros a cargar. Si un id se repite se conserva el primer registro.
+     * @param ordenados Indica si los registros ya vienen ordenados por id; si no, se ordenan con
+     *                  CargadorMasivoArbolB.ordenarRegistrosEnDisco, en tramos que se guardan en archivos temporales.
+     * @param factorLlenado Fracción de cada hoja del índice que se ocupa, en el intervalo (0, 1].
+     * @return La base de datos cargada.
+     * @throws UncheckedIOException Si no se pueden escribir los archivos temporales del ordenamiento.
+     */
+    public static BaseDeDatos cargar(int t, Iterator<RegistroBD> registros, boolean ordenados, double factorLlenado) {
+        return cargar(t, TipoIndice.ARBOL_B_ENTERO, registros, ordenados, factorLlenado);
+    }
+
+    /**
+     * Crea una base de datos con el tipo de índice dado, cargando el índice de una sola vez.
+     *
+     * @param t Grado mínimo del índice.
+     * @param tipoIndice Estructura a usar como índice.
+     * @param registros Registros a cargar. Si un id se repite se conserva el primer registro.
+     * @param ordenados Indica si los registros ya vienen ordenados por id; si no, se ordenan con
+     *                  CargadorMasivoArbolB.ordenarRegistrosEnDisco, en tramos que se guardan en archivos temporales.
+     * @param factorLlenado Fracción de cada hoja del índice que se ocupa, en el intervalo (0, 1].
+     * @return La base de datos cargada.
+     * @throws UncheckedIOException Si no se pueden escribir los archivos temporales del ordenamiento.
+     */
+    public static BaseDeDatos cargar(int t, TipoIndice tipoIndice, Iterator<RegistroBD> registros, boolean ordenados,
+                                     double factorLlenado) {
+        Iterator<RegistroBD> enOrden = registros;
+        if(!ordenados) {
+            try {
+                enOrden = CargadorMasivoArbolB.ordenarRegistrosEnDisco(registros,
+                        CargadorMasivoArbolB.REGISTROS_POR_TRAMO_POR_DEFECTO);
+            } catch(IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if(tipoIndice == TipoIndice.ARBOL_B_ENTERO) {
+            //Camino sin encapsular los ids
+            TArbolBEntero<RegistroBD> indice = CargadorMasivoArbolB.construirEntero(t, enOrden, RegistroBD::getId,
+                    factorLlenado);
+            return new BaseDeDatos(t, tipoIndice, 1, indice);
+        }
+        return new BaseDeDatos(t, tipoIndice, 1, tipoIndice.construir(t, entradasPorId(enOrden), factorLlenado));
+    }
+
+    /**
+     * Crea una base de datos a partir de una instantánea escrita con guardarInstantanea.
+     *
+     * @param t Grado mínimo del índice.
+     * @param tipoIndice Estructura a usar como índice.
+     * @param archivo Archivo de la instantánea.
+     * @return La base de datos con los registros de la instantánea.
+     * @throws IOException Si el archivo no se puede leer, no es una instantánea o está dañado.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     */
+    public static BaseDeDatos cargarInstantanea(int t, TipoIndice tipoIndice, Path archivo) throws IOException {
+        return cargar(t, tipoIndice, InstantaneaIndice.leer(archivo), true, CargadorMasivoArbolB.FACTOR_LLENADO_POR_DEFECTO);
+    }
+
+    /**
+     * Guarda todos los registros en una instantánea binaria, que se vuelve a cargar con cargarInstantanea. La
+     * instantánea refleja un único estado de la base de datos: si el índice admite instantáneas se escribe desde una
+     * instantánea del árbol, sin bloquear a las escrituras; si no, las escrituras esperan a que termine.
+     *
+     * @param archivo Archivo de la instantánea; si existe se reemplaza.
+     * @throws IOException Si falla la escritura del archivo.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     */
+    public void guardarInstantanea(Path archivo) throws IOException {
+        IArbolB<RegistroBD> instantanea = instantaneaDelIndice();
+        if(instantanea != null) {
+            InstantaneaIndice.escribir(archivo, instantanea.iterator());
+            return;
+        }
+        Lock lock = lockLecturaConsistente();
+        lock.lock();
+        try {
+            InstantaneaIndice.escribir(archivo, indice.iterator());
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene una instantánea inmutable del índice si es un TArbolB o un TArbolBEntero, tomando el lock exclusivo
+     * solo mientras se crea, que es O(1), para que los recorridos largos no bloqueen a las escrituras.
+     *
+     * @return La instantánea, o null si el índice no admite instantáneas.
+     */
+    private IArbolB<RegistroBD> instantaneaDelIndice() {
+        //Con los demás índices no se toma el lock exclusivo para nada
+        if(!(indice instanceof TArbolB) && !(indice instanceof TArbolBEntero)) {
+            return null;
+        }
+        Lock lock = cerrojo.writeLock();
+        lock.lock();
+        try {
+            return indice.snapshot();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ejecuta una lectura del índice sin lock si el índice es concurrente, porque la fusión lo reemplaza de una
+     * sola vez, y con el lock compartido si no lo es.
+     */
+    private <R> R leer(Supplier<R> lectura) {
+        if(indiceConcurrente) {
+            return lectura.get();
+        }
+        Lock lock = cerrojo.readLock();
+        lock.lock();
+        try {
+            return lectura.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Lock que toman las inserciones y eliminaciones: el compartido si el índice es concurrente, de modo que solo
+     * excluyen a las fusiones, y el exclusivo si no lo es.
+     */
+    private Lock lockEscritura() {
+        return indiceConcurrente ? cerrojo.readLock() : cerrojo.writeLock();
+    }
+
+    /**
+     * Lock que excluye a las inserciones y eliminaciones para recorrer el índice en un único estado: el exclusivo si
+     * el índice es concurrente, porque sus escrituras toman el compartido, y el compartido si no lo es.
+     */
+    private Lock lockLecturaConsistente() {
+        return indiceConcurrente ? cerrojo.writeLock() : cerrojo.readLock();
+    }
+
+    /**
+     * Lock de la franja del id, que se toma para modificar el índice y registrar la modificación en la bitácora como
+     * una sola operación respecto de las demás escrituras del mismo id.
+     */
+    private Object franja(int id) {
+        return franjas[id & (FRANJAS - 1)];
+    }
+
+    /**
+     * Adapta un iterador de registros a un iterador de pares (id, registro).
+     */
+    private static Iterator<Map.Entry<Integer, RegistroBD>> entradasPorId(Iterator<RegistroBD> registros) {
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return registros.hasNext();
+            }
+
+            @Override
+            public Map.Entry<Integer, RegistroBD> next() {
+                RegistroBD registro = registros.next();
+                return new AbstractMap.SimpleImmutableEntry<>(registro.getId(), registro);
+            }
+        };
     }
 
     /**
@@ -15,22 +419,60 @@ public class BaseDeDatos {
      *
      * @param id   Identificador del registro.
      * @param data Datos del registro.
+     * @throws UncheckedIOException Si la base de datos es durable y no se pudo escribir la bitácora.
      */
 
     public void insertarRegistro(int id, String data) {
         RegistroBD registro = new RegistroBD(id, data);
-        indice.insertar(id, registro);
+        BitacoraEscritura registrada;
+        long posicion;
+        Lock lock = lockEscritura();
+        lock.lock();
+        try {
+            registrada = bitacora;
+            if(registrada == null) {
+                if(insertarEnIndice(id, registro)) {
+                    invalidar(id);
+                }
+                return;
+            }
+            //El índice y la bitácora se modifican juntos para que la bitácora reproduzca el mismo orden
+            synchronized(franja(id)) {
+                registrada.verificarEscritura();
+                if(!insertarEnIndice(id, registro)) {
+                    return;
+                }
+                invalidar(id);
+                posicion = registrada.registrarInsercion(id, data);
+            }
+        } finally {
+            lock.unlock();
+        }
+        confirmar(registrada, posicion);
     }
 
     /**
-     * Busca un registro en la base de datos por su identificador.
+     * Busca un registro en la base de datos por su identificador, primero en la caché si se usa una.
      *
      * @param id Identificador del registro a buscar.
      * @return El registro encontrado, o null si no se encuentra.
      */
 
     public RegistroBD buscarRegistro(int id) {
-        return indice.buscar(id);
+        CacheRegistros actual = cache;
+        if(actual == null) {
+            return leer(() -> buscarEnIndice(id));
+        }
+        RegistroBD registro = actual.obtener(id);
+        if(registro != null) {
+            return registro;
+        }
+        long generacion = actual.getGeneracion();
+        registro = leer(() -> buscarEnIndice(id));
+        if(registro != null) {
+            actual.agregar(id, registro, generacion);
+        }
+        return registro;
     }
 
     /**
@@ -38,10 +480,325 @@ public class BaseDeDatos {
      *
      * @param id Identificador del registro a eliminar.
      * @return true si el registro fue eliminado, false en caso contrario.
+     * @throws UncheckedIOException Si la base de datos es durable y no se pudo escribir la bitácora.
      */
 
     public boolean eliminarRegistro(int id) {
-        return indice.eliminar(id);
+        BitacoraEscritura registrada;
+        long posicion;
+        Lock lock = lockEscritura();
+        lock.lock();
+        try {
+            registrada = bitacora;
+            if(registrada == null) {
+                if(!eliminarEnIndice(id)) {
+                    return false;
+                }
+                invalidar(id);
+                return true;
+            }
+            synchronized(franja(id)) {
+                registrada.verificarEscritura();
+                if(!eliminarEnIndice(id)) {
+                    return false;
+                }
+                invalidar(id);
+                posicion = registrada.registrarEliminacion(id);
+            }
+        } finally {
+            lock.unlock();
+        }
+        confirmar(registrada, posicion);
+        return true;
+    }
+
+    /**
+     * Inserta un lote de registros. El lote se ordena por id y se aplica de una sola vez: con un índice
+     * ARBOL_B_ENTERO, en un único recorrido del árbol que divide cada nodo a lo sumo una vez; con los demás
+     * índices, un registro tras otro en orden de id, de modo que los descensos consecutivos pasan por los mismos
+     * nodos. Si un id se repite en el lote se conserva el primer registro, y los ids que ya están en la base de
+     * datos se ignoran, igual que en insertarRegistro. Si la base de datos es durable, cada registro insertado se
+     * escribe en la bitácora y el lote espera una única confirmación.
+     *
+     * @param registros Registros a insertar.
+     * @return La cantidad de registros insertados.
+     * @throws UncheckedIOException Si la base de datos es durable y no se pudo escribir la bitácora.
+     *
+     * Orden de tiempo de ejecución: O(m log m + m log n), siendo m el tamaño del lote.
+     */
+    public int insertarRegistros(Collection<RegistroBD> registros) {
+        RegistroBD[] recibidos = registros.toArray(new RegistroBD[0]);
+        //Se ordenan pares (id, posición) empaquetados en un long, que es mucho más rápido que ordenar los registros
+        //con un Comparator; entre ids repetidos queda primero el que apareció antes
+        long[] orden = new long[recibidos.length];
+        for(int i = 0; i < recibidos.length; i++) {
+            orden[i] = ((long) recibidos[i].getId() << 32) | i;
+        }
+        Arrays.sort(orden);
+        int[] ids = new int[orden.length];
+        RegistroBD[] lote = new RegistroBD[orden.length];
+        int cantidad = 0;
+        for(long par : orden) {
+            int id = (int) (par >> 32);
+            if(cantidad == 0 || ids[cantidad - 1] != id) {
+                ids[cantidad] = id;
+                lote[cantidad] = recibidos[(int) par];
+                cantidad++;
+            }
+        }
+        ids = Arrays.copyOf(ids, cantidad);
+        lote = Arrays.copyOf(lote, cantidad);
+
+        boolean[] insertados = new boolean[cantidad];
+        BitacoraEscritura registrada;
+        long posicion = -1;
+        int insertadas;
+        Lock lock = lockEscritura();
+        lock.lock();
+        try {
+            registrada = bitacora;
+            if(registrada == null) {
+                insertadas = insertarOrdenados(ids, lote, insertados);
+                invalidar(ids, insertados);
+                return insertadas;
+            }
+            registrada.verificarEscritura();
+            if(!indiceConcurrente) {
+                //Con el lock exclusivo tomado ninguna otra escritura se intercala
+                insertadas = insertarOrdenados(ids, lote, insertados);
+                invalidar(ids, insertados);
+                for(int i = 0; i < cantidad; i++) {
+                    if(insertados[i]) {
+                        posicion = registrada.registrarInsercion(ids[i], lote[i].getData());
+                    }
+                }
+            } else {
+                insertadas = 0;
+                for(int i = 0; i < cantidad; i++) {
+                    synchronized(franja(ids[i])) {
+                        registrada.verificarEscritura();
+                        if(insertarEnIndice(ids[i], lote[i])) {
+                            insertadas++;
+                            invalidar(ids[i]);
+                            posicion = registrada.registrarInsercion(ids[i], lote[i].getData());
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if(insertadas > 0) {
+            confirmar(registrada, posicion);
+        }
+        return insertadas;
+    }
+
+    /**
+     * Elimina los registros con los ids dados, ordenándolos y aplicándolos de una sola vez como en
+     * insertarRegistros. Los ids repetidos o que no están en la base de datos se ignoran.
+     *
+     * @param ids Identificadores de los registros a eliminar.
+     * @return La cantidad de registros eliminados.
+     * @throws UncheckedIOException Si la base de datos es durable y no se pudo escribir la bitácora.
+     *
+     * Orden de tiempo de ejecución: O(m log m + m log n), siendo m la cantidad de ids.
+     */
+    public int eliminarRegistros(int[] ids) {
+        int[] lote = ids.clone();
+        Arrays.sort(lote);
+        int cantidad = 0;
+        for(int id : lote) {
+            if(cantidad == 0 || lote[cantidad - 1] != id) {
+                lote[cantidad++] = id;
+            }
+        }
+        lote = Arrays.copyOf(lote, cantidad);
+
+        boolean[] eliminados = new boolean[cantidad];
+        BitacoraEscritura registrada;
+        long posicion = -1;
+        int eliminadas;
+        Lock lock = lockEscritura();
+        lock.lock();
+        try {
+            registrada = bitacora;
+            if(registrada == null) {
+                eliminadas = eliminarOrdenados(lote, eliminados);
+                invalidar(lote, eliminados);
+                return eliminadas;
+            }
+            registrada.verificarEscritura();
+            if(!indiceConcurrente) {
+                eliminadas = eliminarOrdenados(lote, eliminados);
+                invalidar(lote, eliminados);
+                for(int i = 0; i < cantidad; i++) {
+                    if(eliminados[i]) {
+                        posicion = registrada.registrarEliminacion(lote[i]);
+                    }
+                }
+            } else {
+                eliminadas = 0;
+                for(int i = 0; i < cantidad; i++) {
+                    synchronized(franja(lote[i])) {
+                        registrada.verificarEscritura();
+                        if(eliminarEnIndice(lote[i])) {
+                            eliminadas++;
+                            invalidar(lote[i]);
+                            posicion = registrada.registrarEliminacion(lote[i]);
+                        }
+                    }
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+        if(eliminadas > 0) {
+            confirmar(registrada, posicion);
+        }
+        return eliminadas;
+    }
+
+    /**
+     * Inserta un registro en el índice. Con un índice ARBOL_B_ENTERO usa insertarEntero, que recibe el id sin
+     * encapsular, en lugar de la inserción por Comparable de IArbolB.
+     */
+    private boolean insertarEnIndice(int id, RegistroBD registro) {
+        IArbolB<RegistroBD> actual = indice;
+        if(actual instanceof TArbolBEntero) {
+            return ((TArbolBEntero<RegistroBD>) actual).insertarEntero(id, registro);
+        }
+        return actual.insertar(id, registro);
+    }
+
+    /**
+     * Busca un registro en el índice, sin encapsular el id si el índice es un TArbolBEntero.
+     */
+    private RegistroBD buscarEnIndice(int id) {
+        IArbolB<RegistroBD> actual = indice;
+        if(actual instanceof TArbolBEntero) {
+            return ((TArbolBEntero<RegistroBD>) actual).buscar(id);
+        }
+        return actual.buscar(id);
+    }
+
+    /**
+     * Elimina un registro del índice, sin encapsular el id si el índice es un TArbolBEntero.
+     */
+    private boolean eliminarEnIndice(int id) {
+        IArbolB<RegistroBD> actual = indice;
+        if(actual instanceof TArbolBEntero) {
+            return ((TArbolBEntero<RegistroBD>) actual).eliminar(id);
+        }
+        return actual.eliminar(id);
+    }
+
+    /**
+     * Aplica al índice un lote de inserciones ordenado por id, marcando las que se realizaron.
+     */
+    private int insertarOrdenados(int[] ids, RegistroBD[] registros, boolean[] insertados) {
+        if(indice instanceof TArbolBEntero) {
+            return ((TArbolBEntero<RegistroBD>) indice).insertarLote(ids, registros, insertados);
+        }
+        int insertadas = 0;
+        for(int i = 0; i < ids.length; i++) {
+            if(insertarEnIndice(ids[i], registros[i])) {
+                insertados[i] = true;
+                insertadas++;
+            }
+        }
+        return insertadas;
+    }
+
+    /**
+     * Aplica al índice un lote de eliminaciones ordenado por id, marcando las que se realizaron.
+     */
+    private int eliminarOrdenados(int[] ids, boolean[] eliminados) {
+        if(indice instanceof TArbolBEntero) {
+            return ((TArbolBEntero<RegistroBD>) indice).eliminarLote(ids, eliminados);
+        }
+        int eliminadas = 0;
+        for(int i = 0; i < ids.length; i++) {
+            if(eliminarEnIndice(ids[i])) {
+                eliminados[i] = true;
+                eliminadas++;
+            }
+        }
+        return eliminadas;
+    }
+
+    /**
+     * Quita de la caché, si se usa, el registro con el id dado. Se llama con el lock de escritura tomado, después de
+     * modificar el índice.
+     */
+    private void invalidar(int id) {
+        CacheRegistros actual = cache;
+        if(actual != null) {
+            actual.invalidar(id);
+        }
+    }
+
+    /**
+     * Quita de la caché, si se usa, los registros de los ids marcados de un lote.
+     */
+    private void invalidar(int[] ids, boolean[] marcados) {
+        CacheRegistros actual = cache;
+        if(actual == null) {
+            return;
+        }
+        for(int i = 0; i < ids.length; i++) {
+            if(marcados[i]) {
+                actual.invalidar(ids[i]);
+            }
+        }
+    }
+
+    /**
+     * Espera, fuera de los locks de la base de datos, a que la bitácora confirme en disco los registros hasta la
+     * posición dada, junto con los de otros hilos que escriben al mismo tiempo.
+     */
+    private static void confirmar(BitacoraEscritura bitacora, long posicion) {
+        try {
+            bitacora.esperarConfirmacion(posicion);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Busca los registros cuyos ids están en el rango dado, sin recorrer el resto de la base de datos.
+     *
+     * @param desde Id inferior del rango.
+     * @param incluirDesde Indica si el id inferior forma parte del rango.
+     * @param hasta Id superior del rango.
+     * @param incluirHasta Indica si el id superior forma parte del rango.
+     * @param descendente Verdadero para ordenar los registros de mayor a menor id.
+     * @param limite Cantidad máxima de registros a devolver.
+     * @return Lista con los registros del rango en el orden pedido.
+     */
+
+    public List<RegistroBD> buscarRegistrosEnRango(int desde, boolean incluirDesde, int hasta, boolean incluirHasta,
+                                                   boolean descendente, int limite) {
+        return leer(() -> {
+            List<RegistroBD> resultado = new ArrayList<>();
+            Iterator<RegistroBD> iterador = indice.iteradorRango(desde, incluirDesde, hasta, incluirHasta, descendente);
+            while(resultado.size() < limite && iterador.hasNext()) {
+                resultado.add(iterador.next());
+            }
+            return resultado;
+        });
+    }
+
+    /**
+     * Busca, ordenados por id, los registros cuyos ids están en el rango cerrado [desde, hasta].
+     *
+     * @param desde Id inferior del rango.
+     * @param hasta Id superior del rango.
+     * @return Lista con los registros del rango.
+     */
+
+    public List<RegistroBD> buscarRegistrosEnRango(int desde, int hasta) {
+        return buscarRegistrosEnRango(desde, true, hasta, true, false, Integer.MAX_VALUE);
     }
 
     /**
@@ -51,7 +808,8 @@ public class BaseDeDatos {
      */
 
     public List<RegistroBD> listarRegistrosPreOrden() {
-        return indice.preOrden();
+        IArbolB<RegistroBD> instantanea = instantaneaDelIndice();
+        return instantanea != null ? instantanea.preOrden() : leer(() -> indice.preOrden());
     }
 
     /**
@@ -61,7 +819,96 @@ public class BaseDeDatos {
      */
 
     public List<RegistroBD> listarRegistrosInOrden() {
-        return indice.inOrden();
+        IArbolB<RegistroBD> instantanea = instantaneaDelIndice();
+        return instantanea != null ? instantanea.inOrden() : leer(() -> indice.inOrden());
+    }
+
+    /**
+     * Lista la primera página de los registros ordenados por id.
+     *
+     * @param tamañoPagina Cantidad máxima de registros de la página.
+     * @return La página, con el token para pedir la siguiente.
+     * @throws IllegalArgumentException Si el tamaño de página no es positivo.
+     *
+     * Orden de tiempo de ejecución: O(log n + k), siendo k el tamaño de página.
+     */
+
+    public PaginaRegistros listarRegistros(int tamañoPagina) {
+        return pagina(null, tamañoPagina);
+    }
+
+    /**
+     * Lista una página de los registros ordenados por id, a partir del token devuelto por la página anterior. El
+     * índice se recorre desde el id del token, por lo que no se construye el listado completo ni se cuentan los
+     * registros anteriores, y el costo no crece con el avance del listado.
+     *
+     * @param desdeId Id del primer registro a incluir; normalmente el token de la página anterior. No necesita
+     *                estar en la base de datos.
+     * @param tamañoPagina Cantidad máxima de registros de la página.
+     * @return La página, con el token para pedir la siguiente.
+     * @throws IllegalArgumentException Si el tamaño de página no es positivo.
+     *
+     * Orden de tiempo de ejecución: O(log n + k), siendo k el tamaño de página.
+     */
+
+    public PaginaRegistros listarRegistros(int desdeId, int tamañoPagina) {
+        return pagina(desdeId, tamañoPagina);
+    }
+
+    /**
+     * Copia hasta tamañoPagina registros desde el id dado y lee uno más para obtener el token de la página siguiente.
+     */
+    private PaginaRegistros pagina(Integer desdeId, int tamañoPagina) {
+        if(tamañoPagina <= 0) {
+            throw new IllegalArgumentException("El tamaño de página debe ser positivo.");
+        }
+        return leer(() -> {
+            List<RegistroBD> registros = new ArrayList<>(Math.min(tamañoPagina, CAPACIDAD_INICIAL_PAGINA));
+            Iterator<RegistroBD> iterador = indice.iteradorRango(desdeId, true, null, false, false);
+            while(registros.size() < tamañoPagina && iterador.hasNext()) {
+                registros.add(iterador.next());
+            }
+            Integer siguienteId = iterador.hasNext() ? iterador.next().getId() : null;
+            return new PaginaRegistros(registros, siguienteId);
+        });
+    }
+
+    /**
+     * Obtiene la cantidad de registros de la base de datos. Los índices ARBOL_B, ARBOL_B_ENTERO y
+     * ARBOL_B_CONCURRENTE la llevan al día, también particionados; con los demás se cuentan los registros.
+     *
+     * @return La cantidad de registros.
+     *
+     * Orden de tiempo de ejecución: O(1) con esos índices, O(n) con los demás.
+     */
+
+    public int cantidadRegistros() {
+        return leer(() -> indice.tamaño());
+    }
+
+    /**
+     * Obtiene la posición que ocupa un id en el listado en inorden, es decir, la cantidad de registros con un id
+     * menor. Con índices ARBOL_B y ARBOL_B_ENTERO se obtiene con un único descenso.
+     *
+     * @param id Identificador a ubicar; no necesita estar en la base de datos.
+     * @return La cantidad de registros con un id menor.
+     */
+
+    public int posicionDeRegistro(int id) {
+        return leer(() -> indice.posicion(id));
+    }
+
+    /**
+     * Obtiene el registro que ocupa la posición dada en el listado en inorden. Con índices ARBOL_B y
+     * ARBOL_B_ENTERO se ubica con un único descenso.
+     *
+     * @param posicion Posición del registro, entre 0 y la cantidad de registros menos uno.
+     * @return El registro de esa posición.
+     * @throws IndexOutOfBoundsException Si la posición está fuera de ese intervalo.
+     */
+
+    public RegistroBD registroEnPosicion(int posicion) {
+        return leer(() -> indice.seleccionar(posicion));
     }
 
     /**
@@ -71,16 +918,271 @@ public class BaseDeDatos {
      */
 
     public List<RegistroBD> listarRegistrosPostOrden() {
-        return indice.postOrden();
+        IArbolB<RegistroBD> instantanea = instantaneaDelIndice();
+        return instantanea != null ? instantanea.postOrden() : leer(() -> indice.postOrden());
+    }
+
+    /**
+     * Recorre los registros de la base de datos ordenados por id de forma perezosa, sin construir una lista con
+     * todos ellos. Si el índice admite instantáneas el recorrido se hace sobre una instantánea y no ve las escrituras
+     * posteriores; si el índice es concurrente es débilmente consistente; con otros índices no debe haber
+     * escrituras concurrentes mientras se recorre.
+     *
+     * @return Un Stream de los registros ordenados por id.
+     */
+
+    public Stream<RegistroBD> registros() {
+        IArbolB<RegistroBD> instantanea = instantaneaDelIndice();
+        return instantanea != null ? instantanea.stream() : indice.stream();
+    }
+
+    /**
+     * Reduce todos los registros, combinando los resultados parciales en el orden de los ids. Con índices ARBOL_B y
+     * ARBOL_B_ENTERO el recorrido se reparte entre los núcleos con ForkJoin; con los demás es secuencial. Por
+     * ejemplo, reducirRegistros(0L, (suma, r) -> suma + r.getData().length(), Long::sum) suma los largos de los datos.
+     *
+     * @param identidad Valor inicial de cada resultado parcial, neutro para el combinador.
+     * @param acumulador Función que incorpora un registro a un resultado parcial.
+     * @param combinador Función asociativa que combina dos resultados parciales consecutivos.
+     * @return El resultado de la reducción.
+     *
+     * Orden de tiempo de ejecución: O(n / p + log n) con p núcleos.
+     */
+    @SuppressWarnings("unchecked")
+    public <R> R reducirRegistros(R identidad, BiFunction<R, ? super RegistroBD, R> acumulador, BinaryOperator<R> combinador) {
+        Object[] resultado = recolectar(() -> new Object[]{identidad},
+                (parcial, registro) -> parcial[0] = acumulador.apply((R) parcial[0], registro),
+                (izquierdo, derecho) -> izquierdo[0] = combinador.apply((R) izquierdo[0], (R) derecho[0]), true);
+        return (R) resultado[0];
+    }
+
+    /**
+     * Cuenta los registros que cumplen el filtro, recorriéndolos en paralelo como reducirRegistros.
+     *
+     * @param filtro Condición que deben cumplir los registros contados.
+     * @return La cantidad de registros que cumplen el filtro.
+     */
+    public long contarRegistros(Predicate<? super RegistroBD> filtro) {
+        long[] cantidad = recolectar(() -> new long[1], (parcial, registro) -> {
+            if(filtro.test(registro)) {
+                parcial[0]++;
+            }
+        }, (izquierdo, derecho) -> izquierdo[0] += derecho[0], false);
+        return cantidad[0];
     }
 
     /**
-     * Fusiona la base de datos actual con otra base de datos.
+     * Obtiene, ordenados por id, los registros que cumplen el filtro, recorriéndolos en paralelo como
+     * reducirRegistros.
+     *
+     * @param filtro Condición que deben cumplir los registros.
+     * @return Lista con los registros que cumplen el filtro.
+     */
+    public List<RegistroBD> filtrarRegistros(Predicate<? super RegistroBD> filtro) {
+        return recolectar(ArrayList::new, (parcial, registro) -> {
+            if(filtro.test(registro)) {
+                parcial.add(registro);
+            }
+        }, ArrayList::addAll, true);
+    }
+
+    /**
+     * Acumula todos los registros en contenedores mutables. Si el índice admite instantáneas se recorre una
+     * instantánea en paralelo, sin bloquear a las escrituras; los demás índices se recorren de forma secuencial con
+     * el lock compartido.
+     */
+    private <R> R recolectar(Supplier<R> proveedor, BiConsumer<R, RegistroBD> acumulador, BiConsumer<R, R> combinador,
+                             boolean enOrden) {
+        IArbolB<RegistroBD> instantanea = instantaneaDelIndice();
+        if(instantanea != null) {
+            return recolectar(instantanea, proveedor, acumulador, combinador, enOrden);
+        }
+        return leer(() -> recolectar(indice, proveedor, acumulador, combinador, enOrden));
+    }
+
+    /**
+     * Acumula los registros del árbol dado, en paralelo si es un TArbolB o un TArbolBEntero.
+     */
+    private static <R> R recolectar(IArbolB<RegistroBD> arbol, Supplier<R> proveedor, BiConsumer<R, RegistroBD> acumulador,
+                                    BiConsumer<R, R> combinador, boolean enOrden) {
+        if(arbol instanceof TArbolB) {
+            TArbolB<RegistroBD> arbolB = (TArbolB<RegistroBD>) arbol;
+            return enOrden ? arbolB.recolectarParalelo(proveedor, acumulador, combinador)
+                    : arbolB.recolectarParaleloSinOrden(proveedor, acumulador, combinador);
+        }
+        if(arbol instanceof TArbolBEntero) {
+            TArbolBEntero<RegistroBD> arbolEntero = (TArbolBEntero<RegistroBD>) arbol;
+            return enOrden ? arbolEntero.recolectarParalelo(proveedor, acumulador, combinador)
+                    : arbolEntero.recolectarParaleloSinOrden(proveedor, acumulador, combinador);
+        }
+        R resultado = proveedor.get();
+        for(RegistroBD registro : arbol) {
+            acumulador.accept(resultado, registro);
+        }
+        return resultado;
+    }
+
+    /**
+     * Fusiona la base de datos actual con otra base de datos. Ante ids presentes en ambas se conserva el registro
+     * de la base de datos actual.
      *
      * @param otraBD La otra base de datos a fusionar.
      */
 
     public void merge(BaseDeDatos otraBD) {
-        indice.merge(otraBD.indice);
+        merge(otraBD, PoliticaDuplicados.conservarIzquierdo());
+    }
+
+    /**
+     * Fusiona la base de datos actual con otra base de datos en tiempo lineal en la cantidad total de registros.
+     *
+     * Mientras dura la fusión la otra base de datos no admite inserciones ni eliminaciones, para que se recorra en
+     * un único estado.
+     *
+     * @param otraBD La otra base de datos a fusionar.
+     * @param politica Política que decide qué registro conservar ante ids presentes en ambas.
+     * @throws IllegalArgumentException Si la otra base de datos es esta misma.
+     */
+
+    public void merge(BaseDeDatos otraBD, PoliticaDuplicados<RegistroBD> politica) {
+        if(otraBD == this) {
+            throw new IllegalArgumentException("Una base de datos no se puede fusionar consigo misma.");
+        }
+        BitacoraEscritura registrada;
+        long posicion;
+        Lock lock = cerrojo.writeLock();
+        Lock lockOtra = otraBD.lockLecturaConsistente();
+        bloquearEnOrden(otraBD, lock, lockOtra);
+        try {
+            registrada = bitacora;
+            if(registrada == null) {
+                fusionar(otraBD, politica);
+                vaciarCache();
+                return;
+            }
+            posicion = fusionarRegistrando(otraBD, politica);
+            vaciarCache();
+        } finally {
+            lockOtra.unlock();
+            lock.unlock();
+        }
+        confirmar(registrada, posicion);
+    }
+
+    /**
+     * Toma el lock de esta base de datos y el de otra en un orden que no depende de cuál fusiona a cuál, según
+     * System.identityHashCode, para que a.merge(b) y b.merge(a) al mismo tiempo no se bloqueen mutuamente. Si ambos
+     * valores coinciden, los dos locks se toman con DESEMPATE tomado.
+     */
+    private void bloquearEnOrden(BaseDeDatos otraBD, Lock propio, Lock deLaOtra) {
+        int comparacion = Integer.compare(System.identityHashCode(this), System.identityHashCode(otraBD));
+        if(comparacion < 0) {
+            propio.lock();
+            deLaOtra.lock();
+        } else if(comparacion > 0) {
+            deLaOtra.lock();
+            propio.lock();
+        } else {
+            synchronized(DESEMPATE) {
+                propio.lock();
+                deLaOtra.lock();
+            }
+        }
+    }
+
+    private void vaciarCache() {
+        CacheRegistros actual = cache;
+        if(actual != null) {
+            actual.invalidarTodo();
+        }
+    }
+
+    private void fusionar(BaseDeDatos otraBD, PoliticaDuplicados<RegistroBD> politica) {
+        if(tipoIndice == null) {
+            fusionarEnDisco(otraBD, politica);
+            return;
+        }
+        //Ambos índices se recorren en orden por id, por lo que la fusión no depende de sus tipos
+        Iterator<Map.Entry<Integer, RegistroBD>> fusion = CargadorMasivoArbolB.fusionar(entradasPorId(indice.iterator()),
+                entradasPorId(otraBD.indice.iterator()), politica);
+        indice = particiones == 1 ? tipoIndice.construir(t, fusion, CargadorMasivoArbolB.FACTOR_LLENADO_POR_DEFECTO)
+                : TArbolBParticionado.construir(t, particiones, tipoIndice, RegistroBD::getId, fusion,
+                        CargadorMasivoArbolB.FACTOR_LLENADO_POR_DEFECTO);
+    }
+
+    /**
+     * Fusiona sobre el índice en disco modificando solo los ids de la otra base de datos, en lugar de reconstruir
+     * el archivo entero.
+     */
+    private void fusionarEnDisco(BaseDeDatos otraBD, PoliticaDuplicados<RegistroBD> politica) {
+        Iterator<RegistroBD> registrosOtra = otraBD.indice.iterator();
+        while(registrosOtra.hasNext()) {
+            RegistroBD registro = registrosOtra.next();
+            int id = registro.getId();
+            RegistroBD actual = indice.buscar(id);
+            if(actual == null) {
+                indice.insertar(id, registro);
+                continue;
+            }
+            RegistroBD resuelto = politica.resolver(id, actual, registro);
+            if(resuelto != actual) {
+                indice.eliminar(id);
+                indice.insertar(id, resuelto);
+            }
+        }
+    }
+
+    /**
+     * Registra en la bitácora los cambios que produce la fusión y luego la realiza. Los conflictos se resuelven una
+     * sola vez, al registrarlos, para que la política no pueda dar resultados distintos en la bitácora y en el índice.
+     *
+     * @return La posición de la bitácora que hay que confirmar.
+     */
+    private long fusionarRegistrando(BaseDeDatos otraBD, PoliticaDuplicados<RegistroBD> politica) {
+        Map<Integer, RegistroBD> resueltos = new HashMap<>();
+        long posicion = -1;
+        Iterator<RegistroBD> registrosOtra = otraBD.indice.iterator();
+        while(registrosOtra.hasNext()) {
+            RegistroBD registro = registrosOtra.next();
+            int id = registro.getId();
+            RegistroBD actual = buscarEnIndice(id);
+            if(actual == null) {
+                posicion = bitacora.registrarInsercion(id, registro.getData());
+                continue;
+            }
+            RegistroBD resuelto = politica.resolver(id, actual, registro);
+            resueltos.put(id, resuelto);
+            if(resuelto != actual) {
+                bitacora.registrarEliminacion(id);
+                posicion = bitacora.registrarInsercion(id, resuelto.getData());
+            }
+        }
+        fusionar(otraBD, (clave, izquierdo, derecho) -> resueltos.get(clave));
+        return posicion;
+    }
+
+    /**
+     * Cierra la bitácora de la base de datos, si tiene, después de confirmar en disco los registros pendientes, y el
+     * archivo del índice si está en disco.
+     *
+     * @throws IOException Si falla la escritura de los registros o páginas pendientes.
+     */
+    @Override
+    public void close() throws IOException {
+        BitacoraEscritura aCerrar;
+        Lock lock = cerrojo.writeLock();
+        lock.lock();
+        try {
+            aCerrar = bitacora;
+            bitacora = null;
+        } finally {
+            lock.unlock();
+        }
+        if(aCerrar != null) {
+            aCerrar.close();
+        }
+        if(indice instanceof TArbolBDisco) {
+            ((TArbolBDisco) indice).close();
+        }
     }
 }
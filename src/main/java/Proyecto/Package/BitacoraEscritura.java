@@ -0,0 +1,432 @@
+package Proyecto.Package;
+
+import java.io.BufferedInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.BiConsumer;
+import java.util.function.IntConsumer;
+import java.util.zip.CRC32;
+
+/**
+ * Bitácora de escritura anticipada (write-ahead log) de BaseDeDatos. Cada inserción y eliminación se agrega al final
+ * de un archivo como un registro binario compacto, de modo que al reabrir la base de datos se reconstruye el índice
+ * reproduciendo el archivo.
+ *
+ * Las escrituras se confirman en grupo: los registros se acumulan en un buffer en memoria y un único hilo escritor
+ * los vuelca al archivo y llama a force una vez por lote. Mientras ese hilo espera al disco, los demás escritores
+ * siguen llenando el otro buffer, que se vuelca en el siguiente lote. La latencia máxima indica cuánto puede esperar
+ * un lote a que lleguen más registros antes de volcarse; con latencia cero se vuelca en cuanto el disco queda libre,
+ * y aun así los registros que llegan durante un force se confirman juntos.
+ *
+ * Formato de los registros, con enteros big-endian:
+ * - Inserción: tipo (1 byte), id (4 bytes), largo de los datos en UTF-8 o -1 si son null (4 bytes), datos, CRC32.
+ * - Eliminación: tipo (1 byte), id (4 bytes), CRC32.
+ * El CRC32 cubre los bytes anteriores del registro. Un registro incompleto o con CRC inválido al final del archivo,
+ * que queda si el proceso se interrumpe a mitad de una escritura, se descarta al abrir la bitácora.
+ *
+ * Si falla la escritura o el force de un lote, el hilo escritor se detiene: los que esperan la confirmación de ese
+ * lote o de uno posterior reciben el error, y desde entonces no se admiten registros nuevos.
+ */
+public class BitacoraEscritura implements Closeable {
+
+    private static final int MAGICO = 0x57414C31; //"WAL1", identifica el archivo y la versión del formato
+    private static final byte TIPO_INSERCION = 1;
+    private static final byte TIPO_ELIMINACION = 2;
+    private static final int TAMAÑO_BUFFER_INICIAL = 1 << 16;
+    private static final int TAMAÑO_LOTE_MAXIMO = 1 << 20; //Bytes acumulados que disparan el volcado sin esperar
+
+    private final FileChannel canal;
+    private final long latenciaMaximaNanos;
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition hayPendientes = lock.newCondition(); //Avisa al hilo escritor que hay registros nuevos
+    private final Condition volcado = lock.newCondition();       //Avisa a los escritores que avanzó lo confirmado
+    private final CRC32 crc = new CRC32();                       //Se usa solo con el lock tomado
+    private final Thread escritor;
+
+    private ByteBuffer pendiente = ByteBuffer.allocate(TAMAÑO_BUFFER_INICIAL); //Registros aún no volcados
+    private ByteBuffer enEscritura = ByteBuffer.allocate(TAMAÑO_BUFFER_INICIAL); //Lote que está volcando el escritor
+    private long posicionPendiente; //Posición en el archivo al final del último registro agregado
+    private long posicionDurable;   //Posición hasta la que el archivo está confirmado en disco
+    private long inicioLote;        //Momento en que llegó el primer registro del lote pendiente
+    private long sincronizaciones;  //Cantidad de llamadas a force
+    private volatile IOException error; //Error del hilo escritor, que se informa a todos los escritores
+    private boolean cerrada;
+
+    private BitacoraEscritura(FileChannel canal, long posicionFinal, Duration latenciaMaxima) {
+        this.canal = canal;
+        this.latenciaMaximaNanos = latenciaMaxima.toNanos();
+        this.posicionPendiente = posicionFinal;
+        this.posicionDurable = posicionFinal;
+        this.escritor = new Thread(this::volcarLotes, "bitacora-escritura");
+        this.escritor.setDaemon(true);
+        this.escritor.start();
+    }
+
+    /**
+     * Abre la bitácora del archivo dado, creándolo si no existe, y reproduce sus registros en orden.
+     *
+     * @param archivo Archivo de la bitácora.
+     * @param latenciaMaxima Tiempo máximo que un lote espera más registros antes de volcarse.
+     * @param alInsertar Recibe el id y los datos de cada inserción registrada.
+     * @param alEliminar Recibe el id de cada eliminación registrada.
+     * @return La bitácora, lista para agregar registros a continuación de los reproducidos.
+     * @throws IOException Si el archivo no se puede leer o no es una bitácora.
+     *
+     * Orden de tiempo de ejecución: O(tamaño del archivo)
+     */
+    public static BitacoraEscritura abrir(Path archivo, Duration latenciaMaxima, BiConsumer<Integer, String> alInsertar,
+                                          IntConsumer alEliminar) throws IOException {
+        if(latenciaMaxima.isNegative()) {
+            throw new IllegalArgumentException("La latencia máxima no puede ser negativa.");
+        }
+        return abrir(abrirArchivo(archivo), latenciaMaxima, alInsertar, alEliminar);
+    }
+
+    /**
+     * Abre el archivo de una bitácora para leerlo y agregarle registros, creándolo si no existe.
+     *
+     * @param archivo Archivo de la bitácora.
+     * @return El canal del archivo.
+     * @throws IOException Si el archivo no se puede abrir.
+     */
+    static FileChannel abrirArchivo(Path archivo) throws IOException {
+        return FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    /**
+     * Abre la bitácora sobre un canal ya abierto, como abrir(Path, ...). El canal pasa a ser de la bitácora, que lo
+     * cierra al cerrarse o si no se puede abrir.
+     *
+     * @param canal Canal del archivo de la bitácora, con permiso de lectura y escritura.
+     * @param latenciaMaxima Tiempo máximo que un lote espera más registros antes de volcarse.
+     * @param alInsertar Recibe el id y los datos de cada inserción registrada.
+     * @param alEliminar Recibe el id de cada eliminación registrada.
+     * @return La bitácora, lista para agregar registros a continuación de los reproducidos.
+     * @throws IOException Si el archivo no se puede leer o no es una bitácora.
+     */
+    static BitacoraEscritura abrir(FileChannel canal, Duration latenciaMaxima, BiConsumer<Integer, String> alInsertar,
+                                   IntConsumer alEliminar) throws IOException {
+        try {
+            if(latenciaMaxima.isNegative()) {
+                throw new IllegalArgumentException("La latencia máxima no puede ser negativa.");
+            }
+            long posicionFinal;
+            if(canal.size() == 0) {
+                ByteBuffer cabecera = ByteBuffer.allocate(Integer.BYTES).putInt(MAGICO).flip();
+                while(cabecera.hasRemaining()) {
+                    canal.write(cabecera);
+                }
+                canal.force(true);
+                posicionFinal = Integer.BYTES;
+            } else {
+                posicionFinal = reproducir(canal, alInsertar, alEliminar);
+                //Descartamos el registro incompleto que pudo dejar una interrupción
+                canal.truncate(posicionFinal);
+                canal.force(true);
+            }
+            canal.position(posicionFinal);
+            return new BitacoraEscritura(canal, posicionFinal, latenciaMaxima);
+        } catch(IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Lee los registros válidos desde el principio del archivo.
+     *
+     * @return La posición siguiente al último registro válido.
+     */
+    private static long reproducir(FileChannel canal, BiConsumer<Integer, String> alInsertar, IntConsumer alEliminar)
+            throws IOException {
+        canal.position(0);
+        InputStream sinCerrar = new BufferedInputStream(Channels.newInputStream(canal), TAMAÑO_BUFFER_INICIAL) {
+            @Override
+            public void close() {
+                //El canal lo sigue usando la bitácora
+            }
+        };
+        DataInputStream entrada = new DataInputStream(sinCerrar);
+        if(entrada.readInt() != MAGICO) {
+            throw new IOException("El archivo no es una bitácora de BaseDeDatos.");
+        }
+        long posicion = Integer.BYTES;
+        CRC32 crc = new CRC32();
+        ByteBuffer campos = ByteBuffer.allocate(1 + 2 * Integer.BYTES);
+        try {
+            while(true) {
+                crc.reset();
+                campos.clear();
+                byte tipo = entrada.readByte();
+                int id = entrada.readInt();
+                campos.put(tipo).putInt(id);
+                long largoRegistro = 1 + Integer.BYTES + Integer.BYTES;
+                if(tipo == TIPO_INSERCION) {
+                    int largo = entrada.readInt();
+                    //Un largo dañado o de un registro cortado no debe provocar una reserva enorme: se trata como
+                    //el final de la bitácora, igual que un CRC que no coincide
+                    if(largo < -1 || largo > canal.size() - posicion - largoRegistro - Integer.BYTES) {
+                        break;
+                    }
+                    campos.putInt(largo);
+                    crc.update(campos.array(), 0, campos.position());
+                    String datos = null;
+                    if(largo >= 0) {
+                        byte[] bytes = new byte[largo];
+                        entrada.readFully(bytes);
+                        crc.update(bytes);
+                        datos = new String(bytes, StandardCharsets.UTF_8);
+                        largoRegistro += largo;
+                    }
+                    largoRegistro += Integer.BYTES;
+                    if(entrada.readInt() != (int) crc.getValue()) {
+                        break;
+                    }
+                    alInsertar.accept(id, datos);
+                } else if(tipo == TIPO_ELIMINACION) {
+                    crc.update(campos.array(), 0, campos.position());
+                    if(entrada.readInt() != (int) crc.getValue()) {
+                        break;
+                    }
+                    alEliminar.accept(id);
+                } else {
+                    break;
+                }
+                posicion += largoRegistro;
+            }
+        } catch(EOFException e) {
+            //Fin del archivo, posiblemente a mitad de un registro
+        }
+        return posicion;
+    }
+
+    /**
+     * Agrega a la bitácora una inserción, sin esperar a que se confirme en disco.
+     *
+     * @param id Identificador del registro insertado.
+     * @param datos Datos del registro insertado.
+     * @return La posición que debe pasarse a esperarConfirmacion para esperar a que el registro sea durable.
+     * @throws UncheckedIOException Si falló la escritura de un lote anterior.
+     */
+    public long registrarInsercion(int id, String datos) {
+        byte[] bytes = datos == null ? null : datos.getBytes(StandardCharsets.UTF_8);
+        int largo = 1 + Integer.BYTES + Integer.BYTES + (bytes == null ? 0 : bytes.length) + Integer.BYTES;
+        lock.lock();
+        try {
+            ByteBuffer buffer = reservar(largo);
+            int inicio = buffer.position();
+            buffer.put(TIPO_INSERCION).putInt(id).putInt(bytes == null ? -1 : bytes.length);
+            if(bytes != null) {
+                buffer.put(bytes);
+            }
+            return cerrarRegistro(buffer, inicio);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Agrega a la bitácora una eliminación, sin esperar a que se confirme en disco.
+     *
+     * @param id Identificador del registro eliminado.
+     * @return La posición que debe pasarse a esperarConfirmacion para esperar a que el registro sea durable.
+     * @throws UncheckedIOException Si falló la escritura de un lote anterior.
+     */
+    public long registrarEliminacion(int id) {
+        lock.lock();
+        try {
+            ByteBuffer buffer = reservar(1 + Integer.BYTES + Integer.BYTES);
+            int inicio = buffer.position();
+            buffer.put(TIPO_ELIMINACION).putInt(id);
+            return cerrarRegistro(buffer, inicio);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Verifica que la bitácora siga admitiendo registros, para rechazar una operación antes de aplicarla si un lote
+     * anterior no se pudo escribir.
+     *
+     * @throws UncheckedIOException Si falló la escritura de un lote.
+     */
+    public void verificarEscritura() {
+        IOException fallo = error;
+        if(fallo != null) {
+            throw new UncheckedIOException("No se pudo escribir la bitácora.", fallo);
+        }
+    }
+
+    /**
+     * Asegura que el buffer pendiente tenga lugar para un registro del largo dado, agrandándolo si hace falta.
+     * Después de un error del hilo escritor no se admiten más registros, porque ya no se volcarían.
+     */
+    private ByteBuffer reservar(int largo) {
+        if(cerrada) {
+            throw new IllegalStateException("La bitácora está cerrada.");
+        }
+        verificarEscritura();
+        if(pendiente.remaining() < largo) {
+            ByteBuffer mayor = ByteBuffer.allocate(Math.max(pendiente.capacity() * 2, pendiente.position() + largo));
+            pendiente.flip();
+            mayor.put(pendiente);
+            pendiente = mayor;
+        }
+        return pendiente;
+    }
+
+    /**
+     * Agrega el CRC del registro que empieza en la posición dada y avisa al hilo escritor si hace falta.
+     */
+    private long cerrarRegistro(ByteBuffer buffer, int inicio) {
+        crc.reset();
+        crc.update(buffer.array(), inicio, buffer.position() - inicio);
+        buffer.putInt((int) crc.getValue());
+        posicionPendiente += buffer.position() - inicio;
+        if(inicio == 0) {
+            inicioLote = System.nanoTime();
+            hayPendientes.signal();
+        } else if(buffer.position() >= TAMAÑO_LOTE_MAXIMO) {
+            hayPendientes.signal();
+        }
+        return posicionPendiente;
+    }
+
+    /**
+     * Espera a que todos los registros hasta la posición dada estén confirmados en disco.
+     *
+     * @param posicion Posición devuelta al registrar la operación.
+     * @throws IOException Si falló la escritura del lote que contiene el registro.
+     */
+    public void esperarConfirmacion(long posicion) throws IOException {
+        lock.lock();
+        try {
+            while(posicionDurable < posicion) {
+                if(error != null) {
+                    throw new IOException("No se pudo escribir la bitácora.", error);
+                }
+                volcado.awaitUninterruptibly();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de veces que se forzó la escritura a disco, que con escritores concurrentes es mucho menor
+     * que la cantidad de registros.
+     *
+     * @return La cantidad de llamadas a force desde que se abrió la bitácora.
+     */
+    public long getSincronizaciones() {
+        lock.lock();
+        try {
+            return sincronizaciones;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Ciclo del hilo escritor: espera registros pendientes, deja pasar la latencia máxima para juntar más, intercambia
+     * los buffers y vuelca el lote fuera del lock, para que los escritores sigan agregando registros mientras tanto.
+     */
+    private void volcarLotes() {
+        while(true) {
+            ByteBuffer lote;
+            long hasta;
+            lock.lock();
+            try {
+                while(pendiente.position() == 0 && !cerrada) {
+                    hayPendientes.awaitUninterruptibly();
+                }
+                if(pendiente.position() == 0) {
+                    return;
+                }
+                long limite = inicioLote + latenciaMaximaNanos;
+                long restante;
+                while(!cerrada && pendiente.position() < TAMAÑO_LOTE_MAXIMO && (restante = limite - System.nanoTime()) > 0) {
+                    try {
+                        hayPendientes.awaitNanos(restante);
+                    } catch(InterruptedException e) {
+                        break;
+                    }
+                }
+                lote = pendiente;
+                pendiente = enEscritura;
+                enEscritura = lote;
+                hasta = posicionPendiente;
+            } finally {
+                lock.unlock();
+            }
+
+            IOException fallo = null;
+            try {
+                lote.flip();
+                while(lote.hasRemaining()) {
+                    canal.write(lote);
+                }
+                canal.force(false);
+            } catch(IOException e) {
+                fallo = e;
+            }
+            lote.clear();
+
+            lock.lock();
+            try {
+                if(fallo != null) {
+                    error = fallo;
+                    volcado.signalAll();
+                    return;
+                }
+                sincronizaciones++;
+                posicionDurable = hasta;
+                volcado.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Vuelca los registros pendientes, detiene el hilo escritor y cierra el archivo.
+     *
+     * @throws IOException Si falla el último volcado o el cierre del archivo.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if(cerrada) {
+                return;
+            }
+            cerrada = true;
+            hayPendientes.signal();
+        } finally {
+            lock.unlock();
+        }
+        try {
+            escritor.join(TimeUnit.SECONDS.toMillis(30));
+        } catch(InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        canal.close();
+        if(error != null) {
+            throw new IOException("No se pudo escribir la bitácora.", error);
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package Proyecto.Package;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Buffer de páginas de tamaño fijo de un archivo, con una cantidad configurable de marcos en memoria. Las páginas
+ * se fijan mientras se usan y se sueltan al terminar; al faltar lugar se reemplaza una página no fijada elegida con
+ * el algoritmo del reloj (CLOCK), que aproxima LRU sin reordenar una lista en cada acceso. Las páginas modificadas
+ * se escriben en el archivo recién al ser reemplazadas o al vaciar el buffer.
+ *
+ * No es seguro para uso concurrente; quien lo usa debe serializar los accesos.
+ */
+public class BufferPaginas implements Closeable {
+
+    /**
+     * Página cargada en un marco del buffer.
+     */
+    public static final class Pagina {
+        private final ByteBuffer datos; //Contenido de la página, respaldado por un arreglo
+        private int numero = -1;        //Número de página en el archivo, -1 si el marco está libre
+        private int fijaciones;         //Cantidad de usos en curso; una página fijada no se reemplaza
+        private boolean referenciada;   //Bit de referencia del reloj
+        private boolean modificada;     //Indica si hay que escribirla antes de reemplazarla
+
+        private Pagina(int tamañoPagina) {
+            this.datos = ByteBuffer.allocate(tamañoPagina);
+        }
+
+        /**
+         * @return El contenido de la página. Solo es válido mientras la página esté fijada.
+         */
+        public ByteBuffer getDatos() {
+            return datos;
+        }
+
+        /**
+         * @return El número de la página en el archivo.
+         */
+        public int getNumero() {
+            return numero;
+        }
+
+        /**
+         * Indica que el contenido de la página cambió y debe escribirse en el archivo.
+         */
+        public void marcarModificada() {
+            modificada = true;
+        }
+    }
+
+    private final FileChannel canal;
+    private final int tamañoPagina;
+    private final Pagina[] marcos;
+    private final Map<Integer, Pagina> paginas = new HashMap<>(); //Página cargada en cada marco, por número
+    private int manecilla;   //Próximo marco que examina el reloj
+    private long aciertos;   //Pedidos resueltos sin leer el archivo
+    private long lecturas;   //Páginas leídas del archivo
+    private long escrituras; //Páginas escritas en el archivo
+
+    /**
+     * Crea un buffer de páginas sobre un archivo abierto.
+     *
+     * @param canal Canal del archivo, abierto para lectura y escritura.
+     * @param tamañoPagina Tamaño de cada página en bytes.
+     * @param cantidadMarcos Cantidad de páginas que se mantienen en memoria.
+     */
+    public BufferPaginas(FileChannel canal, int tamañoPagina, int cantidadMarcos) {
+        if(cantidadMarcos < 1) {
+            throw new IllegalArgumentException("El buffer necesita al menos un marco.");
+        }
+        this.canal = canal;
+        this.tamañoPagina = tamañoPagina;
+        this.marcos = new Pagina[cantidadMarcos];
+        for(int i = 0; i < cantidadMarcos; i++) {
+            marcos[i] = new Pagina(tamañoPagina);
+        }
+    }
+
+    /**
+     * Fija una página, leyéndola del archivo si no está en memoria. Debe soltarse con soltar al terminar de usarla.
+     *
+     * @param numero Número de la página.
+     * @return La página fijada.
+     * @throws IOException Si falla la lectura de la página o la escritura de la página reemplazada.
+     *
+     * Orden de tiempo de ejecución: O(1) si la página está en memoria; una lectura de disco si no.
+     */
+    public Pagina fijar(int numero) throws IOException {
+        Pagina pagina = paginas.get(numero);
+        if(pagina != null) {
+            aciertos++;
+        } else {
+            pagina = reemplazar(numero);
+            ByteBuffer datos = pagina.datos.clear();
+            long posicion = (long) numero * tamañoPagina;
+            while(datos.hasRemaining()) {
+                if(canal.read(datos, posicion + datos.position()) < 0) {
+                    //Página reservada pero nunca escrita: se lee como ceros
+                    Arrays.fill(datos.array(), datos.position(), datos.limit(), (byte) 0);
+                    break;
+                }
+            }
+            datos.clear();
+            lecturas++;
+        }
+        pagina.fijaciones++;
+        pagina.referenciada = true;
+        return pagina;
+    }
+
+    /**
+     * Fija una página recién reservada sin leerla del archivo. Su contenido empieza en ceros y se marca modificada.
+     *
+     * @param numero Número de la página.
+     * @return La página fijada.
+     * @throws IOException Si falla la escritura de la página reemplazada.
+     */
+    public Pagina fijarNueva(int numero) throws IOException {
+        Pagina pagina = paginas.get(numero);
+        if(pagina == null) {
+            pagina = reemplazar(numero);
+        }
+        Arrays.fill(pagina.datos.array(), (byte) 0);
+        pagina.datos.clear();
+        pagina.fijaciones++;
+        pagina.referenciada = true;
+        pagina.modificada = true;
+        return pagina;
+    }
+
+    /**
+     * Suelta una página fijada, que a partir de entonces puede reemplazarse.
+     *
+     * @param pagina La página a soltar.
+     */
+    public void soltar(Pagina pagina) {
+        if(pagina.fijaciones == 0) {
+            throw new IllegalStateException("La página " + pagina.numero + " no está fijada.");
+        }
+        pagina.fijaciones--;
+    }
+
+    /**
+     * Elige con el reloj un marco con una página no fijada, escribe esa página si fue modificada y asigna el marco
+     * a la página dada.
+     */
+    private Pagina reemplazar(int numero) throws IOException {
+        //Dos vueltas alcanzan: la primera apaga los bits de referencia y la segunda encuentra un marco sin fijar
+        for(int revisados = 0; revisados < 2 * marcos.length; revisados++) {
+            Pagina candidata = marcos[manecilla];
+            manecilla = (manecilla + 1) % marcos.length;
+            if(candidata.fijaciones > 0) {
+                continue;
+            }
+            if(candidata.referenciada) {
+                candidata.referenciada = false;
+                continue;
+            }
+            if(candidata.numero >= 0) {
+                if(candidata.modificada) {
+                    escribir(candidata);
+                }
+                paginas.remove(candidata.numero);
+            }
+            candidata.numero = numero;
+            paginas.put(numero, candidata);
+            return candidata;
+        }
+        throw new IllegalStateException("Todas las páginas del buffer están fijadas.");
+    }
+
+    private void escribir(Pagina pagina) throws IOException {
+        ByteBuffer datos = pagina.datos.duplicate().clear();
+        long posicion = (long) pagina.numero * tamañoPagina;
+        while(datos.hasRemaining()) {
+            canal.write(datos, posicion + datos.position());
+        }
+        pagina.modificada = false;
+        escrituras++;
+    }
+
+    /**
+     * Escribe en el archivo todas las páginas modificadas y fuerza su escritura a disco.
+     *
+     * @throws IOException Si falla la escritura.
+     */
+    public void vaciar() throws IOException {
+        for(Pagina pagina : marcos) {
+            if(pagina.numero >= 0 && pagina.modificada) {
+                escribir(pagina);
+            }
+        }
+        canal.force(true);
+    }
+
+    /**
+     * @return El tamaño de las páginas en bytes.
+     */
+    public int getTamañoPagina() {
+        return tamañoPagina;
+    }
+
+    /**
+     * @return La cantidad de pedidos de páginas que ya estaban en memoria.
+     */
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * @return La cantidad de páginas leídas del archivo.
+     */
+    public long getLecturas() {
+        return lecturas;
+    }
+
+    /**
+     * @return La cantidad de páginas escritas en el archivo.
+     */
+    public long getEscrituras() {
+        return escrituras;
+    }
+
+    /**
+     * Vacía el buffer y cierra el archivo.
+     *
+     * @throws IOException Si falla la escritura de las páginas modificadas.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            vaciar();
+        } finally {
+            canal.close();
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package Proyecto.Package;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Caché acotada de registros por id que BaseDeDatos consulta antes de descender por el índice. Solo guarda
+ * registros presentes: un id buscado que no está en la base de datos siempre se busca en el índice.
+ *
+ * Con LRU la caché es un único LinkedHashMap ordenado por acceso. Con W-TinyLFU se divide en una ventana LRU con
+ * alrededor del 1% de la capacidad y una región principal SLRU con un segmento de prueba y uno protegido del 80%;
+ * el registro que sale de la ventana reemplaza a la víctima del segmento de prueba solo si su frecuencia estimada
+ * es mayor, y un registro del segmento de prueba que vuelve a pedirse pasa al protegido.
+ *
+ * Cada invalidación incrementa una generación. Quien no encuentra un registro lee la generación antes de buscarlo
+ * en el índice y lo agrega con ella, de modo que un registro leído antes de una modificación concurrente no vuelve
+ * a la caché después de invalidado.
+ *
+ * Todos los métodos se sincronizan sobre la caché, porque incluso una consulta reordena las listas.
+ */
+final class CacheRegistros {
+    private final int capacidadVentana;       //Registros de la ventana; con LRU es la caché entera
+    private final int capacidadPrincipal;     //Registros de la región principal, 0 con LRU
+    private final int capacidadProtegida;     //Registros del segmento protegido de la región principal
+    private final LinkedHashMap<Integer, RegistroBD> ventana = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<Integer, RegistroBD> prueba = new LinkedHashMap<>(16, 0.75f, true); //Admitidos de la ventana
+    private final LinkedHashMap<Integer, RegistroBD> protegida = new LinkedHashMap<>(16, 0.75f, true); //Pedidos de nuevo en prueba
+    private final BosquejoFrecuencias frecuencias; //Frecuencias estimadas de los ids pedidos, null con LRU
+    private long generacion;                  //Cantidad de invalidaciones realizadas
+    private long aciertos;                    //Consultas que encontraron el registro
+    private long fallos;                      //Consultas que no lo encontraron
+    private long desalojos;                   //Registros descartados por falta de lugar
+
+    /**
+     * Crea una caché vacía.
+     *
+     * @param capacidad Cantidad máxima de registros.
+     * @param politica Política de desalojo.
+     * @throws IllegalArgumentException Si la capacidad no es positiva.
+     */
+    CacheRegistros(int capacidad, PoliticaCache politica) {
+        if(capacidad < 1) {
+            throw new IllegalArgumentException("La capacidad de la caché debe ser positiva.");
+        }
+        if(politica == PoliticaCache.LRU) {
+            capacidadVentana = capacidad;
+            capacidadPrincipal = 0;
+            capacidadProtegida = 0;
+            frecuencias = null;
+        } else {
+            capacidadVentana = Math.max(1, capacidad / 100);
+            capacidadPrincipal = capacidad - capacidadVentana;
+            capacidadProtegida = capacidadPrincipal * 4 / 5;
+            frecuencias = new BosquejoFrecuencias(capacidad);
+        }
+    }
+
+    /**
+     * Busca un registro en la caché y registra el acceso.
+     *
+     * @param id Identificador del registro.
+     * @return El registro, o null si no está en la caché.
+     *
+     * Orden de tiempo de ejecución: O(1)
+     */
+    synchronized RegistroBD obtener(int id) {
+        if(frecuencias != null) {
+            frecuencias.incrementar(id);
+        }
+        RegistroBD registro = ventana.get(id);
+        if(registro == null) {
+            registro = protegida.get(id);
+        }
+        if(registro == null) {
+            registro = prueba.remove(id);
+            if(registro != null) {
+                proteger(id, registro);
+            }
+        }
+        if(registro == null) {
+            fallos++;
+        } else {
+            aciertos++;
+        }
+        return registro;
+    }
+
+    /**
+     * Obtiene la generación actual, que debe leerse antes de buscar en el índice el registro a agregar.
+     *
+     * @return La cantidad de invalidaciones realizadas.
+     */
+    synchronized long getGeneracion() {
+        return generacion;
+    }
+
+    /**
+     * Agrega un registro leído del índice, desalojando otro si la caché está llena. No hace nada si hubo una
+     * invalidación desde que se leyó la generación o si el id ya está en la caché.
+     *
+     * @param id Identificador del registro.
+     * @param registro Registro leído del índice.
+     * @param generacionLeida Generación leída antes de buscar el registro en el índice.
+     *
+     * Orden de tiempo de ejecución: O(1)
+     */
+    synchronized void agregar(int id, RegistroBD registro, long generacionLeida) {
+        if(generacionLeida != generacion || ventana.containsKey(id) || prueba.containsKey(id)
+                || protegida.containsKey(id)) {
+            return;
+        }
+        ventana.put(id, registro);
+        if(ventana.size() <= capacidadVentana) {
+            return;
+        }
+        Map.Entry<Integer, RegistroBD> candidato = quitarPrimero(ventana);
+        if(frecuencias == null) {
+            desalojos++;
+            return;
+        }
+        admitir(candidato.getKey(), candidato.getValue());
+    }
+
+    /**
+     * Ubica en la región principal al registro que salió de la ventana, si tiene lugar o si se pidió más veces que
+     * la víctima, que es el registro menos reciente del segmento de prueba.
+     */
+    private void admitir(int id, RegistroBD registro) {
+        if(prueba.size() + protegida.size() < capacidadPrincipal) {
+            prueba.put(id, registro);
+            return;
+        }
+        desalojos++;
+        LinkedHashMap<Integer, RegistroBD> region = prueba.isEmpty() ? protegida : prueba;
+        if(region.isEmpty()) {
+            return;
+        }
+        Map.Entry<Integer, RegistroBD> victima = region.entrySet().iterator().next();
+        if(frecuencias.frecuencia(id) > frecuencias.frecuencia(victima.getKey())) {
+            region.remove(victima.getKey());
+            prueba.put(id, registro);
+        }
+    }
+
+    /**
+     * Pasa un registro al segmento protegido, devolviendo al de prueba el menos reciente si el protegido se excede.
+     */
+    private void proteger(int id, RegistroBD registro) {
+        protegida.put(id, registro);
+        if(protegida.size() > capacidadProtegida) {
+            Map.Entry<Integer, RegistroBD> degradado = quitarPrimero(protegida);
+            prueba.put(degradado.getKey(), degradado.getValue());
+        }
+    }
+
+    /**
+     * Quita y devuelve el registro menos reciente de una lista, que es el primero en el orden de acceso.
+     */
+    private static Map.Entry<Integer, RegistroBD> quitarPrimero(LinkedHashMap<Integer, RegistroBD> lista) {
+        Iterator<Map.Entry<Integer, RegistroBD>> iterador = lista.entrySet().iterator();
+        Map.Entry<Integer, RegistroBD> primero = iterador.next();
+        Map.Entry<Integer, RegistroBD> quitado = Map.entry(primero.getKey(), primero.getValue());
+        iterador.remove();
+        return quitado;
+    }
+
+    /**
+     * Quita un registro de la caché.
+     *
+     * @param id Identificador del registro modificado.
+     */
+    synchronized void invalidar(int id) {
+        generacion++;
+        ventana.remove(id);
+        prueba.remove(id);
+        protegida.remove(id);
+    }
+
+    /**
+     * Vacía la caché, conservando los contadores y las frecuencias.
+     */
+    synchronized void invalidarTodo() {
+        generacion++;
+        ventana.clear();
+        prueba.clear();
+        protegida.clear();
+    }
+
+    synchronized int tamaño() {
+        return ventana.size() + prueba.size() + protegida.size();
+    }
+
+    synchronized long getAciertos() {
+        return aciertos;
+    }
+
+    synchronized long getFallos() {
+        return fallos;
+    }
+
+    synchronized long getDesalojos() {
+        return desalojos;
+    }
+
+    /**
+     * Bosquejo count-min de frecuencias con contadores de 4 bits. Cada id incrementa un contador en cada una de
+     * cuatro filas, todos dentro de los mismos cuatro longs, y su frecuencia estimada es el mínimo de los cuatro.
+     * Cada 10 accesos por registro de capacidad todos los contadores se reducen a la mitad, para que las
+     * frecuencias reflejen la popularidad reciente.
+     */
+    private static final class BosquejoFrecuencias {
+        private static final long[] SEMILLAS = {0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L, 0x9ae16a3b2f90404fL,
+                0xcbf29ce484222325L};
+        private static final long MASCARA_MITAD = 0x7777777777777777L; //Quita el bit que baja de cada contador
+        private final long[] tabla;       //Cada long guarda 16 contadores, 4 de cada fila
+        private final int tamañoMuestra;  //Incrementos tras los cuales se reducen los contadores
+        private int muestras;             //Incrementos desde la última reducción
+
+        BosquejoFrecuencias(int capacidad) {
+            int largo = Math.max(16, capacidad);
+            largo = largo >= 1 << 30 ? 1 << 30 : Integer.highestOneBit(largo - 1) << 1;
+            tabla = new long[largo];
+            tamañoMuestra = (int) Math.min(10L * capacidad, Integer.MAX_VALUE);
+        }
+
+        void incrementar(int clave) {
+            int hash = dispersar(clave);
+            int inicio = (hash & 3) << 2;
+            boolean incrementado = false;
+            for(int i = 0; i < 4; i++) {
+                incrementado |= incrementarEn(indice(hash, i), inicio + i);
+            }
+            if(incrementado && ++muestras >= tamañoMuestra) {
+                reducir();
+            }
+        }
+
+        int frecuencia(int clave) {
+            int hash = dispersar(clave);
+            int inicio = (hash & 3) << 2;
+            int minimo = 15;
+            for(int i = 0; i < 4; i++) {
+                int contador = (int) ((tabla[indice(hash, i)] >>> ((inicio + i) << 2)) & 0xfL);
+                minimo = Math.min(minimo, contador);
+            }
+            return minimo;
+        }
+
+        /**
+         * Incrementa el contador dado del long dado, salvo que esté saturado en 15.
+         */
+        private boolean incrementarEn(int i, int contador) {
+            int desplazamiento = contador << 2;
+            long mascara = 0xfL << desplazamiento;
+            if((tabla[i] & mascara) == mascara) {
+                return false;
+            }
+            tabla[i] += 1L << desplazamiento;
+            return true;
+        }
+
+        private int indice(int hash, int fila) {
+            long h = (hash + SEMILLAS[fila]) * SEMILLAS[fila];
+            h += h >>> 32;
+            return (int) h & (tabla.length - 1);
+        }
+
+        /**
+         * Mezcla los bits del id para que ids consecutivos caigan en posiciones no relacionadas de la tabla.
+         */
+        private static int dispersar(int x) {
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            x = ((x >>> 16) ^ x) * 0x45d9f3b;
+            return (x >>> 16) ^ x;
+        }
+
+        private void reducir() {
+            for(int i = 0; i < tabla.length; i++) {
+                tabla[i] = (tabla[i] >>> 1) & MASCARA_MITAD;
+            }
+            muestras /= 2;
+        }
+    }
+}
@@ -0,0 +1,630 @@
+package Proyecto.Package;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.function.Function;
+import java.util.function.ToIntFunction;
+
+@SuppressWarnings({"rawtypes"})
+/**
+ * Clase encargada de construir árboles B de abajo hacia arriba a partir de elementos ordenados por clave.
+ * En lugar de insertar los elementos uno a uno, con un descenso y posibles divisiones por cada uno, las hojas
+ * se llenan de izquierda a derecha hasta el factor de llenado y cada vez que una hoja se completa la clave
+ * siguiente sube como separadora al nivel superior. Solo se mantiene abierto el nodo más a la derecha de cada
+ * nivel, por lo que la construcción es O(n) y no necesita más memoria que el propio árbol.
+ *
+ * Al terminar, los nodos del borde derecho pueden haber quedado con menos claves que el mínimo; se completan
+ * tomando claves prestadas de su hermano izquierdo o combinándose con él.
+ */
+public class CargadorMasivoArbolB {
+
+    /**
+     * Cantidad de registros que se ordenan en memoria y se escriben juntos en un archivo temporal al cargar
+     * registros desordenados con ordenarRegistrosEnDisco.
+     */
+    public static final int REGISTROS_POR_TRAMO_POR_DEFECTO = 1 << 18;
+
+    /**
+     * Factor de llenado de las hojas al reconstruir un árbol que seguirá recibiendo inserciones, como al fusionar.
+     * Deja lugar en cada hoja para insertar sin dividirla de inmediato.
+     */
+    public static final double FACTOR_LLENADO_POR_DEFECTO = 0.75;
+
+    private CargadorMasivoArbolB() {
+    }
+
+    /**
+     * Construye un árbol B a partir de pares (clave, dato) ordenados de forma ascendente por clave.
+     * Si una clave se repite se conserva el primer dato, igual que al insertar una clave duplicada.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param entradasOrdenadas Iterador de pares ordenados por clave.
+     * @param factorLlenado Fracción de las 2t - 1 claves que se ocupan en cada hoja, en el intervalo (0, 1].
+     * @return El árbol construido.
+     *
+     * Precondiciones:
+     * - Las claves deben estar ordenadas de forma ascendente y no ser nulas.
+     *
+     * Postcondiciones:
+     * - Las hojas tienen la cantidad de claves indicada por el factor de llenado, con un mínimo de t - 1,
+     *   salvo las del borde derecho, que pueden tener más para cumplir el mínimo.
+     * - Los nodos internos se llenan por completo para minimizar la altura.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     *
+     * @throws IllegalArgumentException Si las claves no están ordenadas o el factor de llenado es inválido.
+     */
+    public static <T> TArbolB<T> construir(int t, Iterator<? extends Map.Entry<? extends Comparable, ? extends T>> entradasOrdenadas,
+                                           double factorLlenado) {
+        int clavesPorHoja = calcularClavesPorHoja(t, factorLlenado);
+        List<TElementoB<T>> abiertos = new ArrayList<>(); //Nodo más a la derecha de cada nivel, el 0 es el de las hojas
+        Comparable anterior = null;
+
+        while(entradasOrdenadas.hasNext()) {
+            Map.Entry<? extends Comparable, ? extends T> entrada = entradasOrdenadas.next();
+            Comparable clave = entrada.getKey();
+            if(anterior != null) {
+                int comparacion = TElementoB.comparar(anterior, clave);
+                if(comparacion == 0) {
+                    continue;
+                }
+                if(comparacion > 0) {
+                    throw new IllegalArgumentException("Las claves deben estar ordenadas de forma ascendente.");
+                }
+            }
+            anterior = clave;
+
+            if(abiertos.isEmpty()) {
+                abiertos.add(new TElementoB<>(t));
+            }
+            TElementoB<T> hoja = abiertos.getFirst();
+            if(hoja.getNumClaves() < clavesPorHoja) {
+                hoja.agregarAlFinal(clave, entrada.getValue());
+            } else {
+                //La hoja está completa: la clave sube como separadora y la hoja siguiente empieza vacía
+                TElementoB<T> nuevaHoja = new TElementoB<>(t);
+                subir(abiertos, 1, clave, entrada.getValue(), nuevaHoja, t);
+                abiertos.set(0, nuevaHoja);
+            }
+        }
+
+        if(abiertos.isEmpty()) {
+            return new TArbolB<>(t);
+        }
+        TElementoB<T> raiz = completarBordeDerecho(abiertos.getLast(), t);
+        //Cada nodo se agregó a su padre vacío, así que los tamaños de los subárboles se calculan al final
+        raiz.recalcularTamaños();
+        return new TArbolB<>(t, raiz);
+    }
+
+    /**
+     * Construye un árbol B a partir de pares (clave, dato) en cualquier orden, ordenándolos primero en memoria.
+     * Si una clave se repite se conserva el primer dato recibido.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param entradas Iterador de pares en cualquier orden.
+     * @param factorLlenado Fracción de las 2t - 1 claves que se ocupan en cada hoja, en el intervalo (0, 1].
+     * @return El árbol construido.
+     *
+     * Orden de tiempo de ejecución: O(n log n)
+     */
+    public static <T> TArbolB<T> construirDesordenado(int t, Iterator<? extends Map.Entry<? extends Comparable, ? extends T>> entradas,
+                                                      double factorLlenado) {
+        Comparator<Map.Entry<? extends Comparable, ? extends T>> porClave = (a, b) -> TElementoB.comparar(a.getKey(), b.getKey());
+        return construir(t, ordenar(entradas, porClave), factorLlenado);
+    }
+
+    /**
+     * Construye un árbol B de claves enteras a partir de datos ordenados de forma ascendente por la clave que
+     * se obtiene de cada uno. Si una clave se repite se conserva el primer dato.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param datosOrdenados Iterador de datos ordenados por clave.
+     * @param obtenerClave Función que obtiene la clave entera de cada dato.
+     * @param factorLlenado Fracción de las 2t - 1 claves que se ocupan en cada hoja, en el intervalo (0, 1].
+     * @return El árbol construido.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     *
+     * @throws IllegalArgumentException Si las claves no están ordenadas o el factor de llenado es inválido.
+     */
+    public static <T> TArbolBEntero<T> construirEntero(int t, Iterator<? extends T> datosOrdenados,
+                                                       ToIntFunction<? super T> obtenerClave, double factorLlenado) {
+        return construirEntero(t, datosOrdenados, obtenerClave, Function.identity(), factorLlenado);
+    }
+
+    /**
+     * Construye un árbol B de claves enteras a partir de pares (clave, dato) ordenados de forma ascendente por
+     * clave. Si una clave se repite se conserva el primer dato.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param entradasOrdenadas Iterador de pares ordenados por clave.
+     * @param factorLlenado Fracción de las 2t - 1 claves que se ocupan en cada hoja, en el intervalo (0, 1].
+     * @return El árbol construido.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     *
+     * @throws IllegalArgumentException Si las claves no están ordenadas o el factor de llenado es inválido.
+     */
+    public static <T> TArbolBEntero<T> construirEnteroDesdeEntradas(int t, Iterator<? extends Map.Entry<Integer, ? extends T>> entradasOrdenadas,
+                                                                    double factorLlenado) {
+        return construirEntero(t, entradasOrdenadas, Map.Entry::getKey, Map.Entry::getValue, factorLlenado);
+    }
+
+    private static <E, T> TArbolBEntero<T> construirEntero(int t, Iterator<? extends E> elementosOrdenados, ToIntFunction<? super E> obtenerClave,
+                                                           Function<? super E, ? extends T> obtenerDato, double factorLlenado) {
+        int clavesPorHoja = calcularClavesPorHoja(t, factorLlenado);
+        List<TElementoBEntero<T>> abiertos = new ArrayList<>(); //Nodo más a la derecha de cada nivel, el 0 es el de las hojas
+        int anterior = 0;
+
+        while(elementosOrdenados.hasNext()) {
+            E elemento = elementosOrdenados.next();
+            int clave = obtenerClave.applyAsInt(elemento);
+            if(!abiertos.isEmpty()) {
+                if(clave == anterior) {
+                    continue;
+                }
+                if(clave < anterior) {
+                    throw new IllegalArgumentException("Las claves deben estar ordenadas de forma ascendente.");
+                }
+            }
+            anterior = clave;
+            T dato = obtenerDato.apply(elemento);
+
+            if(abiertos.isEmpty()) {
+                abiertos.add(new TElementoBEntero<>(t, true));
+            }
+            TElementoBEntero<T> hoja = abiertos.getFirst();
+            if(hoja.getNumClaves() < clavesPorHoja) {
+                hoja.agregarAlFinal(clave, dato);
+            } else {
+                //La hoja está completa: la clave sube como separadora y la hoja siguiente empieza vacía
+                TElementoBEntero<T> nuevaHoja = new TElementoBEntero<>(t, true);
+                subirEntero(abiertos, 1, clave, dato, nuevaHoja, t);
+                abiertos.set(0, nuevaHoja);
+            }
+        }
+
+        if(abiertos.isEmpty()) {
+            return new TArbolBEntero<>(t);
+        }
+        TElementoBEntero<T> raiz = completarBordeDerechoEntero(abiertos.getLast(), t);
+        raiz.recalcularTamaños();
+        return new TArbolBEntero<>(t, raiz);
+    }
+
+    /**
+     * Construye un árbol B de claves enteras a partir de datos en cualquier orden, ordenándolos primero en
+     * memoria. Si una clave se repite se conserva el primer dato recibido.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param datos Iterador de datos en cualquier orden.
+     * @param obtenerClave Función que obtiene la clave entera de cada dato.
+     * @param factorLlenado Fracción de las 2t - 1 claves que se ocupan en cada hoja, en el intervalo (0, 1].
+     * @return El árbol construido.
+     *
+     * Orden de tiempo de ejecución: O(n log n)
+     */
+    public static <T> TArbolBEntero<T> construirEnteroDesordenado(int t, Iterator<? extends T> datos, ToIntFunction<? super T> obtenerClave,
+                                                                  double factorLlenado) {
+        Comparator<T> porClave = Comparator.comparingInt(obtenerClave);
+        return construirEntero(t, ordenar(datos, porClave), obtenerClave, factorLlenado);
+    }
+
+    /**
+     * Construye un árbol B+ a partir de pares (clave, dato) ordenados de forma ascendente por clave. Las hojas se
+     * llenan y enlazan de izquierda a derecha; después cada nivel interno se arma repartiendo en partes iguales
+     * los nodos del nivel inferior, con la menor clave de cada subárbol como separadora. Si una clave se repite
+     * se conserva el primer dato.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param entradasOrdenadas Iterador de pares ordenados por clave.
+     * @param factorLlenado Fracción de las 2t - 1 claves que se ocupan en cada hoja, en el intervalo (0, 1].
+     * @return El árbol construido.
+     *
+     * Precondiciones:
+     * - Las claves deben estar ordenadas de forma ascendente y no ser nulas.
+     *
+     * Postcondiciones:
+     * - Las hojas tienen la cantidad de claves indicada por el factor de llenado, con un mínimo de t - 1,
+     *   salvo las dos últimas, que se reparten las claves restantes para cumplir el mínimo.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     *
+     * @throws IllegalArgumentException Si las claves no están ordenadas o el factor de llenado es inválido.
+     */
+    public static <T> TArbolBMas<T> construirMas(int t, Iterator<? extends Map.Entry<? extends Comparable, ? extends T>> entradasOrdenadas,
+                                                 double factorLlenado) {
+        int clavesPorHoja = calcularClavesPorHoja(t, factorLlenado);
+        List<TElementoBMas<T>> nivel = new ArrayList<>();
+        Comparable anterior = null;
+        TElementoBMas<T> hoja = null;
+
+        while(entradasOrdenadas.hasNext()) {
+            Map.Entry<? extends Comparable, ? extends T> entrada = entradasOrdenadas.next();
+            Comparable clave = entrada.getKey();
+            if(anterior != null) {
+                int comparacion = TElementoB.comparar(anterior, clave);
+                if(comparacion == 0) {
+                    continue;
+                }
+                if(comparacion > 0) {
+                    throw new IllegalArgumentException("Las claves deben estar ordenadas de forma ascendente.");
+                }
+            }
+            anterior = clave;
+
+            if(hoja == null || hoja.getNumClaves() == clavesPorHoja) {
+                TElementoBMas<T> nuevaHoja = new TElementoBMas<>(t, true);
+                if(hoja != null) {
+                    hoja.enlazarSiguiente(nuevaHoja);
+                }
+                hoja = nuevaHoja;
+                nivel.add(hoja);
+            }
+            hoja.agregarAlFinal(clave, entrada.getValue());
+        }
+
+        if(nivel.isEmpty()) {
+            return new TArbolBMas<>(t);
+        }
+        //La última hoja puede haber quedado con menos del mínimo: se combina con la anterior o se reparten las claves
+        if(nivel.size() > 1 && hoja.getNumClaves() < t - 1) {
+            TElementoBMas<T> previa = nivel.get(nivel.size() - 2);
+            int total = previa.getNumClaves() + hoja.getNumClaves();
+            if(total <= 2 * t - 1) {
+                previa.absorberSiguiente();
+                nivel.removeLast();
+            } else {
+                previa.moverUltimasASiguiente(total / 2 - hoja.getNumClaves());
+            }
+        }
+
+        List<Comparable> minimos = new ArrayList<>(nivel.size()); //Menor clave del subárbol de cada nodo del nivel
+        for(TElementoBMas<T> h : nivel) {
+            minimos.add(h.getClave(0));
+        }
+        while(nivel.size() > 1) {
+            //Cada padre recibe entre t y 2t hijos, repartidos en partes iguales
+            int cantidadPadres = (nivel.size() + 2 * t - 1) / (2 * t);
+            List<TElementoBMas<T>> padres = new ArrayList<>(cantidadPadres);
+            List<Comparable> minimosPadres = new ArrayList<>(cantidadPadres);
+            int siguienteHijo = 0;
+            for(int p = 0; p < cantidadPadres; p++) {
+                int cantidadHijos = nivel.size() / cantidadPadres + (p < nivel.size() % cantidadPadres ? 1 : 0);
+                TElementoBMas<T> padre = new TElementoBMas<>(t, false);
+                minimosPadres.add(minimos.get(siguienteHijo));
+                for(int h = 0; h < cantidadHijos; h++, siguienteHijo++) {
+                    padre.agregarHijoAlFinal(h == 0 ? null : minimos.get(siguienteHijo), nivel.get(siguienteHijo));
+                }
+                padres.add(padre);
+            }
+            nivel = padres;
+            minimos = minimosPadres;
+        }
+        return new TArbolBMas<>(t, nivel.getFirst());
+    }
+
+    /**
+     * Construye un árbol B+ a partir de pares (clave, dato) en cualquier orden, ordenándolos primero en memoria.
+     * Si una clave se repite se conserva el primer dato recibido.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param entradas Iterador de pares en cualquier orden.
+     * @param factorLlenado Fracción de las 2t - 1 claves que se ocupan en cada hoja, en el intervalo (0, 1].
+     * @return El árbol construido.
+     *
+     * Orden de tiempo de ejecución: O(n log n)
+     */
+    public static <T> TArbolBMas<T> construirMasDesordenado(int t, Iterator<? extends Map.Entry<? extends Comparable, ? extends T>> entradas,
+                                                            double factorLlenado) {
+        Comparator<Map.Entry<? extends Comparable, ? extends T>> porClave = (a, b) -> TElementoB.comparar(a.getKey(), b.getKey());
+        return construirMas(t, ordenar(entradas, porClave), factorLlenado);
+    }
+
+    /**
+     * Ordena en memoria los elementos del iterador dado con un único ordenamiento estable, de modo que ante
+     * elementos iguales se devuelve primero el que apareció antes en la entrada. Para registros que no entran en
+     * memoria está ordenarRegistrosEnDisco.
+     *
+     * @param elementos Iterador de elementos en cualquier orden.
+     * @param comparador Comparador que define el orden.
+     * @return Un iterador que recorre los elementos en orden.
+     *
+     * Orden de tiempo de ejecución: O(n log n)
+     */
+    public static <E> Iterator<E> ordenar(Iterator<? extends E> elementos, Comparator<? super E> comparador) {
+        List<E> lista = new ArrayList<>();
+        elementos.forEachRemaining(lista::add);
+        lista.sort(comparador);
+        return lista.iterator();
+    }
+
+    /**
+     * Ordena registros por id con un ordenamiento externo: los registros se leen en tramos de registrosPorTramo,
+     * cada tramo se ordena en memoria y se escribe en un archivo temporal con el formato de InstantaneaIndice, y el
+     * iterador resultante intercala los tramos proyectando los archivos en memoria. Así, a lo sumo un tramo ocupa
+     * el heap a la vez; si todos los registros entran en un tramo no se escribe ningún archivo. Si un id se repite,
+     * dentro de un tramo se conserva el primer registro y entre tramos se devuelve primero el del tramo anterior,
+     * por lo que los cargadores, que descartan las claves repetidas, conservan el primer registro recibido.
+     *
+     * Los archivos temporales se borran en cuanto se proyectan; el espacio en disco se libera al recorrer o
+     * descartar el iterador.
+     *
+     * @param registros Registros en cualquier orden.
+     * @param registrosPorTramo Cantidad máxima de registros que se ordenan juntos en memoria.
+     * @return Un iterador que recorre los registros ordenados por id.
+     * @throws IOException Si no se pueden escribir o leer los archivos temporales.
+     * @throws IllegalArgumentException Si la cantidad de registros por tramo no es positiva.
+     *
+     * Orden de tiempo de ejecución: O(n log n)
+     */
+    public static Iterator<RegistroBD> ordenarRegistrosEnDisco(Iterator<RegistroBD> registros, int registrosPorTramo)
+            throws IOException {
+        if(registrosPorTramo < 1) {
+            throw new IllegalArgumentException("La cantidad de registros por tramo debe ser positiva.");
+        }
+        List<Iterator<RegistroBD>> tramos = new ArrayList<>();
+        while(registros.hasNext()) {
+            List<RegistroBD> tramo = new ArrayList<>();
+            while(tramo.size() < registrosPorTramo && registros.hasNext()) {
+                tramo.add(registros.next());
+            }
+            tramo.sort(Comparator.comparingInt(RegistroBD::getId)); //Ordenamiento estable
+            //La instantánea no admite ids repetidos: se conserva el primero de cada id
+            int cantidad = 0;
+            for(RegistroBD registro : tramo) {
+                if(cantidad == 0 || tramo.get(cantidad - 1).getId() != registro.getId()) {
+                    tramo.set(cantidad++, registro);
+                }
+            }
+            tramo.subList(cantidad, tramo.size()).clear();
+            if(tramos.isEmpty() && !registros.hasNext()) {
+                return tramo.iterator();
+            }
+            Path archivo = Files.createTempFile("tramo", ".bdi");
+            try {
+                InstantaneaIndice.escribir(archivo, tramo.iterator());
+                tramos.add(InstantaneaIndice.leer(archivo));
+            } finally {
+                borrar(archivo);
+            }
+        }
+        return new IteradorIntercalado<>(tramos, Comparator.comparingInt(RegistroBD::getId));
+    }
+
+    /**
+     * Borra un archivo temporal. Si el sistema no permite borrar un archivo proyectado en memoria, se borra al
+     * terminar el programa.
+     */
+    private static void borrar(Path archivo) {
+        try {
+            Files.deleteIfExists(archivo);
+        } catch(IOException e) {
+            archivo.toFile().deleteOnExit();
+        }
+    }
+
+    /**
+     * Intercala dos secuencias de pares ordenadas por clave en una sola secuencia ordenada. Cuando ambas
+     * contienen la misma clave se devuelve un único par, cuyo dato decide la política de duplicados.
+     *
+     * @param izquierda Pares ordenados por clave, sin claves repetidas.
+     * @param derecha Pares ordenados por clave, sin claves repetidas.
+     * @param politica Política que resuelve las claves presentes en ambas secuencias.
+     * @return Un iterador que recorre la unión de ambas secuencias en orden.
+     *
+     * Orden de tiempo de ejecución: O(n + m)
+     */
+    public static <K extends Comparable, T> Iterator<Map.Entry<K, T>> fusionar(Iterator<? extends Map.Entry<? extends K, ? extends T>> izquierda,
+                                                                             Iterator<? extends Map.Entry<? extends K, ? extends T>> derecha,
+                                                                             PoliticaDuplicados<T> politica) {
+        return new IteradorFusion<>(izquierda, derecha, politica);
+    }
+
+    /**
+     * Calcula cuántas claves se ocupan en cada hoja a partir del factor de llenado.
+     */
+    private static int calcularClavesPorHoja(int t, double factorLlenado) {
+        if(t < 2) {
+            throw new IllegalArgumentException("El grado mínimo debe ser al menos 2.");
+        }
+        if(!(factorLlenado > 0 && factorLlenado <= 1)) {
+            throw new IllegalArgumentException("El factor de llenado debe estar en el intervalo (0, 1].");
+        }
+        int maximo = 2 * t - 1;
+        return Math.max(t - 1, Math.min(maximo, (int) Math.round(factorLlenado * maximo)));
+    }
+
+    /**
+     * Agrega una clave separadora y el hijo a su derecha al nodo abierto del nivel dado. Si ese nodo está lleno,
+     * la clave sube al nivel superior y el hijo pasa a ser el primero de un nuevo nodo abierto.
+     */
+    private static <T> void subir(List<TElementoB<T>> abiertos, int nivel, Comparable clave, Object dato,
+                                  TElementoB<T> hijoDerecho, int t) {
+        if(nivel == abiertos.size()) {
+            //El árbol crece un nivel: la nueva raíz tiene como primer hijo al nodo abierto del nivel inferior
+            TElementoB<T> nuevaRaiz = new TElementoB<>(t);
+            nuevaRaiz.agregarHijoAlFinal(abiertos.get(nivel - 1));
+            abiertos.add(nuevaRaiz);
+        }
+        TElementoB<T> nodo = abiertos.get(nivel);
+        if(nodo.getNumClaves() < 2 * t - 1) {
+            nodo.agregarAlFinal(clave, dato);
+            nodo.agregarHijoAlFinal(hijoDerecho);
+        } else {
+            TElementoB<T> nuevo = new TElementoB<>(t);
+            nuevo.agregarHijoAlFinal(hijoDerecho);
+            subir(abiertos, nivel + 1, clave, dato, nuevo, t);
+            abiertos.set(nivel, nuevo);
+        }
+    }
+
+    private static <T> void subirEntero(List<TElementoBEntero<T>> abiertos, int nivel, int clave, Object dato,
+                                        TElementoBEntero<T> hijoDerecho, int t) {
+        if(nivel == abiertos.size()) {
+            TElementoBEntero<T> nuevaRaiz = new TElementoBEntero<>(t, false);
+            nuevaRaiz.agregarHijoAlFinal(abiertos.get(nivel - 1));
+            abiertos.add(nuevaRaiz);
+        }
+        TElementoBEntero<T> nodo = abiertos.get(nivel);
+        if(nodo.getNumClaves() < 2 * t - 1) {
+            nodo.agregarAlFinal(clave, dato);
+            nodo.agregarHijoAlFinal(hijoDerecho);
+        } else {
+            TElementoBEntero<T> nuevo = new TElementoBEntero<>(t, false);
+            nuevo.agregarHijoAlFinal(hijoDerecho);
+            subirEntero(abiertos, nivel + 1, clave, dato, nuevo, t);
+            abiertos.set(nivel, nuevo);
+        }
+    }
+
+    /**
+     * Recorre el borde derecho desde la raíz y deja cada nodo con al menos t claves, tomando prestado de su
+     * hermano izquierdo o combinándose con él. Se exige t y no t - 1 para que el nodo siga cumpliendo el mínimo
+     * si su propio último hijo se combina después con el anterior.
+     *
+     * @return La raíz del árbol, que cambia si la raíz original se queda sin claves.
+     */
+    private static <T> TElementoB<T> completarBordeDerecho(TElementoB<T> raiz, int t) {
+        TElementoB<T> padre = raiz;
+        while(!padre.esHoja()) {
+            TElementoB<T> hijo = padre.getHijo(padre.getNumClaves());
+            while(hijo.getNumClaves() < t && padre.getNumClaves() > 0) {
+                padre.rellenar(padre.getNumClaves());
+                hijo = padre.getHijo(padre.getNumClaves());
+            }
+            if(padre == raiz && raiz.getNumClaves() == 0) {
+                raiz = hijo;
+            }
+            padre = hijo;
+        }
+        return raiz;
+    }
+
+    private static <T> TElementoBEntero<T> completarBordeDerechoEntero(TElementoBEntero<T> raiz, int t) {
+        TElementoBEntero<T> padre = raiz;
+        while(!padre.esHoja()) {
+            TElementoBEntero<T> hijo = padre.getHijo(padre.getNumClaves());
+            while(hijo.getNumClaves() < t && padre.getNumClaves() > 0) {
+                padre.rellenar(padre.getNumClaves());
+                hijo = padre.getHijo(padre.getNumClaves());
+            }
+            if(padre == raiz && raiz.getNumClaves() == 0) {
+                raiz = hijo;
+            }
+            padre = hijo;
+        }
+        return raiz;
+    }
+
+    /**
+     * Iterador que intercala dos secuencias ordenadas por clave, resolviendo las claves repetidas con una política.
+     */
+    private static class IteradorFusion<K extends Comparable, T> implements Iterator<Map.Entry<K, T>> {
+        private final Iterator<? extends Map.Entry<? extends K, ? extends T>> izquierda;
+        private final Iterator<? extends Map.Entry<? extends K, ? extends T>> derecha;
+        private final PoliticaDuplicados<T> politica;
+        private Map.Entry<? extends K, ? extends T> actualIzquierda; //Próximo par de la izquierda, null si se agotó
+        private Map.Entry<? extends K, ? extends T> actualDerecha;   //Próximo par de la derecha, null si se agotó
+
+        IteradorFusion(Iterator<? extends Map.Entry<? extends K, ? extends T>> izquierda,
+                       Iterator<? extends Map.Entry<? extends K, ? extends T>> derecha, PoliticaDuplicados<T> politica) {
+            this.izquierda = izquierda;
+            this.derecha = derecha;
+            this.politica = politica;
+            this.actualIzquierda = izquierda.hasNext() ? izquierda.next() : null;
+            this.actualDerecha = derecha.hasNext() ? derecha.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return actualIzquierda != null || actualDerecha != null;
+        }
+
+        @Override
+        public Map.Entry<K, T> next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            int comparacion;
+            if(actualIzquierda == null) {
+                comparacion = 1;
+            } else if(actualDerecha == null) {
+                comparacion = -1;
+            } else {
+                comparacion = TElementoB.comparar(actualIzquierda.getKey(), actualDerecha.getKey());
+            }
+
+            Map.Entry<K, T> resultado;
+            if(comparacion < 0) {
+                resultado = new AbstractMap.SimpleImmutableEntry<>(actualIzquierda.getKey(), actualIzquierda.getValue());
+                actualIzquierda = izquierda.hasNext() ? izquierda.next() : null;
+            } else if(comparacion > 0) {
+                resultado = new AbstractMap.SimpleImmutableEntry<>(actualDerecha.getKey(), actualDerecha.getValue());
+                actualDerecha = derecha.hasNext() ? derecha.next() : null;
+            } else {
+                K clave = actualIzquierda.getKey();
+                resultado = new AbstractMap.SimpleImmutableEntry<>(clave,
+                        politica.resolver(clave, actualIzquierda.getValue(), actualDerecha.getValue()));
+                actualIzquierda = izquierda.hasNext() ? izquierda.next() : null;
+                actualDerecha = derecha.hasNext() ? derecha.next() : null;
+            }
+            return resultado;
+        }
+    }
+
+    /**
+     * Iterador que intercala tramos ordenados tomando siempre el menor elemento pendiente. Ante elementos
+     * iguales devuelve primero el del tramo anterior, que es el que apareció antes en la entrada.
+     */
+    private static class IteradorIntercalado<E> implements Iterator<E> {
+        private final List<Iterator<E>> tramos;
+        private final List<E> actuales; //Próximo elemento de cada tramo
+        private final PriorityQueue<Integer> pendientes; //Índices de los tramos que aún tienen elementos
+
+        IteradorIntercalado(List<Iterator<E>> tramos, Comparator<? super E> comparador) {
+            this.tramos = tramos;
+            this.actuales = new ArrayList<>(tramos.size());
+            Comparator<Integer> porElementoActual = (a, b) -> comparador.compare(actuales.get(a), actuales.get(b));
+            this.pendientes = new PriorityQueue<>(Math.max(1, tramos.size()), porElementoActual.thenComparing(Comparator.naturalOrder()));
+            //Ningún tramo está vacío
+            for(int i = 0; i < tramos.size(); i++) {
+                actuales.add(tramos.get(i).next());
+                pendientes.add(i);
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !pendientes.isEmpty();
+        }
+
+        @Override
+        public E next() {
+            if(pendientes.isEmpty()) {
+                throw new NoSuchElementException();
+            }
+            int tramo = pendientes.poll();
+            E elemento = actuales.get(tramo);
+            Iterator<E> siguientes = tramos.get(tramo);
+            if(siguientes.hasNext()) {
+                actuales.set(tramo, siguientes.next());
+                pendientes.add(tramo);
+            } else {
+                actuales.set(tramo, null);
+                tramos.set(tramo, null); //Liberamos el tramo agotado y sus proyecciones
+            }
+            return elemento;
+        }
+    }
+}
@@ -1,13 +1,20 @@
 package Proyecto.Package;
 
+import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Interfaz para la estructura de datos de un Árbol B.
  *
  * @param <T> El tipo de los datos que contendrán los elementos del árbol.
  */
-public interface IArbolB<T> {
+@SuppressWarnings({"rawtypes"})
+public interface IArbolB<T> extends Iterable<T> {
     /**
      * Inserta un elemento en el árbol B. Si ya existe un elemento con la misma clave la inserción no se realiza y por lo tanto retornamos falso
      *
@@ -136,6 +143,177 @@ public interface IArbolB<T> {
      * Orden de tiempo de ejecución: O(n log n)
      */
     boolean merge(TArbolB<T> otroArbol);
-}
 
+    /**
+     * Obtiene un iterador que recorre los datos del árbol en inorden de forma perezosa, sin construir una lista
+     * intermedia, por lo que el recorrido puede terminarse en cualquier momento sin haber visitado todo el árbol.
+     *
+     * @return Un iterador sobre los datos del árbol ordenados por clave.
+     *
+     * Precondiciones:
+     * El árbol no debe modificarse mientras se usa el iterador.
+     *
+     * Postcondiciones:
+     * La estructura del árbol no se modifica.
+     *
+     * Orden de tiempo de ejecución: O(1) amortizado por elemento, O(log n) de memoria.
+     */
+    @Override
+    Iterator<T> iterator();
+
+    /**
+     * Obtiene un Stream secuencial sobre los datos del árbol en inorden, sin copiarlos.
+     *
+     * @return Un Stream de los datos del árbol ordenados por clave.
+     */
+    default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Obtiene un Stream paralelo sobre los datos del árbol en inorden, sin copiarlos.
+     *
+     * @return Un Stream paralelo de los datos del árbol ordenados por clave.
+     */
+    default Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
+
+    /**
+     * Obtiene un iterador sobre los datos cuyas claves están en el rango dado. El iterador desciende hasta el
+     * extremo por donde empieza el rango y desde allí avanza por los nodos del árbol hasta pasar el otro extremo,
+     * sin recorrer el resto del árbol.
+     *
+     * @param desde Extremo inferior del rango, o null si el rango no tiene extremo inferior.
+     * @param incluirDesde Indica si las claves iguales al extremo inferior forman parte del rango.
+     * @param hasta Extremo superior del rango, o null si el rango no tiene extremo superior.
+     * @param incluirHasta Indica si las claves iguales al extremo superior forman parte del rango.
+     * @param descendente Verdadero para recorrer de la mayor clave a la menor, falso para el orden ascendente.
+     * @return Un iterador sobre los datos del rango en el orden pedido.
+     *
+     * Precondiciones:
+     * El árbol no debe modificarse mientras se usa el iterador.
+     *
+     * Postcondiciones:
+     * La estructura del árbol no se modifica.
+     * Si el extremo inferior es mayor que el superior, el iterador no devuelve ningún dato.
+     *
+     * Orden de tiempo de ejecución: O(log n) para ubicar el inicio del rango y O(1) amortizado por dato.
+     */
+    Iterator<T> iteradorRango(Comparable desde, boolean incluirDesde, Comparable hasta, boolean incluirHasta, boolean descendente);
+
+    /**
+     * Busca los datos cuyas claves están en el rango dado, devolviendo como máximo la cantidad indicada.
+     *
+     * @param desde Extremo inferior del rango, o null si el rango no tiene extremo inferior.
+     * @param incluirDesde Indica si las claves iguales al extremo inferior forman parte del rango.
+     * @param hasta Extremo superior del rango, o null si el rango no tiene extremo superior.
+     * @param incluirHasta Indica si las claves iguales al extremo superior forman parte del rango.
+     * @param descendente Verdadero para ordenar de la mayor clave a la menor, falso para el orden ascendente.
+     * @param limite Cantidad máxima de datos a devolver.
+     * @return Una lista con los datos del rango en el orden pedido.
+     *
+     * Orden de tiempo de ejecución: O(log n + k), siendo k la cantidad de datos devueltos.
+     */
+    default List<T> buscarRango(Comparable desde, boolean incluirDesde, Comparable hasta, boolean incluirHasta,
+                                boolean descendente, int limite) {
+        List<T> resultado = new ArrayList<>();
+        Iterator<T> iterador = iteradorRango(desde, incluirDesde, hasta, incluirHasta, descendente);
+        while(resultado.size() < limite && iterador.hasNext()) {
+            resultado.add(iterador.next());
+        }
+        return resultado;
+    }
+
+    /**
+     * Busca, en orden ascendente, los datos cuyas claves están en el rango cerrado [desde, hasta].
+     *
+     * @param desde Extremo inferior del rango.
+     * @param hasta Extremo superior del rango.
+     * @return Una lista con los datos del rango ordenados por clave.
+     *
+     * Orden de tiempo de ejecución: O(log n + k), siendo k la cantidad de datos devueltos.
+     */
+    default List<T> buscarRango(Comparable desde, Comparable hasta) {
+        return buscarRango(desde, true, hasta, true, false, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Obtiene un Stream secuencial sobre los datos cuyas claves están en el rango dado, sin copiarlos.
+     *
+     * @return Un Stream de los datos del rango en el orden pedido.
+     */
+    default Stream<T> streamRango(Comparable desde, boolean incluirDesde, Comparable hasta, boolean incluirHasta, boolean descendente) {
+        Iterator<T> iterador = iteradorRango(desde, incluirDesde, hasta, incluirHasta, descendente);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterador, Spliterator.ORDERED), false);
+    }
 
+    /**
+     * Obtiene la cantidad de elementos del árbol. Esta implementación los cuenta recorriéndolos; los árboles que
+     * llevan la cuenta la devuelven en O(1).
+     *
+     * @return La cantidad de elementos del árbol.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     */
+    default int tamaño() {
+        int tamaño = 0;
+        for(Iterator<T> iterador = iterator(); iterador.hasNext(); iterador.next()) {
+            tamaño++;
+        }
+        return tamaño;
+    }
+
+    /**
+     * Obtiene la posición que ocupa la clave dada en el recorrido en inorden, es decir, la cantidad de claves del
+     * árbol menores a ella. Esta implementación recorre esas claves; los árboles que guardan el tamaño de cada
+     * subárbol la obtienen en un único descenso.
+     *
+     * @param clave La clave a ubicar; no necesita estar en el árbol.
+     * @return La cantidad de claves del árbol menores a la clave dada.
+     *
+     * Orden de tiempo de ejecución: O(log n + k), siendo k la posición devuelta.
+     */
+    default int posicion(Comparable clave) {
+        int posicion = 0;
+        for(Iterator<T> iterador = iteradorRango(null, true, clave, false, false); iterador.hasNext(); iterador.next()) {
+            posicion++;
+        }
+        return posicion;
+    }
+
+    /**
+     * Obtiene el dato de la clave que ocupa la posición dada en el recorrido en inorden. Esta implementación
+     * avanza un iterador hasta la posición; los árboles que guardan el tamaño de cada subárbol la ubican en un
+     * único descenso.
+     *
+     * @param posicion Posición de la clave, entre 0 y la cantidad de elementos menos uno.
+     * @return El dato asociado a la clave de esa posición.
+     * @throws IndexOutOfBoundsException Si la posición está fuera de ese intervalo.
+     *
+     * Orden de tiempo de ejecución: O(log n + k), siendo k la posición pedida.
+     */
+    default T seleccionar(int posicion) {
+        if(posicion < 0) {
+            throw new IndexOutOfBoundsException(posicion);
+        }
+        Iterator<T> iterador = iterator();
+        for(int i = 0; i < posicion && iterador.hasNext(); i++) {
+            iterador.next();
+        }
+        if(!iterador.hasNext()) {
+            throw new IndexOutOfBoundsException(posicion);
+        }
+        return iterador.next();
+    }
+
+    /**
+     * Obtiene una instantánea inmutable del árbol, que puede recorrerse mientras el árbol sigue cambiando. Esta
+     * implementación no admite instantáneas; TArbolB y TArbolBEntero la redefinen con copia en escritura.
+     *
+     * @return La instantánea, o null si el árbol no admite instantáneas.
+     */
+    default IArbolB<T> snapshot() {
+        return null;
+    }
+}
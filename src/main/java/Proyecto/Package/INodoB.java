@@ -0,0 +1,40 @@
+package Proyecto.Package;
+
+/**
+ * Vista de solo lectura de un nodo de árbol B, común a TElementoB y TElementoBEntero, para los recorridos que no
+ * dependen del tipo de las claves.
+ *
+ * @param <T> Tipo de los datos almacenados en el nodo.
+ */
+interface INodoB<T> {
+
+    /**
+     * Obtiene el número de claves en el nodo.
+     *
+     * @return Número de claves en el nodo.
+     */
+    int getNumClaves();
+
+    /**
+     * Indica si el nodo es una hoja.
+     *
+     * @return Verdadero si el nodo no tiene hijos.
+     */
+    boolean esHoja();
+
+    /**
+     * Obtiene el dato asociado a la clave en la posición dada.
+     *
+     * @param i Posición de la clave, entre 0 y getNumClaves() - 1.
+     * @return El dato de la clave en la posición i.
+     */
+    T getDato(int i);
+
+    /**
+     * Obtiene el hijo en la posición dada, que contiene las claves entre las claves i - 1 e i del nodo.
+     *
+     * @param i Posición del hijo, entre 0 y getNumClaves().
+     * @return El hijo en la posición i.
+     */
+    INodoB<T> getHijo(int i);
+}
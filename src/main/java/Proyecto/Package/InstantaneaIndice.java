@@ -0,0 +1,331 @@
+package Proyecto.Package;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+/**
+ * Formato binario versionado para guardar los registros de un índice y volver a cargarlo rápidamente, en lugar de
+ * la serialización de Java o de los archivos de texto de ManejadorArchivosGenerico.
+ *
+ * El archivo tiene, con enteros big-endian:
+ * - Cabecera: número mágico y versión (4 bytes cada uno).
+ * - Registros ordenados por id de forma estrictamente ascendente: id (4 bytes), largo de los datos en UTF-8 o -1 si
+ *   son null (4 bytes) y los datos.
+ * - Pie: cantidad de bloques (4 bytes) y, por cada bloque de REGISTROS_POR_BLOQUE registros, el id de su primer
+ *   registro (4 bytes) y su posición en el archivo (8 bytes).
+ * - Cierre: posición del pie (8 bytes), cantidad de registros (8 bytes), CRC32 de los registros y el pie (4 bytes)
+ *   y número mágico (4 bytes).
+ *
+ * La carga proyecta el archivo en memoria y recorre los registros directamente sobre las páginas proyectadas, por lo
+ * que no copia el archivo a buffers intermedios; como ya vienen ordenados, el árbol se construye con
+ * CargadorMasivoArbolB en O(n) en lugar de insertar registro por registro. Los archivos de más de 2 GiB se proyectan
+ * por ventanas que empiezan siempre al inicio de un bloque del pie, para que ningún registro quede partido.
+ */
+public class InstantaneaIndice {
+
+    private static final int MAGICO = 0x42444931; //"BDI1"
+    private static final int VERSION = 1;
+    private static final int TAMAÑO_CABECERA = 2 * Integer.BYTES;
+    private static final int TAMAÑO_CIERRE = 2 * Long.BYTES + 2 * Integer.BYTES;
+    private static final int TAMAÑO_BUFFER_ESCRITURA = 1 << 20;
+    private static final long TAMAÑO_VENTANA = 1L << 30; //Tamaño de las ventanas en que se proyecta el archivo
+
+    /**
+     * Cantidad de registros entre dos entradas del pie.
+     */
+    static final int REGISTROS_POR_BLOQUE = 4096;
+
+    private InstantaneaIndice() {
+    }
+
+    /**
+     * Escribe una instantánea con los registros dados. El archivo se escribe primero con otro nombre y se renombra
+     * al terminar, por lo que una interrupción nunca deja una instantánea incompleta en lugar de la anterior.
+     *
+     * @param archivo Archivo de la instantánea; si existe se reemplaza.
+     * @param registrosOrdenados Registros ordenados por id de forma estrictamente ascendente.
+     * @return La cantidad de registros escritos.
+     * @throws IOException Si falla la escritura del archivo.
+     * @throws IllegalArgumentException Si los registros no están ordenados por id o tienen ids repetidos.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     */
+    public static long escribir(Path archivo, Iterator<RegistroBD> registrosOrdenados) throws IOException {
+        Path temporal = archivo.resolveSibling(archivo.getFileName() + ".tmp");
+        long cantidad;
+        try(FileChannel canal = FileChannel.open(temporal, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            Escritor escritor = new Escritor(canal);
+            escritor.buffer.putInt(MAGICO).putInt(VERSION);
+            escritor.inicioDatos = TAMAÑO_CABECERA;
+
+            int[] primerosIds = new int[16];
+            long[] posiciones = new long[16];
+            int bloques = 0;
+            cantidad = 0;
+            int idAnterior = 0;
+            while(registrosOrdenados.hasNext()) {
+                RegistroBD registro = registrosOrdenados.next();
+                int id = registro.getId();
+                if(cantidad > 0 && id <= idAnterior) {
+                    throw new IllegalArgumentException("Los registros deben estar ordenados por id sin repetir: " + id
+                            + " después de " + idAnterior);
+                }
+                if(cantidad % REGISTROS_POR_BLOQUE == 0) {
+                    if(bloques == primerosIds.length) {
+                        primerosIds = Arrays.copyOf(primerosIds, bloques * 2);
+                        posiciones = Arrays.copyOf(posiciones, bloques * 2);
+                    }
+                    primerosIds[bloques] = id;
+                    posiciones[bloques] = escritor.posicion();
+                    bloques++;
+                }
+                String datos = registro.getData();
+                byte[] bytes = datos == null ? null : datos.getBytes(StandardCharsets.UTF_8);
+                escritor.reservar(2 * Integer.BYTES);
+                escritor.buffer.putInt(id).putInt(bytes == null ? -1 : bytes.length);
+                if(bytes != null) {
+                    escritor.escribir(bytes);
+                }
+                idAnterior = id;
+                cantidad++;
+            }
+
+            long posicionPie = escritor.posicion();
+            escritor.reservar(Integer.BYTES);
+            escritor.buffer.putInt(bloques);
+            for(int i = 0; i < bloques; i++) {
+                escritor.reservar(Integer.BYTES + Long.BYTES);
+                escritor.buffer.putInt(primerosIds[i]).putLong(posiciones[i]);
+            }
+            escritor.vaciar();
+            escritor.buffer.putLong(posicionPie).putLong(cantidad).putInt((int) escritor.crc.getValue()).putInt(MAGICO);
+            escritor.buffer.flip();
+            while(escritor.buffer.hasRemaining()) {
+                canal.write(escritor.buffer);
+            }
+            canal.force(true);
+        } catch(IOException | RuntimeException e) {
+            Files.deleteIfExists(temporal);
+            throw e;
+        }
+        Files.move(temporal, archivo, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        return cantidad;
+    }
+
+    /**
+     * Escribe a través de un buffer propio y calcula el CRC de los bytes que siguen a la cabecera.
+     */
+    private static class Escritor {
+        private final FileChannel canal;
+        private final ByteBuffer buffer = ByteBuffer.allocate(TAMAÑO_BUFFER_ESCRITURA);
+        private final CRC32 crc = new CRC32();
+        private long escritos;   //Bytes ya escritos en el canal
+        private int inicioDatos; //Bytes del buffer que no entran en el CRC, los de la cabecera
+
+        private Escritor(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        private long posicion() {
+            return escritos + buffer.position();
+        }
+
+        private void reservar(int largo) throws IOException {
+            if(buffer.remaining() < largo) {
+                vaciar();
+            }
+        }
+
+        private void escribir(byte[] bytes) throws IOException {
+            int escritosDelArreglo = 0;
+            while(escritosDelArreglo < bytes.length) {
+                if(!buffer.hasRemaining()) {
+                    vaciar();
+                }
+                int largo = Math.min(buffer.remaining(), bytes.length - escritosDelArreglo);
+                buffer.put(bytes, escritosDelArreglo, largo);
+                escritosDelArreglo += largo;
+            }
+        }
+
+        private void vaciar() throws IOException {
+            crc.update(buffer.array(), inicioDatos, buffer.position() - inicioDatos);
+            inicioDatos = 0;
+            buffer.flip();
+            while(buffer.hasRemaining()) {
+                escritos += canal.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * Carga una instantánea en un árbol B.
+     *
+     * @param archivo Archivo de la instantánea.
+     * @param t Grado mínimo del árbol.
+     * @param factorLlenado Fracción de cada hoja que se ocupa, en el intervalo (0, 1]; 1 si el árbol solo se consulta.
+     * @return El árbol con los registros de la instantánea indexados por id.
+     * @throws IOException Si el archivo no se puede leer, no es una instantánea o está dañado.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     */
+    public static TArbolB<RegistroBD> cargar(Path archivo, int t, double factorLlenado) throws IOException {
+        Iterator<RegistroBD> registros = leer(archivo);
+        return CargadorMasivoArbolB.construir(t, new Iterator<Map.Entry<Integer, RegistroBD>>() {
+            @Override
+            public boolean hasNext() {
+                return registros.hasNext();
+            }
+
+            @Override
+            public Map.Entry<Integer, RegistroBD> next() {
+                RegistroBD registro = registros.next();
+                return new AbstractMap.SimpleImmutableEntry<>(registro.getId(), registro);
+            }
+        }, factorLlenado);
+    }
+
+    /**
+     * Abre una instantánea, verifica su CRC y devuelve sus registros en orden. Los registros se decodifican a
+     * medida que se recorren.
+     *
+     * @param archivo Archivo de la instantánea.
+     * @return Iterador de los registros ordenados por id.
+     * @throws IOException Si el archivo no se puede leer, no es una instantánea o está dañado.
+     *
+     * Orden de tiempo de ejecución: O(tamaño del archivo) para verificar el CRC, O(1) por registro recorrido.
+     */
+    public static Iterator<RegistroBD> leer(Path archivo) throws IOException {
+        try(FileChannel canal = FileChannel.open(archivo, StandardOpenOption.READ)) {
+            long tamaño = canal.size();
+            if(tamaño < TAMAÑO_CABECERA + Integer.BYTES + TAMAÑO_CIERRE) {
+                throw new IOException("El archivo es demasiado corto para ser una instantánea: " + archivo);
+            }
+            ByteBuffer cabecera = leerExacto(canal, 0, TAMAÑO_CABECERA);
+            if(cabecera.getInt() != MAGICO) {
+                throw new IOException("El archivo no es una instantánea de índice: " + archivo);
+            }
+            int version = cabecera.getInt();
+            if(version != VERSION) {
+                throw new IOException("Versión de instantánea no soportada: " + version);
+            }
+            ByteBuffer cierre = leerExacto(canal, tamaño - TAMAÑO_CIERRE, TAMAÑO_CIERRE);
+            long posicionPie = cierre.getLong();
+            long cantidad = cierre.getLong();
+            int crcEsperado = cierre.getInt();
+            if(cierre.getInt() != MAGICO || posicionPie < TAMAÑO_CABECERA || posicionPie > tamaño - TAMAÑO_CIERRE) {
+                throw new IOException("La instantánea está incompleta: " + archivo);
+            }
+
+            //El CRC se verifica entero antes de decodificar, así el iterador nunca encuentra datos dañados
+            CRC32 crc = new CRC32();
+            long finCrc = tamaño - TAMAÑO_CIERRE;
+            for(long inicio = TAMAÑO_CABECERA; inicio < finCrc; inicio += TAMAÑO_VENTANA) {
+                crc.update(canal.map(FileChannel.MapMode.READ_ONLY, inicio, Math.min(TAMAÑO_VENTANA, finCrc - inicio)));
+            }
+            if((int) crc.getValue() != crcEsperado) {
+                throw new IOException("El CRC de la instantánea no coincide: " + archivo);
+            }
+
+            ByteBuffer pie = canal.map(FileChannel.MapMode.READ_ONLY, posicionPie, finCrc - posicionPie);
+            int bloques = pie.getInt();
+            long[] posiciones = new long[bloques];
+            for(int i = 0; i < bloques; i++) {
+                pie.getInt(); //Primer id del bloque, que la carga completa no necesita
+                posiciones[i] = pie.getLong();
+            }
+            return new IteradorInstantanea(proyectarVentanas(canal, posiciones, posicionPie), cantidad);
+        }
+    }
+
+    private static ByteBuffer leerExacto(FileChannel canal, long posicion, int largo) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(largo);
+        while(buffer.hasRemaining()) {
+            if(canal.read(buffer, posicion + buffer.position()) < 0) {
+                throw new IOException("Fin de archivo inesperado.");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * Proyecta la zona de registros en ventanas de hasta TAMAÑO_VENTANA bytes que empiezan y terminan en límites de
+     * bloque. Las proyecciones siguen siendo válidas después de cerrar el canal.
+     */
+    private static MappedByteBuffer[] proyectarVentanas(FileChannel canal, long[] posiciones, long posicionPie)
+            throws IOException {
+        MappedByteBuffer[] ventanas = new MappedByteBuffer[posiciones.length];
+        int cantidadVentanas = 0;
+        int bloque = 0;
+        while(bloque < posiciones.length) {
+            long inicio = posiciones[bloque];
+            int siguiente = bloque + 1;
+            while(siguiente < posiciones.length && posiciones[siguiente] - inicio <= TAMAÑO_VENTANA) {
+                siguiente++;
+            }
+            long fin = siguiente < posiciones.length ? posiciones[siguiente] : posicionPie;
+            if(fin - inicio > Integer.MAX_VALUE) {
+                throw new IOException("Un bloque de la instantánea supera los 2 GiB.");
+            }
+            ventanas[cantidadVentanas++] = canal.map(FileChannel.MapMode.READ_ONLY, inicio, fin - inicio);
+            bloque = siguiente;
+        }
+        return Arrays.copyOf(ventanas, cantidadVentanas);
+    }
+
+    /**
+     * Decodifica los registros recorriendo las ventanas proyectadas en orden.
+     */
+    private static class IteradorInstantanea implements Iterator<RegistroBD> {
+        private final MappedByteBuffer[] ventanas;
+        private int ventanaActual;
+        private long restantes;
+
+        private IteradorInstantanea(MappedByteBuffer[] ventanas, long cantidad) {
+            this.ventanas = ventanas;
+            this.restantes = cantidad;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return restantes > 0;
+        }
+
+        @Override
+        public RegistroBD next() {
+            if(restantes == 0) {
+                throw new NoSuchElementException();
+            }
+            ByteBuffer ventana = ventanas[ventanaActual];
+            if(!ventana.hasRemaining()) {
+                ventanas[ventanaActual++] = null; //Libera la proyección ya recorrida
+                ventana = ventanas[ventanaActual];
+            }
+            int id = ventana.getInt();
+            int largo = ventana.getInt();
+            String datos = null;
+            if(largo >= 0) {
+                byte[] bytes = new byte[largo];
+                ventana.get(bytes);
+                datos = new String(bytes, StandardCharsets.UTF_8);
+            }
+            restantes--;
+            return new RegistroBD(id, datos);
+        }
+    }
+}
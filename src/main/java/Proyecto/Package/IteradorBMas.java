@@ -0,0 +1,121 @@
+package Proyecto.Package;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+@SuppressWarnings({"rawtypes"})
+/**
+ * Iterador que recorre los datos de un árbol B+ siguiendo la lista enlazada de hojas. Solo desciende por el árbol
+ * una vez, para ubicar la hoja donde empieza el recorrido; desde allí avanza de hoja en hoja en orden ascendente
+ * o descendente y se detiene al pasar el extremo final del rango.
+ *
+ * @param <T> El tipo de los datos del árbol.
+ */
+class IteradorBMas<T> implements Iterator<T> {
+    private TElementoBMas<T> hoja;       //Hoja del próximo dato, null si el recorrido terminó
+    private int posicion;                //Posición del próximo dato en la hoja
+    private TElementoBMas<T> hojaActual; //Hoja del último dato devuelto
+    private int indiceActual;            //Posición del último dato devuelto
+    private final boolean descendente;   //Indica si el recorrido va de la mayor clave a la menor
+    private final Comparable fin;        //Extremo del rango donde termina el recorrido, null si no hay
+    private final boolean incluirFin;    //Indica si el extremo final forma parte del rango
+
+    /**
+     * Crea un iterador sobre las claves del rango dado.
+     *
+     * @param raiz La raíz del árbol a recorrer, o null si el árbol está vacío.
+     * @param desde Extremo inferior del rango, o null para empezar desde la menor clave.
+     * @param incluirDesde Indica si el extremo inferior forma parte del rango.
+     * @param hasta Extremo superior del rango, o null para llegar hasta la mayor clave.
+     * @param incluirHasta Indica si el extremo superior forma parte del rango.
+     * @param descendente Indica si el recorrido va de la mayor clave a la menor.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    IteradorBMas(TElementoBMas<T> raiz, Comparable desde, boolean incluirDesde, Comparable hasta, boolean incluirHasta,
+                 boolean descendente) {
+        this.descendente = descendente;
+        this.fin = descendente ? desde : hasta;
+        this.incluirFin = descendente ? incluirDesde : incluirHasta;
+        if(raiz == null || raiz.getNumClaves() == 0) {
+            return;
+        }
+
+        Comparable inicio = descendente ? hasta : desde;
+        boolean incluirInicio = descendente ? incluirHasta : incluirDesde;
+        if(inicio == null) {
+            hoja = raiz;
+            while(!hoja.esHoja()) {
+                hoja = hoja.getHijo(descendente ? hoja.getNumClaves() : 0);
+            }
+            posicion = descendente ? hoja.getNumClaves() - 1 : 0;
+            return;
+        }
+
+        hoja = raiz.buscarHoja(inicio);
+        int i = hoja.encontrarClave(inicio);
+        boolean igual = i < hoja.getNumClaves() && TElementoB.comparar(hoja.getClave(i), inicio) == 0;
+        if(!descendente) {
+            posicion = igual && !incluirInicio ? i + 1 : i;
+            if(posicion >= hoja.getNumClaves()) {
+                hoja = hoja.getSiguiente();
+                posicion = 0;
+            }
+        } else {
+            posicion = igual && incluirInicio ? i : i - 1;
+            if(posicion < 0) {
+                hoja = hoja.getAnterior();
+                posicion = hoja == null ? 0 : hoja.getNumClaves() - 1;
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(hoja == null) {
+            return false;
+        }
+        if(fin == null) {
+            return true;
+        }
+        int comparacion = TElementoB.comparar(hoja.getClave(posicion), fin);
+        if(descendente) {
+            comparacion = -comparacion;
+        }
+        return comparacion < 0 || (comparacion == 0 && incluirFin);
+    }
+
+    @Override
+    public T next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        hojaActual = hoja;
+        indiceActual = posicion;
+
+        if(!descendente) {
+            if(++posicion == hoja.getNumClaves()) {
+                hoja = hoja.getSiguiente();
+                posicion = 0;
+            }
+        } else {
+            if(--posicion < 0) {
+                hoja = hoja.getAnterior();
+                posicion = hoja == null ? 0 : hoja.getNumClaves() - 1;
+            }
+        }
+        return hojaActual.getDato(indiceActual);
+    }
+
+    /**
+     * Obtiene la clave del último dato devuelto por next.
+     *
+     * @return La clave del último dato devuelto.
+     */
+    Comparable claveActual() {
+        if(hojaActual == null) {
+            throw new IllegalStateException();
+        }
+        return hojaActual.getClave(indiceActual);
+    }
+}
@@ -0,0 +1,179 @@
+package Proyecto.Package;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Iterador que recorre en inorden los datos de un árbol B de claves enteras sin construir listas intermedias ni crear objetos por
+ * elemento. Guarda en una pila el camino desde la raíz hasta el nodo actual junto con la posición de la próxima
+ * clave de cada nodo, por lo que usa memoria proporcional a la altura del árbol y no depende de la recursión.
+ * La clave del último dato devuelto se obtiene con claveActual.
+ *
+ * El recorrido puede limitarse a un rango de claves y hacerse en orden ascendente o descendente: el iterador
+ * desciende directamente hasta el extremo del rango por donde empieza y se detiene al pasar el otro extremo.
+ *
+ * @param <T> El tipo de los datos del árbol.
+ */
+class IteradorEnOrdenBEntero<T> implements Iterator<T> {
+    private TElementoBEntero[] nodos = new TElementoBEntero[8]; //Camino desde la raíz hasta el nodo actual
+    private int[] posiciones = new int[8];                      //Próxima clave a devolver de cada nodo del camino
+    private int profundidad;                                    //Cantidad de nodos en el camino
+    private TElementoBEntero<T> nodoActual;                     //Nodo del último dato devuelto
+    private int indiceActual;                                   //Posición del último dato devuelto en su nodo
+    private final boolean descendente;                          //Indica si el recorrido va de la mayor clave a la menor
+    private final Integer fin;                                  //Extremo del rango donde termina el recorrido, null si no hay
+    private final boolean incluirFin;                           //Indica si el extremo final forma parte del rango
+
+    /**
+     * @param raiz La raíz del árbol a recorrer, o null si el árbol está vacío.
+     */
+    IteradorEnOrdenBEntero(TElementoBEntero<T> raiz) {
+        this(raiz, null, true, null, true, false);
+    }
+
+    /**
+     * Crea un iterador sobre las claves del rango dado.
+     *
+     * @param raiz La raíz del árbol a recorrer, o null si el árbol está vacío.
+     * @param desde Extremo inferior del rango, o null para empezar desde la menor clave.
+     * @param incluirDesde Indica si el extremo inferior forma parte del rango.
+     * @param hasta Extremo superior del rango, o null para llegar hasta la mayor clave.
+     * @param incluirHasta Indica si el extremo superior forma parte del rango.
+     * @param descendente Indica si el recorrido va de la mayor clave a la menor.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    IteradorEnOrdenBEntero(TElementoBEntero<T> raiz, Integer desde, boolean incluirDesde, Integer hasta, boolean incluirHasta,
+                     boolean descendente) {
+        this.descendente = descendente;
+        this.fin = descendente ? desde : hasta;
+        this.incluirFin = descendente ? incluirDesde : incluirHasta;
+        if(raiz == null || raiz.getNumClaves() == 0) {
+            return;
+        }
+
+        Integer inicio = descendente ? hasta : desde;
+        if(inicio == null) {
+            bajarPorExtremo(raiz);
+        } else {
+            buscarInicio(raiz, inicio, descendente ? incluirHasta : incluirDesde);
+        }
+        desapilarAgotados();
+    }
+
+    /**
+     * Desciende desde la raíz hasta la primera clave del recorrido, apilando en cada nodo la posición de la
+     * primera clave que queda dentro del rango.
+     */
+    private void buscarInicio(TElementoBEntero<T> nodo, int inicio, boolean incluirInicio) {
+        while(true) {
+            int i = nodo.encontrarClave(inicio);
+            boolean igual = i < nodo.getNumClaves() && nodo.getClave(i) == inicio;
+            if(!descendente) {
+                //Las claves del hijo i son menores que la clave i, por lo que si es igual al inicio no se visitan
+                apilar(nodo, igual && !incluirInicio ? i + 1 : i);
+                if(nodo.esHoja() || (igual && incluirInicio)) {
+                    return;
+                }
+                if(igual) {
+                    bajarPorExtremo(nodo.getHijo(i + 1));
+                    return;
+                }
+            } else {
+                //Las claves del hijo i + 1 son mayores que la clave i, por lo que si es igual al inicio no se visitan
+                apilar(nodo, igual && incluirInicio ? i : i - 1);
+                if(nodo.esHoja() || (igual && incluirInicio)) {
+                    return;
+                }
+                if(igual) {
+                    bajarPorExtremo(nodo.getHijo(i));
+                    return;
+                }
+            }
+            //El hijo i contiene las claves entre la clave i - 1 y la clave i, donde está el inicio del rango
+            nodo = nodo.getHijo(i);
+        }
+    }
+
+    /**
+     * Apila el nodo dado y todos sus hijos del extremo por donde empieza el recorrido hasta llegar a una hoja.
+     */
+    private void bajarPorExtremo(TElementoBEntero<T> nodo) {
+        while(true) {
+            apilar(nodo, descendente ? nodo.getNumClaves() - 1 : 0);
+            if(nodo.esHoja()) {
+                return;
+            }
+            nodo = nodo.getHijo(descendente ? nodo.getNumClaves() : 0);
+        }
+    }
+
+    private void apilar(TElementoBEntero<T> nodo, int posicion) {
+        if(profundidad == nodos.length) {
+            nodos = Arrays.copyOf(nodos, profundidad * 2);
+            posiciones = Arrays.copyOf(posiciones, profundidad * 2);
+        }
+        nodos[profundidad] = nodo;
+        posiciones[profundidad] = posicion;
+        profundidad++;
+    }
+
+    /**
+     * Desapila los nodos cuyas claves ya se devolvieron todas.
+     */
+    private void desapilarAgotados() {
+        while(profundidad > 0 && (descendente ? posiciones[profundidad - 1] < 0
+                : posiciones[profundidad - 1] >= nodos[profundidad - 1].getNumClaves())) {
+            nodos[--profundidad] = null;
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        if(profundidad == 0) {
+            return false;
+        }
+        if(fin == null) {
+            return true;
+        }
+        int comparacion = Integer.compare(nodos[profundidad - 1].getClave(posiciones[profundidad - 1]), fin);
+        if(descendente) {
+            comparacion = -comparacion;
+        }
+        return comparacion < 0 || (comparacion == 0 && incluirFin);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T next() {
+        if(!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        TElementoBEntero<T> nodo = nodos[profundidad - 1];
+        int i = posiciones[profundidad - 1];
+        posiciones[profundidad - 1] += descendente ? -1 : 1;
+        nodoActual = nodo;
+        indiceActual = i;
+
+        if(!nodo.esHoja()) {
+            //El siguiente elemento es el extremo del subárbol que sigue a la clave devuelta
+            bajarPorExtremo(nodo.getHijo(descendente ? i : i + 1));
+        } else {
+            desapilarAgotados();
+        }
+        return nodo.getDato(i);
+    }
+
+    /**
+     * Obtiene la clave del último dato devuelto por next.
+     *
+     * @return La clave del último dato devuelto.
+     */
+    int claveActual() {
+        if(nodoActual == null) {
+            throw new IllegalStateException();
+        }
+        return nodoActual.getClave(indiceActual);
+    }
+}
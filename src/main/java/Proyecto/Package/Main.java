@@ -1,10 +1,13 @@
 package Proyecto.Package;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Random;
 import java.util.Scanner;
 
 public class Main {
+    private static final int TAMAÑO_PAGINA = 100; // Registros que se piden por página al listar en inorden
+
     public static void main(String[] args) {
         baseDeDatos();
         medirPerformance(1000000);
@@ -84,10 +87,17 @@ public class Main {
                         }
                         break;
                     case 4:
-                        List<RegistroBD> registrosInOrden = baseDeDatos.listarRegistrosInOrden();
                         System.out.println("Registros en la base de datos (InOrden):");
-                        for (RegistroBD reg : registrosInOrden) {
-                            System.out.println(reg);
+                        // Se recorre por páginas para no copiar toda la base de datos en una lista
+                        PaginaRegistros pagina = baseDeDatos.listarRegistros(TAMAÑO_PAGINA);
+                        while (true) {
+                            for (RegistroBD reg : pagina.getRegistros()) {
+                                System.out.println(reg);
+                            }
+                            if (!pagina.tieneSiguiente()) {
+                                break;
+                            }
+                            pagina = baseDeDatos.listarRegistros(pagina.getSiguienteId(), TAMAÑO_PAGINA);
                         }
                         break;
                     case 5:
@@ -111,11 +121,13 @@ public class Main {
                         }
                         int cantidad = scanner.nextInt();
                         Random random = new Random();
+                        List<RegistroBD> generados = new ArrayList<>();
                         for (int i = 0; i < cantidad; i++) {
                             int idRandom = random.nextInt(1000000);
                             String datosRandom = "Datos" + idRandom; // Genera datos asociados a los IDs
-                            baseDeDatos.insertarRegistro(idRandom, datosRandom);
+                            generados.add(new RegistroBD(idRandom, datosRandom));
                         }
+                        baseDeDatos.insertarRegistros(generados); // Se insertan en un solo recorrido del índice
                         System.out.println("Registros generados e insertados.");
                         break;
                     case 8:
@@ -139,22 +151,29 @@ public class Main {
     public static void medirPerformance(int numElements) {
         TArbolB<Integer> arbolB = new TArbolB<>(2);
         TArbolBB<Integer> arbolBB = new TArbolBB<>();
+        TArbolAVL<Integer> arbolAVL = new TArbolAVL<>();
         Random random = new Random();
 
         Medicion medicionInsercionB = medirInsercion(arbolB, numElements, random);
         Medicion medicionInsercionBB = medirInsercion(arbolBB, numElements, random);
+        Medicion medicionInsercionAVL = medirInsercion(arbolAVL, numElements, random);
         System.out.println(medicionInsercionB);
         System.out.println(medicionInsercionBB);
+        System.out.println(medicionInsercionAVL);
 
         Medicion medicionBusquedaB = medirBusqueda(arbolB, numElements, random);
         Medicion medicionBusquedaBB = medirBusqueda(arbolBB, numElements, random);
+        Medicion medicionBusquedaAVL = medirBusqueda(arbolAVL, numElements, random);
         System.out.println(medicionBusquedaB);
         System.out.println(medicionBusquedaBB);
+        System.out.println(medicionBusquedaAVL);
 
         Medicion medicionEliminacionB = medirEliminacion(arbolB, numElements, random);
         Medicion medicionEliminacionBB = medirEliminacion(arbolBB, numElements, random);
+        Medicion medicionEliminacionAVL = medirEliminacion(arbolAVL, numElements, random);
         System.out.println(medicionEliminacionB);
         System.out.println(medicionEliminacionBB);
+        System.out.println(medicionEliminacionAVL);
     }
 
     private static Medicion medirInsercion(Object arbol, int numElements, Random random) {
@@ -163,8 +182,8 @@ public class Main {
             int clave = random.nextInt(numElements);
             if (arbol instanceof TArbolB) {
                 ((TArbolB<Integer>) arbol).insertar(clave, clave);
-            } else if (arbol instanceof TArbolBB) {
-                ((TArbolBB<Integer>) arbol).insertar(clave, clave);
+            } else if (arbol instanceof IArbolBB) {
+                ((IArbolBB<Integer>) arbol).insertar(clave, clave);
             }
         }
         long fin = System.nanoTime();
@@ -179,8 +198,8 @@ public class Main {
             int clave = random.nextInt(numElements);
             if (arbol instanceof TArbolB) {
                 ((TArbolB<Integer>) arbol).buscar(clave);
-            } else if (arbol instanceof TArbolBB) {
-                ((TArbolBB<Integer>) arbol).buscar(clave);
+            } else if (arbol instanceof IArbolBB) {
+                ((IArbolBB<Integer>) arbol).buscar(clave);
             }
         }
         long fin = System.nanoTime();
@@ -195,8 +214,8 @@ public class Main {
             int clave = random.nextInt(numElements);
             if (arbol instanceof TArbolB) {
                 ((TArbolB<Integer>) arbol).eliminar(clave);
-            } else if (arbol instanceof TArbolBB) {
-                ((TArbolBB<Integer>) arbol).eliminar(clave);
+            } else if (arbol instanceof IArbolBB) {
+                ((IArbolBB<Integer>) arbol).eliminar(clave);
             }
         }
         long fin = System.nanoTime();
@@ -5,15 +5,25 @@
  */
 
     package Proyecto.Package;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.ObjectOutputStream;
-import java.io.Serializable;
 import java.lang.instrument.Instrumentation;
-import java.util.logging.Level;
-import java.util.logging.Logger;
+import java.lang.reflect.Array;
+import java.lang.reflect.Field;
+import java.lang.reflect.InaccessibleObjectException;
+import java.lang.reflect.Modifier;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * Mide la memoria que ocupa en el heap un objeto junto con todos los objetos alcanzables desde él.
+ *
+ * El grafo de objetos se recorre con una pila explícita, por lo que las listas y árboles degenerados no agotan la
+ * pila de llamadas, y cada objeto se cuenta una sola vez aunque se llegue a él por varios caminos. El tamaño de
+ * cada objeto lo informa Instrumentation si la JVM se inició con -javaagent apuntando al jar del proyecto; si no,
+ * se estima a partir de los campos de su clase suponiendo una JVM de 64 bits con referencias comprimidas.
+ *
+ * Los campos de clases del JDK que el sistema de módulos no deja leer se omiten, salvo el contenido de los String,
+ * que se estima a partir de su largo.
  *
  * @author docampo
  */
@@ -21,27 +31,205 @@ public class ObjectSizeFetcher {
 
     private static Instrumentation instrumentation;
 
+    private static final boolean REFERENCIAS_COMPRIMIDAS = Runtime.getRuntime().maxMemory() < 32L * 1024 * 1024 * 1024;
+    private static final int TAMAÑO_REFERENCIA = REFERENCIAS_COMPRIMIDAS ? 4 : 8;
+    private static final int CABECERA_OBJETO = 12;  //Marca de 8 bytes y puntero a la clase comprimido
+    private static final int CABECERA_ARREGLO = 16; //Cabecera de objeto y largo del arreglo
+    private static final int ALINEACION = 8;
+
+    //Campos de referencia que se siguen al recorrer cada clase, incluyendo los heredados
+    private static final ClassValue<Field[]> CAMPOS_REFERENCIA = new ClassValue<>() {
+        @Override
+        protected Field[] computeValue(Class<?> clase) {
+            List<Field> campos = new ArrayList<>();
+            for(Class<?> actual = clase; actual != null; actual = actual.getSuperclass()) {
+                for(Field campo : actual.getDeclaredFields()) {
+                    if(Modifier.isStatic(campo.getModifiers()) || campo.getType().isPrimitive()) {
+                        continue;
+                    }
+                    try {
+                        campo.setAccessible(true);
+                        campos.add(campo);
+                    } catch(InaccessibleObjectException | SecurityException e) {
+                        //Campo interno de un módulo cerrado, no se sigue
+                    }
+                }
+            }
+            return campos.toArray(new Field[0]);
+        }
+    };
+
+    //Tamaño estimado de las instancias de cada clase cuando no hay Instrumentation
+    private static final ClassValue<Long> TAMAÑO_INSTANCIA = new ClassValue<>() {
+        @Override
+        protected Long computeValue(Class<?> clase) {
+            long tamaño = CABECERA_OBJETO;
+            for(Class<?> actual = clase; actual != null; actual = actual.getSuperclass()) {
+                for(Field campo : actual.getDeclaredFields()) {
+                    if(!Modifier.isStatic(campo.getModifiers())) {
+                        tamaño += tamañoCampo(campo.getType());
+                    }
+                }
+            }
+            return alinear(tamaño);
+        }
+    };
+
     public static void premain(String args, Instrumentation inst) {
         instrumentation = inst;
     }
 
+    public static void agentmain(String args, Instrumentation inst) {
+        instrumentation = inst;
+    }
+
+    /**
+     * Indica si los tamaños se obtienen de Instrumentation o se estiman.
+     *
+     * @return Verdadero si la JVM se inició con el agente del proyecto.
+     */
+    public static boolean usaInstrumentacion() {
+        return instrumentation != null;
+    }
+
+    /**
+     * Calcula la memoria que ocupan en el heap el objeto dado y todos los objetos alcanzables desde él.
+     *
+     * @param o El objeto a medir.
+     * @return La cantidad de bytes, o 0 si el objeto es null.
+     *
+     * Orden de tiempo de ejecución: O(cantidad de objetos alcanzables)
+     */
     public static long getObjectSize(Object o) {
-        ObjectOutputStream oos = null;
-        try {
-            ByteArrayOutputStream baos = new ByteArrayOutputStream();
-            oos = new ObjectOutputStream(baos);
-            oos.writeObject(o);
-            oos.close();
-            return baos.size();
-        } catch (IOException ex) {
-            Logger.getLogger(ObjectSizeFetcher.class.getName()).log(Level.SEVERE, null, ex);
-        } finally {
-            try {
-                oos.close();
-            } catch (IOException ex) {
-                Logger.getLogger(ObjectSizeFetcher.class.getName()).log(Level.SEVERE, null, ex);
+        if(o == null) {
+            return 0;
+        }
+        ConjuntoIdentidad visitados = new ConjuntoIdentidad();
+        ArrayDeque<Object> pendientes = new ArrayDeque<>();
+        visitados.add(o);
+        pendientes.push(o);
+        long total = 0;
+
+        while(!pendientes.isEmpty()) {
+            Object actual = pendientes.pop();
+            Class<?> clase = actual.getClass();
+            total += getShallowSize(actual);
+
+            if(clase.isArray()) {
+                if(!clase.getComponentType().isPrimitive()) {
+                    Object[] elementos = (Object[]) actual;
+                    for(Object elemento : elementos) {
+                        apilar(elemento, visitados, pendientes);
+                    }
+                }
+            } else if(actual instanceof String texto && CAMPOS_REFERENCIA.get(String.class).length == 0) {
+                //Sin acceso al arreglo interno suponemos un byte por carácter, como en los String compactos
+                total += alinear(CABECERA_ARREGLO + (long) texto.length());
+            } else {
+                for(Field campo : CAMPOS_REFERENCIA.get(clase)) {
+                    try {
+                        apilar(campo.get(actual), visitados, pendientes);
+                    } catch(IllegalAccessException e) {
+                        //No debería ocurrir: los campos se hicieron accesibles al obtenerlos
+                    }
+                }
             }
         }
-        return 0;
+        return total;
+    }
+
+    /**
+     * Calcula la memoria que ocupa el objeto dado sin contar los objetos a los que referencia.
+     *
+     * @param o El objeto a medir.
+     * @return La cantidad de bytes.
+     */
+    public static long getShallowSize(Object o) {
+        if(instrumentation != null) {
+            return instrumentation.getObjectSize(o);
+        }
+        Class<?> clase = o.getClass();
+        if(clase.isArray()) {
+            return alinear(CABECERA_ARREGLO + (long) Array.getLength(o) * tamañoCampo(clase.getComponentType()));
+        }
+        return TAMAÑO_INSTANCIA.get(clase);
+    }
+
+    private static void apilar(Object o, ConjuntoIdentidad visitados, ArrayDeque<Object> pendientes) {
+        //Las clases son metadatos compartidos, no memoria del objeto medido
+        if(o != null && !(o instanceof Class) && visitados.add(o)) {
+            pendientes.push(o);
+        }
+    }
+
+    private static int tamañoCampo(Class<?> tipo) {
+        if(tipo == long.class || tipo == double.class) {
+            return 8;
+        }
+        if(tipo == int.class || tipo == float.class) {
+            return 4;
+        }
+        if(tipo == short.class || tipo == char.class) {
+            return 2;
+        }
+        if(tipo == byte.class || tipo == boolean.class) {
+            return 1;
+        }
+        return TAMAÑO_REFERENCIA;
+    }
+
+    private static long alinear(long tamaño) {
+        return (tamaño + ALINEACION - 1) / ALINEACION * ALINEACION;
+    }
+
+    /**
+     * Conjunto de objetos comparados por identidad, con direccionamiento abierto. Guarda solo las referencias, a
+     * diferencia de IdentityHashMap, que reserva lugar también para los valores, por lo que con millones de objetos
+     * ocupa la mitad de memoria y se redimensiona copiando la mitad de datos.
+     */
+    private static final class ConjuntoIdentidad {
+        private Object[] tabla = new Object[1 << 10];
+        private int cantidad;
+
+        /**
+         * Agrega el objeto dado al conjunto.
+         *
+         * @return Verdadero si el objeto no estaba en el conjunto.
+         */
+        boolean add(Object o) {
+            int mascara = tabla.length - 1;
+            int i = posicion(o, mascara);
+            while(tabla[i] != null) {
+                if(tabla[i] == o) {
+                    return false;
+                }
+                i = (i + 1) & mascara;
+            }
+            tabla[i] = o;
+            if(++cantidad > tabla.length / 2) {
+                redimensionar();
+            }
+            return true;
+        }
+
+        private void redimensionar() {
+            Object[] anterior = tabla;
+            tabla = new Object[anterior.length * 2];
+            int mascara = tabla.length - 1;
+            for(Object o : anterior) {
+                if(o != null) {
+                    int i = posicion(o, mascara);
+                    while(tabla[i] != null) {
+                        i = (i + 1) & mascara;
+                    }
+                    tabla[i] = o;
+                }
+            }
+        }
+
+        private static int posicion(Object o, int mascara) {
+            int h = System.identityHashCode(o) * 0x9E3779B9; //Dispersa los bits bajos
+            return (h ^ (h >>> 16)) & mascara;
+        }
     }
 }
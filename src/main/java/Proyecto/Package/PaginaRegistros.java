@@ -0,0 +1,51 @@
+package Proyecto.Package;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Página de un listado de registros ordenado por id. Además de los registros trae el id desde el que continúa el
+ * listado, que se usa como token para pedir la página siguiente con BaseDeDatos.listarRegistros(desdeId, tamaño).
+ *
+ * Como el token es un id y no una posición, las inserciones y eliminaciones hechas entre dos pedidos no hacen que
+ * se repitan ni se salteen los registros que no cambiaron.
+ */
+public class PaginaRegistros {
+    private final List<RegistroBD> registros; //Registros de la página, ordenados por id
+    private final Integer siguienteId;        //Id del primer registro de la página siguiente, o null si es la última
+
+    public PaginaRegistros(List<RegistroBD> registros, Integer siguienteId) {
+        this.registros = Collections.unmodifiableList(registros);
+        this.siguienteId = siguienteId;
+    }
+
+    /**
+     * Obtiene los registros de la página.
+     *
+     * @return Lista no modificable con los registros de la página, ordenados por id.
+     */
+
+    public List<RegistroBD> getRegistros() {
+        return registros;
+    }
+
+    /**
+     * Obtiene el token para pedir la página siguiente.
+     *
+     * @return El id del primer registro de la página siguiente, o null si esta es la última página.
+     */
+
+    public Integer getSiguienteId() {
+        return siguienteId;
+    }
+
+    /**
+     * Indica si quedan registros después de esta página.
+     *
+     * @return Verdadero si hay una página siguiente, falso en caso contrario.
+     */
+
+    public boolean tieneSiguiente() {
+        return siguienteId != null;
+    }
+}
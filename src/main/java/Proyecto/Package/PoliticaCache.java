@@ -0,0 +1,18 @@
+package Proyecto.Package;
+
+/**
+ * Políticas de desalojo de la caché de lecturas de BaseDeDatos.
+ */
+public enum PoliticaCache {
+    /**
+     * Desaloja el registro usado hace más tiempo. Aprovecha bien la localidad temporal, pero un recorrido de muchos
+     * ids distintos desaloja a los registros más pedidos.
+     */
+    LRU,
+    /**
+     * W-TinyLFU: los registros nuevos entran a una ventana LRU pequeña y, al salir de ella, solo desplazan a un
+     * registro de la región principal si se pidieron más veces que él según un bosquejo de frecuencias. Conviene
+     * cuando pocos ids concentran la mayoría de las búsquedas.
+     */
+    W_TINY_LFU
+}
@@ -0,0 +1,45 @@
+package Proyecto.Package;
+
+import java.util.function.BinaryOperator;
+
+/**
+ * Política que decide qué dato conservar cuando, al fusionar dos árboles, ambos contienen la misma clave.
+ *
+ * @param <T> El tipo de los datos de los árboles que se fusionan.
+ */
+@SuppressWarnings({"rawtypes"})
+@FunctionalInterface
+public interface PoliticaDuplicados<T> {
+
+    /**
+     * Resuelve el conflicto entre los datos asociados a una misma clave en ambos árboles.
+     *
+     * @param clave La clave repetida.
+     * @param izquierdo El dato del árbol sobre el que se fusiona.
+     * @param derecho El dato del árbol que se fusiona.
+     * @return El dato que queda asociado a la clave en el árbol resultante.
+     */
+    T resolver(Comparable clave, T izquierdo, T derecho);
+
+    /**
+     * @return Una política que conserva el dato del árbol sobre el que se fusiona.
+     */
+    static <T> PoliticaDuplicados<T> conservarIzquierdo() {
+        return (clave, izquierdo, derecho) -> izquierdo;
+    }
+
+    /**
+     * @return Una política que conserva el dato del árbol que se fusiona.
+     */
+    static <T> PoliticaDuplicados<T> conservarDerecho() {
+        return (clave, izquierdo, derecho) -> derecho;
+    }
+
+    /**
+     * @param combinador Función que combina ambos datos en uno nuevo.
+     * @return Una política que reemplaza ambos datos por su combinación.
+     */
+    static <T> PoliticaDuplicados<T> combinar(BinaryOperator<T> combinador) {
+        return (clave, izquierdo, derecho) -> combinador.apply(izquierdo, derecho);
+    }
+}
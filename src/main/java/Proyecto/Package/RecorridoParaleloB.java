@@ -0,0 +1,267 @@
+package Proyecto.Package;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * Recorridos paralelos de un árbol B con el framework ForkJoin. El trabajo se divide por los límites de los hijos:
+ * cada subárbol alto es una tarea que crea una subtarea por hijo, y los subárboles de a lo sumo alrededor de
+ * UMBRAL_SECUENCIAL claves se recorren de forma secuencial en inorden.
+ *
+ * Las operaciones en orden combinan los resultados parciales de izquierda a derecha, en el orden de las claves,
+ * por lo que el combinador solo necesita ser asociativo. Las operaciones sin orden acumulan en un único resultado
+ * parcial por hilo, sin crear uno por tarea, y los combinan al final en cualquier orden, por lo que el combinador
+ * además debe ser conmutativo.
+ *
+ * El árbol no debe modificarse mientras se recorre; BaseDeDatos recorre instantáneas o toma el lock compartido.
+ */
+final class RecorridoParaleloB {
+
+    /**
+     * Cantidad aproximada de claves por debajo de la cual un subárbol se recorre sin dividirlo.
+     */
+    static final int UMBRAL_SECUENCIAL = 4096;
+
+    private RecorridoParaleloB() {
+    }
+
+    /**
+     * Aplica la acción a cada dato del árbol, desde varios hilos y sin un orden determinado.
+     *
+     * @param raiz Raíz del árbol, o null si está vacío.
+     * @param t Grado mínimo del árbol.
+     * @param accion Acción a aplicar; debe admitir llamadas concurrentes.
+     *
+     * Orden de tiempo de ejecución: O(n / p + log n) con p hilos.
+     */
+    static <T> void paraCada(INodoB<T> raiz, int t, Consumer<? super T> accion) {
+        if(raiz == null) {
+            return;
+        }
+        ForkJoinPool.commonPool().invoke(new TareaParaCada<>(raiz, altura(raiz), alturaSecuencial(t), accion));
+    }
+
+    /**
+     * Reduce los datos del árbol en paralelo.
+     *
+     * @param raiz Raíz del árbol, o null si está vacío.
+     * @param t Grado mínimo del árbol.
+     * @param identidad Valor inicial de cada resultado parcial, neutro para el combinador.
+     * @param acumulador Función que incorpora un dato a un resultado parcial.
+     * @param combinador Función asociativa que combina dos resultados parciales.
+     * @param enOrden Verdadero para combinar en el orden de las claves; falso si el combinador es conmutativo.
+     * @return El resultado de la reducción, o la identidad si el árbol está vacío.
+     *
+     * Orden de tiempo de ejecución: O(n / p + log n) con p hilos.
+     */
+    @SuppressWarnings("unchecked")
+    static <T, R> R reducir(INodoB<T> raiz, int t, R identidad, BiFunction<R, ? super T, R> acumulador,
+                            BinaryOperator<R> combinador, boolean enOrden) {
+        //Cada resultado parcial se guarda en un arreglo de un elemento para reutilizar recolectar
+        Object[] resultado = recolectar(raiz, t, () -> new Object[]{identidad},
+                (parcial, dato) -> parcial[0] = acumulador.apply((R) parcial[0], dato),
+                (izquierdo, derecho) -> izquierdo[0] = combinador.apply((R) izquierdo[0], (R) derecho[0]), enOrden);
+        return (R) resultado[0];
+    }
+
+    /**
+     * Acumula los datos del árbol en contenedores mutables en paralelo.
+     *
+     * @param raiz Raíz del árbol, o null si está vacío.
+     * @param t Grado mínimo del árbol.
+     * @param proveedor Crea un contenedor vacío.
+     * @param acumulador Agrega un dato a un contenedor.
+     * @param combinador Agrega al primer contenedor el contenido del segundo.
+     * @param enOrden Verdadero para combinar en el orden de las claves; falso si el combinador es conmutativo.
+     * @return El contenedor con todos los datos, vacío si el árbol está vacío.
+     *
+     * Orden de tiempo de ejecución: O(n / p + log n) con p hilos, más el costo de combinar los contenedores.
+     */
+    static <T, R> R recolectar(INodoB<T> raiz, int t, Supplier<R> proveedor, BiConsumer<R, ? super T> acumulador,
+                               BiConsumer<R, R> combinador, boolean enOrden) {
+        if(raiz == null) {
+            return proveedor.get();
+        }
+        int alturaRaiz = altura(raiz);
+        int alturaSecuencial = alturaSecuencial(t);
+        if(enOrden) {
+            return ForkJoinPool.commonPool().invoke(
+                    new TareaEnOrden<>(raiz, alturaRaiz, alturaSecuencial, proveedor, acumulador, combinador));
+        }
+        ConcurrentHashMap<Thread, R> parciales = new ConcurrentHashMap<>();
+        ForkJoinPool.commonPool().invoke(
+                new TareaSinOrden<>(raiz, alturaRaiz, alturaSecuencial, proveedor, acumulador, parciales));
+        Iterator<R> resultados = parciales.values().iterator();
+        if(!resultados.hasNext()) {
+            return proveedor.get();
+        }
+        R resultado = resultados.next();
+        while(resultados.hasNext()) {
+            combinador.accept(resultado, resultados.next());
+        }
+        return resultado;
+    }
+
+    private static int altura(INodoB<?> raiz) {
+        int altura = 0;
+        for(INodoB<?> actual = raiz; !actual.esHoja(); actual = actual.getHijo(0)) {
+            altura++;
+        }
+        return altura;
+    }
+
+    /**
+     * Altura a partir de la cual los subárboles se recorren de forma secuencial, estimando que cada nodo tiene en
+     * promedio 1.5t hijos.
+     */
+    private static int alturaSecuencial(int t) {
+        double hijosPorNodo = Math.max(2, 1.5 * t);
+        int altura = 0;
+        for(double claves = hijosPorNodo; claves < UMBRAL_SECUENCIAL; claves *= hijosPorNodo) {
+            altura++;
+        }
+        return altura;
+    }
+
+    /**
+     * Recorre el subárbol en inorden de forma secuencial.
+     */
+    private static <T> void recorrer(INodoB<T> nodo, Consumer<? super T> accion) {
+        int n = nodo.getNumClaves();
+        if(nodo.esHoja()) {
+            for(int i = 0; i < n; i++) {
+                accion.accept(nodo.getDato(i));
+            }
+            return;
+        }
+        for(int i = 0; i < n; i++) {
+            recorrer(nodo.getHijo(i), accion);
+            accion.accept(nodo.getDato(i));
+        }
+        recorrer(nodo.getHijo(n), accion);
+    }
+
+    private static final class TareaParaCada<T> extends RecursiveAction {
+        private final INodoB<T> nodo;
+        private final int altura;
+        private final int alturaSecuencial;
+        private final Consumer<? super T> accion;
+
+        TareaParaCada(INodoB<T> nodo, int altura, int alturaSecuencial, Consumer<? super T> accion) {
+            this.nodo = nodo;
+            this.altura = altura;
+            this.alturaSecuencial = alturaSecuencial;
+            this.accion = accion;
+        }
+
+        @Override
+        protected void compute() {
+            if(altura <= alturaSecuencial) {
+                recorrer(nodo, accion);
+                return;
+            }
+            int n = nodo.getNumClaves();
+            List<TareaParaCada<T>> hijos = new ArrayList<>(n + 1);
+            for(int i = 0; i <= n; i++) {
+                hijos.add(new TareaParaCada<>(nodo.getHijo(i), altura - 1, alturaSecuencial, accion));
+            }
+            invokeAll(hijos);
+            for(int i = 0; i < n; i++) {
+                accion.accept(nodo.getDato(i));
+            }
+        }
+    }
+
+    private static final class TareaEnOrden<T, R> extends RecursiveTask<R> {
+        private final INodoB<T> nodo;
+        private final int altura;
+        private final int alturaSecuencial;
+        private final Supplier<R> proveedor;
+        private final BiConsumer<R, ? super T> acumulador;
+        private final BiConsumer<R, R> combinador;
+
+        TareaEnOrden(INodoB<T> nodo, int altura, int alturaSecuencial, Supplier<R> proveedor,
+                     BiConsumer<R, ? super T> acumulador, BiConsumer<R, R> combinador) {
+            this.nodo = nodo;
+            this.altura = altura;
+            this.alturaSecuencial = alturaSecuencial;
+            this.proveedor = proveedor;
+            this.acumulador = acumulador;
+            this.combinador = combinador;
+        }
+
+        @Override
+        protected R compute() {
+            if(altura <= alturaSecuencial) {
+                R resultado = proveedor.get();
+                recorrer(nodo, dato -> acumulador.accept(resultado, dato));
+                return resultado;
+            }
+            int n = nodo.getNumClaves();
+            List<TareaEnOrden<T, R>> hijos = new ArrayList<>(n + 1);
+            for(int i = 0; i <= n; i++) {
+                hijos.add(new TareaEnOrden<>(nodo.getHijo(i), altura - 1, alturaSecuencial, proveedor, acumulador,
+                        combinador));
+            }
+            invokeAll(hijos);
+            //Cada clave del nodo va entre los resultados de los hijos que separa
+            R resultado = hijos.get(0).join();
+            for(int i = 0; i < n; i++) {
+                acumulador.accept(resultado, nodo.getDato(i));
+                combinador.accept(resultado, hijos.get(i + 1).join());
+            }
+            return resultado;
+        }
+    }
+
+    private static final class TareaSinOrden<T, R> extends RecursiveAction {
+        private final INodoB<T> nodo;
+        private final int altura;
+        private final int alturaSecuencial;
+        private final Supplier<R> proveedor;
+        private final BiConsumer<R, ? super T> acumulador;
+        private final ConcurrentHashMap<Thread, R> parciales; //Resultado parcial de cada hilo que participa
+
+        TareaSinOrden(INodoB<T> nodo, int altura, int alturaSecuencial, Supplier<R> proveedor,
+                      BiConsumer<R, ? super T> acumulador, ConcurrentHashMap<Thread, R> parciales) {
+            this.nodo = nodo;
+            this.altura = altura;
+            this.alturaSecuencial = alturaSecuencial;
+            this.proveedor = proveedor;
+            this.acumulador = acumulador;
+            this.parciales = parciales;
+        }
+
+        @Override
+        protected void compute() {
+            if(altura > alturaSecuencial) {
+                int n = nodo.getNumClaves();
+                List<TareaSinOrden<T, R>> hijos = new ArrayList<>(n + 1);
+                for(int i = 0; i <= n; i++) {
+                    hijos.add(new TareaSinOrden<>(nodo.getHijo(i), altura - 1, alturaSecuencial, proveedor,
+                            acumulador, parciales));
+                }
+                invokeAll(hijos);
+            }
+            //Un hilo solo usa su resultado parcial dentro de una tarea a la vez, así que no hace falta sincronizarlo
+            R parcial = parciales.computeIfAbsent(Thread.currentThread(), hilo -> proveedor.get());
+            if(altura <= alturaSecuencial) {
+                recorrer(nodo, dato -> acumulador.accept(parcial, dato));
+            } else {
+                for(int i = 0; i < nodo.getNumClaves(); i++) {
+                    acumulador.accept(parcial, nodo.getDato(i));
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,159 @@
+package Proyecto.Package;
+
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * Spliterator que recorre en inorden los datos de un árbol B y se divide por los límites de los subárboles, de modo
+ * que stream y parallelStream funcionan directamente sobre los nodos del árbol sin copiar los datos.
+ *
+ * Cada spliterator cubre un rango de posiciones de un nodo. En un nodo interno la posición 2i corresponde al hijo i
+ * y la posición 2i + 1 a la clave i; en una hoja la posición i corresponde a la clave i. Al dividirse, la primera
+ * mitad del rango pasa al nuevo spliterator; si solo queda un hijo por recorrer, el spliterator desciende a él.
+ *
+ * El árbol no debe modificarse mientras se recorre.
+ *
+ * @param <T> El tipo de los datos del árbol.
+ */
+class SpliteratorB<T> implements Spliterator<T> {
+    private TElementoB<T> nodo;                 //Nodo cuyas posiciones cubre el spliterator
+    private int desde;                          //Próxima posición a recorrer
+    private int hasta;                          //Posición siguiente a la última a recorrer
+    private int altura;                         //Altura del nodo, 0 para las hojas
+    private final int t;                        //Grado mínimo del árbol, para estimar el tamaño de los subárboles
+    private IteradorEnOrdenB<T> subarbolActual; //Recorrido en curso del hijo de la última posición tomada
+
+    /**
+     * @param raiz La raíz del árbol a recorrer, o null si el árbol está vacío.
+     * @param t Grado mínimo del árbol.
+     */
+    SpliteratorB(TElementoB<T> raiz, int t) {
+        this.t = t;
+        this.nodo = raiz;
+        if(raiz != null) {
+            this.hasta = cantidadPosiciones(raiz);
+            for(TElementoB<T> actual = raiz; !actual.esHoja(); actual = actual.getHijo(0)) {
+                altura++;
+            }
+        }
+    }
+
+    private SpliteratorB(TElementoB<T> nodo, int desde, int hasta, int altura, int t) {
+        this.nodo = nodo;
+        this.desde = desde;
+        this.hasta = hasta;
+        this.altura = altura;
+        this.t = t;
+    }
+
+    private static int cantidadPosiciones(TElementoB<?> nodo) {
+        return nodo.esHoja() ? nodo.getNumClaves() : 2 * nodo.getNumClaves() + 1;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super T> accion) {
+        while(true) {
+            if(subarbolActual != null) {
+                if(subarbolActual.hasNext()) {
+                    accion.accept(subarbolActual.next());
+                    return true;
+                }
+                subarbolActual = null;
+            }
+            if(desde >= hasta) {
+                return false;
+            }
+            int posicion = desde++;
+            if(nodo.esHoja()) {
+                accion.accept(nodo.getDato(posicion));
+                return true;
+            }
+            if(posicion % 2 == 1) {
+                accion.accept(nodo.getDato(posicion / 2));
+                return true;
+            }
+            subarbolActual = new IteradorEnOrdenB<>(nodo.getHijo(posicion / 2));
+        }
+    }
+
+    @Override
+    public void forEachRemaining(Consumer<? super T> accion) {
+        if(subarbolActual != null) {
+            subarbolActual.forEachRemaining(accion);
+            subarbolActual = null;
+        }
+        for(; desde < hasta; desde++) {
+            if(nodo.esHoja()) {
+                accion.accept(nodo.getDato(desde));
+            } else if(desde % 2 == 1) {
+                accion.accept(nodo.getDato(desde / 2));
+            } else {
+                recorrer(nodo.getHijo(desde / 2), accion);
+            }
+        }
+    }
+
+    /**
+     * Recorre en inorden el subárbol dado. La profundidad de la recursión es la altura del árbol.
+     */
+    private void recorrer(TElementoB<T> subarbol, Consumer<? super T> accion) {
+        for(int i = 0; i < subarbol.getNumClaves(); i++) {
+            if(!subarbol.esHoja()) {
+                recorrer(subarbol.getHijo(i), accion);
+            }
+            accion.accept(subarbol.getDato(i));
+        }
+        if(!subarbol.esHoja()) {
+            recorrer(subarbol.getHijo(subarbol.getNumClaves()), accion);
+        }
+    }
+
+    @Override
+    public Spliterator<T> trySplit() {
+        if(subarbolActual != null) {
+            return null;
+        }
+        //Si solo queda un hijo por recorrer, descendemos a él para poder dividir sus posiciones
+        while(hasta - desde == 1 && !nodo.esHoja() && desde % 2 == 0) {
+            nodo = nodo.getHijo(desde / 2);
+            altura--;
+            desde = 0;
+            hasta = cantidadPosiciones(nodo);
+        }
+        if(hasta - desde < 2) {
+            return null;
+        }
+        int medio = (desde + hasta) >>> 1;
+        SpliteratorB<T> prefijo = new SpliteratorB<>(nodo, desde, medio, altura, t);
+        desde = medio;
+        return prefijo;
+    }
+
+    /**
+     * Estima la cantidad de datos restantes suponiendo que cada nodo tiene en promedio 1.5t - 1 claves.
+     */
+    @Override
+    public long estimateSize() {
+        if(nodo == null) {
+            return 0;
+        }
+        if(nodo.esHoja()) {
+            return Math.max(0, hasta - desde);
+        }
+        int hijos = (hasta - desde + 1 - desde % 2) / 2;
+        int claves = (hasta - desde) - hijos;
+        double porSubarbol = tamañoEstimado(altura - 1);
+        double estimado = claves + hijos * porSubarbol + (subarbolActual != null ? porSubarbol / 2 : 0);
+        return estimado >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) estimado;
+    }
+
+    private double tamañoEstimado(int alturaSubarbol) {
+        double hijosPorNodo = 1.5 * t;
+        return Math.pow(hijosPorNodo, alturaSubarbol + 1) - 1;
+    }
+
+    @Override
+    public int characteristics() {
+        return ORDERED;
+    }
+}
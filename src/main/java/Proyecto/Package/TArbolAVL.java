@@ -0,0 +1,156 @@
+package Proyecto.Package;
+
+import java.io.Serializable;
+import java.util.LinkedList;
+import java.util.List;
+
+@SuppressWarnings({"rawtypes"})
+/**
+ * Clase que representa un árbol AVL, la variante autobalanceada de TArbolBB. Las inserciones y eliminaciones rotan
+ * los nodos necesarios para que la altura sea a lo sumo 1.44 log2(n), por lo que insertar ids crecientes, como los
+ * autoincrementales de RegistroBD, no degenera el árbol en una lista y todas las operaciones son O(log n).
+ *
+ * @param <T> El tipo de los datos que contendrán los elementos del árbol.
+ */
+public class TArbolAVL<T> implements IArbolBB<T>, Serializable {
+
+    /**
+     * Nodo raíz del árbol AVL.
+     */
+    private TElementoAVL<T> raiz;
+
+    /**
+     * Constructor por defecto de la clase TArbolAVL. Crea un árbol vacío.
+     */
+    public TArbolAVL() {
+        raiz = null;
+    }
+
+    /**
+     * Inserta un elemento en el árbol y lo rebalancea. Si ya existe un elemento con la misma etiqueta, no se
+     * inserta y retorna falso.
+     *
+     * @param etiqueta Etiqueta del elemento a insertar.
+     * @param unDato   Datos del elemento a insertar.
+     * @return Verdadero si el elemento fue insertado correctamente, falso en caso contrario.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    @Override
+    public boolean insertar(Comparable etiqueta, T unDato) {
+        TElementoAVL<T> unElemento = new TElementoAVL<>(etiqueta, unDato);
+        if (esVacio()) {
+            raiz = unElemento;
+            return true;
+        }
+        TElementoAVL<T> nuevaRaiz = raiz.insertarBalanceado(unElemento);
+        if (nuevaRaiz == null) {
+            return false;
+        }
+        raiz = nuevaRaiz;
+        return true;
+    }
+
+    /**
+     * Busca un elemento en el árbol utilizando su etiqueta.
+     *
+     * @param unaEtiqueta Etiqueta del elemento a buscar.
+     * @return Los datos del elemento encontrado. Si no se encuentra, retorna nulo.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    @Override
+    public T buscar(Comparable unaEtiqueta) {
+        if (esVacio()) {
+            return null;
+        }
+        TElementoAB<T> elemento = raiz.buscar(unaEtiqueta);
+        return elemento != null ? elemento.getDatos() : null;
+    }
+
+    /**
+     * Elimina un elemento del árbol dada su etiqueta y lo rebalancea.
+     *
+     * @param unaEtiqueta Etiqueta del elemento a eliminar.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    @Override
+    public void eliminar(Comparable unaEtiqueta) {
+        if (!esVacio()) {
+            raiz = raiz.eliminar(unaEtiqueta);
+        }
+    }
+
+    /**
+     * Verifica si el árbol está vacío (sin elementos).
+     *
+     * @return Verdadero si el árbol está vacío, falso en caso contrario.
+     */
+    public boolean esVacio() {
+        return (raiz == null);
+    }
+
+    /**
+     * Devuelve una lista de los elementos del árbol en preorden (raíz, izquierda, derecha).
+     *
+     * @return Lista con los elementos del árbol en preorden, o nulo si el árbol está vacío.
+     */
+    @Override
+    public List<T> preOrden() {
+        LinkedList<T> listaPreOrden = null;
+        if (!esVacio()) {
+            listaPreOrden = new LinkedList<>();
+            raiz.preOrden(listaPreOrden);
+        }
+        return listaPreOrden;
+    }
+
+    /**
+     * Devuelve una lista de los elementos del árbol en inorden (izquierda, raíz, derecha).
+     *
+     * @return Lista con los elementos del árbol en inorden, o nulo si el árbol está vacío.
+     */
+    @Override
+    public List<T> inOrden() {
+        LinkedList<T> listaInorden = null;
+        if (!esVacio()) {
+            listaInorden = new LinkedList<>();
+            raiz.inOrden(listaInorden);
+        }
+        return listaInorden;
+    }
+
+    /**
+     * Devuelve una lista de los elementos del árbol en postorden (izquierda, derecha, raíz).
+     *
+     * @return Lista con los elementos del árbol en postorden, o nulo si el árbol está vacío.
+     */
+    @Override
+    public List<T> postOrden() {
+        LinkedList<T> listaPostOrden = null;
+        if (!esVacio()) {
+            listaPostOrden = new LinkedList<>();
+            raiz.postOrden(listaPostOrden);
+        }
+        return listaPostOrden;
+    }
+
+    /**
+     * Obtiene la altura del árbol.
+     *
+     * @return La altura del árbol, 0 si está vacío.
+     */
+    public int getAltura() {
+        return esVacio() ? 0 : raiz.getAltura();
+    }
+
+    /**
+     * Obtiene el nodo raíz del árbol AVL.
+     *
+     * @return El nodo raíz del árbol.
+     */
+    public TElementoAVL<T> getRaiz() {
+        return raiz;
+    }
+}
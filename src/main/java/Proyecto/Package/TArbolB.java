@@ -1,8 +1,18 @@
 package Proyecto.Package;
 
 import java.io.Serializable;
+import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Spliterator;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 @SuppressWarnings({"rawtypes"})
 /**
@@ -10,44 +20,103 @@ import java.util.List;
  * subárboles. Los nodos internos actúan como puntos de separación para las claves y sus correspondientes
  * subárboles. Un árbol B está balanceado, lo que significa que todas las hojas están en el mismo nivel.
  *
+ * El árbol admite instantáneas inmutables en O(1) con copia en escritura: snapshot() comparte todos los nodos con
+ * la instantánea, y las modificaciones posteriores copian solo los nodos del camino que tocan, por lo que una
+ * instantánea puede recorrerse mientras el árbol sigue cambiando.
+ *
  * @param <T> El tipo de los datos que contendrán los elementos del árbol.
  */
 public class TArbolB<T> implements IArbolB<T>, Serializable {
     private TElementoB<T> raiz;
     private int t; //Grado mínimo del árbol
+    private int generacion; //Versión actual del árbol; los nodos de versiones anteriores pueden estar en instantáneas
 
     public TArbolB(int t) {
         this.raiz = null;
         this.t = t;
     }
+
+    /**
+     * Crea un árbol a partir de una raíz ya construida, como la que arma CargadorMasivoArbolB.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param raiz Raíz de un árbol B válido de grado mínimo t, o null para un árbol vacío.
+     */
+    TArbolB(int t, TElementoB<T> raiz) {
+        this.raiz = raiz;
+        this.t = t;
+    }
+    /**
+     * Obtiene el nodo raíz del árbol B.
+     *
+     * @return El nodo raíz del árbol, o null si el árbol está vacío.
+     */
+    public TElementoB<T> getRaiz() {
+        return raiz;
+    }
+
+    /**
+     * Obtiene la raíz para modificarla, copiándola antes si puede estar compartida con una instantánea.
+     */
+    private TElementoB<T> raizPropia() {
+        if(raiz.getGeneracion() != generacion) {
+            raiz = raiz.copiar(generacion);
+        }
+        return raiz;
+    }
+
+    /**
+     * Obtiene una instantánea inmutable del árbol, que comparte todos sus nodos con él. A partir de ahora el árbol
+     * copia cada nodo compartido antes de modificarlo, así que la instantánea no ve los cambios posteriores y
+     * puede recorrerse, por ejemplo para un listado o una copia de seguridad, mientras el árbol sigue cambiando.
+     *
+     * @return Un árbol de solo lectura con el contenido actual; sus métodos de modificación lanzan
+     *         UnsupportedOperationException.
+     *
+     * Postcondiciones:
+     * - El contenido de la instantánea no cambia, sin importar las modificaciones posteriores de este árbol.
+     * - Cada modificación posterior copia a lo sumo los nodos de un camino de la raíz a una hoja y sus hermanos.
+     *
+     * Orden de tiempo de ejecución: O(1)
+     */
+    @Override
+    public TArbolB<T> snapshot() {
+        generacion++;
+        return new Instantanea<>(t, raiz);
+    }
+
+    /**
+     * Inserta un elemento con un único descenso desde la raíz hasta la hoja. Las claves duplicadas se detectan
+     * durante el descenso, antes de modificar cualquier nodo, y los nodos que se desbordan se dividen al volver
+     * hacia la raíz, por lo que solo se divide lo estrictamente necesario.
+     */
     @Override
     public boolean insertar(Comparable clave, T dato) {
-        if(buscar(clave) != null) {
-            return false;
-        }
         //Caso Árbol vacío
         if(raiz == null) {
-            raiz = new TElementoB<>(t);
-            raiz.getClaves().add(clave);
-            raiz.getDatos().add(dato);
-        } else {
-            //Raíz llena
-            if(raiz.getNumClaves() == 2 * t - 1) {
-                //Creamos una nueva raíz y dividimos la raíz antigua
-                TElementoB<T> nuevaRaiz = new TElementoB<>(t);
-                nuevaRaiz.getHijos().add(raiz);
-                nuevaRaiz.dividirHijo(0, raiz);
-
-                // Insertar la nueva clase en la nueva raíz
-                nuevaRaiz.insertarEnNodoNoLleno(clave, dato);
-
-                //Actualizar la raíz
-
-                raiz = nuevaRaiz;
-            } else {
-                //la raíz no está llena
-                raiz.insertarEnNodoNoLleno(clave, dato);
-            }
+            raiz = new TElementoB<>(t, generacion);
+            raiz.insertarClaveYDato(clave, dato);
+            return true;
+        }
+
+        //Si la raíz está compartida con una instantánea, se busca la clave antes de copiar el camino
+        boolean compartida = raiz.getGeneracion() != generacion;
+        if(compartida && raiz.buscar(clave) != null) {
+            return false;
+        }
+        if(!raizPropia().insertarSinDuplicados(clave, dato, compartida)) {
+            return false;
+        }
+
+        //Raíz desbordada: creamos una nueva raíz y dividimos la raíz antigua
+        if(raiz.getNumClaves() > 2 * t - 1) {
+            TElementoB<T> nuevaRaiz = new TElementoB<>(t, generacion);
+            nuevaRaiz.getHijos().add(raiz);
+            nuevaRaiz.dividirHijoDesbordado(0, raiz);
+
+            //Actualizar la raíz
+
+            raiz = nuevaRaiz;
         }
         return true;
     }
@@ -55,21 +124,8 @@ public class TArbolB<T> implements IArbolB<T>, Serializable {
     @Override
     public T buscar(Comparable clave) {
         if(raiz != null) {
-            TElementoB<T> nodo = raiz.buscar(clave);
-
-            if(nodo != null) {
-                //Buscamos la clave
-                int i = 0;
-
-                while(i < nodo.getClaves().size() && !nodo.getClaves().get(i).equals(clave)) {
-                    i++;
-                }
-                //Si la clave se encuentra en el nodo, retornar el dato asociado.
-
-                if(i < nodo.getClaves().size()) {
-                    return nodo.getDatos().get(i);
-                }
-            }
+            //Si la clave se encuentra en algún nodo, retornar el dato asociado.
+            return raiz.buscarDato(clave);
         }
         // Si no encontramos la clave, devolvemos null
 
@@ -83,14 +139,14 @@ public class TArbolB<T> implements IArbolB<T>, Serializable {
             return false;
         }
 
-        boolean eliminado = raiz.eliminar(clave);
+        boolean eliminado = raizPropia().eliminar(clave);
 
         //Si la raíz está vacía después de la eliminación
 
-        if(raiz.getClaves().isEmpty()) {
+        if(raiz.getNumClaves() == 0) {
             //Si la raíz tiene hijos, entonces la nueva raíz es el primer hijo
-            if(!raiz.getHijos().isEmpty()) {
-                raiz = raiz.getHijos().getFirst();
+            if(!raiz.esHoja()) {
+                raiz = raiz.getHijo(0);
             } else {
                 //Si la raíz no tiene hijos, entonces el árbol está vacío
                 raiz = null;
@@ -99,6 +155,39 @@ public class TArbolB<T> implements IArbolB<T>, Serializable {
         return eliminado;
     }
 
+    /**
+     * Obtiene la cantidad de elementos del árbol, que la raíz lleva como el tamaño de su subárbol.
+     *
+     * Orden de tiempo de ejecución: O(1)
+     */
+    @Override
+    public int tamaño() {
+        return raiz == null ? 0 : raiz.obtenerTamaño();
+    }
+
+    /**
+     * Obtiene la posición de la clave en el inorden con un único descenso, sumando el tamaño de los subárboles
+     * que quedan a su izquierda.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    @Override
+    public int posicion(Comparable clave) {
+        return raiz == null ? 0 : raiz.posicion(clave);
+    }
+
+    /**
+     * Obtiene el dato de la posición dada del inorden con un único descenso, eligiendo en cada nodo el hijo cuyo
+     * tamaño cubre la posición.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    @Override
+    public T seleccionar(int posicion) {
+        Objects.checkIndex(posicion, tamaño());
+        return raiz.seleccionar(posicion);
+    }
+
     @Override
     public List preOrden() {
         List<T> lista = new ArrayList<>();
@@ -126,107 +215,185 @@ public class TArbolB<T> implements IArbolB<T>, Serializable {
         return lista;
     }
 
+    /**
+     * Fusiona este árbol con otro árbol B. Ante claves presentes en ambos árboles se conserva el dato de este árbol.
+     *
+     * Orden de tiempo de ejecución: O(n + m)
+     */
     @Override
+    @SuppressWarnings("unchecked")
     public boolean merge(TArbolB otroArbol) {
+        return merge(otroArbol, PoliticaDuplicados.conservarIzquierdo());
+    }
+
+    /**
+     * Fusiona este árbol con otro árbol B. Ambos árboles se recorren en inorden, las dos secuencias ordenadas se
+     * intercalan y el resultado se construye de abajo hacia arriba con CargadorMasivoArbolB, por lo que el árbol
+     * resultante es un árbol B válido sin importar la forma de los árboles originales.
+     *
+     * @param otroArbol El árbol cuyos elementos se agregan a este árbol.
+     * @param politica Política que decide el dato de las claves presentes en ambos árboles.
+     * @return Verdadero si la fusión fue exitosa.
+     *
+     * Postcondiciones:
+     * - Este árbol contiene la unión de las claves de ambos árboles.
+     * - El otro árbol permanece inalterado y no comparte nodos con este árbol.
+     *
+     * Orden de tiempo de ejecución: O(n + m)
+     */
+    public boolean merge(TArbolB<T> otroArbol, PoliticaDuplicados<T> politica) {
         // Si el otro árbol está vacío, entonces no hay nada que combinar
         if(otroArbol == null || otroArbol.raiz == null) {
             return true;
         }
 
-        //Si el árbol actual está vacío, entonces la raíz pasa a ser la del otro arbol
-        if(this.raiz == null) {
-            this.raiz = otroArbol.raiz;
-
-            return true;
-        }
-
-        //Combinamos las raíces ordenadamente
-        combinarRaices(this.raiz, otroArbol.raiz);
+        Iterator<Map.Entry<Comparable, T>> fusion = CargadorMasivoArbolB.fusionar(recorrerEnOrden(), otroArbol.recorrerEnOrden(), politica);
+        this.raiz = CargadorMasivoArbolB.construir(t, fusion, CargadorMasivoArbolB.FACTOR_LLENADO_POR_DEFECTO).raiz;
+        //Los nodos reconstruidos son todos nuevos y no los comparte ninguna instantánea
+        this.generacion = 0;
+        return true;
+    }
 
-        //Si la raíz resultante excede el número de claves, entonces la dividimos
-        if(this.raiz.getNumClaves() > 2 * t - 1) {
-            dividirRaiz();
-        }
+    @Override
+    public Iterator<T> iterator() {
+        return new IteradorEnOrdenB<>(raiz);
+    }
 
-        return true;
+    @Override
+    public Iterator<T> iteradorRango(Comparable desde, boolean incluirDesde, Comparable hasta, boolean incluirHasta, boolean descendente) {
+        return new IteradorEnOrdenB<>(raiz, desde, incluirDesde, hasta, incluirHasta, descendente);
     }
 
+    /**
+     * Obtiene un Spliterator que recorre los datos del árbol en inorden y se divide por los límites de los
+     * subárboles, de modo que parallelStream reparte el trabajo sin copiar los datos.
+     *
+     * @return Un Spliterator sobre los datos del árbol ordenados por clave.
+     */
+    @Override
+    public Spliterator<T> spliterator() {
+        return new SpliteratorB<>(raiz, t);
+    }
 
     /**
-     * Combina las claves, datos y hijos de dos nodos raíz de manera ordenada.
+     * Aplica la acción a cada dato del árbol en paralelo, dividiendo el trabajo por los hijos de los nodos con
+     * ForkJoin. La acción se llama desde varios hilos a la vez y sin un orden determinado.
+     *
+     * @param accion Acción a aplicar a cada dato; debe admitir llamadas concurrentes.
      *
      * Precondiciones:
-     * - Ambos nodos raíz (raiz1 y raiz2) no deben ser nulos.
-     * - Ambos nodos raíz deben pertenecer a árboles con el mismo grado mínimo t.
+     * - El árbol no debe modificarse mientras se recorre; una instantánea puede recorrerse en cualquier momento.
      *
-     * Postcondiciones:
-     * - Las claves y datos del nodo raiz2 se han agregado al nodo raiz1 de manera ordenada.
-     * - Si el número de claves en raiz1 excede el límite permitido, se divide la raíz.
-     * - Los hijos de raiz2 se agregan a raiz1 de manera ordenada.
+     * Orden de tiempo de ejecución: O(n / p + log n) con p hilos.
+     */
+    public void paraCadaParalelo(Consumer<? super T> accion) {
+        RecorridoParaleloB.paraCada(raiz, t, accion);
+    }
+
+    /**
+     * Reduce los datos del árbol en paralelo, combinando los resultados parciales en el orden de las claves, por lo
+     * que el combinador solo necesita ser asociativo.
      *
-     * @param raiz1 La primera raíz.
-     * @param raiz2 La segunda raíz.
+     * @param identidad Valor inicial de cada resultado parcial, neutro para el combinador.
+     * @param acumulador Función que incorpora un dato a un resultado parcial.
+     * @param combinador Función asociativa que combina dos resultados parciales consecutivos.
+     * @return El resultado de la reducción, o la identidad si el árbol está vacío.
      *
-     * Orden de tiempo de ejecución: O(t) en el peor de los casos.
+     * Orden de tiempo de ejecución: O(n / p + log n) con p hilos.
      */
-    private void combinarRaices(TElementoB<T> raiz1, TElementoB<T> raiz2) {
-        for(int i = 0; i < raiz2.getClaves().size(); i++) {
-            raiz1.insertarClaveYDato(raiz2.getClaves().get(i), raiz2.getDatos().get(i));
-            if(raiz1.getNumClaves() > 2 * t - 1) {
-                dividirRaiz();
-            }
-        }
-
-        //Combinamos los hijos del segundo nodo raíz al primero
-        if(!raiz2.getHijos().isEmpty()) {
-            for(int i = 0; i < raiz2.getHijos().size(); i++) {
-                insertarHijoOrdenado(raiz1, raiz2.getHijos().get(i));
-            }
-        }
-
+    public <R> R reducirParalelo(R identidad, BiFunction<R, ? super T, R> acumulador, BinaryOperator<R> combinador) {
+        return RecorridoParaleloB.reducir(raiz, t, identidad, acumulador, combinador, true);
     }
 
     /**
-     * Inserta un nuevo hijo en el nodo padre de manera ordenada.
+     * Reduce los datos del árbol en paralelo con un único resultado parcial por hilo, combinados en cualquier
+     * orden. Es más barato que reducirParalelo, pero el combinador debe ser asociativo y conmutativo.
      *
-     * Precondiciones:
-     * - El nodo padre (nodoPadre) y el nuevo hijo (nuevoHijo) no deben ser nulos.
-     * - Ambos nodos deben pertenecer a árboles con el mismo grado mínimo t.
-     *
-     * Postcondiciones:
-     * - El nuevo hijo se inserta en el nodo padre de manera ordenada.
+     * @param identidad Valor inicial de cada resultado parcial, neutro para el combinador.
+     * @param acumulador Función que incorpora un dato a un resultado parcial.
+     * @param combinador Función asociativa y conmutativa que combina dos resultados parciales.
+     * @return El resultado de la reducción, o la identidad si el árbol está vacío.
+     */
+    public <R> R reducirParaleloSinOrden(R identidad, BiFunction<R, ? super T, R> acumulador, BinaryOperator<R> combinador) {
+        return RecorridoParaleloB.reducir(raiz, t, identidad, acumulador, combinador, false);
+    }
+
+    /**
+     * Acumula los datos del árbol en contenedores mutables en paralelo, combinándolos en el orden de las claves.
+     * Por ejemplo, recolectarParalelo(ArrayList::new, ArrayList::add, ArrayList::addAll) devuelve el inorden.
      *
-     * @param nodoPadre El nodo padre en el cual se insertará el nuevo hijo.
-     * @param nuevoHijo El nuevo hijo a insertar.
+     * @param proveedor Crea un contenedor vacío.
+     * @param acumulador Agrega un dato a un contenedor.
+     * @param combinador Agrega al primer contenedor el contenido del segundo, que le sigue en el orden de las claves.
+     * @return El contenedor con todos los datos.
      *
-     * Orden de tiempo de ejecución: O(t) en el peor de los casos.
+     * Orden de tiempo de ejecución: O(n / p + log n) con p hilos, más el costo de combinar los contenedores.
      */
-    private void insertarHijoOrdenado(TElementoB<T> nodoPadre, TElementoB<T> nuevoHijo) {
-        int i = 0;
-        while (i < nodoPadre.getHijos().size() && nodoPadre.getHijos().get(i).getClaves().get(0).compareTo(nuevoHijo.getClaves().getFirst()) < 0) {
-            i++;
-        }
-        nodoPadre.getHijos().add(i, nuevoHijo);
+    public <R> R recolectarParalelo(Supplier<R> proveedor, BiConsumer<R, ? super T> acumulador, BiConsumer<R, R> combinador) {
+        return RecorridoParaleloB.recolectar(raiz, t, proveedor, acumulador, combinador, true);
     }
 
     /**
-     * Divide la raíz si el número de claves excede el límite permitido.
-     *
-     * Precondiciones:
-     * - La raíz actual debe tener más de 2 * t - 1 claves.
+     * Acumula los datos del árbol en paralelo con un único contenedor por hilo, combinados en cualquier orden.
      *
-     * Postcondiciones:
-     * - La raíz actual se divide en dos nodos.
-     * - Una nueva raíz se crea y se convierte en la nueva raíz del árbol.
+     * @param proveedor Crea un contenedor vacío.
+     * @param acumulador Agrega un dato a un contenedor.
+     * @param combinador Agrega al primer contenedor el contenido del segundo.
+     * @return El contenedor con todos los datos.
+     */
+    public <R> R recolectarParaleloSinOrden(Supplier<R> proveedor, BiConsumer<R, ? super T> acumulador, BiConsumer<R, R> combinador) {
+        return RecorridoParaleloB.recolectar(raiz, t, proveedor, acumulador, combinador, false);
+    }
+
+    /**
+     * Obtiene un iterador que recorre en inorden los pares (clave, dato) del árbol.
      *
-     * Orden de tiempo de ejecución: O(t) en el peor de los casos.
+     * @return Un iterador sobre los pares del árbol ordenados por clave.
      */
-    private void dividirRaiz() {
-        TElementoB<T> nuevaRaiz = new TElementoB<>(t);
-        TElementoB<T> antiguaRaiz = this.raiz;
+    Iterator<Map.Entry<Comparable, T>> recorrerEnOrden() {
+        IteradorEnOrdenB<T> datos = new IteradorEnOrdenB<>(raiz);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return datos.hasNext();
+            }
+
+            @Override
+            public Map.Entry<Comparable, T> next() {
+                T dato = datos.next();
+                return new AbstractMap.SimpleImmutableEntry<>(datos.claveActual(), dato);
+            }
+        };
+    }
+
+    /**
+     * Instantánea de solo lectura creada por snapshot(). Sus nodos pueden estar compartidos con el árbol original,
+     * que los copia antes de modificarlos.
+     */
+    private static final class Instantanea<T> extends TArbolB<T> {
+
+        Instantanea(int t, TElementoB<T> raiz) {
+            super(t, raiz);
+        }
+
+        @Override
+        public boolean insertar(Comparable clave, T dato) {
+            throw new UnsupportedOperationException("La instantánea es de solo lectura.");
+        }
+
+        @Override
+        public boolean eliminar(Comparable clave) {
+            throw new UnsupportedOperationException("La instantánea es de solo lectura.");
+        }
+
+        @Override
+        public boolean merge(TArbolB<T> otroArbol, PoliticaDuplicados<T> politica) {
+            throw new UnsupportedOperationException("La instantánea es de solo lectura.");
+        }
 
-        nuevaRaiz.getHijos().add(antiguaRaiz);
-        nuevaRaiz.dividirHijo(0, antiguaRaiz);
-        this.raiz = nuevaRaiz;
+        @Override
+        public TArbolB<T> snapshot() {
+            return this;
+        }
     }
 }
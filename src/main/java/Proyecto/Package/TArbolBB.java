@@ -1,6 +1,10 @@
 package Proyecto.Package;
 
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.List;
 import java.util.LinkedList;
 
@@ -15,9 +19,12 @@ import java.util.LinkedList;
 public class TArbolBB<T> implements IArbolBB<T>, Serializable {
 
     /**
-     * Nodo raíz del árbol binario de búsqueda.
+     * Nodo raíz del árbol binario de búsqueda. Se serializa con writeObject, sin recursión.
      */
-    protected TElementoAB<T> raiz;
+    protected transient TElementoAB<T> raiz;
+
+    private static final int TIENE_HIJO_IZQ = 1;
+    private static final int TIENE_HIJO_DER = 2;
 
     /**
      * Separador utilizado entre elemento y elemento al imprimir la lista.
@@ -155,4 +162,64 @@ public class TArbolBB<T> implements IArbolBB<T>, Serializable {
     public TElementoAB<T> getRaiz() {
         return raiz;
     }
-}
\ No newline at end of file
+
+    /**
+     * Escribe los nodos en preorden, cada uno con su etiqueta, sus datos y qué hijos tiene. La serialización por
+     * defecto seguiría las referencias entre nodos de forma recursiva y agotaría la pila con un árbol degenerado.
+     */
+    private void writeObject(ObjectOutputStream salida) throws IOException {
+        salida.defaultWriteObject();
+        salida.writeBoolean(raiz != null);
+        if (raiz == null) {
+            return;
+        }
+        ArrayDeque<TElementoAB<T>> pila = new ArrayDeque<>();
+        pila.push(raiz);
+        while (!pila.isEmpty()) {
+            TElementoAB<T> actual = pila.pop();
+            salida.writeObject(actual.getEtiqueta());
+            salida.writeObject(actual.getDatos());
+            salida.writeByte((actual.getHijoIzq() != null ? TIENE_HIJO_IZQ : 0)
+                    | (actual.getHijoDer() != null ? TIENE_HIJO_DER : 0));
+            if (actual.getHijoDer() != null) {
+                pila.push(actual.getHijoDer());
+            }
+            if (actual.getHijoIzq() != null) {
+                pila.push(actual.getHijoIzq());
+            }
+        }
+    }
+
+    /**
+     * Reconstruye el árbol leyendo los nodos en preorden. La pila guarda los nodos a los que todavía les falta
+     * recibir un hijo, y el orden en que se apilan coincide con el orden en que se escribieron esos hijos.
+     */
+    @SuppressWarnings("unchecked")
+    private void readObject(ObjectInputStream entrada) throws IOException, ClassNotFoundException {
+        entrada.defaultReadObject();
+        if (!entrada.readBoolean()) {
+            return;
+        }
+        ArrayDeque<TElementoAB<T>> padres = new ArrayDeque<>();
+        ArrayDeque<Boolean> esHijoIzq = new ArrayDeque<>();
+        do {
+            TElementoAB<T> nodo = new TElementoAB<>((Comparable) entrada.readObject(), (T) entrada.readObject());
+            int hijos = entrada.readByte();
+            if (raiz == null) {
+                raiz = nodo;
+            } else if (esHijoIzq.pop()) {
+                padres.pop().setHijoIzq(nodo);
+            } else {
+                padres.pop().setHijoDer(nodo);
+            }
+            if ((hijos & TIENE_HIJO_DER) != 0) {
+                padres.push(nodo);
+                esHijoIzq.push(false);
+            }
+            if ((hijos & TIENE_HIJO_IZQ) != 0) {
+                padres.push(nodo);
+                esHijoIzq.push(true);
+            }
+        } while (!padres.isEmpty());
+    }
+}
@@ -0,0 +1,726 @@
+package Proyecto.Package;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.StampedLock;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+/**
+ * Árbol B seguro para uso concurrente con acoplamiento de latches (latch crabbing): cada nodo tiene un latch de
+ * lectura y escritura, y quien desciende toma el latch del hijo antes de soltar el del padre. Las búsquedas solo
+ * toman latches de lectura, por lo que avanzan en paralelo. Las inserciones y eliminaciones toman latches de
+ * escritura y sueltan los de los ancestros en cuanto el hijo es seguro, es decir, cuando no puede dividirse ni
+ * quedar con menos de t - 1 claves, de modo que dos escrituras en subárboles distintos no se bloquean entre sí.
+ *
+ * Las búsquedas por clave son además optimistas: descienden sin tomar latches, anotando la versión de cada nodo,
+ * y validan que no haya cambiado antes de confiar en lo leído. Solo reintentan si una escritura modificó un nodo
+ * de su camino, y tras algunos intentos fallidos descienden con latches de lectura. Como no escriben en memoria
+ * compartida, no se disputan las líneas de caché de los nodos superiores y escalan con la cantidad de núcleos.
+ *
+ * Los latches siempre se toman de la raíz hacia las hojas, y los de hermanos solo con el padre tomado en escritura,
+ * por lo que no hay interbloqueos. Los iteradores son débilmente consistentes: no fallan ante modificaciones
+ * concurrentes y devuelven cada clave a lo sumo una vez, en orden.
+ *
+ * @param <T> El tipo de los datos que contendrán los elementos del árbol.
+ */
+public class TArbolBConcurrente<T> implements IArbolB<T> {
+
+    /**
+     * Cantidad de descensos optimistas que intenta una búsqueda antes de descender con latches de lectura.
+     */
+    static final int INTENTOS_OPTIMISTAS = 4;
+
+    private static final Object REINTENTAR = new Object(); //Resultado de un descenso optimista invalidado
+
+    private final int t;                                     //Grado mínimo del árbol
+    private final StampedLock latchRaiz = new StampedLock(); //Protege la referencia a la raíz
+    private TElementoB<T> raiz;                              //Solo se lee o cambia con latchRaiz tomado
+    private final LongAdder cantidad = new LongAdder();      //Cantidad de elementos, con una celda por hilo en disputa
+
+    /**
+     * Crea un árbol concurrente vacío.
+     *
+     * @param t Grado mínimo del árbol.
+     */
+    public TArbolBConcurrente(int t) {
+        this(t, null);
+    }
+
+    /**
+     * Crea un árbol concurrente a partir de una raíz ya construida, como la que arma CargadorMasivoArbolB.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param raiz Raíz de un árbol B válido de grado mínimo t, o null para un árbol vacío. El árbol se copia a nodos
+     *             con latch, así que el original no cambia.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     */
+    TArbolBConcurrente(int t, TElementoB<T> raiz) {
+        this.t = t;
+        this.raiz = raiz == null ? null : raiz.copiarSubarbol(generacion -> new NodoConLatch<>(t, generacion));
+        if(raiz != null) {
+            cantidad.add(raiz.obtenerTamaño());
+        }
+    }
+
+    /**
+     * Nodo del árbol concurrente, que agrega a TElementoB el latch que acoplan los descensos. TElementoB crea los
+     * nodos de sus divisiones con nuevoNodo, así que también los nodos que ella agrega tienen latch.
+     */
+    private static final class NodoConLatch<T> extends TElementoB<T> {
+        private final StampedLock latch = new StampedLock(); //Latch del nodo
+        private final int t;                                 //Grado mínimo, para crear los nodos de las divisiones
+
+        NodoConLatch(int t, int generacion) {
+            super(t, generacion);
+            this.t = t;
+        }
+
+        @Override
+        TElementoB<T> nuevoNodo(int generacion) {
+            return new NodoConLatch<>(t, generacion);
+        }
+    }
+
+    /**
+     * Obtiene el latch de un nodo del árbol, que siempre es un NodoConLatch.
+     */
+    private static StampedLock latch(TElementoB<?> nodo) {
+        return ((NodoConLatch<?>) nodo).latch;
+    }
+
+    /**
+     * Toma el latch de lectura de la raíz. Debe soltarse con tryUnlockRead.
+     *
+     * @return La raíz con su latch de lectura tomado, o null si el árbol está vacío.
+     */
+    private TElementoB<T> leerRaiz() {
+        long sello = latchRaiz.readLock();
+        try {
+            TElementoB<T> actual = raiz;
+            if(actual != null) {
+                latch(actual).readLock();
+            }
+            return actual;
+        } finally {
+            latchRaiz.unlockRead(sello);
+        }
+    }
+
+    /**
+     * Busca un dato con descensos optimistas y, si las escrituras concurrentes invalidan todos los intentos, con
+     * latches de lectura acoplados.
+     *
+     * Orden de tiempo de ejecución: O(log n) por intento.
+     */
+    @Override
+    public T buscar(Comparable clave) {
+        for(int intento = 0; intento < INTENTOS_OPTIMISTAS; intento++) {
+            Object resultado = buscarOptimista(clave);
+            if(resultado != REINTENTAR) {
+                return (T) resultado;
+            }
+            Thread.onSpinWait();
+        }
+        return buscarConLatches(clave);
+    }
+
+    /**
+     * Desciende sin tomar latches. Antes de pasar a un hijo anota su versión y valida que el padre no haya cambiado
+     * desde que se anotó la suya, de modo que el hijo era realmente el del camino; una escritura posterior en el hijo
+     * cambia su versión y se detecta al validarlo. Los datos leídos de un nodo solo se usan después de validarlo.
+     *
+     * @return El dato encontrado, null si la clave no está, o REINTENTAR si una escritura invalidó el descenso.
+     */
+    private Object buscarOptimista(Comparable clave) {
+        long selloRaiz = latchRaiz.tryOptimisticRead();
+        if(selloRaiz == 0) {
+            return REINTENTAR;
+        }
+        TElementoB<T> nodo = raiz;
+        if(nodo == null) {
+            return latchRaiz.validate(selloRaiz) ? null : REINTENTAR;
+        }
+        StampedLock latch = latch(nodo);
+        long sello = latch.tryOptimisticRead();
+        if(sello == 0 || !latchRaiz.validate(selloRaiz)) {
+            return REINTENTAR;
+        }
+        try {
+            while(true) {
+                int i = nodo.encontrarClave(clave);
+                boolean encontrada = i < nodo.getNumClaves() && TElementoB.comparar(nodo.getClave(i), clave) == 0;
+                Object dato = encontrada ? nodo.getDato(i) : null;
+                TElementoB<T> hijo = encontrada || nodo.esHoja() ? null : nodo.getHijo(i);
+                if(!latch.validate(sello)) {
+                    return REINTENTAR;
+                }
+                if(hijo == null) {
+                    return dato;
+                }
+                StampedLock latchHijo = latch(hijo);
+                long selloHijo = latchHijo.tryOptimisticRead();
+                if(selloHijo == 0 || !latch.validate(sello)) {
+                    return REINTENTAR;
+                }
+                nodo = hijo;
+                latch = latchHijo;
+                sello = selloHijo;
+            }
+        } catch(RuntimeException e) {
+            //Leer un nodo a mitad de una escritura puede fallar; solo es un error real si el nodo no cambió
+            if(!latch.validate(sello)) {
+                return REINTENTAR;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Busca un dato descendiendo con latches de lectura acoplados.
+     *
+     * Orden de tiempo de ejecución: O(log n), más la espera por escrituras en los nodos del camino.
+     */
+    private T buscarConLatches(Comparable clave) {
+        TElementoB<T> actual = leerRaiz();
+        if(actual == null) {
+            return null;
+        }
+        while(true) {
+            int i = actual.encontrarClave(clave);
+            if(i < actual.getNumClaves() && TElementoB.comparar(actual.getClave(i), clave) == 0) {
+                T dato = actual.getDato(i);
+                latch(actual).tryUnlockRead();
+                return dato;
+            }
+            if(actual.esHoja()) {
+                latch(actual).tryUnlockRead();
+                return null;
+            }
+            TElementoB<T> hijo = actual.getHijo(i);
+            latch(hijo).readLock();
+            latch(actual).tryUnlockRead();
+            actual = hijo;
+        }
+    }
+
+    /**
+     * Inserta descendiendo con latches de escritura. Un hijo con menos de 2t - 1 claves no se divide aunque reciba
+     * una clave de abajo, así que al llegar a él se sueltan todos sus ancestros; al final solo queda tomado el tramo
+     * del camino que la inserción puede dividir.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    @Override
+    public boolean insertar(Comparable clave, T dato) {
+        //La referencia a la raíz se toma compartida, para no invalidar las búsquedas optimistas, salvo que la raíz
+        //esté llena y la inserción pueda reemplazarla
+        boolean exclusivo = false;
+        long selloRaiz;
+        TElementoB<T> actual;
+        while(true) {
+            selloRaiz = exclusivo ? latchRaiz.writeLock() : latchRaiz.readLock();
+            actual = raiz;
+            if(actual == null) {
+                if(exclusivo) {
+                    raiz = new NodoConLatch<>(t, 0);
+                    raiz.insertarClaveYDato(clave, dato);
+                    cantidad.increment();
+                    latchRaiz.unlock(selloRaiz);
+                    return true;
+                }
+            } else {
+                latch(actual).writeLock();
+                if(actual.getNumClaves() < 2 * t - 1) {
+                    latchRaiz.unlock(selloRaiz);
+                    selloRaiz = 0;
+                    break;
+                }
+                if(exclusivo) {
+                    break;
+                }
+                latch(actual).tryUnlockWrite();
+            }
+            latchRaiz.unlock(selloRaiz);
+            exclusivo = true;
+        }
+        TElementoB[] camino = new TElementoB[8]; //Nodos con el latch de escritura tomado, de arriba hacia abajo
+        int[] posiciones = new int[8];           //Posición de cada nodo del camino dentro del anterior
+        int largo = 0;
+        camino[largo++] = actual;
+        try {
+            while(true) {
+                int i = actual.encontrarClave(clave);
+                if(i < actual.getNumClaves() && TElementoB.comparar(actual.getClave(i), clave) == 0) {
+                    return false;
+                }
+                if(actual.esHoja()) {
+                    actual.insertarClaveEnPosicion(i, clave, dato);
+                    break;
+                }
+                TElementoB<T> hijo = actual.getHijo(i);
+                latch(hijo).writeLock();
+                if(hijo.getNumClaves() < 2 * t - 1) {
+                    //El hijo absorbe cualquier división de abajo: los ancestros ya no cambian
+                    soltarEscritura(camino, 0, largo);
+                    largo = 0;
+                    if(selloRaiz != 0) {
+                        latchRaiz.unlock(selloRaiz);
+                        selloRaiz = 0;
+                    }
+                }
+                if(largo == camino.length) {
+                    camino = Arrays.copyOf(camino, largo * 2);
+                    posiciones = Arrays.copyOf(posiciones, largo * 2);
+                }
+                posiciones[largo] = i;
+                camino[largo++] = hijo;
+                actual = hijo;
+            }
+
+            //Dividimos los nodos desbordados de abajo hacia arriba; todos tienen su latch tomado
+            for(int k = largo - 1; k > 0 && camino[k].getNumClaves() > 2 * t - 1; k--) {
+                camino[k - 1].dividirHijoDesbordado(posiciones[k], camino[k]);
+            }
+            if(selloRaiz != 0 && raiz.getNumClaves() > 2 * t - 1) {
+                TElementoB<T> nuevaRaiz = new NodoConLatch<>(t, 0);
+                nuevaRaiz.getHijos().add(raiz);
+                nuevaRaiz.dividirHijoDesbordado(0, raiz);
+                raiz = nuevaRaiz;
+            }
+            cantidad.increment();
+            return true;
+        } finally {
+            soltarEscritura(camino, 0, largo);
+            if(selloRaiz != 0) {
+                latchRaiz.unlock(selloRaiz);
+            }
+        }
+    }
+
+    private static void soltarEscritura(TElementoB[] nodos, int desde, int hasta) {
+        for(int k = desde; k < hasta; k++) {
+            latch(nodos[k]).tryUnlockWrite();
+            nodos[k] = null;
+        }
+    }
+
+    /**
+     * Elimina en una sola pasada, como la eliminación de CLRS: antes de descender a un hijo con t - 1 claves se le
+     * pasa una clave de un hermano o se lo combina con él, así que un nodo visitado nunca queda con menos claves de
+     * las permitidas y alcanza con tener tomados el nodo actual, el hijo y sus hermanos inmediatos.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    @Override
+    public boolean eliminar(Comparable clave) {
+        //Solo una raíz con una clave puede quedar vacía y ser reemplazada; con más, alcanza el latch compartido
+        boolean exclusivo = false;
+        long selloRaiz;
+        TElementoB<T> actual;
+        while(true) {
+            selloRaiz = exclusivo ? latchRaiz.writeLock() : latchRaiz.readLock();
+            actual = raiz;
+            if(actual == null) {
+                latchRaiz.unlock(selloRaiz);
+                return false;
+            }
+            latch(actual).writeLock();
+            if(exclusivo || actual.getNumClaves() > 1) {
+                break;
+            }
+            latch(actual).tryUnlockWrite();
+            latchRaiz.unlock(selloRaiz);
+            exclusivo = true;
+        }
+        try {
+            while(true) {
+                int i = actual.encontrarClave(clave);
+                int n = actual.getNumClaves();
+                TElementoB<T> siguiente;
+                if(i < n && TElementoB.comparar(actual.getClave(i), clave) == 0) {
+                    if(actual.esHoja()) {
+                        actual.quitarClaveEnPosicion(i);
+                        cantidad.decrement();
+                        return true;
+                    }
+                    //Casos 2a y 2b: la clave se reemplaza por su predecesor o sucesor, que luego se elimina del hijo;
+                    //caso 2c: se combinan los dos hijos y la clave se elimina del hijo combinado
+                    TElementoB<T> izquierdo = actual.getHijo(i);
+                    latch(izquierdo).writeLock();
+                    if(izquierdo.getNumClaves() >= t) {
+                        clave = reemplazarPorExtremo(actual, i, izquierdo, true);
+                        siguiente = izquierdo;
+                    } else {
+                        TElementoB<T> derecho = actual.getHijo(i + 1);
+                        latch(derecho).writeLock();
+                        if(derecho.getNumClaves() >= t) {
+                            latch(izquierdo).tryUnlockWrite();
+                            clave = reemplazarPorExtremo(actual, i, derecho, false);
+                            siguiente = derecho;
+                        } else {
+                            actual.combinar(i);
+                            latch(derecho).tryUnlockWrite();
+                            siguiente = izquierdo;
+                        }
+                    }
+                } else {
+                    if(actual.esHoja()) {
+                        return false;
+                    }
+                    siguiente = prepararHijo(actual, i);
+                }
+
+                //Si la raíz quedó vacía, su único hijo pasa a ser la raíz
+                if(selloRaiz != 0) {
+                    if(raiz.getNumClaves() == 0) {
+                        raiz = raiz.esHoja() ? null : raiz.getHijo(0);
+                    }
+                    latchRaiz.unlock(selloRaiz);
+                    selloRaiz = 0;
+                }
+                latch(actual).tryUnlockWrite();
+                actual = siguiente;
+            }
+        } finally {
+            latch(actual).tryUnlockWrite();
+            if(selloRaiz != 0) {
+                //La operación terminó en la raíz, que es una hoja
+                if(raiz.getNumClaves() == 0) {
+                    raiz = null;
+                }
+                latchRaiz.unlock(selloRaiz);
+            }
+        }
+    }
+
+    /**
+     * Reemplaza la entrada i del nodo por la mayor del subárbol izquierdo o la menor del derecho, buscándola con
+     * latches de lectura acoplados debajo del hijo, que ya tiene el latch de escritura tomado.
+     *
+     * @return La clave que subió al nodo y que ahora hay que eliminar del subárbol del hijo.
+     */
+    private Comparable reemplazarPorExtremo(TElementoB<T> nodo, int i, TElementoB<T> hijo, boolean mayor) {
+        TElementoB<T> actual = hijo;
+        while(!actual.esHoja()) {
+            TElementoB<T> siguiente = actual.getHijo(mayor ? actual.getNumClaves() : 0);
+            latch(siguiente).readLock();
+            if(actual != hijo) {
+                latch(actual).tryUnlockRead();
+            }
+            actual = siguiente;
+        }
+        int posicion = mayor ? actual.getNumClaves() - 1 : 0;
+        Comparable clave = actual.getClave(posicion);
+        nodo.reemplazarEntrada(i, clave, actual.getDato(posicion));
+        if(actual != hijo) {
+            latch(actual).tryUnlockRead();
+        }
+        return clave;
+    }
+
+    /**
+     * Toma el latch de escritura del hijo i y, si tiene t - 1 claves, le pasa una clave de un hermano o lo combina
+     * con uno, tomando también los latches de los hermanos. Como el nodo tiene su latch de escritura tomado, nadie
+     * más puede empezar a esperar por sus hijos, así que el orden entre hermanos no produce interbloqueos.
+     *
+     * @return El hijo por el que continúa el descenso, con su latch de escritura tomado.
+     */
+    private TElementoB<T> prepararHijo(TElementoB<T> nodo, int i) {
+        int n = nodo.getNumClaves();
+        TElementoB<T> hijo = nodo.getHijo(i);
+        latch(hijo).writeLock();
+        if(hijo.getNumClaves() >= t) {
+            return hijo;
+        }
+        TElementoB<T> anterior = i > 0 ? nodo.getHijo(i - 1) : null;
+        TElementoB<T> posterior = i < n ? nodo.getHijo(i + 1) : null;
+        if(anterior != null) {
+            latch(anterior).writeLock();
+        }
+        if(posterior != null) {
+            latch(posterior).writeLock();
+        }
+        nodo.rellenar(i);
+
+        //Si el hijo era el último y se combinó con el anterior, la clave quedó en el anterior
+        TElementoB<T> siguiente = (i == n && i > nodo.getNumClaves()) ? anterior : hijo;
+        for(TElementoB<T> otro : new TElementoB[]{anterior, hijo, posterior}) {
+            if(otro != null && otro != siguiente) {
+                latch(otro).tryUnlockWrite();
+            }
+        }
+        return siguiente;
+    }
+
+    /**
+     * Recorre los nodos con una pila explícita tomando el latch de lectura de un nodo a la vez, agregando los datos
+     * de cada nodo antes que los de sus hijos, en orden directo o inverso.
+     */
+    private void recorrerNodos(List<T> lista, boolean inverso) {
+        List<TElementoB<T>> pila = new ArrayList<>();
+        TElementoB<T> primero = leerRaiz();
+        if(primero == null) {
+            return;
+        }
+        latch(primero).tryUnlockRead();
+        pila.add(primero);
+        while(!pila.isEmpty()) {
+            TElementoB<T> nodo = pila.remove(pila.size() - 1);
+            long sello = latch(nodo).readLock();
+            try {
+                int n = nodo.getNumClaves();
+                for(int i = 0; i < n; i++) {
+                    lista.add(nodo.getDato(inverso ? n - 1 - i : i));
+                }
+                int hijos = nodo.getNumHijos();
+                for(int i = 0; i < hijos; i++) {
+                    pila.add(nodo.getHijo(inverso ? i : hijos - 1 - i));
+                }
+            } finally {
+                latch(nodo).unlockRead(sello);
+            }
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de elementos de un contador que las escrituras actualizan sin disputarse una misma
+     * variable. El tamaño de los subárboles no se mantiene en los nodos, porque las escrituras sueltan los latches
+     * de los ancestros antes de terminar, así que la posición y la selección recorren el árbol.
+     *
+     * Orden de tiempo de ejecución: O(1). Con escrituras concurrentes el resultado es débilmente consistente.
+     */
+    @Override
+    public int tamaño() {
+        return (int) cantidad.sum();
+    }
+
+    /**
+     * Orden de tiempo de ejecución: O(n). Con escrituras concurrentes el resultado es débilmente consistente.
+     */
+    @Override
+    public List<T> preOrden() {
+        List<T> lista = new ArrayList<>();
+        recorrerNodos(lista, false);
+        return lista;
+    }
+
+    @Override
+    public List<T> inOrden() {
+        List<T> lista = new ArrayList<>();
+        for(T dato : this) {
+            lista.add(dato);
+        }
+        return lista;
+    }
+
+    /**
+     * Orden de tiempo de ejecución: O(n). Con escrituras concurrentes el resultado es débilmente consistente.
+     */
+    @Override
+    public List<T> postOrden() {
+        //El postorden es el inverso de recorrer cada nodo con sus datos del último al primero antes que sus hijos,
+        //y los hijos del último al primero
+        List<T> lista = new ArrayList<>();
+        recorrerNodos(lista, true);
+        Collections.reverse(lista);
+        return lista;
+    }
+
+    /**
+     * Inserta las entradas del otro árbol que no están en este, una a una, de modo que las operaciones
+     * concurrentes sigan viendo un árbol válido durante la fusión.
+     *
+     * Orden de tiempo de ejecución: O(m log(n + m)), siendo m la cantidad de elementos del otro árbol.
+     */
+    @Override
+    public boolean merge(TArbolB<T> otroArbol) {
+        if(otroArbol != null) {
+            Iterator<Map.Entry<Comparable, T>> entradas = otroArbol.recorrerEnOrden();
+            while(entradas.hasNext()) {
+                Map.Entry<Comparable, T> entrada = entradas.next();
+                insertar(entrada.getKey(), entrada.getValue());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new IteradorConcurrente(null, true, null, true, false);
+    }
+
+    @Override
+    public Iterator<T> iteradorRango(Comparable desde, boolean incluirDesde, Comparable hasta, boolean incluirHasta,
+                                     boolean descendente) {
+        return new IteradorConcurrente(desde, incluirDesde, hasta, incluirHasta, descendente);
+    }
+
+    /**
+     * Copia en el lote, en el orden del recorrido, las entradas que siguen a la clave límite: las de la hoja donde
+     * termina el descenso y, después de ellas, la clave del ancestro más cercano que sigue a esa hoja. Desciende con
+     * latches de lectura acoplados, por lo que cada lote es una vista consistente de un camino del árbol.
+     *
+     * @param limite Clave después de la cual empieza el lote, o null para empezar por el extremo del árbol.
+     * @param incluirLimite Indica si una clave igual al límite forma parte del lote.
+     * @param descendente Verdadero para recorrer de la mayor clave a la menor.
+     * @param lote Lista donde se agregan las entradas.
+     *
+     * Orden de tiempo de ejecución: O(log n + t)
+     */
+    private void cargarLote(Comparable limite, boolean incluirLimite, boolean descendente,
+                            List<Map.Entry<Comparable, T>> lote) {
+        TElementoB<T> actual = leerRaiz();
+        if(actual == null) {
+            return;
+        }
+        Map.Entry<Comparable, T> candidata = null; //Clave del ancestro más cercano que sigue al subárbol visitado
+        while(true) {
+            int n = actual.getNumClaves();
+            int i;
+            if(limite == null) {
+                i = descendente ? n : 0;
+            } else {
+                //En orden ascendente i es la primera clave del lote; en descendente, la cantidad de claves anteriores
+                i = actual.encontrarClave(limite);
+                if(i < n && TElementoB.comparar(actual.getClave(i), limite) == 0) {
+                    if(incluirLimite) {
+                        //La clave límite es la primera del lote; el lote siguiente sigue desde ella
+                        lote.add(new AbstractMap.SimpleImmutableEntry<>(actual.getClave(i), actual.getDato(i)));
+                        latch(actual).tryUnlockRead();
+                        return;
+                    }
+                    if(!descendente) {
+                        i++;
+                    }
+                }
+            }
+            if(actual.esHoja()) {
+                if(descendente) {
+                    for(int j = i - 1; j >= 0; j--) {
+                        lote.add(new AbstractMap.SimpleImmutableEntry<>(actual.getClave(j), actual.getDato(j)));
+                    }
+                } else {
+                    for(int j = i; j < n; j++) {
+                        lote.add(new AbstractMap.SimpleImmutableEntry<>(actual.getClave(j), actual.getDato(j)));
+                    }
+                }
+                latch(actual).tryUnlockRead();
+                break;
+            }
+            if(descendente && i > 0) {
+                candidata = new AbstractMap.SimpleImmutableEntry<>(actual.getClave(i - 1), actual.getDato(i - 1));
+            } else if(!descendente && i < n) {
+                candidata = new AbstractMap.SimpleImmutableEntry<>(actual.getClave(i), actual.getDato(i));
+            }
+            TElementoB<T> hijo = actual.getHijo(i);
+            latch(hijo).readLock();
+            latch(actual).tryUnlockRead();
+            actual = hijo;
+        }
+        if(candidata != null) {
+            lote.add(candidata);
+        }
+    }
+
+    /**
+     * Iterador débilmente consistente que copia las entradas por lotes y, al agotar un lote, vuelve a descender
+     * desde la raíz buscando la clave siguiente a la última devuelta. Entre lotes no mantiene latches tomados, por
+     * lo que nunca bloquea a las escrituras.
+     */
+    private class IteradorConcurrente implements Iterator<T> {
+        private final Comparable fin;             //Extremo donde termina el recorrido, o null
+        private final boolean incluirFin;
+        private final boolean descendente;
+        private final List<Map.Entry<Comparable, T>> lote = new ArrayList<>();
+        private int posicion;                     //Próxima entrada del lote a devolver
+        private Comparable ultima;                //Clave después de la cual se carga el próximo lote
+        private boolean incluirUltima;
+        private boolean terminado;
+        private Map.Entry<Comparable, T> proxima; //Entrada que devolverá next, o null si hay que buscarla
+
+        IteradorConcurrente(Comparable desde, boolean incluirDesde, Comparable hasta, boolean incluirHasta,
+                            boolean descendente) {
+            this.descendente = descendente;
+            this.fin = descendente ? desde : hasta;
+            this.incluirFin = descendente ? incluirDesde : incluirHasta;
+            this.ultima = descendente ? hasta : desde;
+            this.incluirUltima = descendente ? incluirHasta : incluirDesde;
+            if(desde != null && hasta != null) {
+                int orden = TElementoB.comparar(desde, hasta);
+                terminado = orden > 0 || (orden == 0 && !(incluirDesde && incluirHasta));
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            if(proxima == null && !terminado) {
+                proxima = avanzar();
+            }
+            return proxima != null;
+        }
+
+        @Override
+        public T next() {
+            if(!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            T dato = proxima.getValue();
+            proxima = null;
+            return dato;
+        }
+
+        private Map.Entry<Comparable, T> avanzar() {
+            while(posicion == lote.size()) {
+                lote.clear();
+                posicion = 0;
+                cargarLote(ultima, incluirUltima, descendente, lote);
+                if(lote.isEmpty()) {
+                    terminado = true;
+                    return null;
+                }
+                ultima = lote.get(lote.size() - 1).getKey();
+                incluirUltima = false;
+            }
+            Map.Entry<Comparable, T> entrada = lote.get(posicion++);
+            if(fin != null) {
+                int orden = TElementoB.comparar(entrada.getKey(), fin);
+                if(descendente ? (orden < 0 || (orden == 0 && !incluirFin)) : (orden > 0 || (orden == 0 && !incluirFin))) {
+                    terminado = true;
+                    lote.clear();
+                    return null;
+                }
+            }
+            return entrada;
+        }
+    }
+
+    /**
+     * Obtiene la raíz del árbol. Solo debe usarse sin operaciones concurrentes en curso, por ejemplo para verificar
+     * la estructura del árbol.
+     *
+     * @return La raíz, o null si el árbol está vacío.
+     */
+    TElementoB<T> getRaiz() {
+        long sello = latchRaiz.readLock();
+        try {
+            return raiz;
+        } finally {
+            latchRaiz.unlockRead(sello);
+        }
+    }
+
+    /**
+     * @return El grado mínimo del árbol.
+     */
+    public int getGradoMinimo() {
+        return t;
+    }
+}
@@ -0,0 +1,1025 @@
+package Proyecto.Package;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+@SuppressWarnings({"rawtypes"})
+/**
+ * Árbol B de registros guardado en un archivo de páginas de tamaño fijo, para bases de datos que no entran en la
+ * memoria. Cada nodo ocupa una página con las claves, la dirección del registro de cada clave y los números de
+ * página de los hijos; el grado mínimo se deriva del tamaño de página, de modo que un nodo llena su página. Las
+ * páginas se acceden a través de un BufferPaginas con una cantidad fija de marcos, por lo que la memoria usada no
+ * depende de la cantidad de registros y una búsqueda lee como mucho tantas páginas como la altura del árbol, más la
+ * página del registro.
+ *
+ * Los registros se guardan aparte de los nodos, en páginas de datos que se llenan en orden de llegada; así los nodos
+ * tienen entradas de tamaño fijo sin importar el largo de los datos. El espacio de los registros eliminados no se
+ * reutiliza: para compactar el archivo se guarda una instantánea y se carga en un archivo nuevo.
+ *
+ * Las inserciones dividen los nodos llenos y las eliminaciones completan los nodos con t - 1 claves durante el
+ * descenso, por lo que cada operación recorre el camino una sola vez, sin volver a subir.
+ *
+ * El archivo queda consistente al llamar a vaciar o close; una interrupción entre medio puede dejarlo a mitad de
+ * una operación.
+ *
+ * Formato del archivo, con enteros big-endian:
+ * - Página 0: número mágico, versión, tamaño de página, grado mínimo, página raíz, cantidad de páginas, primera
+ *   página libre, página de datos en uso, posición en la página de datos (4 bytes cada uno) y cantidad de
+ *   registros (8 bytes).
+ * - Página de nodo: si es hoja (1 byte), 3 bytes de relleno, cantidad de claves (4 bytes), 2t - 1 claves (4 bytes
+ *   cada una), 2t - 1 direcciones de registro (8 bytes cada una) y 2t hijos (4 bytes cada uno).
+ * - Registro: id (4 bytes), largo de los datos en UTF-8 o -1 si son null (4 bytes) y los datos, que continúan en
+ *   las páginas siguientes si no entran en una.
+ */
+public class TArbolBDisco implements IArbolB<RegistroBD>, Closeable {
+
+    /**
+     * Tamaño de página por defecto, el de una página de memoria en la mayoría de los sistemas.
+     */
+    public static final int TAMAÑO_PAGINA_POR_DEFECTO = 4096;
+
+    /**
+     * Cantidad mínima de marcos del buffer: una eliminación fija a la vez un nodo, su hijo y los dos hermanos.
+     */
+    public static final int MARCOS_MINIMOS = 8;
+
+    private static final int MAGICO = 0x42444431; //"BDD1"
+    private static final int VERSION = 1;
+    private static final int SIN_PAGINA = 0;     //La página 0 es la cabecera, por lo que ningún nodo la usa
+    private static final int TAMAÑO_CABECERA = 9 * Integer.BYTES + Long.BYTES;
+    private static final int DESPLAZAMIENTO_CLAVES = 8;
+
+    private final BufferPaginas buffer;
+    private final int tamañoPagina;
+    private final int t;                       //Grado mínimo, derivado del tamaño de página
+    private final int maxClaves;               //2t - 1
+    private final int desplazamientoValores;   //Posición de las direcciones de registro en la página de nodo
+    private final int desplazamientoHijos;     //Posición de los hijos en la página de nodo
+
+    private int raiz;                //Página del nodo raíz, SIN_PAGINA si el árbol está vacío
+    private int cantidadPaginas;     //Páginas del archivo, incluida la cabecera
+    private int paginaLibre;         //Primera página de la lista de páginas de nodo liberadas
+    private int paginaDatos;         //Página de datos en la que se agregan registros
+    private int posicionDatos;       //Primer byte libre de la página de datos
+    private long cantidad;           //Cantidad de registros
+
+    /**
+     * Clave y dirección de registro de una entrada de un nodo.
+     */
+    private static final class Entrada {
+        private final int clave;
+        private final long direccion;
+
+        private Entrada(int clave, long direccion) {
+            this.clave = clave;
+            this.direccion = direccion;
+        }
+    }
+
+    private TArbolBDisco(FileChannel canal, int tamañoPagina, int marcos) {
+        this.buffer = new BufferPaginas(canal, tamañoPagina, marcos);
+        this.tamañoPagina = tamañoPagina;
+        this.t = gradoMinimo(tamañoPagina);
+        this.maxClaves = 2 * t - 1;
+        this.desplazamientoValores = DESPLAZAMIENTO_CLAVES + Integer.BYTES * maxClaves;
+        this.desplazamientoHijos = desplazamientoValores + Long.BYTES * maxClaves;
+    }
+
+    /**
+     * Calcula el mayor grado mínimo cuyo nodo entra en una página: 8 bytes de encabezado, 12 bytes por clave y
+     * 4 por hijo, es decir 32t - 4 bytes.
+     */
+    private static int gradoMinimo(int tamañoPagina) {
+        return (tamañoPagina + 4) / 32;
+    }
+
+    /**
+     * Abre el árbol guardado en el archivo dado, creándolo vacío si no existe.
+     *
+     * @param archivo Archivo del árbol.
+     * @param tamañoPagina Tamaño de página en bytes para un archivo nuevo; un archivo existente usa el suyo.
+     * @param marcos Cantidad de páginas que se mantienen en memoria, al menos MARCOS_MINIMOS.
+     * @return El árbol abierto.
+     * @throws IOException Si el archivo no se puede leer o no es un árbol en disco.
+     */
+    public static TArbolBDisco abrir(Path archivo, int tamañoPagina, int marcos) throws IOException {
+        if(marcos < MARCOS_MINIMOS) {
+            throw new IllegalArgumentException("El buffer necesita al menos " + MARCOS_MINIMOS + " marcos.");
+        }
+        FileChannel canal = FileChannel.open(archivo, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        try {
+            if(canal.size() == 0) {
+                if(tamañoPagina < TAMAÑO_CABECERA || gradoMinimo(tamañoPagina) < 2) {
+                    throw new IllegalArgumentException("El tamaño de página es demasiado chico: " + tamañoPagina);
+                }
+                TArbolBDisco arbol = new TArbolBDisco(canal, tamañoPagina, marcos);
+                arbol.cantidadPaginas = 1;
+                arbol.escribirCabecera();
+                return arbol;
+            }
+            ByteBuffer cabecera = ByteBuffer.allocate(TAMAÑO_CABECERA);
+            while(cabecera.hasRemaining()) {
+                if(canal.read(cabecera, cabecera.position()) < 0) {
+                    throw new IOException("El archivo no es un árbol en disco: " + archivo);
+                }
+            }
+            cabecera.flip();
+            if(cabecera.getInt() != MAGICO || cabecera.getInt() != VERSION) {
+                throw new IOException("El archivo no es un árbol en disco: " + archivo);
+            }
+            TArbolBDisco arbol = new TArbolBDisco(canal, cabecera.getInt(), marcos);
+            if(cabecera.getInt() != arbol.t) {
+                throw new IOException("El grado mínimo del archivo no coincide con su tamaño de página.");
+            }
+            arbol.raiz = cabecera.getInt();
+            arbol.cantidadPaginas = cabecera.getInt();
+            arbol.paginaLibre = cabecera.getInt();
+            arbol.paginaDatos = cabecera.getInt();
+            arbol.posicionDatos = cabecera.getInt();
+            arbol.cantidad = cabecera.getLong();
+            return arbol;
+        } catch(IOException | RuntimeException e) {
+            canal.close();
+            throw e;
+        }
+    }
+
+    private void escribirCabecera() throws IOException {
+        BufferPaginas.Pagina pagina = buffer.fijar(0);
+        pagina.getDatos().putInt(0, MAGICO).putInt(4, VERSION).putInt(8, tamañoPagina).putInt(12, t)
+                .putInt(16, raiz).putInt(20, cantidadPaginas).putInt(24, paginaLibre).putInt(28, paginaDatos)
+                .putInt(32, posicionDatos).putLong(36, cantidad);
+        pagina.marcarModificada();
+        buffer.soltar(pagina);
+    }
+
+    //Acceso a los campos de una página de nodo
+
+    private static boolean esHoja(ByteBuffer nodo) {
+        return nodo.get(0) == 1;
+    }
+
+    private static int numClaves(ByteBuffer nodo) {
+        return nodo.getInt(4);
+    }
+
+    private static void setNumClaves(ByteBuffer nodo, int n) {
+        nodo.putInt(4, n);
+    }
+
+    private static int clave(ByteBuffer nodo, int i) {
+        return nodo.getInt(DESPLAZAMIENTO_CLAVES + Integer.BYTES * i);
+    }
+
+    private long direccion(ByteBuffer nodo, int i) {
+        return nodo.getLong(desplazamientoValores + Long.BYTES * i);
+    }
+
+    private int hijo(ByteBuffer nodo, int i) {
+        return nodo.getInt(desplazamientoHijos + Integer.BYTES * i);
+    }
+
+    private void setEntrada(ByteBuffer nodo, int i, int clave, long direccion) {
+        nodo.putInt(DESPLAZAMIENTO_CLAVES + Integer.BYTES * i, clave);
+        nodo.putLong(desplazamientoValores + Long.BYTES * i, direccion);
+    }
+
+    private void setHijo(ByteBuffer nodo, int i, int pagina) {
+        nodo.putInt(desplazamientoHijos + Integer.BYTES * i, pagina);
+    }
+
+    /**
+     * Copia entradas (clave y dirección) entre nodos o dentro de un mismo nodo, admitiendo rangos superpuestos.
+     */
+    private void copiarEntradas(ByteBuffer origen, int desde, ByteBuffer destino, int hasta, int cantidadEntradas) {
+        System.arraycopy(origen.array(), DESPLAZAMIENTO_CLAVES + Integer.BYTES * desde, destino.array(),
+                DESPLAZAMIENTO_CLAVES + Integer.BYTES * hasta, Integer.BYTES * cantidadEntradas);
+        System.arraycopy(origen.array(), desplazamientoValores + Long.BYTES * desde, destino.array(),
+                desplazamientoValores + Long.BYTES * hasta, Long.BYTES * cantidadEntradas);
+    }
+
+    /**
+     * Copia hijos entre nodos o dentro de un mismo nodo, admitiendo rangos superpuestos.
+     */
+    private void copiarHijos(ByteBuffer origen, int desde, ByteBuffer destino, int hasta, int cantidadHijos) {
+        System.arraycopy(origen.array(), desplazamientoHijos + Integer.BYTES * desde, destino.array(),
+                desplazamientoHijos + Integer.BYTES * hasta, Integer.BYTES * cantidadHijos);
+    }
+
+    /**
+     * Busca una clave en un nodo con búsqueda binaria.
+     *
+     * @return La posición de la clave, o -(posición de inserción) - 1 si no está.
+     */
+    private static int buscarEnNodo(ByteBuffer nodo, int clave) {
+        int izquierda = 0;
+        int derecha = numClaves(nodo) - 1;
+        while(izquierda <= derecha) {
+            int medio = (izquierda + derecha) >>> 1;
+            int actual = clave(nodo, medio);
+            if(actual < clave) {
+                izquierda = medio + 1;
+            } else if(actual > clave) {
+                derecha = medio - 1;
+            } else {
+                return medio;
+            }
+        }
+        return -(izquierda + 1);
+    }
+
+    private static int aClave(Comparable etiqueta) {
+        if(!(etiqueta instanceof Integer)) {
+            throw new IllegalArgumentException("El árbol en disco solo admite claves enteras: " + etiqueta);
+        }
+        return (Integer) etiqueta;
+    }
+
+    //Reserva y liberación de páginas
+
+    /**
+     * Reserva una página para un nodo, reutilizando una página liberada si hay, y la devuelve fijada y vacía.
+     */
+    private BufferPaginas.Pagina nuevoNodo(boolean hoja) throws IOException {
+        BufferPaginas.Pagina pagina;
+        if(paginaLibre != SIN_PAGINA) {
+            pagina = buffer.fijar(paginaLibre);
+            paginaLibre = pagina.getDatos().getInt(0);
+            Arrays.fill(pagina.getDatos().array(), (byte) 0);
+            pagina.marcarModificada();
+        } else {
+            pagina = buffer.fijarNueva(cantidadPaginas++);
+        }
+        pagina.getDatos().put(0, (byte) (hoja ? 1 : 0));
+        return pagina;
+    }
+
+    /**
+     * Agrega la página de un nodo fijado a la lista de páginas libres.
+     */
+    private void liberarNodo(BufferPaginas.Pagina pagina) {
+        pagina.getDatos().putInt(0, paginaLibre);
+        pagina.marcarModificada();
+        paginaLibre = pagina.getNumero();
+    }
+
+    //Registros
+
+    /**
+     * Agrega un registro al final de las páginas de datos.
+     *
+     * @return La dirección del registro en el archivo.
+     */
+    private long escribirRegistro(RegistroBD registro) throws IOException {
+        byte[] datos = registro.getData() == null ? null : registro.getData().getBytes(StandardCharsets.UTF_8);
+        int largo = 2 * Integer.BYTES + (datos == null ? 0 : datos.length);
+        ByteBuffer contenido = ByteBuffer.allocate(largo).putInt(registro.getId()).putInt(datos == null ? -1 : datos.length);
+        if(datos != null) {
+            contenido.put(datos);
+        }
+        contenido.flip();
+
+        //Un registro que no entra en lo que queda de la página empieza en una página nueva; si ocupa varias, son
+        //consecutivas porque se reservan todas acá, sin que se intercale la reserva de un nodo
+        if(paginaDatos == SIN_PAGINA || posicionDatos + largo > tamañoPagina) {
+            paginaDatos = cantidadPaginas++;
+            posicionDatos = 0;
+        }
+        long direccion = (long) paginaDatos * tamañoPagina + posicionDatos;
+        while(contenido.hasRemaining()) {
+            BufferPaginas.Pagina pagina = posicionDatos == 0 ? buffer.fijarNueva(paginaDatos) : buffer.fijar(paginaDatos);
+            int copiados = Math.min(tamañoPagina - posicionDatos, contenido.remaining());
+            pagina.getDatos().put(posicionDatos, contenido.array(), contenido.position(), copiados);
+            pagina.marcarModificada();
+            buffer.soltar(pagina);
+            contenido.position(contenido.position() + copiados);
+            posicionDatos += copiados;
+            if(contenido.hasRemaining()) {
+                paginaDatos = cantidadPaginas++;
+                posicionDatos = 0;
+            }
+        }
+        return direccion;
+    }
+
+    private RegistroBD leerRegistro(long direccion) throws IOException {
+        ByteBuffer encabezado = ByteBuffer.wrap(leerBytes(direccion, 2 * Integer.BYTES));
+        int id = encabezado.getInt();
+        int largo = encabezado.getInt();
+        String datos = largo < 0 ? null
+                : new String(leerBytes(direccion + 2 * Integer.BYTES, largo), StandardCharsets.UTF_8);
+        return new RegistroBD(id, datos);
+    }
+
+    private byte[] leerBytes(long direccion, int largo) throws IOException {
+        byte[] bytes = new byte[largo];
+        int leidos = 0;
+        while(leidos < largo) {
+            long actual = direccion + leidos;
+            BufferPaginas.Pagina pagina = buffer.fijar((int) (actual / tamañoPagina));
+            int posicion = (int) (actual % tamañoPagina);
+            int copiados = Math.min(tamañoPagina - posicion, largo - leidos);
+            pagina.getDatos().get(posicion, bytes, leidos, copiados);
+            buffer.soltar(pagina);
+            leidos += copiados;
+        }
+        return bytes;
+    }
+
+    //Operaciones del árbol
+
+    /**
+     * Busca la dirección del registro de una clave.
+     *
+     * @return La dirección, o -1 si la clave no está.
+     */
+    private long buscarDireccion(int clave) throws IOException {
+        int actual = raiz;
+        while(actual != SIN_PAGINA) {
+            BufferPaginas.Pagina pagina = buffer.fijar(actual);
+            try {
+                ByteBuffer nodo = pagina.getDatos();
+                int posicion = buscarEnNodo(nodo, clave);
+                if(posicion >= 0) {
+                    return direccion(nodo, posicion);
+                }
+                actual = esHoja(nodo) ? SIN_PAGINA : hijo(nodo, -posicion - 1);
+            } finally {
+                buffer.soltar(pagina);
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Busca un registro por su id.
+     *
+     * @param etiqueta Id del registro, que debe ser un Integer.
+     * @return El registro, o null si no está.
+     *
+     * Orden de tiempo de ejecución: O(log n), con a lo sumo altura + 1 lecturas de páginas que no están en memoria.
+     */
+    @Override
+    public synchronized RegistroBD buscar(Comparable etiqueta) {
+        try {
+            long direccion = buscarDireccion(aClave(etiqueta));
+            return direccion < 0 ? null : leerRegistro(direccion);
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Inserta un registro. Si la clave ya existe no se inserta y retorna falso.
+     *
+     * @param etiqueta Id del registro, que debe ser un Integer.
+     * @param dato Registro a insertar.
+     * @return Verdadero si el registro fue insertado.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    @Override
+    public synchronized boolean insertar(Comparable etiqueta, RegistroBD dato) {
+        int clave = aClave(etiqueta);
+        try {
+            if(buscarDireccion(clave) >= 0) {
+                return false;
+            }
+            long direccion = escribirRegistro(dato);
+            if(raiz == SIN_PAGINA) {
+                BufferPaginas.Pagina nueva = nuevoNodo(true);
+                setEntrada(nueva.getDatos(), 0, clave, direccion);
+                setNumClaves(nueva.getDatos(), 1);
+                raiz = nueva.getNumero();
+                buffer.soltar(nueva);
+                cantidad++;
+                return true;
+            }
+
+            BufferPaginas.Pagina actual = buffer.fijar(raiz);
+            if(numClaves(actual.getDatos()) == maxClaves) {
+                //La raíz llena se divide bajo una raíz nueva, que es lo único que aumenta la altura
+                BufferPaginas.Pagina nuevaRaiz = nuevoNodo(false);
+                setHijo(nuevaRaiz.getDatos(), 0, raiz);
+                dividirHijo(nuevaRaiz, 0, actual);
+                raiz = nuevaRaiz.getNumero();
+                buffer.soltar(actual);
+                actual = nuevaRaiz;
+            }
+            while(true) {
+                ByteBuffer nodo = actual.getDatos();
+                int n = numClaves(nodo);
+                int posicion = -buscarEnNodo(nodo, clave) - 1;
+                if(esHoja(nodo)) {
+                    copiarEntradas(nodo, posicion, nodo, posicion + 1, n - posicion);
+                    setEntrada(nodo, posicion, clave, direccion);
+                    setNumClaves(nodo, n + 1);
+                    actual.marcarModificada();
+                    buffer.soltar(actual);
+                    break;
+                }
+                BufferPaginas.Pagina siguiente = buffer.fijar(hijo(nodo, posicion));
+                if(numClaves(siguiente.getDatos()) == maxClaves) {
+                    dividirHijo(actual, posicion, siguiente);
+                    if(clave > clave(nodo, posicion)) {
+                        buffer.soltar(siguiente);
+                        siguiente = buffer.fijar(hijo(nodo, posicion + 1));
+                    }
+                }
+                buffer.soltar(actual);
+                actual = siguiente;
+            }
+            cantidad++;
+            return true;
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Divide el hijo lleno de la posición dada: la mitad derecha pasa a un nodo nuevo y la clave del medio sube al
+     * padre.
+     */
+    private void dividirHijo(BufferPaginas.Pagina padre, int posicion, BufferPaginas.Pagina lleno) throws IOException {
+        ByteBuffer nodoPadre = padre.getDatos();
+        ByteBuffer izquierdo = lleno.getDatos();
+        BufferPaginas.Pagina nueva = nuevoNodo(esHoja(izquierdo));
+        ByteBuffer derecho = nueva.getDatos();
+
+        copiarEntradas(izquierdo, t, derecho, 0, t - 1);
+        if(!esHoja(izquierdo)) {
+            copiarHijos(izquierdo, t, derecho, 0, t);
+        }
+        setNumClaves(derecho, t - 1);
+        setNumClaves(izquierdo, t - 1);
+
+        int n = numClaves(nodoPadre);
+        copiarHijos(nodoPadre, posicion + 1, nodoPadre, posicion + 2, n - posicion);
+        setHijo(nodoPadre, posicion + 1, nueva.getNumero());
+        copiarEntradas(nodoPadre, posicion, nodoPadre, posicion + 1, n - posicion);
+        setEntrada(nodoPadre, posicion, clave(izquierdo, t - 1), direccion(izquierdo, t - 1));
+        setNumClaves(nodoPadre, n + 1);
+
+        padre.marcarModificada();
+        lleno.marcarModificada();
+        buffer.soltar(nueva);
+    }
+
+    /**
+     * Elimina el registro de un id.
+     *
+     * @param etiqueta Id del registro, que debe ser un Integer.
+     * @return Verdadero si el registro estaba y fue eliminado.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    @Override
+    public synchronized boolean eliminar(Comparable etiqueta) {
+        int clave = aClave(etiqueta);
+        try {
+            if(buscarDireccion(clave) < 0) {
+                return false;
+            }
+            BufferPaginas.Pagina actual = buffer.fijar(raiz);
+            while(true) {
+                ByteBuffer nodo = actual.getDatos();
+                int n = numClaves(nodo);
+                int posicion = buscarEnNodo(nodo, clave);
+
+                if(posicion >= 0 && esHoja(nodo)) {
+                    copiarEntradas(nodo, posicion + 1, nodo, posicion, n - posicion - 1);
+                    setNumClaves(nodo, n - 1);
+                    actual.marcarModificada();
+                    if(n == 1 && actual.getNumero() == raiz) {
+                        //Era la última clave del árbol
+                        raiz = SIN_PAGINA;
+                        liberarNodo(actual);
+                    }
+                    buffer.soltar(actual);
+                    break;
+                }
+
+                BufferPaginas.Pagina siguiente;
+                if(posicion >= 0) {
+                    //La clave está en un nodo interno: se reemplaza por su predecesor o sucesor, o se combinan
+                    //los hijos que la rodean, y se sigue eliminando en el hijo correspondiente
+                    BufferPaginas.Pagina izquierdo = buffer.fijar(hijo(nodo, posicion));
+                    if(numClaves(izquierdo.getDatos()) >= t) {
+                        Entrada predecesor = extremo(izquierdo, true);
+                        setEntrada(nodo, posicion, predecesor.clave, predecesor.direccion);
+                        actual.marcarModificada();
+                        clave = predecesor.clave;
+                        siguiente = izquierdo;
+                    } else {
+                        BufferPaginas.Pagina derecho = buffer.fijar(hijo(nodo, posicion + 1));
+                        if(numClaves(derecho.getDatos()) >= t) {
+                            Entrada sucesor = extremo(derecho, false);
+                            setEntrada(nodo, posicion, sucesor.clave, sucesor.direccion);
+                            actual.marcarModificada();
+                            clave = sucesor.clave;
+                            buffer.soltar(izquierdo);
+                            siguiente = derecho;
+                        } else {
+                            combinar(actual, posicion, izquierdo, derecho);
+                            siguiente = izquierdo;
+                        }
+                    }
+                } else {
+                    //La clave está en el subárbol de un hijo: antes de bajar, el hijo debe tener al menos t claves
+                    int i = -posicion - 1;
+                    siguiente = buffer.fijar(hijo(nodo, i));
+                    if(numClaves(siguiente.getDatos()) == t - 1) {
+                        siguiente = completarHijo(actual, i, siguiente);
+                    }
+                }
+
+                if(actual.getNumero() == raiz && numClaves(nodo) == 0) {
+                    //La raíz quedó vacía al combinar sus dos únicos hijos
+                    raiz = siguiente.getNumero();
+                    liberarNodo(actual);
+                }
+                buffer.soltar(actual);
+                actual = siguiente;
+            }
+            cantidad--;
+            return true;
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Da al hijo de la posición dada, que tiene t - 1 claves, una clave más tomándola de un hermano con al menos t
+     * claves, o combinándolo con un hermano si ambos tienen t - 1.
+     *
+     * @return El nodo, fijado, en el que sigue el descenso.
+     */
+    private BufferPaginas.Pagina completarHijo(BufferPaginas.Pagina padre, int i, BufferPaginas.Pagina hijo)
+            throws IOException {
+        ByteBuffer nodoPadre = padre.getDatos();
+        int n = numClaves(nodoPadre);
+        BufferPaginas.Pagina izquierdo = i > 0 ? buffer.fijar(hijo(nodoPadre, i - 1)) : null;
+        if(izquierdo != null && numClaves(izquierdo.getDatos()) >= t) {
+            rotarDesdeIzquierda(padre, i, hijo, izquierdo);
+            buffer.soltar(izquierdo);
+            return hijo;
+        }
+        BufferPaginas.Pagina derecho = i < n ? buffer.fijar(hijo(nodoPadre, i + 1)) : null;
+        if(derecho != null && numClaves(derecho.getDatos()) >= t) {
+            rotarDesdeDerecha(padre, i, hijo, derecho);
+            buffer.soltar(derecho);
+            if(izquierdo != null) {
+                buffer.soltar(izquierdo);
+            }
+            return hijo;
+        }
+        if(derecho != null) {
+            combinar(padre, i, hijo, derecho);
+            if(izquierdo != null) {
+                buffer.soltar(izquierdo);
+            }
+            return hijo;
+        }
+        combinar(padre, i - 1, izquierdo, hijo);
+        return izquierdo;
+    }
+
+    /**
+     * Pasa la última clave del hermano izquierdo al padre y la clave separadora del padre al principio del hijo.
+     */
+    private void rotarDesdeIzquierda(BufferPaginas.Pagina padre, int i, BufferPaginas.Pagina hijo,
+                                     BufferPaginas.Pagina izquierdo) {
+        ByteBuffer nodoPadre = padre.getDatos();
+        ByteBuffer nodoHijo = hijo.getDatos();
+        ByteBuffer hermano = izquierdo.getDatos();
+        int nHijo = numClaves(nodoHijo);
+        int nHermano = numClaves(hermano);
+
+        copiarEntradas(nodoHijo, 0, nodoHijo, 1, nHijo);
+        setEntrada(nodoHijo, 0, clave(nodoPadre, i - 1), direccion(nodoPadre, i - 1));
+        if(!esHoja(nodoHijo)) {
+            copiarHijos(nodoHijo, 0, nodoHijo, 1, nHijo + 1);
+            setHijo(nodoHijo, 0, hijo(hermano, nHermano));
+        }
+        setEntrada(nodoPadre, i - 1, clave(hermano, nHermano - 1), direccion(hermano, nHermano - 1));
+        setNumClaves(nodoHijo, nHijo + 1);
+        setNumClaves(hermano, nHermano - 1);
+        padre.marcarModificada();
+        hijo.marcarModificada();
+        izquierdo.marcarModificada();
+    }
+
+    /**
+     * Pasa la primera clave del hermano derecho al padre y la clave separadora del padre al final del hijo.
+     */
+    private void rotarDesdeDerecha(BufferPaginas.Pagina padre, int i, BufferPaginas.Pagina hijo,
+                                   BufferPaginas.Pagina derecho) {
+        ByteBuffer nodoPadre = padre.getDatos();
+        ByteBuffer nodoHijo = hijo.getDatos();
+        ByteBuffer hermano = derecho.getDatos();
+        int nHijo = numClaves(nodoHijo);
+        int nHermano = numClaves(hermano);
+
+        setEntrada(nodoHijo, nHijo, clave(nodoPadre, i), direccion(nodoPadre, i));
+        setEntrada(nodoPadre, i, clave(hermano, 0), direccion(hermano, 0));
+        copiarEntradas(hermano, 1, hermano, 0, nHermano - 1);
+        if(!esHoja(nodoHijo)) {
+            setHijo(nodoHijo, nHijo + 1, hijo(hermano, 0));
+            copiarHijos(hermano, 1, hermano, 0, nHermano);
+        }
+        setNumClaves(nodoHijo, nHijo + 1);
+        setNumClaves(hermano, nHermano - 1);
+        padre.marcarModificada();
+        hijo.marcarModificada();
+        derecho.marcarModificada();
+    }
+
+    /**
+     * Combina el hijo derecho de la separadora de la posición dada con el izquierdo, bajando la separadora entre
+     * ambos, y libera la página del derecho, que queda soltada.
+     */
+    private void combinar(BufferPaginas.Pagina padre, int posicion, BufferPaginas.Pagina izquierdo,
+                          BufferPaginas.Pagina derecho) {
+        ByteBuffer nodoPadre = padre.getDatos();
+        ByteBuffer nodoIzquierdo = izquierdo.getDatos();
+        ByteBuffer nodoDerecho = derecho.getDatos();
+        int nIzquierdo = numClaves(nodoIzquierdo);
+        int nDerecho = numClaves(nodoDerecho);
+        int nPadre = numClaves(nodoPadre);
+
+        setEntrada(nodoIzquierdo, nIzquierdo, clave(nodoPadre, posicion), direccion(nodoPadre, posicion));
+        copiarEntradas(nodoDerecho, 0, nodoIzquierdo, nIzquierdo + 1, nDerecho);
+        if(!esHoja(nodoIzquierdo)) {
+            copiarHijos(nodoDerecho, 0, nodoIzquierdo, nIzquierdo + 1, nDerecho + 1);
+        }
+        setNumClaves(nodoIzquierdo, nIzquierdo + 1 + nDerecho);
+
+        copiarEntradas(nodoPadre, posicion + 1, nodoPadre, posicion, nPadre - posicion - 1);
+        copiarHijos(nodoPadre, posicion + 2, nodoPadre, posicion + 1, nPadre - posicion - 1);
+        setNumClaves(nodoPadre, nPadre - 1);
+
+        padre.marcarModificada();
+        izquierdo.marcarModificada();
+        liberarNodo(derecho);
+        buffer.soltar(derecho);
+    }
+
+    /**
+     * Obtiene la mayor o la menor entrada del subárbol de un nodo fijado, sin soltarlo.
+     */
+    private Entrada extremo(BufferPaginas.Pagina subarbol, boolean mayor) throws IOException {
+        BufferPaginas.Pagina actual = subarbol;
+        while(true) {
+            ByteBuffer nodo = actual.getDatos();
+            int n = numClaves(nodo);
+            if(esHoja(nodo)) {
+                Entrada entrada = mayor ? new Entrada(clave(nodo, n - 1), direccion(nodo, n - 1))
+                        : new Entrada(clave(nodo, 0), direccion(nodo, 0));
+                if(actual != subarbol) {
+                    buffer.soltar(actual);
+                }
+                return entrada;
+            }
+            BufferPaginas.Pagina siguiente = buffer.fijar(hijo(nodo, mayor ? n : 0));
+            if(actual != subarbol) {
+                buffer.soltar(actual);
+            }
+            actual = siguiente;
+        }
+    }
+
+    //Recorridos
+
+    @Override
+    public synchronized List<RegistroBD> preOrden() {
+        List<RegistroBD> lista = new ArrayList<>();
+        recorrerNodos(lista, false);
+        return lista;
+    }
+
+    @Override
+    public synchronized List<RegistroBD> inOrden() {
+        List<RegistroBD> lista = new ArrayList<>();
+        for(RegistroBD registro : this) {
+            lista.add(registro);
+        }
+        return lista;
+    }
+
+    @Override
+    public synchronized List<RegistroBD> postOrden() {
+        //El postorden es el inverso de recorrer cada nodo con sus claves de la última a la primera antes que sus
+        //hijos, y los hijos del último al primero
+        List<RegistroBD> lista = new ArrayList<>();
+        recorrerNodos(lista, true);
+        Collections.reverse(lista);
+        return lista;
+    }
+
+    /**
+     * Recorre los nodos con una pila explícita agregando los registros de cada nodo antes que los de sus hijos, en
+     * orden directo o inverso.
+     */
+    private void recorrerNodos(List<RegistroBD> lista, boolean inverso) {
+        try {
+            int[] pila = new int[16];
+            int tope = 0;
+            if(raiz != SIN_PAGINA) {
+                pila[tope++] = raiz;
+            }
+            while(tope > 0) {
+                BufferPaginas.Pagina pagina = buffer.fijar(pila[--tope]);
+                ByteBuffer nodo = pagina.getDatos();
+                int n = numClaves(nodo);
+                long[] direcciones = new long[n];
+                for(int i = 0; i < n; i++) {
+                    direcciones[i] = direccion(nodo, inverso ? n - 1 - i : i);
+                }
+                if(!esHoja(nodo)) {
+                    if(tope + n + 1 > pila.length) {
+                        pila = Arrays.copyOf(pila, Math.max(pila.length * 2, tope + n + 1));
+                    }
+                    //Se apilan de modo que el primer hijo a visitar quede arriba
+                    for(int i = 0; i <= n; i++) {
+                        pila[tope++] = hijo(nodo, inverso ? i : n - i);
+                    }
+                }
+                buffer.soltar(pagina);
+                for(long direccion : direcciones) {
+                    lista.add(leerRegistro(direccion));
+                }
+            }
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Agrega los registros del otro árbol que no están en este, insertándolos uno a uno.
+     *
+     * Orden de tiempo de ejecución: O(m log(n + m))
+     */
+    @Override
+    public boolean merge(TArbolB<RegistroBD> otroArbol) {
+        if(otroArbol != null) {
+            Iterator<Map.Entry<Comparable, RegistroBD>> entradas = otroArbol.recorrerEnOrden();
+            while(entradas.hasNext()) {
+                Map.Entry<Comparable, RegistroBD> entrada = entradas.next();
+                insertar(entrada.getKey(), entrada.getValue());
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<RegistroBD> iterator() {
+        return new IteradorDisco(null, true, null, true, false);
+    }
+
+    @Override
+    public Iterator<RegistroBD> iteradorRango(Comparable desde, boolean incluirDesde, Comparable hasta,
+                                              boolean incluirHasta, boolean descendente) {
+        return new IteradorDisco(desde == null ? null : aClave(desde), incluirDesde,
+                hasta == null ? null : aClave(hasta), incluirHasta, descendente);
+    }
+
+    /**
+     * Iterador en orden que guarda en una pila el número de página y la posición de cada nodo del camino, sin
+     * mantener páginas fijadas entre llamadas. En orden ascendente la posición es la de la próxima clave a devolver;
+     * en orden descendente es la siguiente a ella.
+     */
+    private class IteradorDisco implements Iterator<RegistroBD> {
+        private final Integer desde;
+        private final boolean incluirDesde;
+        private final Integer hasta;
+        private final boolean incluirHasta;
+        private final boolean descendente;
+        private int[] paginas = new int[8];
+        private int[] posiciones = new int[8];
+        private int tope;
+        private Entrada siguiente; //Próxima entrada a devolver, o null si el recorrido terminó
+
+        private IteradorDisco(Integer desde, boolean incluirDesde, Integer hasta, boolean incluirHasta,
+                              boolean descendente) {
+            this.desde = desde;
+            this.incluirDesde = incluirDesde;
+            this.hasta = hasta;
+            this.incluirHasta = incluirHasta;
+            this.descendente = descendente;
+            synchronized(TArbolBDisco.this) {
+                try {
+                    Integer inicio = descendente ? hasta : desde;
+                    if(inicio == null) {
+                        apilarExtremo(raiz);
+                    } else {
+                        ubicar(inicio, descendente ? incluirHasta : incluirDesde);
+                    }
+                    siguiente = avanzar();
+                } catch(IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+
+        private void apilar(int pagina, int posicion) {
+            if(tope == paginas.length) {
+                paginas = Arrays.copyOf(paginas, tope * 2);
+                posiciones = Arrays.copyOf(posiciones, tope * 2);
+            }
+            paginas[tope] = pagina;
+            posiciones[tope] = posicion;
+            tope++;
+        }
+
+        /**
+         * Apila el camino desde el nodo dado hasta su hoja de más a la izquierda, o de más a la derecha en orden
+         * descendente.
+         */
+        private void apilarExtremo(int pagina) throws IOException {
+            while(pagina != SIN_PAGINA) {
+                BufferPaginas.Pagina fijada = buffer.fijar(pagina);
+                ByteBuffer nodo = fijada.getDatos();
+                int n = numClaves(nodo);
+                apilar(pagina, descendente ? n : 0);
+                int siguientePagina = esHoja(nodo) ? SIN_PAGINA : hijo(nodo, descendente ? n : 0);
+                buffer.soltar(fijada);
+                pagina = siguientePagina;
+            }
+        }
+
+        /**
+         * Desciende hasta la primera clave del recorrido, apilando el camino.
+         */
+        private void ubicar(int inicio, boolean incluir) throws IOException {
+            int pagina = raiz;
+            while(pagina != SIN_PAGINA) {
+                BufferPaginas.Pagina fijada = buffer.fijar(pagina);
+                ByteBuffer nodo = fijada.getDatos();
+                boolean hoja = esHoja(nodo);
+                int posicion = buscarEnNodo(nodo, inicio);
+                int siguientePagina;
+                if(posicion >= 0) {
+                    //Si la clave no se incluye, el recorrido sigue por el subárbol que está a su lado
+                    if(!descendente) {
+                        apilar(pagina, incluir ? posicion : posicion + 1);
+                        siguientePagina = incluir || hoja ? SIN_PAGINA : hijo(nodo, posicion + 1);
+                    } else {
+                        apilar(pagina, incluir ? posicion + 1 : posicion);
+                        siguientePagina = incluir || hoja ? SIN_PAGINA : hijo(nodo, posicion);
+                    }
+                    buffer.soltar(fijada);
+                    apilarExtremo(siguientePagina);
+                    return;
+                }
+                int i = -posicion - 1;
+                apilar(pagina, i);
+                siguientePagina = hoja ? SIN_PAGINA : hijo(nodo, i);
+                buffer.soltar(fijada);
+                pagina = siguientePagina;
+            }
+        }
+
+        /**
+         * Obtiene la próxima entrada del recorrido y actualiza la pila, o null si no quedan entradas en el rango.
+         */
+        private Entrada avanzar() throws IOException {
+            while(tope > 0) {
+                int pagina = paginas[tope - 1];
+                int posicion = posiciones[tope - 1];
+                BufferPaginas.Pagina fijada = buffer.fijar(pagina);
+                ByteBuffer nodo = fijada.getDatos();
+                int n = numClaves(nodo);
+                if(descendente ? posicion == 0 : posicion == n) {
+                    buffer.soltar(fijada);
+                    tope--;
+                    continue;
+                }
+                int indice = descendente ? posicion - 1 : posicion;
+                Entrada entrada = new Entrada(clave(nodo, indice), direccion(nodo, indice));
+                posiciones[tope - 1] = descendente ? posicion - 1 : posicion + 1;
+                int subarbol = esHoja(nodo) ? SIN_PAGINA : hijo(nodo, descendente ? indice : indice + 1);
+                buffer.soltar(fijada);
+                apilarExtremo(subarbol);
+                return dentroDelRango(entrada.clave) ? entrada : null;
+            }
+            return null;
+        }
+
+        private boolean dentroDelRango(int clave) {
+            if(descendente) {
+                return desde == null || clave > desde || (incluirDesde && clave == desde);
+            }
+            return hasta == null || clave < hasta || (incluirHasta && clave == hasta);
+        }
+
+        @Override
+        public boolean hasNext() {
+            return siguiente != null;
+        }
+
+        @Override
+        public RegistroBD next() {
+            if(siguiente == null) {
+                throw new NoSuchElementException();
+            }
+            synchronized(TArbolBDisco.this) {
+                try {
+                    RegistroBD registro = leerRegistro(siguiente.direccion);
+                    siguiente = avanzar();
+                    if(siguiente == null) {
+                        tope = 0;
+                    }
+                    return registro;
+                } catch(IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            }
+        }
+    }
+
+    /**
+     * Obtiene la cantidad de registros del árbol.
+     *
+     * @return La cantidad de registros.
+     */
+    public synchronized long getCantidad() {
+        return cantidad;
+    }
+
+    /**
+     * Obtiene el grado mínimo del árbol, que depende del tamaño de página.
+     *
+     * @return El grado mínimo.
+     */
+    public int getGradoMinimo() {
+        return t;
+    }
+
+    /**
+     * Obtiene la altura del árbol.
+     *
+     * @return La cantidad de niveles, 0 si el árbol está vacío.
+     */
+    public synchronized int getAltura() {
+        try {
+            int altura = 0;
+            int pagina = raiz;
+            while(pagina != SIN_PAGINA) {
+                BufferPaginas.Pagina fijada = buffer.fijar(pagina);
+                altura++;
+                pagina = esHoja(fijada.getDatos()) ? SIN_PAGINA : hijo(fijada.getDatos(), 0);
+                buffer.soltar(fijada);
+            }
+            return altura;
+        } catch(IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Obtiene el buffer de páginas del árbol, para consultar sus estadísticas.
+     *
+     * @return El buffer de páginas.
+     */
+    public BufferPaginas getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Escribe en el archivo la cabecera y todas las páginas modificadas, dejándolo consistente.
+     *
+     * @throws IOException Si falla la escritura.
+     */
+    public synchronized void vaciar() throws IOException {
+        escribirCabecera();
+        buffer.vaciar();
+    }
+
+    /**
+     * Vacía el árbol en el archivo y lo cierra.
+     *
+     * @throws IOException Si falla la escritura.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        try {
+            escribirCabecera();
+        } finally {
+            buffer.close();
+        }
+    }
+}
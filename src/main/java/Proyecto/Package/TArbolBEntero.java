@@ -0,0 +1,511 @@
+package Proyecto.Package;
+
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.BinaryOperator;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+@SuppressWarnings({"rawtypes"})
+/**
+ * Clase que representa un árbol B especializado en claves enteras. Ofrece el mismo contrato que IArbolB, pero
+ * además expone operaciones que reciben la clave como int primitivo, de forma que insertar, buscar y eliminar
+ * no crean objetos Integer ni comparan a través de la interfaz Comparable. Cada nodo guarda sus claves en un
+ * arreglo int[] paralelo a un arreglo de datos.
+ *
+ * Como TArbolB, admite instantáneas inmutables en O(1) con copia en escritura: después de snapshot() las
+ * modificaciones copian los nodos compartidos del camino que tocan.
+ *
+ * @param <T> El tipo de los datos que contendrán los elementos del árbol.
+ */
+public class TArbolBEntero<T> implements IArbolB<T>, Serializable {
+    private TElementoBEntero<T> raiz;
+    private int t; //Grado mínimo del árbol
+    private int generacion; //Versión actual del árbol; los nodos de versiones anteriores pueden estar en instantáneas
+
+    public TArbolBEntero(int t) {
+        this.raiz = null;
+        this.t = t;
+    }
+
+    /**
+     * Crea un árbol a partir de una raíz ya construida, como la que arma CargadorMasivoArbolB.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param raiz Raíz de un árbol B válido de grado mínimo t, o null para un árbol vacío.
+     */
+    TArbolBEntero(int t, TElementoBEntero<T> raiz) {
+        this.raiz = raiz;
+        this.t = t;
+    }
+
+    /**
+     * Obtiene el nodo raíz del árbol.
+     *
+     * @return El nodo raíz del árbol, o null si el árbol está vacío.
+     */
+    public TElementoBEntero<T> getRaiz() {
+        return raiz;
+    }
+
+    /**
+     * Obtiene la raíz para modificarla, copiándola antes si puede estar compartida con una instantánea.
+     */
+    private TElementoBEntero<T> raizPropia() {
+        if(raiz.getGeneracion() != generacion) {
+            raiz = raiz.copiar(generacion);
+        }
+        return raiz;
+    }
+
+    /**
+     * Obtiene una instantánea inmutable del árbol, que comparte todos sus nodos con él, como TArbolB.snapshot. A
+     * partir de ahora el árbol copia cada nodo compartido antes de modificarlo.
+     *
+     * @return Un árbol de solo lectura con el contenido actual; sus métodos de modificación lanzan
+     *         UnsupportedOperationException.
+     *
+     * Postcondiciones:
+     * - El contenido de la instantánea no cambia, sin importar las modificaciones posteriores de este árbol.
+     *
+     * Orden de tiempo de ejecución: O(1)
+     */
+    @Override
+    public TArbolBEntero<T> snapshot() {
+        generacion++;
+        return new Instantanea<>(t, raiz);
+    }
+
+    /**
+     * Inserta un elemento en el árbol. Si ya existe un elemento con la misma clave la inserción no se realiza.
+     * Recibe la clave sin encapsular; no es una sobrecarga de insertar para que insertar(5, 7) no sea ambiguo
+     * cuando los datos son Integer.
+     *
+     * @param clave Clave del elemento a insertar.
+     * @param dato Dato del elemento a insertar.
+     * @return Verdadero si la inserción fue exitosa, falso si la clave ya existía.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    public boolean insertarEntero(int clave, T dato) {
+        //Caso Árbol vacío
+        if(raiz == null) {
+            raiz = new TElementoBEntero<>(t, true, generacion);
+        }
+        //Un único descenso: las claves duplicadas se detectan antes de modificar ningún nodo. Si la raíz está
+        //compartida con una instantánea, se busca la clave antes de copiar el camino
+        boolean compartida = raiz.getGeneracion() != generacion;
+        if(compartida && raiz.contiene(clave)) {
+            return false;
+        }
+        if(!raizPropia().insertar(clave, dato, compartida)) {
+            return false;
+        }
+        //Raíz desbordada, creamos una nueva raíz y dividimos la raíz antigua
+        if(raiz.estaDesbordado()) {
+            raiz = raiz.dividirRaiz();
+        }
+        return true;
+    }
+
+    /**
+     * Inserta un lote de elementos con un único recorrido del árbol: el lote se reparte entre los hijos de cada
+     * nodo, de modo que las claves vecinas comparten el descenso, y cada nodo desbordado se divide una sola vez,
+     * en tantos nodos como necesite. Las claves que ya están en el árbol se ignoran.
+     *
+     * @param claves Claves del lote, en orden estrictamente creciente.
+     * @param datos Datos del lote, en la misma posición que su clave.
+     * @param insertados Arreglo del tamaño del lote donde se marcan las claves insertadas, o null.
+     * @return La cantidad de elementos insertados.
+     * @throws IllegalArgumentException Si las claves no están en orden estrictamente creciente.
+     *
+     * Orden de tiempo de ejecución: O(m log n + k t), siendo m el tamaño del lote y k la cantidad de nodos tocados,
+     * que no supera a la cantidad de nodos del árbol.
+     */
+    public int insertarLote(int[] claves, T[] datos, boolean[] insertados) {
+        validarLote(claves);
+        if(claves.length == 0) {
+            return 0;
+        }
+        if(raiz == null) {
+            raiz = new TElementoBEntero<>(t, true, generacion);
+        }
+        int insertadas = raizPropia().insertarLote(claves, datos, 0, claves.length, insertados);
+        //Una raíz muy desbordada se divide en varios nodos y la nueva raíz puede volver a desbordarse
+        while(raiz.estaDesbordado()) {
+            raiz = raiz.dividirRaiz();
+        }
+        return insertadas;
+    }
+
+    /**
+     * Elimina un lote de claves con un único recorrido del árbol. Los nodos que quedan con pocas claves se
+     * combinan o se reparten con un hermano al volver, una vez por nivel. Las claves que no están en el árbol
+     * se ignoran.
+     *
+     * @param claves Claves del lote, en orden estrictamente creciente.
+     * @param eliminados Arreglo del tamaño del lote donde se marcan las claves eliminadas, o null.
+     * @return La cantidad de elementos eliminados.
+     * @throws IllegalArgumentException Si las claves no están en orden estrictamente creciente.
+     *
+     * Orden de tiempo de ejecución: O(m log n + k t), siendo m el tamaño del lote y k la cantidad de nodos tocados.
+     */
+    public int eliminarLote(int[] claves, boolean[] eliminados) {
+        validarLote(claves);
+        if(raiz == null || claves.length == 0) {
+            return 0;
+        }
+        int eliminadas = raizPropia().eliminarLote(claves, 0, claves.length, eliminados);
+        //La raíz pierde un nivel por cada nodo que quedó sin claves
+        while(raiz != null && raiz.getNumClaves() == 0) {
+            raiz = raiz.esHoja() ? null : raiz.getHijo(0);
+        }
+        return eliminadas;
+    }
+
+    private static void validarLote(int[] claves) {
+        for(int i = 1; i < claves.length; i++) {
+            if(claves[i - 1] >= claves[i]) {
+                throw new IllegalArgumentException("Las claves del lote deben estar en orden estrictamente creciente.");
+            }
+        }
+    }
+
+    /**
+     * Busca el dato asociado a la clave dada.
+     *
+     * @param clave Clave del elemento a buscar.
+     * @return El dato encontrado, o null si la clave no está en el árbol.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    public T buscar(int clave) {
+        if(raiz == null) {
+            return null;
+        }
+        return raiz.buscar(clave);
+    }
+
+    /**
+     * Elimina el elemento con la clave dada.
+     *
+     * @param clave Clave del elemento a eliminar.
+     * @return Verdadero si la eliminación fue exitosa, falso si la clave no estaba en el árbol.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    public boolean eliminar(int clave) {
+        if(raiz == null) {
+            //Arbol vacío, nada que eliminar
+            return false;
+        }
+
+        boolean eliminado = raizPropia().eliminar(clave);
+
+        //Si la raíz está vacía después de la eliminación, el árbol pierde un nivel
+        if(raiz.getNumClaves() == 0) {
+            raiz = raiz.esHoja() ? null : raiz.getHijo(0);
+        }
+        return eliminado;
+    }
+
+    /**
+     * Obtiene la cantidad de elementos del árbol, que la raíz lleva como el tamaño de su subárbol.
+     *
+     * Orden de tiempo de ejecución: O(1)
+     */
+    @Override
+    public int tamaño() {
+        return raiz == null ? 0 : raiz.getTamaño();
+    }
+
+    /**
+     * Obtiene la cantidad de claves del árbol menores a la clave dada, que es su posición en el inorden, con un
+     * único descenso.
+     *
+     * @param clave La clave a ubicar; no necesita estar en el árbol.
+     * @return La cantidad de claves menores a la clave dada.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    public int posicion(int clave) {
+        return raiz == null ? 0 : raiz.posicion(clave);
+    }
+
+    @Override
+    public int posicion(Comparable etiqueta) {
+        return posicion(((Integer) etiqueta).intValue());
+    }
+
+    /**
+     * Obtiene el dato de la posición dada del inorden con un único descenso.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    @Override
+    public T seleccionar(int posicion) {
+        Objects.checkIndex(posicion, tamaño());
+        return raiz.seleccionar(posicion);
+    }
+
+    @Override
+    public boolean insertar(Comparable etiqueta, T dato) {
+        return insertarEntero(((Integer) etiqueta).intValue(), dato);
+    }
+
+    @Override
+    public T buscar(Comparable etiqueta) {
+        return buscar(((Integer) etiqueta).intValue());
+    }
+
+    @Override
+    public boolean eliminar(Comparable etiqueta) {
+        return eliminar(((Integer) etiqueta).intValue());
+    }
+
+    @Override
+    public List<T> preOrden() {
+        List<T> lista = new ArrayList<>();
+        if(raiz != null) {
+            raiz.preOrden(lista);
+        }
+        return lista;
+    }
+
+    @Override
+    public List<T> inOrden() {
+        List<T> lista = new ArrayList<>();
+        if(raiz != null) {
+            raiz.inOrden(lista);
+        }
+        return lista;
+    }
+
+    @Override
+    public List<T> postOrden() {
+        List<T> lista = new ArrayList<>();
+        if(raiz != null) {
+            raiz.postOrden(lista);
+        }
+        return lista;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new IteradorEnOrdenBEntero<>(raiz);
+    }
+
+    @Override
+    public Iterator<T> iteradorRango(Comparable desde, boolean incluirDesde, Comparable hasta, boolean incluirHasta, boolean descendente) {
+        return new IteradorEnOrdenBEntero<>(raiz, (Integer) desde, incluirDesde, (Integer) hasta, incluirHasta, descendente);
+    }
+
+    /**
+     * Obtiene un iterador sobre los datos cuyas claves enteras están en el rango dado.
+     *
+     * @param desde Extremo inferior del rango.
+     * @param incluirDesde Indica si la clave igual al extremo inferior forma parte del rango.
+     * @param hasta Extremo superior del rango.
+     * @param incluirHasta Indica si la clave igual al extremo superior forma parte del rango.
+     * @param descendente Verdadero para recorrer de la mayor clave a la menor.
+     * @return Un iterador sobre los datos del rango en el orden pedido.
+     *
+     * Orden de tiempo de ejecución: O(log n) para ubicar el inicio del rango y O(1) amortizado por dato.
+     */
+    public Iterator<T> iteradorRango(int desde, boolean incluirDesde, int hasta, boolean incluirHasta, boolean descendente) {
+        return new IteradorEnOrdenBEntero<>(raiz, desde, incluirDesde, hasta, incluirHasta, descendente);
+    }
+
+    /**
+     * Aplica la acción a cada dato del árbol en paralelo, desde varios hilos y sin un orden determinado, como
+     * TArbolB.paraCadaParalelo.
+     *
+     * @param accion Acción a aplicar a cada dato; debe admitir llamadas concurrentes.
+     */
+    public void paraCadaParalelo(Consumer<? super T> accion) {
+        RecorridoParaleloB.paraCada(raiz, t, accion);
+    }
+
+    /**
+     * Reduce los datos del árbol en paralelo, combinando los resultados parciales en el orden de las claves, como
+     * TArbolB.reducirParalelo.
+     *
+     * @return El resultado de la reducción, o la identidad si el árbol está vacío.
+     */
+    public <R> R reducirParalelo(R identidad, BiFunction<R, ? super T, R> acumulador, BinaryOperator<R> combinador) {
+        return RecorridoParaleloB.reducir(raiz, t, identidad, acumulador, combinador, true);
+    }
+
+    /**
+     * Reduce los datos del árbol en paralelo con un resultado parcial por hilo, como
+     * TArbolB.reducirParaleloSinOrden; el combinador debe ser conmutativo.
+     *
+     * @return El resultado de la reducción, o la identidad si el árbol está vacío.
+     */
+    public <R> R reducirParaleloSinOrden(R identidad, BiFunction<R, ? super T, R> acumulador, BinaryOperator<R> combinador) {
+        return RecorridoParaleloB.reducir(raiz, t, identidad, acumulador, combinador, false);
+    }
+
+    /**
+     * Acumula los datos del árbol en contenedores mutables en paralelo, combinándolos en el orden de las claves,
+     * como TArbolB.recolectarParalelo.
+     *
+     * @return El contenedor con todos los datos.
+     */
+    public <R> R recolectarParalelo(Supplier<R> proveedor, BiConsumer<R, ? super T> acumulador, BiConsumer<R, R> combinador) {
+        return RecorridoParaleloB.recolectar(raiz, t, proveedor, acumulador, combinador, true);
+    }
+
+    /**
+     * Acumula los datos del árbol en paralelo con un contenedor por hilo, como TArbolB.recolectarParaleloSinOrden.
+     *
+     * @return El contenedor con todos los datos.
+     */
+    public <R> R recolectarParaleloSinOrden(Supplier<R> proveedor, BiConsumer<R, ? super T> acumulador, BiConsumer<R, R> combinador) {
+        return RecorridoParaleloB.recolectar(raiz, t, proveedor, acumulador, combinador, false);
+    }
+
+    /**
+     * Fusiona este árbol con un árbol B genérico cuyas claves son enteras. Ante claves presentes en ambos árboles
+     * se conserva el dato de este árbol.
+     *
+     * @param otroArbol El árbol cuyos elementos se agregan a este árbol.
+     * @return Verdadero si la fusión fue exitosa.
+     *
+     * Orden de tiempo de ejecución: O(n + m)
+     */
+    @Override
+    public boolean merge(TArbolB<T> otroArbol) {
+        if(otroArbol == null || otroArbol.getRaiz() == null) {
+            return true;
+        }
+        IteradorEnOrdenB<T> otros = new IteradorEnOrdenB<>(otroArbol.getRaiz());
+        Iterator<Map.Entry<Integer, T>> otrosEnteros = new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return otros.hasNext();
+            }
+
+            @Override
+            public Map.Entry<Integer, T> next() {
+                T dato = otros.next();
+                return new AbstractMap.SimpleImmutableEntry<>((Integer) otros.claveActual(), dato);
+            }
+        };
+        fusionarCon(otrosEnteros, PoliticaDuplicados.conservarIzquierdo());
+        return true;
+    }
+
+    /**
+     * Fusiona este árbol con otro árbol B de claves enteras. Ante claves presentes en ambos árboles se conserva
+     * el dato de este árbol.
+     *
+     * @param otroArbol El árbol cuyos elementos se agregan a este árbol.
+     * @return Verdadero si la fusión fue exitosa.
+     *
+     * Orden de tiempo de ejecución: O(n + m)
+     */
+    public boolean merge(TArbolBEntero<T> otroArbol) {
+        return merge(otroArbol, PoliticaDuplicados.conservarIzquierdo());
+    }
+
+    /**
+     * Fusiona este árbol con otro árbol B de claves enteras. Ambos árboles se recorren en inorden, las dos
+     * secuencias ordenadas se intercalan y el resultado se construye de abajo hacia arriba con CargadorMasivoArbolB.
+     *
+     * @param otroArbol El árbol cuyos elementos se agregan a este árbol.
+     * @param politica Política que decide el dato de las claves presentes en ambos árboles.
+     * @return Verdadero si la fusión fue exitosa.
+     *
+     * Postcondiciones:
+     * - Este árbol contiene la unión de las claves de ambos árboles.
+     * - El otro árbol permanece inalterado y no comparte nodos con este árbol.
+     *
+     * Orden de tiempo de ejecución: O(n + m)
+     */
+    public boolean merge(TArbolBEntero<T> otroArbol, PoliticaDuplicados<T> politica) {
+        if(otroArbol != null && otroArbol.raiz != null) {
+            fusionarCon(otroArbol.recorrerEnOrden(), politica);
+        }
+        return true;
+    }
+
+    private void fusionarCon(Iterator<Map.Entry<Integer, T>> otros, PoliticaDuplicados<T> politica) {
+        Iterator<Map.Entry<Integer, T>> fusion = CargadorMasivoArbolB.fusionar(recorrerEnOrden(), otros, politica);
+        this.raiz = CargadorMasivoArbolB.construirEnteroDesdeEntradas(t, fusion, CargadorMasivoArbolB.FACTOR_LLENADO_POR_DEFECTO).raiz;
+    }
+
+    /**
+     * Obtiene un iterador que recorre en inorden los pares (clave, dato) del árbol.
+     *
+     * @return Un iterador sobre los pares del árbol ordenados por clave.
+     */
+    Iterator<Map.Entry<Integer, T>> recorrerEnOrden() {
+        IteradorEnOrdenBEntero<T> datos = new IteradorEnOrdenBEntero<>(raiz);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return datos.hasNext();
+            }
+
+            @Override
+            public Map.Entry<Integer, T> next() {
+                T dato = datos.next();
+                return new AbstractMap.SimpleImmutableEntry<>(datos.claveActual(), dato);
+            }
+        };
+    }
+
+    /**
+     * Instantánea de solo lectura creada por snapshot(). Sus nodos pueden estar compartidos con el árbol original,
+     * que los copia antes de modificarlos.
+     */
+    private static final class Instantanea<T> extends TArbolBEntero<T> {
+
+        Instantanea(int t, TElementoBEntero<T> raiz) {
+            super(t, raiz);
+        }
+
+        @Override
+        public boolean insertarEntero(int clave, T dato) {
+            throw new UnsupportedOperationException("La instantánea es de solo lectura.");
+        }
+
+        @Override
+        public int insertarLote(int[] claves, T[] datos, boolean[] insertados) {
+            throw new UnsupportedOperationException("La instantánea es de solo lectura.");
+        }
+
+        @Override
+        public int eliminarLote(int[] claves, boolean[] eliminados) {
+            throw new UnsupportedOperationException("La instantánea es de solo lectura.");
+        }
+
+        @Override
+        public boolean eliminar(int clave) {
+            throw new UnsupportedOperationException("La instantánea es de solo lectura.");
+        }
+
+        @Override
+        public boolean merge(TArbolB<T> otroArbol) {
+            throw new UnsupportedOperationException("La instantánea es de solo lectura.");
+        }
+
+        @Override
+        public boolean merge(TArbolBEntero<T> otroArbol, PoliticaDuplicados<T> politica) {
+            throw new UnsupportedOperationException("La instantánea es de solo lectura.");
+        }
+
+        @Override
+        public TArbolBEntero<T> snapshot() {
+            return this;
+        }
+    }
+}
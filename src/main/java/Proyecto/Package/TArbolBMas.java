@@ -0,0 +1,224 @@
+package Proyecto.Package;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+@SuppressWarnings({"rawtypes"})
+/**
+ * Clase que representa un árbol B+. A diferencia de TArbolB, los datos se guardan solo en las hojas y los nodos
+ * internos contienen únicamente claves, por lo que ocupan menos memoria y caben más en caché. Las hojas forman
+ * una lista doblemente enlazada, de modo que los recorridos completos y las búsquedas por rango avanzan de hoja
+ * en hoja sin volver a subir por el árbol.
+ *
+ * @param <T> El tipo de los datos que contendrán los elementos del árbol.
+ */
+public class TArbolBMas<T> implements IArbolB<T>, Serializable {
+    private TElementoBMas<T> raiz;
+    private int t; //Grado mínimo del árbol
+
+    public TArbolBMas(int t) {
+        this.raiz = null;
+        this.t = t;
+    }
+
+    /**
+     * Crea un árbol a partir de una raíz ya construida, como la que arma CargadorMasivoArbolB.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param raiz Raíz de un árbol B+ válido de grado mínimo t, con sus hojas enlazadas, o null para un árbol vacío.
+     */
+    TArbolBMas(int t, TElementoBMas<T> raiz) {
+        this.raiz = raiz;
+        this.t = t;
+    }
+
+    /**
+     * Obtiene el nodo raíz del árbol.
+     *
+     * @return El nodo raíz del árbol, o null si el árbol está vacío.
+     */
+    public TElementoBMas<T> getRaiz() {
+        return raiz;
+    }
+
+    @Override
+    public boolean insertar(Comparable clave, T dato) {
+        //Caso Árbol vacío
+        if(raiz == null) {
+            raiz = new TElementoBMas<>(t, true);
+        }
+        //Un único descenso: las claves duplicadas se detectan antes de modificar ningún nodo
+        if(!raiz.insertar(clave, dato)) {
+            return false;
+        }
+        //Raíz desbordada, creamos una nueva raíz y dividimos la raíz antigua
+        if(raiz.estaDesbordado()) {
+            raiz = raiz.dividirRaiz();
+        }
+        return true;
+    }
+
+    @Override
+    public T buscar(Comparable clave) {
+        if(raiz == null) {
+            return null;
+        }
+        return raiz.buscar(clave);
+    }
+
+    @Override
+    public boolean eliminar(Comparable clave) {
+        if(raiz == null) {
+            //Arbol vacío, nada que eliminar
+            return false;
+        }
+
+        boolean eliminado = raiz.eliminar(clave);
+
+        //Si la raíz se quedó sin claves, el árbol pierde un nivel o queda vacío
+        if(raiz.getNumClaves() == 0) {
+            raiz = raiz.esHoja() ? null : raiz.getHijo(0);
+        }
+        return eliminado;
+    }
+
+    /**
+     * Como los datos están solo en las hojas, el recorrido en preorden visita las hojas de izquierda a derecha y
+     * coincide con el recorrido en inorden.
+     */
+    @Override
+    public List<T> preOrden() {
+        return inOrden();
+    }
+
+    /**
+     * Recorre la lista enlazada de hojas de izquierda a derecha.
+     */
+    @Override
+    public List<T> inOrden() {
+        List<T> lista = new ArrayList<>();
+        for(TElementoBMas<T> hoja = primeraHoja(); hoja != null; hoja = hoja.getSiguiente()) {
+            for(int i = 0; i < hoja.getNumClaves(); i++) {
+                lista.add(hoja.getDato(i));
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Como los datos están solo en las hojas, el recorrido en postorden visita las hojas de izquierda a derecha y
+     * coincide con el recorrido en inorden.
+     */
+    @Override
+    public List<T> postOrden() {
+        return inOrden();
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return new IteradorBMas<>(raiz, null, true, null, true, false);
+    }
+
+    @Override
+    public Iterator<T> iteradorRango(Comparable desde, boolean incluirDesde, Comparable hasta, boolean incluirHasta, boolean descendente) {
+        return new IteradorBMas<>(raiz, desde, incluirDesde, hasta, incluirHasta, descendente);
+    }
+
+    /**
+     * Fusiona este árbol con un árbol B. Ante claves presentes en ambos árboles se conserva el dato de este árbol.
+     *
+     * Orden de tiempo de ejecución: O(n + m)
+     */
+    @Override
+    public boolean merge(TArbolB<T> otroArbol) {
+        if(otroArbol != null && otroArbol.getRaiz() != null) {
+            fusionarCon(otroArbol.recorrerEnOrden(), PoliticaDuplicados.conservarIzquierdo());
+        }
+        return true;
+    }
+
+    /**
+     * Fusiona este árbol con otro árbol B+. Ambos árboles se recorren por sus hojas, las dos secuencias ordenadas
+     * se intercalan y el resultado se construye de abajo hacia arriba con CargadorMasivoArbolB.
+     *
+     * @param otroArbol El árbol cuyos elementos se agregan a este árbol.
+     * @param politica Política que decide el dato de las claves presentes en ambos árboles.
+     * @return Verdadero si la fusión fue exitosa.
+     *
+     * Postcondiciones:
+     * - Este árbol contiene la unión de las claves de ambos árboles.
+     * - El otro árbol permanece inalterado y no comparte nodos con este árbol.
+     *
+     * Orden de tiempo de ejecución: O(n + m)
+     */
+    public boolean merge(TArbolBMas<T> otroArbol, PoliticaDuplicados<T> politica) {
+        if(otroArbol != null && otroArbol.raiz != null) {
+            fusionarCon(otroArbol.recorrerEnOrden(), politica);
+        }
+        return true;
+    }
+
+    private void fusionarCon(Iterator<Map.Entry<Comparable, T>> otros, PoliticaDuplicados<T> politica) {
+        Iterator<Map.Entry<Comparable, T>> fusion = CargadorMasivoArbolB.fusionar(recorrerEnOrden(), otros, politica);
+        this.raiz = CargadorMasivoArbolB.construirMas(t, fusion, CargadorMasivoArbolB.FACTOR_LLENADO_POR_DEFECTO).raiz;
+    }
+
+    /**
+     * Obtiene un iterador que recorre en orden los pares (clave, dato) del árbol.
+     *
+     * @return Un iterador sobre los pares del árbol ordenados por clave.
+     */
+    Iterator<Map.Entry<Comparable, T>> recorrerEnOrden() {
+        IteradorBMas<T> datos = new IteradorBMas<>(raiz, null, true, null, true, false);
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return datos.hasNext();
+            }
+
+            @Override
+            public Map.Entry<Comparable, T> next() {
+                T dato = datos.next();
+                return new AbstractMap.SimpleImmutableEntry<>(datos.claveActual(), dato);
+            }
+        };
+    }
+
+    private TElementoBMas<T> primeraHoja() {
+        TElementoBMas<T> actual = raiz;
+        while(actual != null && !actual.esHoja()) {
+            actual = actual.getHijo(0);
+        }
+        return actual;
+    }
+
+    /**
+     * Los enlaces entre hojas no se serializan, para que serializar una lista de hojas larga no agote la pila;
+     * al leer el árbol se vuelven a enlazar recorriendo las hojas en orden.
+     */
+    private void readObject(ObjectInputStream entrada) throws IOException, ClassNotFoundException {
+        entrada.defaultReadObject();
+        if(raiz != null) {
+            enlazarHojas(raiz, null);
+        }
+    }
+
+    private TElementoBMas<T> enlazarHojas(TElementoBMas<T> nodo, TElementoBMas<T> anterior) {
+        if(nodo.esHoja()) {
+            if(anterior != null) {
+                anterior.enlazarSiguiente(nodo);
+            }
+            return nodo;
+        }
+        for(int i = 0; i <= nodo.getNumClaves(); i++) {
+            anterior = enlazarHojas(nodo.getHijo(i), anterior);
+        }
+        return anterior;
+    }
+}
@@ -0,0 +1,414 @@
+package Proyecto.Package;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+@SuppressWarnings({"rawtypes", "unchecked"})
+/**
+ * Índice seguro para uso concurrente que reparte las claves, según su hash, entre varios árboles independientes
+ * (particiones), cada uno protegido por su propio lock de lectura y escritura. Insertar, buscar y eliminar van
+ * directamente a la partición de la clave y solo bloquean a esa partición, por lo que las escrituras de claves de
+ * particiones distintas avanzan en paralelo sin un lock común.
+ *
+ * Como cada partición tiene claves de todo el rango, los recorridos en orden y por rango intercalan los recorridos
+ * ordenados de todas las particiones. Los leen por lotes, tomando el lock de lectura de cada partición solo
+ * mientras carga un lote, así que no bloquean a las escrituras: son débilmente consistentes, no fallan ante
+ * modificaciones concurrentes y devuelven cada clave a lo sumo una vez, en orden.
+ *
+ * @param <T> El tipo de los datos que contendrán los elementos del árbol.
+ */
+public class TArbolBParticionado<T> implements IArbolB<T> {
+
+    /**
+     * Cantidad de datos que un recorrido lee de una partición cada vez que toma su lock.
+     */
+    static final int TAMAÑO_LOTE = 64;
+
+    private final IArbolB<T>[] particiones;              //Árboles entre los que se reparten las claves
+    private final ReentrantReadWriteLock[] cerrojos;     //Lock de cada partición
+    private final Function<? super T, ? extends Comparable> claveDe; //Obtiene la clave de un dato para intercalar
+
+    /**
+     * Crea un índice particionado vacío.
+     *
+     * @param t Grado mínimo de cada partición.
+     * @param cantidadParticiones Cantidad de árboles independientes.
+     * @param tipo Estructura de cada partición.
+     * @param claveDe Función que obtiene la clave de un dato, para intercalar los recorridos de las particiones.
+     * @throws IllegalArgumentException Si la cantidad de particiones no es positiva.
+     */
+    public TArbolBParticionado(int t, int cantidadParticiones, TipoIndice tipo, Function<? super T, ? extends Comparable> claveDe) {
+        this(crearParticiones(t, cantidadParticiones, tipo), claveDe);
+    }
+
+    /**
+     * Crea un índice particionado a partir de particiones ya construidas, que deben tener cada clave en la
+     * partición que le asigna particion.
+     */
+    TArbolBParticionado(IArbolB<T>[] particiones, Function<? super T, ? extends Comparable> claveDe) {
+        this.particiones = particiones;
+        this.claveDe = claveDe;
+        this.cerrojos = new ReentrantReadWriteLock[particiones.length];
+        for(int i = 0; i < particiones.length; i++) {
+            cerrojos[i] = new ReentrantReadWriteLock();
+        }
+    }
+
+    private static <T> IArbolB<T>[] crearParticiones(int t, int cantidadParticiones, TipoIndice tipo) {
+        if(cantidadParticiones < 1) {
+            throw new IllegalArgumentException("La cantidad de particiones debe ser positiva.");
+        }
+        IArbolB<T>[] particiones = new IArbolB[cantidadParticiones];
+        for(int i = 0; i < cantidadParticiones; i++) {
+            particiones[i] = tipo.crear(t);
+        }
+        return particiones;
+    }
+
+    /**
+     * Construye un índice particionado de abajo hacia arriba: reparte las entradas ordenadas entre las particiones,
+     * donde siguen ordenadas, y construye cada una con TipoIndice.construir.
+     *
+     * @param t Grado mínimo de cada partición.
+     * @param cantidadParticiones Cantidad de árboles independientes.
+     * @param tipo Estructura de cada partición.
+     * @param claveDe Función que obtiene la clave de un dato.
+     * @param entradasOrdenadas Pares (clave, dato) ordenados de forma ascendente por clave.
+     * @param factorLlenado Fracción de cada hoja que se ocupa, en el intervalo (0, 1].
+     * @return El índice construido.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     */
+    public static <T> TArbolBParticionado<T> construir(int t, int cantidadParticiones, TipoIndice tipo,
+                                                       Function<? super T, ? extends Comparable> claveDe,
+                                                       Iterator<? extends Map.Entry<Integer, ? extends T>> entradasOrdenadas,
+                                                       double factorLlenado) {
+        if(cantidadParticiones < 1) {
+            throw new IllegalArgumentException("La cantidad de particiones debe ser positiva.");
+        }
+        List<Map.Entry<Integer, ? extends T>>[] repartidas = new List[cantidadParticiones];
+        for(int i = 0; i < cantidadParticiones; i++) {
+            repartidas[i] = new ArrayList<>();
+        }
+        while(entradasOrdenadas.hasNext()) {
+            Map.Entry<Integer, ? extends T> entrada = entradasOrdenadas.next();
+            repartidas[particion(entrada.getKey(), cantidadParticiones)].add(entrada);
+        }
+        IArbolB<T>[] particiones = new IArbolB[cantidadParticiones];
+        for(int i = 0; i < cantidadParticiones; i++) {
+            particiones[i] = tipo.construir(t, repartidas[i].iterator(), factorLlenado);
+        }
+        return new TArbolBParticionado<>(particiones, claveDe);
+    }
+
+    /**
+     * Obtiene la partición a la que corresponde la clave. El hash se mezcla para que claves consecutivas, como los
+     * ids, se repartan de forma pareja.
+     *
+     * @param clave La clave.
+     * @param cantidadParticiones Cantidad de particiones.
+     * @return El índice de la partición, entre 0 y cantidadParticiones - 1.
+     */
+    static int particion(Object clave, int cantidadParticiones) {
+        int h = clave.hashCode() * 0x9E3779B9;
+        return Math.floorMod(h ^ (h >>> 16), cantidadParticiones);
+    }
+
+    /**
+     * Obtiene la cantidad de particiones del índice.
+     *
+     * @return La cantidad de árboles independientes.
+     */
+    public int getCantidadParticiones() {
+        return particiones.length;
+    }
+
+    /**
+     * Obtiene la partición en la posición dada. Solo debe usarse sin operaciones concurrentes en curso.
+     */
+    IArbolB<T> getParticion(int i) {
+        return particiones[i];
+    }
+
+    @Override
+    public boolean insertar(Comparable etiqueta, T dato) {
+        int i = particion(etiqueta, particiones.length);
+        Lock lock = cerrojos[i].writeLock();
+        lock.lock();
+        try {
+            return particiones[i].insertar(etiqueta, dato);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public T buscar(Comparable etiqueta) {
+        int i = particion(etiqueta, particiones.length);
+        Lock lock = cerrojos[i].readLock();
+        lock.lock();
+        try {
+            return particiones[i].buscar(etiqueta);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public boolean eliminar(Comparable etiqueta) {
+        int i = particion(etiqueta, particiones.length);
+        Lock lock = cerrojos[i].writeLock();
+        lock.lock();
+        try {
+            return particiones[i].eliminar(etiqueta);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Suma la cantidad de elementos de cada partición, tomando su lock compartido de a una.
+     *
+     * Orden de tiempo de ejecución: O(p) con particiones que llevan su tamaño.
+     */
+    @Override
+    public int tamaño() {
+        int tamaño = 0;
+        for(int i = 0; i < particiones.length; i++) {
+            Lock lock = cerrojos[i].readLock();
+            lock.lock();
+            try {
+                tamaño += particiones[i].tamaño();
+            } finally {
+                lock.unlock();
+            }
+        }
+        return tamaño;
+    }
+
+    /**
+     * Suma las posiciones de la clave en cada partición, ya que las claves menores a ella pueden estar en
+     * cualquiera. La selección por posición, en cambio, necesita intercalar las particiones y recorre el iterador.
+     *
+     * Orden de tiempo de ejecución: O(p t log n) con particiones que guardan el tamaño de sus subárboles.
+     */
+    @Override
+    public int posicion(Comparable clave) {
+        int posicion = 0;
+        for(int i = 0; i < particiones.length; i++) {
+            Lock lock = cerrojos[i].readLock();
+            lock.lock();
+            try {
+                posicion += particiones[i].posicion(clave);
+            } finally {
+                lock.unlock();
+            }
+        }
+        return posicion;
+    }
+
+    /**
+     * Realiza un recorrido en preorden de cada partición, una tras otra.
+     *
+     * @return Una lista con los datos de todas las particiones.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     */
+    @Override
+    public List<T> preOrden() {
+        return concatenar(false);
+    }
+
+    @Override
+    public List<T> inOrden() {
+        List<T> lista = new ArrayList<>();
+        iterator().forEachRemaining(lista::add);
+        return lista;
+    }
+
+    /**
+     * Realiza un recorrido en postorden de cada partición, una tras otra.
+     *
+     * @return Una lista con los datos de todas las particiones.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     */
+    @Override
+    public List<T> postOrden() {
+        return concatenar(true);
+    }
+
+    private List<T> concatenar(boolean postOrden) {
+        List<T> lista = new ArrayList<>();
+        for(int i = 0; i < particiones.length; i++) {
+            Lock lock = cerrojos[i].readLock();
+            lock.lock();
+            try {
+                lista.addAll(postOrden ? particiones[i].postOrden() : particiones[i].preOrden());
+            } finally {
+                lock.unlock();
+            }
+        }
+        return lista;
+    }
+
+    /**
+     * Inserta en este índice los elementos de un árbol B, cada uno en su partición. Ante claves presentes en ambos
+     * se conserva el dato de este índice.
+     *
+     * @param otroArbol El árbol cuyos elementos se agregan a este índice.
+     * @return Verdadero si la fusión fue exitosa.
+     *
+     * Orden de tiempo de ejecución: O(m log n)
+     */
+    @Override
+    public boolean merge(TArbolB<T> otroArbol) {
+        if(otroArbol == null || otroArbol.getRaiz() == null) {
+            return true;
+        }
+        IteradorEnOrdenB<T> otros = new IteradorEnOrdenB<>(otroArbol.getRaiz());
+        while(otros.hasNext()) {
+            T dato = otros.next();
+            insertar(otros.claveActual(), dato);
+        }
+        return true;
+    }
+
+    @Override
+    public Iterator<T> iterator() {
+        return iteradorRango(null, true, null, true, false);
+    }
+
+    /**
+     * Obtiene un iterador débilmente consistente sobre los datos del rango, que intercala los recorridos ordenados
+     * de las particiones con una cola de prioridad.
+     *
+     * Orden de tiempo de ejecución: O(p log n) para ubicar el inicio del rango en las p particiones y O(log p)
+     * amortizado por dato.
+     */
+    @Override
+    public Iterator<T> iteradorRango(Comparable desde, boolean incluirDesde, Comparable hasta, boolean incluirHasta, boolean descendente) {
+        return new IteradorIntercalado(desde, incluirDesde, hasta, incluirHasta, descendente);
+    }
+
+    /**
+     * Recorre una partición por lotes, retomando cada lote después de la última clave del anterior.
+     */
+    private final class Cursor {
+        private final int particion;
+        private final List<T> lote = new ArrayList<>();
+        private int posicion;          //Próximo dato del lote a devolver
+        private Comparable ultima;     //Clave después de la cual se carga el próximo lote, o null al comenzar
+        private boolean agotado;       //Indica si la partición ya no tiene datos en el rango
+        private T actual;              //Dato en el que está el cursor
+        private Comparable claveActual;
+
+        Cursor(int particion) {
+            this.particion = particion;
+        }
+
+        /**
+         * Mueve el cursor al siguiente dato de la partición.
+         *
+         * @return Verdadero si hay un dato, falso si la partición se agotó.
+         */
+        boolean avanzar(IteradorIntercalado recorrido) {
+            if(posicion == lote.size()) {
+                if(agotado) {
+                    return false;
+                }
+                cargarLote(recorrido);
+                if(lote.isEmpty()) {
+                    return false;
+                }
+            }
+            actual = lote.get(posicion++);
+            claveActual = claveDe.apply(actual);
+            return true;
+        }
+
+        private void cargarLote(IteradorIntercalado recorrido) {
+            lote.clear();
+            posicion = 0;
+            //El extremo donde empieza el recorrido avanza hasta la última clave leída, que queda excluida
+            Comparable desde = recorrido.desde;
+            boolean incluirDesde = recorrido.incluirDesde;
+            Comparable hasta = recorrido.hasta;
+            boolean incluirHasta = recorrido.incluirHasta;
+            if(ultima != null && recorrido.descendente) {
+                hasta = ultima;
+                incluirHasta = false;
+            } else if(ultima != null) {
+                desde = ultima;
+                incluirDesde = false;
+            }
+            Lock lock = cerrojos[particion].readLock();
+            lock.lock();
+            try {
+                Iterator<T> datos = particiones[particion].iteradorRango(desde, incluirDesde, hasta, incluirHasta,
+                        recorrido.descendente);
+                while(lote.size() < TAMAÑO_LOTE && datos.hasNext()) {
+                    lote.add(datos.next());
+                }
+            } finally {
+                lock.unlock();
+            }
+            agotado = lote.size() < TAMAÑO_LOTE;
+            if(!lote.isEmpty()) {
+                ultima = claveDe.apply(lote.get(lote.size() - 1));
+            }
+        }
+    }
+
+    private class IteradorIntercalado implements Iterator<T> {
+        private final Comparable desde;
+        private final boolean incluirDesde;
+        private final Comparable hasta;
+        private final boolean incluirHasta;
+        private final boolean descendente;
+        private final PriorityQueue<Cursor> cola; //Cursores con datos, ordenados por su clave actual
+
+        IteradorIntercalado(Comparable desde, boolean incluirDesde, Comparable hasta, boolean incluirHasta,
+                            boolean descendente) {
+            this.desde = desde;
+            this.incluirDesde = incluirDesde;
+            this.hasta = hasta;
+            this.incluirHasta = incluirHasta;
+            this.descendente = descendente;
+            this.cola = new PriorityQueue<>(particiones.length, (a, b) -> descendente
+                    ? TElementoB.comparar(b.claveActual, a.claveActual)
+                    : TElementoB.comparar(a.claveActual, b.claveActual));
+            for(int i = 0; i < particiones.length; i++) {
+                Cursor cursor = new Cursor(i);
+                if(cursor.avanzar(this)) {
+                    cola.add(cursor);
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return !cola.isEmpty();
+        }
+
+        @Override
+        public T next() {
+            Cursor cursor = cola.poll();
+            if(cursor == null) {
+                throw new NoSuchElementException();
+            }
+            T dato = cursor.actual;
+            if(cursor.avanzar(this)) {
+                cola.add(cursor);
+            }
+            return dato;
+        }
+    }
+}
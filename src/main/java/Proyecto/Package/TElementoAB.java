@@ -1,7 +1,7 @@
 package Proyecto.Package;
 
-import java.io.Serial;
 import java.io.Serializable;
+import java.util.ArrayDeque;
 import java.util.LinkedList;
 
 @SuppressWarnings({"rawtypes"})
@@ -10,6 +10,10 @@ import java.util.LinkedList;
  * que lo identifica de manera única, los datos asociados a esa etiqueta, y las referencias a sus hijos
  * izquierdo y derecho.
  *
+ * Todas las operaciones son iterativas: las búsquedas descienden con un ciclo y los recorridos usan una pila
+ * explícita, por lo que un árbol degenerado en lista, como el que resulta de insertar claves en orden, no agota
+ * la pila de llamadas.
+ *
  * @param <T> Tipo de dato que se almacena en el nodo.
  */
 public class TElementoAB<T> implements IElementoAB<T>, Serializable {
@@ -57,23 +61,26 @@ public class TElementoAB<T> implements IElementoAB<T>, Serializable {
      */
     @SuppressWarnings("unchecked")
     public boolean insertar(TElementoAB<T> unElemento) {
-        if (unElemento.getEtiqueta().compareTo(etiqueta) < 0) {
-            if (hijoIzq != null) {
-                return getHijoIzq().insertar(unElemento);
-            } else {
-                hijoIzq = unElemento;
-                return true;
-            }
-        } else if (unElemento.getEtiqueta().compareTo(etiqueta) > 0) {
-            if (hijoDer != null) {
-                return getHijoDer().insertar(unElemento);
+        Comparable unaEtiqueta = unElemento.getEtiqueta();
+        TElementoAB<T> actual = this;
+        while (true) {
+            int comparacion = unaEtiqueta.compareTo(actual.etiqueta);
+            if (comparacion < 0) {
+                if (actual.hijoIzq == null) {
+                    actual.hijoIzq = unElemento;
+                    return true;
+                }
+                actual = actual.hijoIzq;
+            } else if (comparacion > 0) {
+                if (actual.hijoDer == null) {
+                    actual.hijoDer = unElemento;
+                    return true;
+                }
+                actual = actual.hijoDer;
             } else {
-                hijoDer = unElemento;
-                return true;
+                // Ya existe un elemento con la misma etiqueta.
+                return false;
             }
-        } else {
-            // Ya existe un elemento con la misma etiqueta.
-            return false;
         }
     }
 
@@ -85,19 +92,15 @@ public class TElementoAB<T> implements IElementoAB<T>, Serializable {
      */
     @SuppressWarnings({"unchecked"})
     public TElementoAB<T> buscar(Comparable unaEtiqueta) {
-        if (unaEtiqueta.equals(etiqueta)) {
-            return this;
-        } else if (unaEtiqueta.compareTo(etiqueta) < 0) {
-            if (hijoIzq != null) {
-                return getHijoIzq().buscar(unaEtiqueta);
-            } else {
-                return null;
+        TElementoAB<T> actual = this;
+        while (actual != null) {
+            int comparacion = unaEtiqueta.compareTo(actual.etiqueta);
+            if (comparacion == 0) {
+                return actual;
             }
-        } else if (hijoDer != null) {
-            return getHijoDer().buscar(unaEtiqueta);
-        } else {
-            return null;
+            actual = comparacion < 0 ? actual.hijoIzq : actual.hijoDer;
         }
+        return null;
     }
 
     /**
@@ -108,14 +111,19 @@ public class TElementoAB<T> implements IElementoAB<T>, Serializable {
      */
     public String inOrden() {
         StringBuilder tempStr = new StringBuilder();
-        if (hijoIzq != null) {
-            tempStr.append(getHijoIzq().inOrden());
-            tempStr.append(TArbolBB.SEPARADOR_ELEMENTOS_IMPRESOS);
-        }
-        tempStr.append(imprimir());
-        if (hijoDer != null) {
-            tempStr.append(TArbolBB.SEPARADOR_ELEMENTOS_IMPRESOS);
-            tempStr.append(getHijoDer().inOrden());
+        ArrayDeque<TElementoAB<T>> pila = new ArrayDeque<>();
+        TElementoAB<T> actual = this;
+        while (actual != null || !pila.isEmpty()) {
+            while (actual != null) {
+                pila.push(actual);
+                actual = actual.hijoIzq;
+            }
+            actual = pila.pop();
+            if (tempStr.length() > 0) {
+                tempStr.append(TArbolBB.SEPARADOR_ELEMENTOS_IMPRESOS);
+            }
+            tempStr.append(actual.imprimir());
+            actual = actual.hijoDer;
         }
         return tempStr.toString();
     }
@@ -127,12 +135,17 @@ public class TElementoAB<T> implements IElementoAB<T>, Serializable {
      * @param unaLista Lista donde se agregarán los datos de los elementos en inorden.
      */
     public void inOrden(LinkedList<T> unaLista) {
-        if (hijoIzq != null) {
-            hijoIzq.inOrden(unaLista);
-        }
-        unaLista.add(this.getDatos());
-        if (hijoDer != null) {
-            hijoDer.inOrden(unaLista);
+        ArrayDeque<TElementoAB<T>> pila = new ArrayDeque<>();
+        TElementoAB<T> actual = this;
+        while (actual != null || !pila.isEmpty()) {
+            // Bajamos por los hijos izquierdos; el tope de la pila es el próximo elemento del recorrido
+            while (actual != null) {
+                pila.push(actual);
+                actual = actual.hijoIzq;
+            }
+            actual = pila.pop();
+            unaLista.add(actual.getDatos());
+            actual = actual.hijoDer;
         }
     }
 
@@ -165,6 +178,21 @@ public class TElementoAB<T> implements IElementoAB<T>, Serializable {
         return datos;
     }
 
+    /**
+     * Intercambia la etiqueta y los datos del nodo actual con los de otro nodo, sin modificar los hijos. Lo usan los
+     * árboles que rebalancean para que un nodo conserve su lugar como raíz aunque una rotación suba otro nodo.
+     *
+     * @param otro Nodo con el que se intercambia el contenido.
+     */
+    protected void intercambiarContenido(TElementoAB<T> otro) {
+        Comparable etiquetaOtro = otro.etiqueta;
+        T datosOtro = otro.datos;
+        otro.etiqueta = etiqueta;
+        otro.datos = datos;
+        etiqueta = etiquetaOtro;
+        datos = datosOtro;
+    }
+
     /**
      * Asigna un nodo como hijo izquierdo del nodo actual.
      *
@@ -194,19 +222,28 @@ public class TElementoAB<T> implements IElementoAB<T>, Serializable {
     @Override
     @SuppressWarnings({"unchecked"})
     public TElementoAB<T> eliminar(Comparable unaEtiqueta) {
-        if (unaEtiqueta.compareTo(this.getEtiqueta()) < 0) {
-            if (this.hijoIzq != null) {
-                this.hijoIzq = hijoIzq.eliminar(unaEtiqueta);
+        TElementoAB<T> padre = null;
+        TElementoAB<T> actual = this;
+        int comparacion;
+        while ((comparacion = unaEtiqueta.compareTo(actual.etiqueta)) != 0) {
+            padre = actual;
+            actual = comparacion < 0 ? actual.hijoIzq : actual.hijoDer;
+            if (actual == null) {
+                // No hay elemento con esa etiqueta, el subárbol queda igual
+                return this;
             }
-            return this;
         }
-        if (unaEtiqueta.compareTo(this.getEtiqueta()) > 0) {
-            if (this.hijoDer != null) {
-                this.hijoDer = hijoDer.eliminar(unaEtiqueta);
-            }
-            return this;
+
+        TElementoAB<T> reemplazo = actual.quitaElNodo();
+        if (padre == null) {
+            return reemplazo;
+        }
+        if (padre.hijoIzq == actual) {
+            padre.hijoIzq = reemplazo;
+        } else {
+            padre.hijoDer = reemplazo;
         }
-        return quitaElNodo();
+        return this;
     }
 
     /**
@@ -250,12 +287,18 @@ public class TElementoAB<T> implements IElementoAB<T>, Serializable {
      */
     @Override
     public int obtenerTamaño() {
-        int tam = 1;
-        if (this.getHijoIzq() != null) {
-            tam += this.getHijoIzq().obtenerTamaño();
-        }
-        if (this.getHijoDer() != null) {
-            tam += this.getHijoDer().obtenerTamaño();
+        int tam = 0;
+        ArrayDeque<TElementoAB<T>> pila = new ArrayDeque<>();
+        pila.push(this);
+        while (!pila.isEmpty()) {
+            TElementoAB<T> actual = pila.pop();
+            tam++;
+            if (actual.hijoIzq != null) {
+                pila.push(actual.hijoIzq);
+            }
+            if (actual.hijoDer != null) {
+                pila.push(actual.hijoDer);
+            }
         }
         return tam;
     }
@@ -268,12 +311,18 @@ public class TElementoAB<T> implements IElementoAB<T>, Serializable {
      */
     @Override
     public void preOrden(LinkedList<T> unaLista) {
-        unaLista.add(this.getDatos());
-        if (hijoIzq != null) {
-            hijoIzq.preOrden(unaLista);
-        }
-        if (hijoDer != null) {
-            hijoDer.preOrden(unaLista);
+        ArrayDeque<TElementoAB<T>> pila = new ArrayDeque<>();
+        pila.push(this);
+        while (!pila.isEmpty()) {
+            TElementoAB<T> actual = pila.pop();
+            unaLista.add(actual.getDatos());
+            // El hijo derecho se apila primero para que el izquierdo se visite antes
+            if (actual.hijoDer != null) {
+                pila.push(actual.hijoDer);
+            }
+            if (actual.hijoIzq != null) {
+                pila.push(actual.hijoIzq);
+            }
         }
     }
 
@@ -285,12 +334,22 @@ public class TElementoAB<T> implements IElementoAB<T>, Serializable {
      */
     @Override
     public void postOrden(LinkedList<T> unaLista) {
-        if (hijoIzq != null) {
-            hijoIzq.postOrden(unaLista);
-        }
-        if (hijoDer != null) {
-            hijoDer.postOrden(unaLista);
+        ArrayDeque<TElementoAB<T>> pila = new ArrayDeque<>();
+        TElementoAB<T> actual = this;
+        TElementoAB<T> ultimoVisitado = null;
+        while (actual != null || !pila.isEmpty()) {
+            while (actual != null) {
+                pila.push(actual);
+                actual = actual.hijoIzq;
+            }
+            TElementoAB<T> tope = pila.peek();
+            if (tope.hijoDer != null && tope.hijoDer != ultimoVisitado) {
+                // Falta recorrer el subárbol derecho antes de visitar el nodo
+                actual = tope.hijoDer;
+            } else {
+                unaLista.add(tope.getDatos());
+                ultimoVisitado = pila.pop();
+            }
         }
-        unaLista.add(this.getDatos());
     }
 }
\ No newline at end of file
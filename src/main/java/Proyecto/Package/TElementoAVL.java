@@ -0,0 +1,304 @@
+package Proyecto.Package;
+
+import java.util.ArrayDeque;
+
+@SuppressWarnings({"rawtypes"})
+/**
+ * Clase que representa un nodo de un árbol AVL: un árbol binario de búsqueda en el que, para cada nodo, las alturas
+ * de sus dos subárboles difieren a lo sumo en uno, lo que garantiza una altura de O(log n).
+ *
+ * Extiende TElementoAB, por lo que las búsquedas y los recorridos son los del árbol binario de búsqueda. La
+ * inserción y la eliminación descienden una sola vez guardando el camino recorrido y, al volver por él, actualizan
+ * las alturas y aplican las rotaciones necesarias. Como una rotación puede cambiar la raíz del subárbol, ambas
+ * operaciones devuelven la nueva raíz; insertar, que sobrescribe el de TElementoAB, mantiene en cambio al nodo
+ * como raíz.
+ *
+ * @param <T> Tipo de dato que se almacena en el nodo.
+ */
+public class TElementoAVL<T> extends TElementoAB<T> {
+
+    private int altura; //Altura del subárbol cuya raíz es este nodo, 1 para una hoja
+
+    /**
+     * Constructor para el nodo del árbol AVL.
+     *
+     * @param unaEtiqueta Etiqueta del nodo.
+     * @param unosDatos   Datos asociados a la etiqueta.
+     */
+    public TElementoAVL(Comparable unaEtiqueta, T unosDatos) {
+        super(unaEtiqueta, unosDatos);
+        this.altura = 1;
+    }
+
+    /**
+     * Retorna la altura del subárbol cuya raíz es el nodo actual.
+     *
+     * @return Altura del subárbol, 1 si el nodo es una hoja.
+     */
+    public int getAltura() {
+        return altura;
+    }
+
+    @Override
+    public TElementoAVL<T> getHijoIzq() {
+        return (TElementoAVL<T>) super.getHijoIzq();
+    }
+
+    @Override
+    public TElementoAVL<T> getHijoDer() {
+        return (TElementoAVL<T>) super.getHijoDer();
+    }
+
+    /**
+     * Inserta un elemento en el subárbol cuya raíz es el nodo actual y lo rebalancea, conservando al nodo actual como
+     * raíz: si una rotación sube otro nodo, que siempre queda como padre del actual, ambos intercambian su contenido
+     * y sus lugares en el subárbol. Por eso la etiqueta insertada puede quedar en otro nodo que el recibido, y si el
+     * elemento no es un TElementoAVL se inserta una copia. TArbolAVL usa insertarBalanceado, que evita el
+     * intercambio devolviendo la nueva raíz.
+     *
+     * @param unElemento Elemento a insertar, sin hijos.
+     * @return Verdadero si el elemento fue insertado, falso si ya existía un elemento con la misma etiqueta.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean insertar(TElementoAB<T> unElemento) {
+        TElementoAVL<T> nuevo = unElemento instanceof TElementoAVL ? (TElementoAVL<T>) unElemento
+                : new TElementoAVL<>(unElemento.getEtiqueta(), unElemento.getDatos());
+        TElementoAVL<T> nuevaRaiz = insertarBalanceado(nuevo);
+        if (nuevaRaiz == null) {
+            return false;
+        }
+        if (nuevaRaiz != this) {
+            ocuparLugarDe(nuevaRaiz);
+        }
+        return true;
+    }
+
+    /**
+     * Intercambia el nodo actual con su padre, que quedó como raíz del subárbol: el nodo actual pasa a tener el
+     * contenido, los hijos y la altura de su padre, y el padre los del nodo actual.
+     */
+    private void ocuparLugarDe(TElementoAVL<T> padre) {
+        TElementoAVL<T> izq = padre.getHijoIzq() == this ? padre : padre.getHijoIzq();
+        TElementoAVL<T> der = padre.getHijoDer() == this ? padre : padre.getHijoDer();
+        padre.setHijoIzq(getHijoIzq());
+        padre.setHijoDer(getHijoDer());
+        setHijoIzq(izq);
+        setHijoDer(der);
+        int alturaPadre = padre.altura;
+        padre.altura = altura;
+        altura = alturaPadre;
+        intercambiarContenido(padre);
+    }
+
+    /**
+     * Inserta un elemento en el subárbol cuya raíz es el nodo actual y lo rebalancea.
+     *
+     * @param unElemento Elemento a insertar, sin hijos.
+     * @return La nueva raíz del subárbol, o null si ya existía un elemento con la misma etiqueta.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    @SuppressWarnings("unchecked")
+    public TElementoAVL<T> insertarBalanceado(TElementoAVL<T> unElemento) {
+        Comparable unaEtiqueta = unElemento.getEtiqueta();
+        TElementoAVL<T>[] camino = new TElementoAVL[alturaMaxima(altura + 1)];
+        int profundidad = 0;
+        TElementoAVL<T> actual = this;
+        while (actual != null) {
+            int comparacion = unaEtiqueta.compareTo(actual.getEtiqueta());
+            if (comparacion == 0) {
+                return null;
+            }
+            camino[profundidad++] = actual;
+            actual = comparacion < 0 ? actual.getHijoIzq() : actual.getHijoDer();
+        }
+
+        TElementoAVL<T> padre = camino[profundidad - 1];
+        if (unaEtiqueta.compareTo(padre.getEtiqueta()) < 0) {
+            padre.setHijoIzq(unElemento);
+        } else {
+            padre.setHijoDer(unElemento);
+        }
+        //Tras una inserción basta con una rotación, y si una altura no cambia, tampoco cambian las de más arriba
+        return rebalancearCamino(camino, profundidad, true);
+    }
+
+    /**
+     * Elimina un elemento del subárbol cuya raíz es el nodo actual y lo rebalancea.
+     *
+     * @param unaEtiqueta Etiqueta del elemento a eliminar.
+     * @return La nueva raíz del subárbol, que es null si el subárbol queda vacío.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    @Override
+    @SuppressWarnings("unchecked")
+    public TElementoAVL<T> eliminar(Comparable unaEtiqueta) {
+        TElementoAVL<T>[] camino = new TElementoAVL[alturaMaxima(altura)];
+        int profundidad = 0;
+        TElementoAVL<T> actual = this;
+        int comparacion;
+        while ((comparacion = unaEtiqueta.compareTo(actual.getEtiqueta())) != 0) {
+            camino[profundidad++] = actual;
+            actual = comparacion < 0 ? actual.getHijoIzq() : actual.getHijoDer();
+            if (actual == null) {
+                // No hay elemento con esa etiqueta, el subárbol queda igual
+                return this;
+            }
+        }
+
+        int posicion = profundidad; //Posición del nodo eliminado en el camino
+        TElementoAVL<T> reemplazo;
+        if (actual.getHijoIzq() == null || actual.getHijoDer() == null) {
+            reemplazo = actual.getHijoIzq() != null ? actual.getHijoIzq() : actual.getHijoDer();
+        } else {
+            // El nodo tiene dos hijos: lo reemplaza su antecesor, el mayor de su subárbol izquierdo
+            camino[profundidad++] = actual;
+            TElementoAVL<T> antecesor = actual.getHijoIzq();
+            while (antecesor.getHijoDer() != null) {
+                camino[profundidad++] = antecesor;
+                antecesor = antecesor.getHijoDer();
+            }
+            if (profundidad - 1 > posicion) {
+                camino[profundidad - 1].setHijoDer(antecesor.getHijoIzq());
+                antecesor.setHijoIzq(actual.getHijoIzq());
+            }
+            antecesor.setHijoDer(actual.getHijoDer());
+            camino[posicion] = antecesor; //El antecesor ocupa el lugar del nodo eliminado en el camino
+            reemplazo = antecesor;
+        }
+        if (posicion > 0) {
+            reemplazarHijo(camino[posicion - 1], actual, reemplazo);
+        }
+        actual.setHijoIzq(null);
+        actual.setHijoDer(null);
+
+        if (profundidad == 0) {
+            return reemplazo;
+        }
+        return rebalancearCamino(camino, profundidad, false);
+    }
+
+    /**
+     * Recorre el camino desde el nodo más profundo hasta la raíz del subárbol actualizando alturas y rotando los
+     * nodos desbalanceados.
+     *
+     * @param camino Nodos desde la raíz del subárbol hasta el padre del nodo modificado.
+     * @param profundidad Cantidad de nodos del camino.
+     * @param esInsercion Si es verdadero, el recorrido se detiene en el primer nodo cuya altura no cambia.
+     * @return La raíz del subárbol después de rebalancear.
+     */
+    private static <T> TElementoAVL<T> rebalancearCamino(TElementoAVL<T>[] camino, int profundidad, boolean esInsercion) {
+        for (int i = profundidad - 1; i >= 0; i--) {
+            TElementoAVL<T> nodo = camino[i];
+            int alturaAnterior = nodo.altura;
+            nodo.actualizarAltura();
+            TElementoAVL<T> nuevaRaiz = nodo.balancear();
+            if (nuevaRaiz != nodo) {
+                if (i > 0) {
+                    reemplazarHijo(camino[i - 1], nodo, nuevaRaiz);
+                }
+                camino[i] = nuevaRaiz;
+            }
+            if (esInsercion && nuevaRaiz.altura == alturaAnterior) {
+                break;
+            }
+        }
+        return camino[0];
+    }
+
+    private static <T> void reemplazarHijo(TElementoAVL<T> padre, TElementoAVL<T> hijo, TElementoAVL<T> nuevo) {
+        if (padre.getHijoIzq() == hijo) {
+            padre.setHijoIzq(nuevo);
+        } else {
+            padre.setHijoDer(nuevo);
+        }
+    }
+
+    /**
+     * Aplica la rotación simple o doble que corresponde si el nodo está desbalanceado.
+     *
+     * @return La raíz del subárbol después de rotar, que es el nodo actual si no hizo falta rotar.
+     */
+    private TElementoAVL<T> balancear() {
+        int factor = alturaDe(getHijoIzq()) - alturaDe(getHijoDer());
+        if (factor > 1) {
+            TElementoAVL<T> izq = getHijoIzq();
+            if (alturaDe(izq.getHijoIzq()) < alturaDe(izq.getHijoDer())) {
+                setHijoIzq(izq.rotarIzquierda());
+            }
+            return rotarDerecha();
+        }
+        if (factor < -1) {
+            TElementoAVL<T> der = getHijoDer();
+            if (alturaDe(der.getHijoDer()) < alturaDe(der.getHijoIzq())) {
+                setHijoDer(der.rotarDerecha());
+            }
+            return rotarIzquierda();
+        }
+        return this;
+    }
+
+    private TElementoAVL<T> rotarDerecha() {
+        TElementoAVL<T> izq = getHijoIzq();
+        setHijoIzq(izq.getHijoDer());
+        izq.setHijoDer(this);
+        actualizarAltura();
+        izq.actualizarAltura();
+        return izq;
+    }
+
+    private TElementoAVL<T> rotarIzquierda() {
+        TElementoAVL<T> der = getHijoDer();
+        setHijoDer(der.getHijoIzq());
+        der.setHijoIzq(this);
+        actualizarAltura();
+        der.actualizarAltura();
+        return der;
+    }
+
+    private void actualizarAltura() {
+        altura = 1 + Math.max(alturaDe(getHijoIzq()), alturaDe(getHijoDer()));
+    }
+
+    private static int alturaDe(TElementoAVL<?> nodo) {
+        return nodo == null ? 0 : nodo.altura;
+    }
+
+    /**
+     * Tamaño del arreglo para guardar un camino desde la raíz en un subárbol de la altura dada, más el lugar para
+     * el nodo extra que agrega una inserción.
+     */
+    private static int alturaMaxima(int altura) {
+        return Math.max(altura, 1) + 1;
+    }
+
+    /**
+     * Verifica que el subárbol cumpla la propiedad AVL y que las alturas guardadas sean correctas. Se utiliza en
+     * las pruebas.
+     *
+     * @return Verdadero si el subárbol es un árbol AVL válido.
+     */
+    boolean esBalanceado() {
+        ArrayDeque<TElementoAVL<T>> pila = new ArrayDeque<>();
+        pila.push(this);
+        while (!pila.isEmpty()) {
+            TElementoAVL<T> nodo = pila.pop();
+            int izq = alturaDe(nodo.getHijoIzq());
+            int der = alturaDe(nodo.getHijoDer());
+            if (Math.abs(izq - der) > 1 || nodo.altura != 1 + Math.max(izq, der)) {
+                return false;
+            }
+            if (nodo.getHijoIzq() != null) {
+                pila.push(nodo.getHijoIzq());
+            }
+            if (nodo.getHijoDer() != null) {
+                pila.push(nodo.getHijoDer());
+            }
+        }
+        return true;
+    }
+}
@@ -1,27 +1,147 @@
 package Proyecto.Package;
 import java.io.Serializable;
-import java.util.ArrayList;
+import java.util.AbstractList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
+import java.util.RandomAccess;
+import java.util.function.IntFunction;
 
 /**
  * Clase que representa un nodo de un árbol B. Cada nodo almacena una lista de claves y datos asociados,
  * así como las referencias a sus hijos. En un árbol B, los nodos pueden tener múltiples hijos y claves.
  *
+ * Las claves, los datos y los hijos se guardan en arreglos de capacidad fija (2t claves y 2t + 1 hijos, dejando
+ * un lugar de desborde para la inserción en un único descenso) junto con la cantidad ocupada de cada uno, por lo que
+ * las divisiones, combinaciones y préstamos se resuelven con System.arraycopy. Los nodos hoja no reservan el
+ * arreglo de hijos hasta que se les agrega uno.
+ *
+ * Cada nodo lleva además la cantidad de claves de su subárbol, que las operaciones del árbol mantienen al insertar,
+ * dividir, tomar prestado, combinar y eliminar. Con ella el tamaño del árbol se obtiene en O(1), y la posición de
+ * una clave en el inorden y la clave de una posición dada en un único descenso.
+ *
  * @param <T> Tipo de dato que se almacena en el nodo.
  */
-public class TElementoB<T> implements IElementoB<T>, Serializable {
-    private List<Comparable> claves; //Lista de claves en el nodo
-    private List<T> datos;           //Lista de datos asociados a cada clave
-    private List<TElementoB<T>> hijos; //Lista de hijos del nodo
+public class TElementoB<T> implements IElementoB<T>, INodoB<T>, Serializable {
+    private Comparable[] claves;       //Arreglo de claves en el nodo
+    private Object[] datos;            //Arreglo de datos asociados a cada clave
+    private TElementoB<T>[] hijos;     //Arreglo de hijos del nodo, null mientras el nodo sea una hoja
+    private int numClaves;             //Cantidad de claves ocupadas en el arreglo de claves
+    private int numDatos;              //Cantidad de datos ocupados, igual a numClaves salvo al cargar el nodo por sus vistas
+    private int numHijos;              //Cantidad de hijos ocupados en el arreglo de hijos
     private int t;                     // Grado mínimo del árbol B
     private TElementoB<T> padre;       //Padre del nodo actual
+    private boolean busquedaBinaria;   //Indica si las claves se localizan con búsqueda binaria
+    private int generacion;            //Versión del árbol que creó el nodo, para copiarlo si lo comparte una instantánea
+    private int tamaño;                //Cantidad de claves del subárbol cuya raíz es el nodo
+
+    /**
+     * Cantidad máxima de claves por nodo (2t - 1) a partir de la cual las claves se localizan con
+     * búsqueda binaria en lugar de recorrer la lista linealmente. En nodos chicos el recorrido lineal
+     * es más barato porque evita los saltos de la búsqueda binaria.
+     */
+    public static final int UMBRAL_BUSQUEDA_BINARIA = 16;
 
     public TElementoB(int t) {
-        this.claves = new ArrayList<>();
-        this.datos = new ArrayList<>();
-        this.hijos = new ArrayList<>();
+        this.claves = new Comparable[2 * t];
+        this.datos = new Object[2 * t];
+        this.hijos = null;
         this.t = t;
         this.padre  = null; //Inicialmente el nodo no tiene padre
+        this.busquedaBinaria = 2 * t - 1 >= UMBRAL_BUSQUEDA_BINARIA;
+    }
+
+    /**
+     * Crea un nodo vacío perteneciente a la versión dada de un árbol.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param generacion Versión del árbol que crea el nodo.
+     */
+    TElementoB(int t, int generacion) {
+        this(t);
+        this.generacion = generacion;
+    }
+
+    /**
+     * @return La versión del árbol que creó el nodo.
+     */
+    int getGeneracion() {
+        return generacion;
+    }
+
+    /**
+     * Crea un nodo vacío del mismo tipo que este, con su grado mínimo. Las copias y las divisiones de
+     * dividirHijoDesbordado crean sus nodos con este método, de modo que los nodos de TArbolBConcurrente, que
+     * agregan un latch, siguen siéndolo al dividirse.
+     *
+     * @param generacion Versión del árbol que crea el nodo.
+     * @return El nodo nuevo.
+     */
+    TElementoB<T> nuevoNodo(int generacion) {
+        return new TElementoB<>(t, generacion);
+    }
+
+    /**
+     * Copia el nodo para una versión posterior del árbol. La copia comparte los hijos con el original, que queda
+     * sin cambios para las instantáneas que lo alcanzan.
+     *
+     * @param generacion Versión del árbol a la que pertenece la copia.
+     * @return La copia del nodo.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    TElementoB<T> copiar(int generacion) {
+        return copiarEn(nuevoNodo(generacion));
+    }
+
+    /**
+     * Copia el subárbol cuya raíz es el nodo, creando cada copia con la fábrica dada. Así TArbolBConcurrente pasa a
+     * sus propios nodos un árbol armado con nodos comunes, como el de CargadorMasivoArbolB.
+     *
+     * @param crearNodo Crea un nodo vacío de grado mínimo t para la versión del árbol recibida.
+     * @return La raíz de la copia.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     */
+    TElementoB<T> copiarSubarbol(IntFunction<TElementoB<T>> crearNodo) {
+        TElementoB<T> copia = copiarEn(crearNodo.apply(generacion));
+        for(int i = 0; i < numHijos; i++) {
+            copia.hijos[i] = hijos[i].copiarSubarbol(crearNodo);
+            copia.hijos[i].padre = copia;
+        }
+        return copia;
+    }
+
+    /**
+     * Copia el contenido del nodo en un nodo vacío del mismo grado mínimo, compartiendo los hijos.
+     */
+    private TElementoB<T> copiarEn(TElementoB<T> copia) {
+        copia.claves = claves.clone();
+        copia.datos = datos.clone();
+        copia.hijos = hijos == null ? null : hijos.clone();
+        copia.numClaves = numClaves;
+        copia.numDatos = numDatos;
+        copia.numHijos = numHijos;
+        copia.tamaño = tamaño;
+        copia.padre = padre;
+        return copia;
+    }
+
+    /**
+     * Obtiene el hijo de la posición dada para modificarlo. Si el hijo es de una versión anterior a la de este
+     * nodo puede estar compartido con una instantánea, así que antes se lo reemplaza por una copia (copia de
+     * camino); sin instantáneas todos los nodos son de la misma versión y nunca se copia nada.
+     *
+     * @param i Posición del hijo.
+     * @return El hijo, exclusivo de la versión de este nodo.
+     */
+    private TElementoB<T> hijoPropio(int i) {
+        TElementoB<T> hijo = hijos[i];
+        if(hijo.generacion != generacion) {
+            hijo = hijo.copiar(generacion);
+            hijos[i] = hijo;
+        }
+        return hijo;
     }
 
     /**
@@ -48,37 +168,88 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
      */
     @Override
     public Comparable getEtiqueta() {
-        if(claves.isEmpty()) {
+        if(numClaves == 0) {
             return null;
         }
-        return claves.getFirst(); //Retornamos la primera clave como etiqueta.
+        return claves[0]; //Retornamos la primera clave como etiqueta.
     }
 
     /**
-     * Obtiene la lista de claves del nodo.
+     * Obtiene una vista de lista sobre las claves del nodo. Las modificaciones hechas sobre la vista
+     * se reflejan en el nodo.
      *
      * @return La lista de claves del nodo.
      */
     @Override
     public List<Comparable> getClaves() {
-        return claves;
+        return new VistaClaves();
     }
 
     /**
-     * Obtiene la lista de hijos del nodo.
+     * Obtiene una vista de lista sobre los hijos del nodo. Las modificaciones hechas sobre la vista
+     * se reflejan en el nodo.
      *
      * @return La lista de hijos del nodo.
      */
     @Override
     public List<TElementoB<T>> getHijos() {
-        return hijos;
+        return new VistaHijos();
+    }
+
+    /**
+     * Obtiene la clave en la posición dada sin crear una vista de lista.
+     *
+     * @param i Posición de la clave.
+     * @return La clave en la posición i.
+     */
+    public Comparable getClave(int i) {
+        return claves[i];
+    }
+
+    /**
+     * Obtiene el dato en la posición dada sin crear una vista de lista.
+     *
+     * @param i Posición del dato.
+     * @return El dato asociado a la clave en la posición i.
+     */
+    @SuppressWarnings("unchecked")
+    public T getDato(int i) {
+        return (T) datos[i];
+    }
+
+    /**
+     * Obtiene el hijo en la posición dada sin crear una vista de lista.
+     *
+     * @param i Posición del hijo.
+     * @return El hijo en la posición i.
+     */
+    public TElementoB<T> getHijo(int i) {
+        return hijos[i];
+    }
+
+    /**
+     * Obtiene la cantidad de hijos del nodo.
+     *
+     * @return Número de hijos del nodo.
+     */
+    public int getNumHijos() {
+        return numHijos;
+    }
+
+    /**
+     * Indica si el nodo es una hoja.
+     *
+     * @return Verdadero si el nodo no tiene hijos.
+     */
+    public boolean esHoja() {
+        return numHijos == 0;
     }
 
     @Override
     public boolean insertar(Comparable clave, T dato) {
-        if(claves.size() == 2 * t - 1) {
+        if(numClaves == 2 * t - 1) {
             TElementoB<T> nuevoRaiz = new TElementoB<>(t);
-            nuevoRaiz.hijos.add(this);
+            nuevoRaiz.insertarHijo(0, this);
             nuevoRaiz.dividirHijo(0 , this);
             nuevoRaiz.insertarEnNodoNoLleno(clave, dato);
             return true;
@@ -107,25 +278,18 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
      * - Si se divide un hijo, la clave mediana se sube al nodo actual.
      */
     public void insertarEnNodoNoLleno(Comparable clave, T dato) {
-        int i = claves.size() -1; //Empezamos a recorrerlo desde el nodo de la última posición
+        //Localizamos la primera clave mayor o igual a la clave a insertar
+        int i = encontrarClave(clave);
 
         //Caso 1: Si el nodo es una hoja (no tiene hijos)
 
-        if(hijos.isEmpty()) {
-            while(i >= 0 && clave.compareTo(claves.get(i)) < 0) {
-                i--;
-            }
+        if(esHoja()) {
             //Insertamos la nueva clave y dato en la posición correcta
-            claves.add(i + 1, clave);
-            datos.add(i + 1, dato);
+            insertarClaveEnPosicion(i, clave, dato);
         } else {
             //Caso2: Si el nodo no es una hoja(tiene hijos)
-            //Encuentramos el hijo apropiado para descender
-            while(i >= 0 && clave.compareTo(claves.get(i)) < 0) {
-                i--;
-            }
-            i++;
-            TElementoB<T> hijo = hijos.get(i);
+            //El índice encontrado es también el del hijo apropiado para descender
+            TElementoB<T> hijo = hijos[i];
 
             // Si el hijo está lleno sube la mediana, la cuál se convierte en padre ya qué dividimos al hijo en dos hijos más pequeños.
             if(hijo.getNumClaves() == 2 * t - 1) {
@@ -133,11 +297,12 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
 
                 //Verificamos si después de dividir es necesario ajustar la posición de i
 
-                if(clave.compareTo(claves.get(i)) > 0) {
+                if(comparar(clave, claves[i]) > 0) {
                     i++;
                 }
             }
-            hijos.get(i).insertarEnNodoNoLleno(clave, dato);
+            hijos[i].insertarEnNodoNoLleno(clave, dato);
+            tamaño++;
         }
     }
 
@@ -160,51 +325,167 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
      * - Los hijos del nodo lleno se redistribuyen entre los dos nuevos nodos.
      */
     public void dividirHijo(int i, TElementoB<T> nodoLleno) {
+        int tamañoAntes = tamaño;
+
         // Crear un nuevo nodo que almacenará t-1 claves de nodoLleno
         TElementoB<T> nodoNuevo = new TElementoB<>(t);
 
-        // Transferir las últimas t-1 claves y datos de nodoLleno a nodoNuevo
-        for (int j = 0; j < t - 1; j++) {
-            nodoNuevo.claves.add(nodoLleno.claves.remove(t));
-            nodoNuevo.datos.add(nodoLleno.datos.remove(t));
-        }
+        // Transferir las últimas t-1 claves y datos de nodoLleno a nodoNuevo en bloque
+        System.arraycopy(nodoLleno.claves, t, nodoNuevo.claves, 0, t - 1);
+        System.arraycopy(nodoLleno.datos, t, nodoNuevo.datos, 0, t - 1);
+        nodoNuevo.numClaves = t - 1;
+        nodoNuevo.numDatos = t - 1;
 
         // Si nodoLleno no es una hoja, transferir los últimos t hijos de nodoLleno a nodoNuevo
-        if (!nodoLleno.hijos.isEmpty()) {
-            for (int j = 0; j < t; j++) {
-                nodoNuevo.hijos.add(nodoLleno.hijos.remove(t));
-            }
+        if (!nodoLleno.esHoja()) {
+            nodoNuevo.asegurarCapacidadHijos(t);
+            System.arraycopy(nodoLleno.hijos, t, nodoNuevo.hijos, 0, t);
+            Arrays.fill(nodoLleno.hijos, t, nodoLleno.numHijos, null);
+            nodoNuevo.numHijos = t;
+            nodoLleno.numHijos = t;
         }
+        nodoNuevo.recalcularTamaño();
 
         // Insertar nodoNuevo en la lista de hijos del nodo actual
-        this.hijos.add(i + 1, nodoNuevo);
+        insertarHijo(i + 1, nodoNuevo);
 
         // Mover la clave mediana de nodoLleno al nodo actual en la posición i
-        this.claves.add(i, nodoLleno.claves.remove(t - 1));
-        this.datos.add(i, nodoLleno.datos.remove(t - 1));
+        insertarClaveEnPosicion(i, nodoLleno.claves[t - 1], nodoLleno.datos[t - 1]);
+        Arrays.fill(nodoLleno.claves, t - 1, nodoLleno.numClaves, null);
+        Arrays.fill(nodoLleno.datos, t - 1, nodoLleno.numClaves, null);
+        nodoLleno.numClaves = t - 1;
+        nodoLleno.numDatos = t - 1;
+
+        //Las claves solo cambiaron de nodo dentro del subárbol del nodo actual, cuyo tamaño no cambia
+        nodoLleno.tamaño -= nodoNuevo.tamaño + 1;
+        tamaño = tamañoAntes;
+    }
+
+    /**
+     * Inserta una clave y su dato en el subárbol cuya raíz es el nodo actual con un único descenso, sin
+     * dividir nodos por adelantado. Si la clave ya está en el subárbol no se modifica ni se copia ningún nodo.
+     * Como debajo del primer hijo compartido con una instantánea todos los nodos también lo están, al llegar a él
+     * se busca la clave en su subárbol antes de copiarlo, y desde ahí se copia el resto del camino sin volver a
+     * buscarla.
+     * Al volver del descenso, cada hijo que quedó desbordado (2t claves) se divide y su mediana sube al nodo
+     * actual, que a su vez puede quedar desbordado para que lo divida su padre.
+     *
+     * @param clave La clave del elemento a insertar.
+     * @param dato El dato asociado al elemento a insertar.
+     * @return Verdadero si la clave fue insertada, falso si ya existía en el subárbol.
+     *
+     * Orden de tiempo de ejecución: O(t log n) en el peor de los casos.
+     *
+     * Postcondiciones:
+     * - Si se insertó, el nodo actual puede quedar con 2t claves y debe dividirlo su padre
+     *   (o el árbol, si es la raíz) con dividirHijoDesbordado.
+     */
+    public boolean insertarSinDuplicados(Comparable clave, T dato) {
+        return insertarSinDuplicados(clave, dato, false);
+    }
+
+    /**
+     * Inserta como insertarSinDuplicados(Comparable, T).
+     *
+     * @param ausente Indica si ya se sabe que la clave no está en el subárbol, porque se buscó antes de copiar un
+     *                nodo compartido con una instantánea.
+     */
+    boolean insertarSinDuplicados(Comparable clave, T dato, boolean ausente) {
+        int i = encontrarClave(clave);
+
+        //Si la clave ya está en este nodo no se inserta, y ningún nodo del camino fue modificado
+        if(i < numClaves && comparar(claves[i], clave) == 0) {
+            return false;
+        }
+
+        if(esHoja()) {
+            insertarClaveEnPosicion(i, clave, dato);
+            return true;
+        }
+
+        if(!ausente && hijos[i].generacion != generacion) {
+            if(hijos[i].buscar(clave) != null) {
+                return false;
+            }
+            ausente = true;
+        }
+        TElementoB<T> hijo = hijoPropio(i);
+        if(!hijo.insertarSinDuplicados(clave, dato, ausente)) {
+            return false;
+        }
+        tamaño++;
+
+        //Si el hijo quedó desbordado, lo dividimos y su mediana sube a este nodo
+        if(hijo.numClaves > 2 * t - 1) {
+            dividirHijoDesbordado(i, hijo);
+        }
+        return true;
+    }
+
+    /**
+     * Divide un hijo desbordado (2t claves) en un nodo de t claves y otro de t - 1 claves, y mueve la clave
+     * mediana al nodo actual.
+     *
+     * @param i El índice del hijo desbordado en el nodo actual.
+     * @param nodoDesbordado El hijo que tiene una clave más que el máximo permitido.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     *
+     * Postcondiciones:
+     * - El nodo actual tiene una clave y un hijo más, por lo que puede quedar desbordado.
+     */
+    public void dividirHijoDesbordado(int i, TElementoB<T> nodoDesbordado) {
+        int tamañoAntes = tamaño;
+        int medio = t;
+        int clavesMovidas = nodoDesbordado.numClaves - medio - 1;
+        TElementoB<T> nodoNuevo = nuevoNodo(generacion);
+
+        //Transferimos las claves y datos posteriores a la mediana al nuevo nodo
+        System.arraycopy(nodoDesbordado.claves, medio + 1, nodoNuevo.claves, 0, clavesMovidas);
+        System.arraycopy(nodoDesbordado.datos, medio + 1, nodoNuevo.datos, 0, clavesMovidas);
+        nodoNuevo.numClaves = clavesMovidas;
+        nodoNuevo.numDatos = clavesMovidas;
+
+        //Transferimos los hijos posteriores a la mediana al nuevo nodo
+        if(!nodoDesbordado.esHoja()) {
+            int hijosMovidos = nodoDesbordado.numHijos - medio - 1;
+            nodoNuevo.asegurarCapacidadHijos(hijosMovidos);
+            System.arraycopy(nodoDesbordado.hijos, medio + 1, nodoNuevo.hijos, 0, hijosMovidos);
+            Arrays.fill(nodoDesbordado.hijos, medio + 1, nodoDesbordado.numHijos, null);
+            nodoNuevo.numHijos = hijosMovidos;
+            nodoDesbordado.numHijos = medio + 1;
+        }
+        nodoNuevo.recalcularTamaño();
+
+        //Subimos la mediana al nodo actual y enlazamos el nuevo nodo a su derecha
+        insertarHijo(i + 1, nodoNuevo);
+        insertarClaveEnPosicion(i, nodoDesbordado.claves[medio], nodoDesbordado.datos[medio]);
+        Arrays.fill(nodoDesbordado.claves, medio, nodoDesbordado.numClaves, null);
+        Arrays.fill(nodoDesbordado.datos, medio, nodoDesbordado.numClaves, null);
+        nodoDesbordado.numClaves = medio;
+        nodoDesbordado.numDatos = medio;
+        nodoDesbordado.tamaño -= nodoNuevo.tamaño + 1;
+        tamaño = tamañoAntes;
     }
 
     @Override
     public TElementoB<T> buscar(Comparable clave) {
         //Encuentra la primera clave mayor o igual a la clave buscada
-        int i = 0;
-        while(i < claves.size() && clave.compareTo(claves.get(i)) > 0) {
-            i++;
-        }
+        int i = encontrarClave(clave);
 
         //Si la clave está presente en este nodo, entonces devolvemos este nodo
-        if(i < claves.size() && clave.compareTo(claves.get(i)) == 0) {
+        if(i < numClaves && comparar(clave, claves[i]) == 0) {
             return this;
         }
 
         //Si la clave no está presente y el nodo es una hoja, retornamos null
-        if(hijos.isEmpty()) {
+        if(esHoja()) {
             return null;
         }
 
         //Si la clave no está presente en este nodo, descender al hijo adecuado
 
-        return hijos.get(i).buscar(clave);
+        return hijos[i].buscar(clave);
     }
 
     @Override
@@ -212,12 +493,11 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
         int indice = encontrarClave(clave);
 
         //La clave está en el nodo actual
-        if(indice < claves.size() && claves.get(indice).compareTo(clave) == 0) {
-            if(hijos.isEmpty()) {
+        if(indice < numClaves && comparar(claves[indice], clave) == 0) {
+            if(esHoja()) {
                 //Caso 1: El nodo es una hoja
                 //Eliminamos directamente
-                claves.remove(indice);
-                datos.remove(indice);
+                quitarClaveEnPosicion(indice);
                 return true;
             } else {
                 //Caso 2: El nodo es un nodo interno
@@ -227,16 +507,17 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
         } else {
             //Caso 3: La clave no está en el nodo actual
 
-            if(hijos.isEmpty()) {
+            if(esHoja()) {
                 //Si el nodo es una hoja, entonces la clave no está en el árbol
 
                 return false;
             }
             //Verificamos si el hijo donde se encuentra la clave tiene al menos t claves
 
-            boolean flag = (indice == claves.size());
+            boolean flag = (indice == numClaves);
+            hijoPropio(indice);
 
-            if(hijos.get(indice).claves.size() < t) {
+            if(hijos[indice].numClaves < t) {
                 //Si no tiene al menos t claves, debemos rellenar
                 rellenar(indice);
             }
@@ -244,31 +525,76 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
             //Después de rellenar, el hijo puede haberse combinado con su vecino
             //Así que utilizamos indice(indice del nodo actual) o indice -1(indice del vecino)
 
-            if(flag && indice > claves.size()) {
-                hijos.get(indice -1).eliminar(clave);
+            boolean eliminado;
+            if(flag && indice > numClaves) {
+                eliminado = hijos[indice - 1].eliminar(clave);
             } else {
-                hijos.get(indice).eliminar(clave);
+                eliminado = hijos[indice].eliminar(clave);
+            }
+            if(eliminado) {
+                tamaño--;
             }
+            return eliminado;
         }
-        return true;
     }
     /**
      * Encuentra el índice de la clave en el nodo actual.
      * Si la clave no está presente, devuelve el índice donde debería estar.
+     * Es el localizador compartido por la búsqueda, la inserción, la eliminación y la combinación de nodos:
+     * cuando el grado mínimo hace que 2t - 1 alcance UMBRAL_BUSQUEDA_BINARIA se usa búsqueda binaria,
+     * en caso contrario un recorrido lineal.
      *
      * @param clave La clave a buscar.
      * @return El índice de la clave en el nodo actual, o el índice donde debería estar si no está presente.
      *
-     * Orden de tiempo de ejecución: O(t) en el peor de los casos.
+     * Orden de tiempo de ejecución: O(log t) con búsqueda binaria, O(t) con recorrido lineal.
      */
     public int encontrarClave(Comparable clave) {
+        if(busquedaBinaria) {
+            return encontrarClaveBinaria(clave);
+        }
         int indice = 0;
 
-        while(indice < claves.size() && claves.get(indice).compareTo(clave) < 0) {
+        while(indice < numClaves && comparar(claves[indice], clave) < 0) {
             indice++;
         }
         return indice;
     }
+
+    /**
+     * Encuentra, mediante búsqueda binaria, el índice de la primera clave del nodo mayor o igual a la clave dada.
+     *
+     * @param clave La clave a buscar.
+     * @return El índice de la clave en el nodo actual, o el índice donde debería estar si no está presente.
+     *
+     * Orden de tiempo de ejecución: O(log t)
+     */
+    public int encontrarClaveBinaria(Comparable clave) {
+        int inferior = 0;
+        int superior = numClaves;
+
+        while(inferior < superior) {
+            int medio = (inferior + superior) >>> 1;
+            if(comparar(claves[medio], clave) < 0) {
+                inferior = medio + 1;
+            } else {
+                superior = medio;
+            }
+        }
+        return inferior;
+    }
+
+    /**
+     * Compara dos claves del nodo.
+     *
+     * @param a Primera clave.
+     * @param b Segunda clave.
+     * @return Un valor negativo, cero o positivo si a es menor, igual o mayor que b.
+     */
+    @SuppressWarnings("unchecked")
+    static int comparar(Comparable a, Comparable b) {
+        return a.compareTo(b);
+    }
     /**
      * Elimina una clave de un nodo interno en el árbol B.
      * Si la clave tiene suficientes claves en su hijo izquierdo, reemplaza la clave con el predecesor.
@@ -287,27 +613,44 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
      * - La clave se elimina del nodo actual y el árbol se mantiene balanceado.
      */
     public void eliminarDesdeNodoInterno(int indice) {
-        Comparable clave = claves.get(indice);
+        Comparable clave = claves[indice];
 
         //Si el hijo anterior(que precede a la clave) hijo[indice] tiene al menos t claves
 
-        if(hijos.get(indice).claves.size() >= t) {
+        if(hijos[indice].numClaves >= t) {
             Comparable predecesor = obtenerPredecesor(indice);
-            claves.set(indice, predecesor);
-            datos.set(indice, hijos.get(indice).buscar(predecesor).getDatos().getFirst());
-            hijos.get(indice).eliminar(predecesor);
-        } else if(hijos.get(indice + 1).claves.size() >= t) {
+            claves[indice] = predecesor;
+            datos[indice] = hijos[indice].buscarDato(predecesor);
+            hijoPropio(indice).eliminar(predecesor);
+        } else if(hijos[indice + 1].numClaves >= t) {
             //Si el siguiente hijo [indice + 1] tiene al menos t claves
             Comparable sucesor = obtenerSucesor(indice);
-            claves.set(indice, sucesor);
-            datos.set(indice, hijos.get(indice + 1).buscar(sucesor).getDatos().getFirst());
-            hijos.get(indice + 1).eliminar(sucesor);
+            claves[indice] = sucesor;
+            datos[indice] = hijos[indice + 1].buscarDato(sucesor);
+            hijoPropio(indice + 1).eliminar(sucesor);
         } else {
             //Si ambos hijos o sea hijo[indice] digamos el actual y hijos[indice + 1] el siguiente, tienen menos de t claves, entonces tenemos que combinarlos
             combinar(indice);
-            hijos.get(indice).eliminar(clave);
+            hijos[indice].eliminar(clave);
         }
+        tamaño--;
     }
+    /**
+     * Busca en el subárbol cuya raíz es el nodo actual el dato asociado a la clave dada.
+     *
+     * @param clave La clave a buscar.
+     * @return El dato asociado a la clave, o null si la clave no está en el subárbol.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    public T buscarDato(Comparable clave) {
+        TElementoB<T> nodo = buscar(clave);
+        if(nodo == null) {
+            return null;
+        }
+        return nodo.getDato(nodo.encontrarClave(clave));
+    }
+
     /**
      * Obtiene la clave predecesora de la clave en el índice dado en el nodo actual.
      * El predecesor es la clave más grande en el subárbol izquierdo del nodo actual.
@@ -327,12 +670,12 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
     public Comparable obtenerPredecesor(int indice) {
         // Mantenemos el nodo actual, movemos el nodo más a la derecha hasta llegar a una hoja
 
-        TElementoB<T> actual = hijos.get(indice);
+        TElementoB<T> actual = hijos[indice];
 
-        while(!actual.hijos.isEmpty()) {
-            actual = actual.getHijos().get(actual.claves.size());
+        while(!actual.esHoja()) {
+            actual = actual.hijos[actual.numClaves];
         }
-        return actual.claves.get(actual.claves.size() - 1);
+        return actual.claves[actual.numClaves - 1];
     }
     /**
      * Obtiene la clave sucesora de la clave en el índice dado en el nodo actual.
@@ -353,12 +696,12 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
     public Comparable obtenerSucesor(int indice) {
         //Mantenemos el nodo actual, movemos más a la izquierda hasta llegar a una hoja
 
-        TElementoB<T> actual = hijos.get(indice + 1);
+        TElementoB<T> actual = hijos[indice + 1];
 
-        while(!actual.hijos.isEmpty()) {
-            actual = actual.getHijos().getFirst();
+        while(!actual.esHoja()) {
+            actual = actual.hijos[0];
         }
-        return actual.claves.getFirst();
+        return actual.claves[0];
     }
 
     /**
@@ -372,20 +715,20 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
     public void rellenar(int indice) {
         //Si el hijo anterior tiene al menos t claves, tomamos prestado de él
 
-        if(indice != 0 && hijos.get(indice - 1).claves.size() >= t) {
+        if(indice != 0 && hijos[indice - 1].numClaves >= t) {
             tomarPrestadoDeAnterior(indice);
         }
 
         //Si el siguiente hijo tiene al menos t claves, tomamos prestado de él
 
-        else if(indice != claves.size() && hijos.get(indice + 1).claves.size() >= t) {
+        else if(indice != numClaves && hijos[indice + 1].numClaves >= t) {
             tomarPrestadoDeSiguiente(indice);
         }
 
         //si ambos hijos tienen menos de t claves, entonces combinamos con un hermano
 
         else {
-            if(indice != claves.size()) {
+            if(indice != numClaves) {
                 combinar(indice);
             } else {
                 combinar(indice - 1);
@@ -403,24 +746,21 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
      */
 
     private void tomarPrestadoDeAnterior(int indice) {
-        TElementoB<T> hijo = hijos.get(indice);
-        TElementoB<T> hermano = hijos.get(indice - 1);
+        TElementoB<T> hijo = hijoPropio(indice);
+        TElementoB<T> hermano = hijoPropio(indice - 1);
 
-        //Movemos la clave del padre al hijo.
+        //Movemos la clave y el dato del padre al hijo, y los reemplazamos por los últimos del hermano
 
-        hijo.claves.addFirst(claves.get(indice - 1));
-        claves.set(indice - 1, hermano.claves.removeLast());
+        hijo.insertarClaveEnPosicion(0, claves[indice - 1], datos[indice - 1]);
+        claves[indice - 1] = hermano.claves[hermano.numClaves - 1];
+        datos[indice - 1] = hermano.datos[hermano.numClaves - 1];
+        hermano.quitarClaveEnPosicion(hermano.numClaves - 1);
 
         //Movemos el último hijo del hermano al hijo
 
-        if(!hermano.hijos.isEmpty()) {
-            hijo.hijos.addFirst(hermano.hijos.removeLast());
+        if(!hermano.esHoja()) {
+            hijo.insertarHijo(0, hermano.quitarHijo(hermano.numHijos - 1));
         }
-
-        //Movemos el dato correspondiente del padre al hijo
-
-        hijo.datos.addFirst(datos.get(indice - 1));
-        datos.set(indice - 1, hermano.datos.removeLast());
     }
 
     /**
@@ -433,24 +773,21 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
      */
 
     private void tomarPrestadoDeSiguiente(int indice) {
-        TElementoB<T> hijo = hijos.get(indice);
-        TElementoB<T> hermano = hijos.get(indice + 1);
+        TElementoB<T> hijo = hijoPropio(indice);
+        TElementoB<T> hermano = hijoPropio(indice + 1);
 
-        //Movemos la clave del padre al hijo
+        //Movemos la clave y el dato del padre al hijo, y los reemplazamos por los primeros del hermano
 
-        hijo.claves.add(claves.get(indice));
-        claves.set(indice, hermano.claves.removeFirst());
+        hijo.insertarClaveEnPosicion(hijo.numClaves, claves[indice], datos[indice]);
+        claves[indice] = hermano.claves[0];
+        datos[indice] = hermano.datos[0];
+        hermano.quitarClaveEnPosicion(0);
 
         //Movemos el primer hijo del hermano al hijo.
 
-        if(!hermano.hijos.isEmpty()) {
-            hijo.hijos.add(hermano.hijos.removeFirst());
+        if(!hermano.esHoja()) {
+            hijo.insertarHijo(hijo.numHijos, hermano.quitarHijo(0));
         }
-
-        //Movemos el dato correspondiente del apdre al hijo
-
-        hijo.datos.add(datos.get(indice));
-        datos.set(indice, hermano.datos.removeFirst());
     }
 
     /**
@@ -462,43 +799,185 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
      * Orden de tiempo de ejecución: O(t) en el peor de los casos.
      */
 
-    private void combinar(int indice) {
-        TElementoB<T> hijo = hijos.get(indice);
-        TElementoB<T> hermano = hijos.get(indice + 1);
+    void combinar(int indice) {
+        //El hermano solo se lee y deja de estar en el árbol, así que no hace falta copiarlo
+        TElementoB<T> hijo = hijoPropio(indice);
+        TElementoB<T> hermano = hijos[indice + 1];
+        int tamañoAntes = tamaño;
 
         //Movemos la clave del padre al hijo
 
-        hijo.claves.add(claves.remove(indice));
-        hijo.datos.add(datos.remove(indice));
+        hijo.insertarClaveEnPosicion(hijo.numClaves, claves[indice], datos[indice]);
+        quitarClaveEnPosicion(indice);
 
-        //Movemos todas las claves y datos del hermano al hijo
+        //Movemos todas las claves y datos del hermano al hijo en bloque
 
-        for(int i = 0; i < hermano.claves.size(); i++) {
-            hijo.claves.add(hermano.claves.get(i));
-            hijo.datos.add(hermano.datos.get(i));
-        }
+        hijo.asegurarCapacidadClaves(hijo.numClaves + hermano.numClaves);
+        System.arraycopy(hermano.claves, 0, hijo.claves, hijo.numClaves, hermano.numClaves);
+        System.arraycopy(hermano.datos, 0, hijo.datos, hijo.numClaves, hermano.numClaves);
+        hijo.numClaves += hermano.numClaves;
+        hijo.numDatos = hijo.numClaves;
 
         //Movemos todos los hijos del hermano al hijo
 
-        if(!hijo.hijos.isEmpty()) {
-            hijo.hijos.addAll(hermano.hijos);
+        if(!hijo.esHoja()) {
+            hijo.asegurarCapacidadHijos(hijo.numHijos + hermano.numHijos);
+            System.arraycopy(hermano.hijos, 0, hijo.hijos, hijo.numHijos, hermano.numHijos);
+            hijo.numHijos += hermano.numHijos;
         }
+        hijo.tamaño += hermano.tamaño;
 
         //Eliminamos el hermano de la lista de hijos
 
-        hijos.remove(hermano);
+        quitarHijo(indice + 1);
+        tamaño = tamañoAntes;
+    }
+
+    /**
+     * Inserta una clave y su dato en la posición dada, desplazando las siguientes una posición a la derecha.
+     *
+     * @param i Posición donde insertar.
+     * @param clave La clave a insertar.
+     * @param dato El dato asociado a la clave.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    void insertarClaveEnPosicion(int i, Comparable clave, Object dato) {
+        asegurarCapacidadClaves(numClaves + 1);
+        System.arraycopy(claves, i, claves, i + 1, numClaves - i);
+        System.arraycopy(datos, i, datos, i + 1, numClaves - i);
+        claves[i] = clave;
+        datos[i] = dato;
+        numClaves++;
+        numDatos = numClaves;
+        tamaño++;
+    }
+
+    /**
+     * Quita la clave y el dato en la posición dada, desplazando las siguientes una posición a la izquierda.
+     *
+     * @param i Posición de la clave a quitar.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    void quitarClaveEnPosicion(int i) {
+        System.arraycopy(claves, i + 1, claves, i, numClaves - i - 1);
+        System.arraycopy(datos, i + 1, datos, i, numClaves - i - 1);
+        numClaves--;
+        numDatos = numClaves;
+        claves[numClaves] = null;
+        datos[numClaves] = null;
+        tamaño--;
+    }
+
+    /**
+     * Reemplaza la clave y el dato de la posición dada, como al subir el predecesor o el sucesor de una clave
+     * eliminada de un nodo interno.
+     *
+     * @param i Posición de la clave.
+     * @param clave La nueva clave, que debe mantener el orden del nodo.
+     * @param dato El dato asociado a la nueva clave.
+     */
+    void reemplazarEntrada(int i, Comparable clave, Object dato) {
+        claves[i] = clave;
+        datos[i] = dato;
+    }
+
+    /**
+     * Inserta un hijo en la posición dada, desplazando los siguientes una posición a la derecha.
+     *
+     * @param i Posición donde insertar.
+     * @param hijo El hijo a insertar.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    private void insertarHijo(int i, TElementoB<T> hijo) {
+        asegurarCapacidadHijos(numHijos + 1);
+        System.arraycopy(hijos, i, hijos, i + 1, numHijos - i);
+        hijos[i] = hijo;
+        numHijos++;
+        tamaño += hijo.tamaño;
+    }
+
+    /**
+     * Quita el hijo en la posición dada, desplazando los siguientes una posición a la izquierda.
+     *
+     * @param i Posición del hijo a quitar.
+     * @return El hijo quitado.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    private TElementoB<T> quitarHijo(int i) {
+        TElementoB<T> hijo = hijos[i];
+        System.arraycopy(hijos, i + 1, hijos, i, numHijos - i - 1);
+        numHijos--;
+        hijos[numHijos] = null;
+        tamaño -= hijo.tamaño;
+        return hijo;
+    }
+
+    /**
+     * Garantiza que los arreglos de claves y datos puedan contener la cantidad dada de elementos.
+     * Los arreglos solo crecen si se los desborda desde fuera de las operaciones del árbol B.
+     *
+     * @param capacidad Cantidad de claves requerida.
+     */
+    private void asegurarCapacidadClaves(int capacidad) {
+        if(capacidad > claves.length) {
+            int nuevaCapacidad = Math.max(capacidad, claves.length * 2);
+            claves = Arrays.copyOf(claves, nuevaCapacidad);
+            datos = Arrays.copyOf(datos, nuevaCapacidad);
+        }
+    }
+
+    /**
+     * Garantiza que el arreglo de hijos exista y pueda contener la cantidad dada de hijos.
+     *
+     * @param capacidad Cantidad de hijos requerida.
+     */
+    @SuppressWarnings("unchecked")
+    private void asegurarCapacidadHijos(int capacidad) {
+        if(hijos == null) {
+            hijos = (TElementoB<T>[]) new TElementoB[Math.max(capacidad, 2 * t + 1)];
+        } else if(capacidad > hijos.length) {
+            hijos = Arrays.copyOf(hijos, Math.max(capacidad, hijos.length * 2));
+        }
+    }
+
+    /**
+     * Agrega una clave y su dato a continuación de la última clave del nodo. Lo utiliza la carga masiva,
+     * que recibe las claves ya ordenadas y nunca necesita desplazar las existentes.
+     *
+     * @param clave La clave a agregar, mayor que todas las claves del nodo.
+     * @param dato El dato asociado a la clave.
+     *
+     * Orden de tiempo de ejecución: O(1)
+     */
+    void agregarAlFinal(Comparable clave, Object dato) {
+        insertarClaveEnPosicion(numClaves, clave, dato);
+    }
+
+    /**
+     * Agrega un hijo a continuación del último hijo del nodo.
+     *
+     * @param hijo El hijo a agregar.
+     *
+     * Orden de tiempo de ejecución: O(1)
+     */
+    void agregarHijoAlFinal(TElementoB<T> hijo) {
+        insertarHijo(numHijos, hijo);
     }
 
 
 
     @Override
     public void preOrden(List<T> lista) {
-        for(T dato : datos) {
-            lista.add(dato);
+        for(int i = 0; i < numClaves; i++) {
+            lista.add(getDato(i));
         }
 
-        for(TElementoB<T> hijo : hijos) {
-            hijo.preOrden(lista);
+        for(int i = 0; i < numHijos; i++) {
+            hijos[i].preOrden(lista);
         }
     }
 
@@ -507,16 +986,16 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
     public void inOrden(List<T> lista) {
         //Recorremos recursivamente los hijos agregando los datos en orden
 
-        for(int i = 0; i < claves.size(); i++) {
-            if(i < hijos.size()) {
-                hijos.get(i).inOrden(lista);
+        for(int i = 0; i < numClaves; i++) {
+            if(i < numHijos) {
+                hijos[i].inOrden(lista);
             }
-            lista.add(datos.get(i));
+            lista.add(getDato(i));
         }
 
         //Si hay más datos en el nodo actual que hijos, entonces agregamos los datos al final.
-        if(hijos.size() > claves.size()) {
-            hijos.get(claves.size()).inOrden(lista);
+        if(numHijos > numClaves) {
+            hijos[numClaves].inOrden(lista);
         }
     }
 
@@ -524,39 +1003,130 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
     @Override
     public void postOrden(List<T> lista) {
         //Recorremos recursivamente a los hijos en orden
-        for(TElementoB<T> hijo : hijos) {
-            hijo.postOrden(lista);
+        for(int i = 0; i < numHijos; i++) {
+            hijos[i].postOrden(lista);
         }
 
         //Agregamos los datos a la lista
 
-        for(T dato : datos) {
-            lista.add(dato);
+        for(int i = 0; i < numClaves; i++) {
+            lista.add(getDato(i));
         }
     }
 
 
+    /**
+     * Obtiene una vista de lista sobre los datos del nodo. Las modificaciones hechas sobre la vista
+     * se reflejan en el nodo.
+     *
+     * @return La lista de datos del nodo.
+     */
     @Override
     public List<T> getDatos() {
-        return this.datos;
+        return new VistaDatos();
     }
 
 
     @Override
     public int getNumClaves() {
-        return claves.size();
+        return numClaves;
     }
 
 
+    /**
+     * Obtiene la cantidad de claves del subárbol, que el nodo lleva actualizada en lugar de recorrer sus hijos.
+     *
+     * Orden de tiempo de ejecución: O(1)
+     */
     @Override
     public int obtenerTamaño() {
-        int tamaño = claves.size(); //Empezamos con el número de claves en el nodo actual
+        return tamaño;
+    }
 
-        //Agregamos recursivamente el tamaño de cada hijo
-        for(TElementoB<T> hijo : hijos) {
-            tamaño += hijo.obtenerTamaño();
+    /**
+     * Recalcula el tamaño del nodo a partir de sus claves y del tamaño de sus hijos, que deben estar al día.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    private void recalcularTamaño() {
+        int suma = numClaves;
+        for(int i = 0; i < numHijos; i++) {
+            suma += hijos[i].tamaño;
+        }
+        tamaño = suma;
+    }
+
+    /**
+     * Recalcula el tamaño de todos los nodos del subárbol de abajo hacia arriba. Lo utiliza la carga masiva, que
+     * agrega cada nodo a su padre antes de terminar de llenarlo.
+     *
+     * @return La cantidad de claves del subárbol.
+     *
+     * Orden de tiempo de ejecución: O(n / t), uno por nodo.
+     */
+    int recalcularTamaños() {
+        int suma = numClaves;
+        for(int i = 0; i < numHijos; i++) {
+            suma += hijos[i].recalcularTamaños();
+        }
+        tamaño = suma;
+        return suma;
+    }
+
+    /**
+     * Obtiene la posición que ocupa la clave dada en el inorden del subárbol, es decir, la cantidad de claves del
+     * subárbol menores a ella. Los hijos que quedan a la izquierda del descenso se cuentan por su tamaño, sin
+     * recorrerlos.
+     *
+     * @param clave La clave a ubicar; no necesita estar en el subárbol.
+     * @return La cantidad de claves del subárbol menores a la clave dada.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    public int posicion(Comparable clave) {
+        int posicion = 0;
+        TElementoB<T> actual = this;
+        while(true) {
+            int i = actual.encontrarClave(clave);
+            posicion += i;
+            if(actual.esHoja()) {
+                return posicion;
+            }
+            for(int j = 0; j < i; j++) {
+                posicion += actual.hijos[j].tamaño;
+            }
+            if(i < actual.numClaves && comparar(actual.claves[i], clave) == 0) {
+                return posicion + actual.hijos[i].tamaño;
+            }
+            actual = actual.hijos[i];
         }
-        return tamaño;
+    }
+
+    /**
+     * Obtiene el dato de la clave que ocupa la posición dada en el inorden del subárbol, descendiendo por el hijo
+     * cuyo tamaño cubre la posición.
+     *
+     * @param posicion Posición de la clave, entre 0 y el tamaño del subárbol menos uno.
+     * @return El dato asociado a la clave de esa posición.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    public T seleccionar(int posicion) {
+        Objects.checkIndex(posicion, tamaño);
+        TElementoB<T> actual = this;
+        while(!actual.esHoja()) {
+            int i = 0;
+            while(posicion >= actual.hijos[i].tamaño) {
+                posicion -= actual.hijos[i].tamaño;
+                if(posicion == 0) {
+                    return actual.getDato(i);
+                }
+                posicion--;
+                i++;
+            }
+            actual = actual.hijos[i];
+        }
+        return actual.getDato(posicion);
     }
 
     /**
@@ -578,19 +1148,19 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
     @Override
     public void merge(TElementoB<T> unNodo) {
         //Insertar las claves y datos del unNodo de manera ordenada
-        for(int i = 0; i < unNodo.claves.size(); i++) {
-            insertarClaveYDato(unNodo.claves.get(i), unNodo.datos.get(i));
+        for(int i = 0; i < unNodo.numClaves; i++) {
+            insertarClaveYDato(unNodo.claves[i], unNodo.getDato(i));
         }
 
         //Agregar los hijos de unNodo al nodo actual
 
-        for(int i = 0; i < unNodo.hijos.size(); i++) {
-            this.hijos.add(unNodo.hijos.get(i));
+        for(int i = 0; i < unNodo.numHijos; i++) {
+            insertarHijo(numHijos, unNodo.hijos[i]);
         }
 
         //Si el número de claves excede el límite, dividimos el nodo
 
-        if(this.claves.size() > 2 * t - 1) {
+        if(this.numClaves > 2 * t - 1) {
             dividirNodo();
         }
     }
@@ -612,12 +1182,7 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
      */
 
     public void insertarClaveYDato(Comparable clave, T dato) {
-        int i = 0;
-        while(i < this.claves.size() && this.claves.get(i).compareTo(clave) < 0) {
-            i++;
-        }
-        this.claves.add(i, clave);
-        this.datos.add(i, dato);
+        insertarClaveEnPosicion(encontrarClave(clave), clave, dato);
     }
 
 
@@ -635,33 +1200,48 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
      * Orden de tiempo de ejecución: O(t) en el peor de los casos.
      */
     public void dividirNodo() {
-        int indiceMedio = claves.size() / 2;
-        Comparable claveMedio = claves.get(indiceMedio);
-        T datoMedio = datos.get(indiceMedio);
+        int indiceMedio = numClaves / 2;
+        Comparable claveMedio = claves[indiceMedio];
+        Object datoMedio = datos[indiceMedio];
 
         TElementoB<T> nuevoNodo = new TElementoB<>(t);
 
-        //Movemos las claves y datos del nodo actual al nuevo nodo
-        for(int i = indiceMedio + 1; i < claves.size(); i++) {
-            nuevoNodo.claves.add(claves.remove(indiceMedio + 1));
-            nuevoNodo.datos.add(datos.remove(indiceMedio + 1));
-        }
+        //Movemos las claves y datos posteriores a la mediana del nodo actual al nuevo nodo
+        int clavesMovidas = numClaves - indiceMedio - 1;
+        nuevoNodo.asegurarCapacidadClaves(clavesMovidas);
+        System.arraycopy(claves, indiceMedio + 1, nuevoNodo.claves, 0, clavesMovidas);
+        System.arraycopy(datos, indiceMedio + 1, nuevoNodo.datos, 0, clavesMovidas);
+        nuevoNodo.numClaves = clavesMovidas;
+        nuevoNodo.numDatos = clavesMovidas;
+        Arrays.fill(claves, indiceMedio, numClaves, null);
+        Arrays.fill(datos, indiceMedio, numClaves, null);
+        numClaves = indiceMedio;
+        numDatos = indiceMedio;
 
         //Movemos los hijos del nodo actual al nuevo nodo
 
-        if(!hijos.isEmpty()) {
-            for(int i = indiceMedio + 1; i < hijos.size(); i++) {
-                nuevoNodo.hijos.add(hijos.remove(indiceMedio + 1));
-            }
+        if(numHijos > indiceMedio + 1) {
+            int hijosMovidos = numHijos - indiceMedio - 1;
+            nuevoNodo.asegurarCapacidadHijos(hijosMovidos);
+            System.arraycopy(hijos, indiceMedio + 1, nuevoNodo.hijos, 0, hijosMovidos);
+            nuevoNodo.numHijos = hijosMovidos;
+            Arrays.fill(hijos, indiceMedio + 1, numHijos, null);
+            numHijos = indiceMedio + 1;
         }
+        nuevoNodo.recalcularTamaño();
+        tamaño -= nuevoNodo.tamaño + 1;
 
         //Agregamos la clave y dato del medio al nodo padre
 
         TElementoB<T> padre = obtenerPadre();
 
         if(padre != null) {
-            padre.insertarClaveYDato(claveMedio, datoMedio);
-            padre.hijos.add(padre.hijos.indexOf(this) + 1, nuevoNodo);
+            //La mediana y el nuevo nodo ya estaban en el subárbol del padre, así que su tamaño no cambia
+            int tamañoPadre = padre.tamaño;
+            padre.insertarClaveEnPosicion(padre.encontrarClave(claveMedio), claveMedio, datoMedio);
+            padre.insertarHijo(padre.indiceDeHijo(this) + 1, nuevoNodo);
+            padre.tamaño = tamañoPadre;
+            nuevoNodo.setPadre(padre);
 
             if(padre.getNumClaves() > 2 * t - 1) {
                 padre.dividirNodo();
@@ -669,11 +1249,117 @@ public class TElementoB<T> implements IElementoB<T>, Serializable {
         } else {
             //Si no hay padre, creamos otra raíz y esa raíz pasa a ser el padre
             TElementoB<T> nuevaRaiz = new TElementoB<>(t);
-            nuevaRaiz.claves.add(claveMedio);
-            nuevaRaiz.datos.add(datoMedio);
-            nuevaRaiz.hijos.add(this);
-            nuevaRaiz.hijos.add(nuevoNodo);
+            nuevaRaiz.insertarClaveEnPosicion(0, claveMedio, datoMedio);
+            nuevaRaiz.insertarHijo(0, this);
+            nuevaRaiz.insertarHijo(1, nuevoNodo);
             setPadre(nuevaRaiz);
+            nuevoNodo.setPadre(nuevaRaiz);
+        }
+    }
+
+    /**
+     * Obtiene la posición del hijo dado dentro del arreglo de hijos, comparando por identidad.
+     *
+     * @param hijo El hijo a localizar.
+     * @return La posición del hijo, o -1 si no es hijo del nodo actual.
+     */
+    private int indiceDeHijo(TElementoB<T> hijo) {
+        for(int i = 0; i < numHijos; i++) {
+            if(hijos[i] == hijo) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Vista de lista sobre uno de los arreglos del nodo. Permite que getClaves, getDatos y getHijos sigan
+     * ofreciendo una List modificable, escribiendo directamente sobre los arreglos del nodo. Las modificaciones
+     * actualizan el tamaño del nodo, pero no el de sus ancestros.
+     *
+     * @param <E> Tipo de los elementos de la vista.
+     */
+    private abstract class VistaArreglo<E> extends AbstractList<E> implements RandomAccess {
+        abstract Object[] arreglo();
+
+        abstract int cantidad();
+
+        abstract void setCantidad(int cantidad);
+
+        abstract void asegurarCapacidad(int capacidad);
+
+        /**
+         * Cantidad de claves que un elemento de la vista aporta al tamaño del nodo.
+         */
+        int tamañoDe(E elemento) {
+            return 0;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public E get(int indice) {
+            Objects.checkIndex(indice, cantidad());
+            return (E) arreglo()[indice];
+        }
+
+        @Override
+        public E set(int indice, E elemento) {
+            E anterior = get(indice);
+            arreglo()[indice] = elemento;
+            tamaño += tamañoDe(elemento) - tamañoDe(anterior);
+            return anterior;
+        }
+
+        @Override
+        public int size() {
+            return cantidad();
+        }
+
+        @Override
+        public void add(int indice, E elemento) {
+            Objects.checkIndex(indice, cantidad() + 1);
+            asegurarCapacidad(cantidad() + 1);
+            Object[] arreglo = arreglo();
+            System.arraycopy(arreglo, indice, arreglo, indice + 1, cantidad() - indice);
+            arreglo[indice] = elemento;
+            setCantidad(cantidad() + 1);
+            tamaño += tamañoDe(elemento);
+            modCount++;
         }
+
+        @Override
+        public E remove(int indice) {
+            E anterior = get(indice);
+            Object[] arreglo = arreglo();
+            System.arraycopy(arreglo, indice + 1, arreglo, indice, cantidad() - indice - 1);
+            arreglo[cantidad() - 1] = null;
+            setCantidad(cantidad() - 1);
+            tamaño -= tamañoDe(anterior);
+            modCount++;
+            return anterior;
+        }
+    }
+
+    private class VistaClaves extends VistaArreglo<Comparable> {
+        Object[] arreglo() { return claves; }
+        int cantidad() { return numClaves; }
+        void setCantidad(int cantidad) { numClaves = cantidad; }
+        void asegurarCapacidad(int capacidad) { asegurarCapacidadClaves(capacidad); }
+        int tamañoDe(Comparable clave) { return 1; }
+    }
+
+    private class VistaDatos extends VistaArreglo<T> {
+        Object[] arreglo() { return datos; }
+        int cantidad() { return numDatos; }
+        void setCantidad(int cantidad) { numDatos = cantidad; }
+        void asegurarCapacidad(int capacidad) { asegurarCapacidadClaves(capacidad); }
+    }
+
+    private class VistaHijos extends VistaArreglo<TElementoB<T>> {
+        Object[] arreglo() { return hijos; }
+        int cantidad() { return numHijos; }
+        void setCantidad(int cantidad) { numHijos = cantidad; }
+        void asegurarCapacidad(int capacidad) { asegurarCapacidadHijos(capacidad); }
+        int tamañoDe(TElementoB<T> hijo) { return hijo == null ? 0 : hijo.tamaño; }
     }
 }
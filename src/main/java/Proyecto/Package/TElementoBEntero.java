@@ -0,0 +1,1114 @@
+package Proyecto.Package;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Clase que representa un nodo de un árbol B cuyas claves son enteros primitivos. Las claves se guardan en un
+ * arreglo int[] paralelo al arreglo de datos, de modo que ni la inserción ni la búsqueda necesitan encapsular
+ * las claves en objetos Integer. Los arreglos tienen lugar para una clave de desborde, que se resuelve dividiendo
+ * el nodo al volver del descenso de la inserción. Los nodos hoja no reservan el arreglo de hijos.
+ *
+ * Los nodos internos llevan la cantidad de claves de su subárbol, que se ajusta al volver de cada descenso y se
+ * recalcula en los nodos que se dividen, reparten o combinan; en las hojas coincide con la cantidad de claves.
+ *
+ * Como en TElementoB, cada nodo lleva la versión del árbol que lo creó: las operaciones obtienen los hijos que van
+ * a modificar con hijoPropio, que copia los de una versión anterior porque pueden estar en una instantánea.
+ *
+ * @param <T> Tipo de dato que se almacena en el nodo.
+ */
+public class TElementoBEntero<T> implements INodoB<T>, Serializable {
+    private int[] claves;                 //Arreglo de claves ordenadas del nodo
+    private Object[] datos;               //Arreglo de datos asociados a cada clave
+    private TElementoBEntero<T>[] hijos;  //Arreglo de hijos del nodo, null si el nodo es una hoja
+    private int numClaves;                //Cantidad de claves ocupadas en el arreglo
+    private int t;                        //Grado mínimo del árbol B
+    private int tamaño;                   //Cantidad de claves del subárbol, solo en los nodos internos
+    private int generacion;               //Versión del árbol que creó el nodo, para copiarlo si lo comparte una instantánea
+
+    @SuppressWarnings("unchecked")
+    public TElementoBEntero(int t, boolean hoja) {
+        this.t = t;
+        this.claves = new int[2 * t];
+        this.datos = new Object[2 * t];
+        this.hijos = hoja ? null : (TElementoBEntero<T>[]) new TElementoBEntero[2 * t + 1];
+        this.numClaves = 0;
+    }
+
+    /**
+     * Crea un nodo vacío perteneciente a la versión dada de un árbol.
+     *
+     * @param t Grado mínimo del árbol.
+     * @param hoja Indica si el nodo es una hoja.
+     * @param generacion Versión del árbol que crea el nodo.
+     */
+    TElementoBEntero(int t, boolean hoja, int generacion) {
+        this(t, hoja);
+        this.generacion = generacion;
+    }
+
+    /**
+     * @return La versión del árbol que creó el nodo.
+     */
+    int getGeneracion() {
+        return generacion;
+    }
+
+    /**
+     * Copia el nodo para una versión posterior del árbol. La copia comparte los hijos con el original, que queda
+     * sin cambios para las instantáneas que lo alcanzan.
+     *
+     * @param generacion Versión del árbol a la que pertenece la copia.
+     * @return La copia del nodo.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    TElementoBEntero<T> copiar(int generacion) {
+        TElementoBEntero<T> copia = new TElementoBEntero<>(t, true, generacion); //Toma los arreglos del original
+        copia.claves = claves.clone();
+        copia.datos = datos.clone();
+        copia.hijos = hijos == null ? null : hijos.clone();
+        copia.numClaves = numClaves;
+        copia.tamaño = tamaño;
+        return copia;
+    }
+
+    /**
+     * Obtiene el hijo de la posición dada para modificarlo, reemplazándolo antes por una copia si es de una versión
+     * anterior a la de este nodo, como TElementoB.hijoPropio.
+     *
+     * @param i Posición del hijo.
+     * @return El hijo, exclusivo de la versión de este nodo.
+     */
+    private TElementoBEntero<T> hijoPropio(int i) {
+        TElementoBEntero<T> hijo = hijos[i];
+        if(hijo.generacion != generacion) {
+            hijo = hijo.copiar(generacion);
+            hijos[i] = hijo;
+        }
+        return hijo;
+    }
+
+    /**
+     * Indica si el nodo es una hoja.
+     *
+     * @return Verdadero si el nodo no tiene hijos.
+     */
+    public boolean esHoja() {
+        return hijos == null;
+    }
+
+    /**
+     * Obtiene el número de claves en el nodo.
+     *
+     * @return Número de claves en el nodo.
+     */
+    public int getNumClaves() {
+        return numClaves;
+    }
+
+    /**
+     * Obtiene la cantidad de claves del subárbol cuya raíz es el nodo.
+     *
+     * @return El tamaño del subárbol.
+     *
+     * Orden de tiempo de ejecución: O(1)
+     */
+    public int getTamaño() {
+        return hijos == null ? numClaves : tamaño;
+    }
+
+    /**
+     * Recalcula el tamaño de un nodo interno a partir de sus claves y del tamaño de sus hijos, que deben estar al
+     * día. En las hojas no hace nada.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    private void recalcularTamaño() {
+        if(hijos != null) {
+            int suma = numClaves;
+            for(int i = 0; i <= numClaves; i++) {
+                suma += hijos[i].getTamaño();
+            }
+            tamaño = suma;
+        }
+    }
+
+    /**
+     * Recalcula el tamaño de todos los nodos internos del subárbol de abajo hacia arriba. Lo utiliza la carga
+     * masiva, que agrega cada nodo a su padre antes de terminar de llenarlo.
+     *
+     * @return La cantidad de claves del subárbol.
+     *
+     * Orden de tiempo de ejecución: O(n / t), uno por nodo.
+     */
+    int recalcularTamaños() {
+        if(hijos == null) {
+            return numClaves;
+        }
+        int suma = numClaves;
+        for(int i = 0; i <= numClaves; i++) {
+            suma += hijos[i].recalcularTamaños();
+        }
+        tamaño = suma;
+        return suma;
+    }
+
+    /**
+     * Obtiene la cantidad de claves del subárbol menores a la clave dada, que es la posición que ocupa la clave en
+     * el inorden. Los hijos que quedan a la izquierda del descenso se cuentan por su tamaño, sin recorrerlos.
+     *
+     * @param clave La clave a ubicar; no necesita estar en el subárbol.
+     * @return La cantidad de claves del subárbol menores a la clave dada.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    public int posicion(int clave) {
+        int posicion = 0;
+        TElementoBEntero<T> actual = this;
+        while(true) {
+            int i = actual.encontrarClave(clave);
+            posicion += i;
+            if(actual.esHoja()) {
+                return posicion;
+            }
+            for(int j = 0; j < i; j++) {
+                posicion += actual.hijos[j].getTamaño();
+            }
+            if(i < actual.numClaves && actual.claves[i] == clave) {
+                return posicion + actual.hijos[i].getTamaño();
+            }
+            actual = actual.hijos[i];
+        }
+    }
+
+    /**
+     * Obtiene el dato de la clave que ocupa la posición dada en el inorden del subárbol.
+     *
+     * @param posicion Posición de la clave, entre 0 y el tamaño del subárbol menos uno.
+     * @return El dato asociado a la clave de esa posición.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    public T seleccionar(int posicion) {
+        Objects.checkIndex(posicion, getTamaño());
+        TElementoBEntero<T> actual = this;
+        while(!actual.esHoja()) {
+            int i = 0;
+            while(posicion >= actual.hijos[i].getTamaño()) {
+                posicion -= actual.hijos[i].getTamaño();
+                if(posicion == 0) {
+                    return actual.getDato(i);
+                }
+                posicion--;
+                i++;
+            }
+            actual = actual.hijos[i];
+        }
+        return actual.getDato(posicion);
+    }
+
+    /**
+     * Obtiene la clave en la posición dada.
+     *
+     * @param i Posición de la clave.
+     * @return La clave en la posición i.
+     */
+    public int getClave(int i) {
+        return claves[i];
+    }
+
+    /**
+     * Obtiene el dato en la posición dada.
+     *
+     * @param i Posición del dato.
+     * @return El dato asociado a la clave en la posición i.
+     */
+    @SuppressWarnings("unchecked")
+    public T getDato(int i) {
+        return (T) datos[i];
+    }
+
+    /**
+     * Obtiene el hijo en la posición dada.
+     *
+     * @param i Posición del hijo.
+     * @return El hijo en la posición i.
+     */
+    public TElementoBEntero<T> getHijo(int i) {
+        return hijos[i];
+    }
+
+    /**
+     * Encuentra, mediante búsqueda binaria, el índice de la primera clave del nodo mayor o igual a la clave dada.
+     *
+     * @param clave La clave a buscar.
+     * @return El índice de la clave en el nodo actual, o el índice donde debería estar si no está presente.
+     *
+     * Orden de tiempo de ejecución: O(log t)
+     */
+    public int encontrarClave(int clave) {
+        int inferior = 0;
+        int superior = numClaves;
+
+        while(inferior < superior) {
+            int medio = (inferior + superior) >>> 1;
+            if(claves[medio] < clave) {
+                inferior = medio + 1;
+            } else {
+                superior = medio;
+            }
+        }
+        return inferior;
+    }
+
+    /**
+     * Busca en el subárbol cuya raíz es el nodo actual el dato asociado a la clave dada.
+     *
+     * @param clave La clave a buscar.
+     * @return El dato asociado a la clave, o null si la clave no está en el subárbol.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    public T buscar(int clave) {
+        TElementoBEntero<T> actual = this;
+
+        while(actual != null) {
+            int i = actual.encontrarClave(clave);
+            if(i < actual.numClaves && actual.claves[i] == clave) {
+                return actual.getDato(i);
+            }
+            actual = actual.esHoja() ? null : actual.hijos[i];
+        }
+        return null;
+    }
+
+    /**
+     * Indica si la clave está en el subárbol cuya raíz es el nodo actual, sin depender de que su dato no sea null.
+     *
+     * @param clave La clave a buscar.
+     * @return Verdadero si la clave está en el subárbol.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    boolean contiene(int clave) {
+        TElementoBEntero<T> actual = this;
+        while(actual != null) {
+            int i = actual.encontrarClave(clave);
+            if(i < actual.numClaves && actual.claves[i] == clave) {
+                return true;
+            }
+            actual = actual.esHoja() ? null : actual.hijos[i];
+        }
+        return false;
+    }
+
+    /**
+     * Inserta una clave y su dato en el subárbol cuya raíz es el nodo actual con un único descenso. Si la clave
+     * ya existe no se modifica ni se copia ningún nodo, como en TElementoB.insertarSinDuplicados; los hijos que
+     * quedan desbordados (2t claves) se dividen al volver del descenso.
+     *
+     * @param clave La clave del elemento a insertar.
+     * @param dato El dato asociado al elemento a insertar.
+     * @return Verdadero si la clave fue insertada, falso si ya existía en el subárbol.
+     *
+     * Postcondiciones:
+     * - Si se insertó, el nodo actual puede quedar desbordado y debe dividirlo su padre, o dividirRaiz
+     *   si es la raíz.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    public boolean insertar(int clave, T dato) {
+        return insertar(clave, dato, false);
+    }
+
+    /**
+     * Inserta como insertar(int, T).
+     *
+     * @param ausente Indica si ya se sabe que la clave no está en el subárbol, porque se buscó antes de copiar un
+     *                nodo compartido con una instantánea.
+     */
+    boolean insertar(int clave, T dato, boolean ausente) {
+        int i = encontrarClave(clave);
+        if(i < numClaves && claves[i] == clave) {
+            return false;
+        }
+
+        if(esHoja()) {
+            insertarEnPosicion(i, clave, dato);
+            return true;
+        }
+
+        if(!ausente && hijos[i].generacion != generacion) {
+            if(hijos[i].contiene(clave)) {
+                return false;
+            }
+            ausente = true;
+        }
+        TElementoBEntero<T> hijo = hijoPropio(i);
+        if(!hijo.insertar(clave, dato, ausente)) {
+            return false;
+        }
+        tamaño++;
+        if(hijo.estaDesbordado()) {
+            dividirHijo(i);
+        }
+        return true;
+    }
+
+    /**
+     * Indica si el nodo tiene una clave más que el máximo permitido (2t - 1).
+     *
+     * @return Verdadero si el nodo debe dividirse.
+     */
+    public boolean estaDesbordado() {
+        return numClaves > 2 * t - 1;
+    }
+
+    /**
+     * Inserta una clave y su dato en la posición dada del nodo, desplazando las siguientes a la derecha.
+     *
+     * @param i Posición donde insertar.
+     * @param clave La clave a insertar.
+     * @param dato El dato asociado a la clave.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    private void insertarEnPosicion(int i, int clave, Object dato) {
+        System.arraycopy(claves, i, claves, i + 1, numClaves - i);
+        System.arraycopy(datos, i, datos, i + 1, numClaves - i);
+        claves[i] = clave;
+        datos[i] = dato;
+        numClaves++;
+    }
+
+    /**
+     * Divide el hijo desbordado en la posición i en un nodo de t claves y otro de t - 1 claves, y sube la
+     * clave mediana al nodo actual.
+     *
+     * @param i El índice del hijo desbordado.
+     *
+     * Postcondiciones:
+     * - El nodo actual tiene una clave y un hijo más, por lo que puede quedar desbordado.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    public void dividirHijo(int i) {
+        TElementoBEntero<T> nodoDesbordado = hijos[i];
+        TElementoBEntero<T> nodoNuevo = new TElementoBEntero<>(t, nodoDesbordado.esHoja(), generacion);
+
+        //Transferimos las últimas t - 1 claves y datos, y los últimos t hijos, al nuevo nodo
+        System.arraycopy(nodoDesbordado.claves, t + 1, nodoNuevo.claves, 0, t - 1);
+        System.arraycopy(nodoDesbordado.datos, t + 1, nodoNuevo.datos, 0, t - 1);
+        if(!nodoDesbordado.esHoja()) {
+            System.arraycopy(nodoDesbordado.hijos, t + 1, nodoNuevo.hijos, 0, t);
+            Arrays.fill(nodoDesbordado.hijos, t + 1, 2 * t + 1, null);
+        }
+        nodoNuevo.numClaves = t - 1;
+
+        //Hacemos lugar en el nodo actual para la clave mediana y el nuevo hijo
+        System.arraycopy(hijos, i + 1, hijos, i + 2, numClaves - i);
+        hijos[i + 1] = nodoNuevo;
+        insertarEnPosicion(i, nodoDesbordado.claves[t], nodoDesbordado.datos[t]);
+
+        Arrays.fill(nodoDesbordado.datos, t, 2 * t, null);
+        nodoDesbordado.numClaves = t;
+
+        //Las claves solo cambiaron de nodo dentro del subárbol del nodo actual, cuyo tamaño no cambia
+        nodoNuevo.recalcularTamaño();
+        nodoDesbordado.recalcularTamaño();
+    }
+
+    /**
+     * Crea una nueva raíz cuyo único hijo es el nodo actual y divide el nodo actual, haciendo crecer la altura
+     * del árbol en uno.
+     *
+     * @return La nueva raíz, con una clave y dos hijos.
+     *
+     * Precondiciones:
+     * - El nodo actual debe estar desbordado y ser la raíz del árbol.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    public TElementoBEntero<T> dividirRaiz() {
+        TElementoBEntero<T> nuevaRaiz = new TElementoBEntero<>(t, false, generacion);
+        nuevaRaiz.hijos[0] = this;
+        nuevaRaiz.tamaño = getTamaño();
+        if(numClaves == 2 * t) {
+            nuevaRaiz.dividirHijo(0);
+        } else {
+            nuevaRaiz.dividirHijoEnVarios(0);
+        }
+        return nuevaRaiz;
+    }
+
+    /**
+     * Inserta un lote de claves ordenadas en el subárbol cuya raíz es el nodo actual con un único recorrido. El
+     * lote se reparte entre los hijos según las claves del nodo, de modo que las claves vecinas comparten el
+     * descenso, y cada hijo desbordado se divide una sola vez, en tantos nodos como necesite, al volver.
+     *
+     * @param lote Claves del lote, en orden estrictamente creciente.
+     * @param datosLote Datos asociados a las claves del lote.
+     * @param desde Primera posición del lote que corresponde al subárbol.
+     * @param hasta Posición siguiente a la última del lote que corresponde al subárbol.
+     * @param insertados Arreglo paralelo al lote donde se marcan las claves insertadas, o null.
+     * @return La cantidad de claves insertadas; las que ya estaban en el subárbol se ignoran.
+     *
+     * Postcondiciones:
+     * - El nodo actual puede quedar con cualquier cantidad de claves mayor a 2t - 1 y debe dividirlo su padre
+     *   con dividirHijoEnVarios, o dividirRaiz si es la raíz.
+     *
+     * Orden de tiempo de ejecución: O(m log n + k t), siendo m el tamaño del lote y k la cantidad de nodos tocados.
+     */
+    int insertarLote(int[] lote, Object[] datosLote, int desde, int hasta, boolean[] insertados) {
+        if(esHoja()) {
+            return intercalarEnHoja(lote, datosLote, desde, hasta, insertados);
+        }
+        int insertadas = 0;
+        int fin = hasta;
+        //Recorremos los hijos de derecha a izquierda para que dividir uno no desplace a los que faltan
+        for(int i = numClaves; i >= 0 && fin > desde; i--) {
+            int inicio = i == 0 ? desde : primeraMayor(lote, desde, fin, claves[i - 1]);
+            if(inicio < fin) {
+                insertadas += hijoPropio(i).insertarLote(lote, datosLote, inicio, fin, insertados);
+                if(hijos[i].estaDesbordado()) {
+                    dividirHijoEnVarios(i);
+                }
+            }
+            fin = inicio;
+            //La clave separadora ya está en el árbol, así que no se inserta
+            if(i > 0 && fin > desde && lote[fin - 1] == claves[i - 1]) {
+                fin--;
+            }
+        }
+        tamaño += insertadas;
+        return insertadas;
+    }
+
+    /**
+     * Intercala las claves del lote con las de la hoja, conservando el dato existente ante claves repetidas.
+     */
+    private int intercalarEnHoja(int[] lote, Object[] datosLote, int desde, int hasta, boolean[] insertados) {
+        int capacidad = Math.max(2 * t, numClaves + hasta - desde);
+        int[] nuevasClaves = new int[capacidad];
+        Object[] nuevosDatos = new Object[capacidad];
+        int i = 0;
+        int j = desde;
+        int n = 0;
+        while(i < numClaves || j < hasta) {
+            if(j == hasta || (i < numClaves && claves[i] <= lote[j])) {
+                if(j < hasta && claves[i] == lote[j]) {
+                    j++;
+                }
+                nuevasClaves[n] = claves[i];
+                nuevosDatos[n] = datos[i];
+                i++;
+            } else {
+                nuevasClaves[n] = lote[j];
+                nuevosDatos[n] = datosLote[j];
+                if(insertados != null) {
+                    insertados[j] = true;
+                }
+                j++;
+            }
+            n++;
+        }
+        int insertadas = n - numClaves;
+        claves = nuevasClaves;
+        datos = nuevosDatos;
+        numClaves = n;
+        return insertadas;
+    }
+
+    /**
+     * Encuentra, mediante búsqueda binaria, la primera posición del rango del lote cuya clave es mayor a la dada.
+     */
+    private static int primeraMayor(int[] lote, int desde, int hasta, int clave) {
+        int inferior = desde;
+        int superior = hasta;
+        while(inferior < superior) {
+            int medio = (inferior + superior) >>> 1;
+            if(lote[medio] <= clave) {
+                inferior = medio + 1;
+            } else {
+                superior = medio;
+            }
+        }
+        return inferior;
+    }
+
+    /**
+     * Divide el hijo en la posición i, que puede tener cualquier cantidad m de claves mayor a 2t - 1, en el menor
+     * número de nodos de a lo sumo 2t - 1 claves, repartidas en partes casi iguales, y sube al nodo actual las
+     * claves que los separan. Con exactamente 2t claves el resultado es el mismo que el de dividirHijo.
+     *
+     * @param i El índice del hijo desbordado.
+     *
+     * Postcondiciones:
+     * - Cada nodo resultante tiene entre t - 1 y 2t - 1 claves.
+     * - El nodo actual puede quedar con más de 2t - 1 claves.
+     *
+     * Orden de tiempo de ejecución: O(m + t)
+     */
+    void dividirHijoEnVarios(int i) {
+        TElementoBEntero<T> desbordado = hijos[i];
+        int[] clavesHijo = desbordado.claves;
+        Object[] datosHijo = desbordado.datos;
+        TElementoBEntero<T>[] hijosHijo = desbordado.hijos;
+        int m = desbordado.numClaves;
+        int partes = (m + 2 * t) / (2 * t);
+        int porParte = (m - partes + 1) / partes;
+        int sobrantes = (m - partes + 1) % partes;
+
+        //Hacemos lugar en el nodo actual para las partes - 1 claves separadoras y los nuevos hijos
+        asegurarCapacidad(numClaves + partes - 1);
+        System.arraycopy(claves, i, claves, i + partes - 1, numClaves - i);
+        System.arraycopy(datos, i, datos, i + partes - 1, numClaves - i);
+        System.arraycopy(hijos, i + 1, hijos, i + partes, numClaves - i);
+        numClaves += partes - 1;
+
+        int origen = 0;
+        for(int p = 0; p < partes; p++) {
+            int cantidad = porParte + (p < sobrantes ? 1 : 0);
+            TElementoBEntero<T> nodo = p == 0 ? desbordado : new TElementoBEntero<>(t, hijosHijo == null, generacion);
+            nodo.cargar(clavesHijo, datosHijo, hijosHijo, origen, cantidad);
+            hijos[i + p] = nodo;
+            origen += cantidad;
+            if(p < partes - 1) {
+                claves[i + p] = clavesHijo[origen];
+                datos[i + p] = datosHijo[origen];
+                origen++;
+            }
+        }
+    }
+
+    /**
+     * Agranda los arreglos de un nodo interno para que admitan la cantidad de claves dada.
+     */
+    private void asegurarCapacidad(int cantidad) {
+        if(cantidad > claves.length) {
+            int capacidad = Math.max(cantidad, 2 * claves.length);
+            claves = Arrays.copyOf(claves, capacidad);
+            datos = Arrays.copyOf(datos, capacidad);
+            hijos = Arrays.copyOf(hijos, capacidad + 1);
+        }
+    }
+
+    /**
+     * Reemplaza el contenido del nodo por las claves, datos e hijos del rango dado, dejando los arreglos con su
+     * capacidad habitual, y recalcula su tamaño. Los arreglos de origen pueden ser los del propio nodo.
+     *
+     * @param cantidad Cantidad de claves a copiar, a lo sumo 2t - 1; se copian cantidad + 1 hijos.
+     */
+    @SuppressWarnings("unchecked")
+    private void cargar(int[] origenClaves, Object[] origenDatos, TElementoBEntero<T>[] origenHijos, int desde, int cantidad) {
+        if(claves == origenClaves || claves.length != 2 * t) {
+            claves = new int[2 * t];
+            datos = new Object[2 * t];
+            hijos = origenHijos == null ? null : (TElementoBEntero<T>[]) new TElementoBEntero[2 * t + 1];
+        } else {
+            Arrays.fill(datos, null);
+            if(hijos != null) {
+                Arrays.fill(hijos, null);
+            }
+        }
+        System.arraycopy(origenClaves, desde, claves, 0, cantidad);
+        System.arraycopy(origenDatos, desde, datos, 0, cantidad);
+        if(origenHijos != null) {
+            System.arraycopy(origenHijos, desde, hijos, 0, cantidad + 1);
+        }
+        numClaves = cantidad;
+        recalcularTamaño();
+    }
+
+    /**
+     * Elimina la clave dada del subárbol cuya raíz es el nodo actual.
+     *
+     * @param clave La clave a eliminar.
+     * @return Verdadero si la clave estaba en el subárbol y fue eliminada, falso en caso contrario.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    public boolean eliminar(int clave) {
+        int indice = encontrarClave(clave);
+
+        //La clave está en el nodo actual
+        if(indice < numClaves && claves[indice] == clave) {
+            if(esHoja()) {
+                quitarDeHoja(indice);
+            } else {
+                eliminarDesdeNodoInterno(indice);
+            }
+            return true;
+        }
+
+        //Si el nodo es una hoja, entonces la clave no está en el árbol
+        if(esHoja()) {
+            return false;
+        }
+
+        boolean ultimo = (indice == numClaves);
+        if(hijos[indice].numClaves < t) {
+            rellenar(indice);
+        }
+
+        //Si el último hijo se combinó con su hermano anterior, la clave quedó en el hijo anterior
+        boolean eliminado = ultimo && indice > numClaves ? hijoPropio(indice - 1).eliminar(clave)
+                : hijoPropio(indice).eliminar(clave);
+        if(eliminado) {
+            tamaño--;
+        }
+        return eliminado;
+    }
+
+    /**
+     * Quita la clave y el dato en la posición dada de un nodo hoja.
+     *
+     * @param indice Posición de la clave a quitar.
+     */
+    private void quitarDeHoja(int indice) {
+        System.arraycopy(claves, indice + 1, claves, indice, numClaves - indice - 1);
+        System.arraycopy(datos, indice + 1, datos, indice, numClaves - indice - 1);
+        numClaves--;
+        datos[numClaves] = null;
+    }
+
+    /**
+     * Elimina la clave en la posición dada de un nodo interno, reemplazándola por su predecesor o sucesor,
+     * o combinando los hijos que la rodean si ninguno tiene claves de sobra.
+     *
+     * @param indice El índice de la clave a eliminar.
+     */
+    private void eliminarDesdeNodoInterno(int indice) {
+        int clave = claves[indice];
+
+        if(hijos[indice].numClaves >= t) {
+            TElementoBEntero<T> actual = hijos[indice];
+            while(!actual.esHoja()) {
+                actual = actual.hijos[actual.numClaves];
+            }
+            claves[indice] = actual.claves[actual.numClaves - 1];
+            datos[indice] = actual.datos[actual.numClaves - 1];
+            hijoPropio(indice).eliminar(claves[indice]);
+        } else if(hijos[indice + 1].numClaves >= t) {
+            TElementoBEntero<T> actual = hijos[indice + 1];
+            while(!actual.esHoja()) {
+                actual = actual.hijos[0];
+            }
+            claves[indice] = actual.claves[0];
+            datos[indice] = actual.datos[0];
+            hijoPropio(indice + 1).eliminar(claves[indice]);
+        } else {
+            combinar(indice);
+            hijoPropio(indice).eliminar(clave);
+        }
+        tamaño--;
+    }
+
+    /**
+     * Rellena el hijo en la posición dada si tiene menos de t claves, tomando prestado de un hermano o
+     * combinándolo con uno.
+     *
+     * @param indice La posición del hijo a rellenar.
+     */
+    void rellenar(int indice) {
+        if(indice != 0 && hijos[indice - 1].numClaves >= t) {
+            tomarPrestadoDeAnterior(indice);
+        } else if(indice != numClaves && hijos[indice + 1].numClaves >= t) {
+            tomarPrestadoDeSiguiente(indice);
+        } else if(indice != numClaves) {
+            combinar(indice);
+        } else {
+            combinar(indice - 1);
+        }
+    }
+
+    /**
+     * Mueve la clave separadora al hijo en la posición dada y la reemplaza por la última clave del hermano anterior.
+     *
+     * @param indice La posición del hijo a rellenar.
+     */
+    private void tomarPrestadoDeAnterior(int indice) {
+        TElementoBEntero<T> hijo = hijoPropio(indice);
+        TElementoBEntero<T> hermano = hijoPropio(indice - 1);
+
+        System.arraycopy(hijo.claves, 0, hijo.claves, 1, hijo.numClaves);
+        System.arraycopy(hijo.datos, 0, hijo.datos, 1, hijo.numClaves);
+        hijo.claves[0] = claves[indice - 1];
+        hijo.datos[0] = datos[indice - 1];
+
+        if(!hijo.esHoja()) {
+            System.arraycopy(hijo.hijos, 0, hijo.hijos, 1, hijo.numClaves + 1);
+            hijo.hijos[0] = hermano.hijos[hermano.numClaves];
+            hermano.hijos[hermano.numClaves] = null;
+            int movidas = 1 + hijo.hijos[0].getTamaño();
+            hijo.tamaño += movidas;
+            hermano.tamaño -= movidas;
+        }
+
+        claves[indice - 1] = hermano.claves[hermano.numClaves - 1];
+        datos[indice - 1] = hermano.datos[hermano.numClaves - 1];
+        hermano.datos[hermano.numClaves - 1] = null;
+
+        hijo.numClaves++;
+        hermano.numClaves--;
+    }
+
+    /**
+     * Mueve la clave separadora al hijo en la posición dada y la reemplaza por la primera clave del hermano siguiente.
+     *
+     * @param indice La posición del hijo a rellenar.
+     */
+    private void tomarPrestadoDeSiguiente(int indice) {
+        TElementoBEntero<T> hijo = hijoPropio(indice);
+        TElementoBEntero<T> hermano = hijoPropio(indice + 1);
+
+        hijo.claves[hijo.numClaves] = claves[indice];
+        hijo.datos[hijo.numClaves] = datos[indice];
+        if(!hijo.esHoja()) {
+            hijo.hijos[hijo.numClaves + 1] = hermano.hijos[0];
+            System.arraycopy(hermano.hijos, 1, hermano.hijos, 0, hermano.numClaves);
+            hermano.hijos[hermano.numClaves] = null;
+            int movidas = 1 + hijo.hijos[hijo.numClaves + 1].getTamaño();
+            hijo.tamaño += movidas;
+            hermano.tamaño -= movidas;
+        }
+
+        claves[indice] = hermano.claves[0];
+        datos[indice] = hermano.datos[0];
+        System.arraycopy(hermano.claves, 1, hermano.claves, 0, hermano.numClaves - 1);
+        System.arraycopy(hermano.datos, 1, hermano.datos, 0, hermano.numClaves - 1);
+        hermano.datos[hermano.numClaves - 1] = null;
+
+        hijo.numClaves++;
+        hermano.numClaves--;
+    }
+
+    /**
+     * Combina el hijo en la posición dada con su hermano siguiente, bajando la clave separadora.
+     *
+     * @param indice La posición del hijo a combinar.
+     */
+    private void combinar(int indice) {
+        TElementoBEntero<T> hijo = hijoPropio(indice);
+        TElementoBEntero<T> hermano = hijos[indice + 1]; //Solo se lee, porque deja el árbol
+        int n = hijo.numClaves;
+
+        hijo.claves[n] = claves[indice];
+        hijo.datos[n] = datos[indice];
+        System.arraycopy(hermano.claves, 0, hijo.claves, n + 1, hermano.numClaves);
+        System.arraycopy(hermano.datos, 0, hijo.datos, n + 1, hermano.numClaves);
+        if(!hijo.esHoja()) {
+            System.arraycopy(hermano.hijos, 0, hijo.hijos, n + 1, hermano.numClaves + 1);
+            hijo.tamaño += 1 + hermano.tamaño;
+        }
+        hijo.numClaves += hermano.numClaves + 1;
+
+        //Quitamos la clave separadora y el hermano del nodo actual
+        System.arraycopy(claves, indice + 1, claves, indice, numClaves - indice - 1);
+        System.arraycopy(datos, indice + 1, datos, indice, numClaves - indice - 1);
+        System.arraycopy(hijos, indice + 2, hijos, indice + 1, numClaves - indice - 1);
+        datos[numClaves - 1] = null;
+        hijos[numClaves] = null;
+        numClaves--;
+    }
+
+    /**
+     * Elimina un lote de claves ordenadas del subárbol cuya raíz es el nodo actual con un único recorrido. Cada
+     * hijo recibe la parte del lote que le corresponde; al volver, las claves separadoras del lote se reemplazan
+     * por su predecesor o sucesor y los hijos que quedaron con menos de t - 1 claves se combinan o se reparten con
+     * un hermano en una sola pasada sobre el nodo.
+     *
+     * @param lote Claves del lote, en orden estrictamente creciente.
+     * @param desde Primera posición del lote que corresponde al subárbol.
+     * @param hasta Posición siguiente a la última del lote que corresponde al subárbol.
+     * @param eliminados Arreglo paralelo al lote donde se marcan las claves eliminadas, o null.
+     * @return La cantidad de claves eliminadas; las que no estaban en el subárbol se ignoran.
+     *
+     * Postcondiciones:
+     * - El nodo actual puede quedar con menos de t - 1 claves y debe repararlo su padre, o quitarse si es una
+     *   raíz vacía. Si le queda al menos una clave, todos sus hijos cumplen las propiedades del árbol B; si es
+     *   interno y se queda sin claves, conserva un único hijo que cumple esta misma postcondición.
+     *
+     * Orden de tiempo de ejecución: O(m log n + k t), siendo m el tamaño del lote y k la cantidad de nodos tocados.
+     */
+    int eliminarLote(int[] lote, int desde, int hasta, boolean[] eliminados) {
+        if(esHoja()) {
+            return quitarLoteDeHoja(lote, desde, hasta, eliminados);
+        }
+        int eliminadas = 0;
+        int[] separadores = null;
+        int cantidadSeparadores = 0;
+        int fin = hasta;
+        for(int i = numClaves; i >= 0 && fin > desde; i--) {
+            int inicio = i == 0 ? desde : primeraMayor(lote, desde, fin, claves[i - 1]);
+            if(inicio < fin) {
+                eliminadas += hijoPropio(i).eliminarLote(lote, inicio, fin, eliminados);
+            }
+            fin = inicio;
+            if(i > 0 && fin > desde && lote[fin - 1] == claves[i - 1]) {
+                fin--;
+                if(separadores == null) {
+                    separadores = new int[numClaves];
+                }
+                separadores[cantidadSeparadores++] = i - 1;
+                if(eliminados != null) {
+                    eliminados[fin] = true;
+                }
+                eliminadas++;
+            }
+        }
+        //Los separadores se quitan después de vaciar los hijos, para tomar un predecesor que no esté en el lote.
+        //Están en orden decreciente, así que quitar uno no desplaza a los pendientes
+        for(int s = 0; s < cantidadSeparadores; s++) {
+            quitarSeparador(separadores[s]);
+        }
+        repararHijos();
+        tamaño -= eliminadas;
+        return eliminadas;
+    }
+
+    /**
+     * Quita de la hoja las claves del lote, compactando las restantes en una sola pasada.
+     */
+    private int quitarLoteDeHoja(int[] lote, int desde, int hasta, boolean[] eliminados) {
+        int j = desde;
+        int n = 0;
+        for(int i = 0; i < numClaves; i++) {
+            while(j < hasta && lote[j] < claves[i]) {
+                j++;
+            }
+            if(j < hasta && lote[j] == claves[i]) {
+                if(eliminados != null) {
+                    eliminados[j] = true;
+                }
+                j++;
+                continue;
+            }
+            claves[n] = claves[i];
+            datos[n] = datos[i];
+            n++;
+        }
+        Arrays.fill(datos, n, numClaves, null);
+        int eliminadas = numClaves - n;
+        numClaves = n;
+        return eliminadas;
+    }
+
+    /**
+     * Quita la clave separadora en la posición dada reemplazándola por el máximo del hijo anterior o el mínimo
+     * del siguiente; si ambos subárboles quedaron vacíos, quita la clave junto con el hijo siguiente.
+     */
+    private void quitarSeparador(int indice) {
+        if(!hijos[indice].estaVacio()) {
+            hijoPropio(indice).extraerMaximo(this, indice);
+        } else if(!hijos[indice + 1].estaVacio()) {
+            hijoPropio(indice + 1).extraerMinimo(this, indice);
+        } else {
+            quitarClaveYHijoSiguiente(indice);
+        }
+    }
+
+    /**
+     * Indica si el subárbol cuya raíz es el nodo actual no tiene claves.
+     */
+    private boolean estaVacio() {
+        TElementoBEntero<T> actual = this;
+        while(actual.numClaves == 0 && !actual.esHoja()) {
+            actual = actual.hijos[0];
+        }
+        return actual.numClaves == 0;
+    }
+
+    /**
+     * Quita la mayor clave del subárbol y la guarda, con su dato, en la posición dada del nodo destino. Los nodos
+     * del camino que conservan claves reparan a sus hijos al volver.
+     */
+    private void extraerMaximo(TElementoBEntero<T> destino, int posicion) {
+        if(esHoja()) {
+            numClaves--;
+            destino.claves[posicion] = claves[numClaves];
+            destino.datos[posicion] = datos[numClaves];
+            datos[numClaves] = null;
+            return;
+        }
+        hijoPropio(numClaves).extraerMaximo(destino, posicion);
+        tamaño--;
+        repararHijos();
+    }
+
+    /**
+     * Quita la menor clave del subárbol y la guarda, con su dato, en la posición dada del nodo destino.
+     */
+    private void extraerMinimo(TElementoBEntero<T> destino, int posicion) {
+        if(esHoja()) {
+            destino.claves[posicion] = claves[0];
+            destino.datos[posicion] = datos[0];
+            quitarDeHoja(0);
+            return;
+        }
+        hijoPropio(0).extraerMinimo(destino, posicion);
+        tamaño--;
+        repararHijos();
+    }
+
+    /**
+     * Recorre los hijos de izquierda a derecha y combina o reparte con un hermano a cada uno que tenga menos de
+     * t - 1 claves, hasta que todos las tengan o el nodo se quede sin claves.
+     *
+     * Orden de tiempo de ejecución: O(t) por cada hijo reparado, más la reparación de sus propios hijos.
+     */
+    private void repararHijos() {
+        int i = 0;
+        while(numClaves > 0 && i <= numClaves) {
+            if(hijos[i].numClaves >= t - 1) {
+                i++;
+            } else {
+                //El último hijo se repara con su hermano anterior; el resto, con el siguiente
+                int j = Math.min(i, numClaves - 1);
+                combinarORepartir(j);
+                i = j;
+            }
+        }
+    }
+
+    /**
+     * Une los hijos en las posiciones j y j + 1 con la clave que los separa. Si el resultado entra en un nodo
+     * queda en el hijo j; si no, se reparte en partes iguales entre ambos hijos y sube la clave del medio.
+     */
+    private void combinarORepartir(int j) {
+        TElementoBEntero<T> izquierdo = hijoPropio(j);
+        TElementoBEntero<T> derecho = hijos[j + 1];
+        izquierdo.absorber(claves[j], datos[j], derecho);
+        int total = izquierdo.numClaves;
+        if(total <= 2 * t - 1) {
+            izquierdo.cargar(izquierdo.claves, izquierdo.datos, izquierdo.hijos, 0, total);
+            quitarClaveYHijoSiguiente(j);
+        } else {
+            int[] clavesUnidas = izquierdo.claves;
+            Object[] datosUnidos = izquierdo.datos;
+            TElementoBEntero<T>[] hijosUnidos = izquierdo.hijos;
+            int mitad = (total - 1) / 2;
+            derecho = hijoPropio(j + 1);
+            derecho.cargar(clavesUnidas, datosUnidos, hijosUnidos, mitad + 1, total - mitad - 1);
+            izquierdo.cargar(clavesUnidas, datosUnidos, hijosUnidos, 0, mitad);
+            claves[j] = clavesUnidas[mitad];
+            datos[j] = datosUnidos[mitad];
+        }
+    }
+
+    /**
+     * Agrega al final del nodo la clave separadora y todo el contenido del hermano siguiente, y repara los hijos
+     * resultantes, entre los que puede haber uno sin claves que venía del hermano o del propio nodo.
+     */
+    @SuppressWarnings("unchecked")
+    private void absorber(int separador, Object datoSeparador, TElementoBEntero<T> hermano) {
+        int n = numClaves;
+        int total = n + 1 + hermano.numClaves;
+        int[] nuevasClaves = new int[total];
+        Object[] nuevosDatos = new Object[total];
+        System.arraycopy(claves, 0, nuevasClaves, 0, n);
+        System.arraycopy(datos, 0, nuevosDatos, 0, n);
+        nuevasClaves[n] = separador;
+        nuevosDatos[n] = datoSeparador;
+        System.arraycopy(hermano.claves, 0, nuevasClaves, n + 1, hermano.numClaves);
+        System.arraycopy(hermano.datos, 0, nuevosDatos, n + 1, hermano.numClaves);
+        if(!esHoja()) {
+            TElementoBEntero<T>[] nuevosHijos = (TElementoBEntero<T>[]) new TElementoBEntero[total + 1];
+            System.arraycopy(hijos, 0, nuevosHijos, 0, n + 1);
+            System.arraycopy(hermano.hijos, 0, nuevosHijos, n + 1, hermano.numClaves + 1);
+            hijos = nuevosHijos;
+        }
+        claves = nuevasClaves;
+        datos = nuevosDatos;
+        numClaves = total;
+        if(!esHoja()) {
+            repararHijos();
+        }
+    }
+
+    /**
+     * Quita del nodo la clave en la posición dada y el hijo a su derecha.
+     */
+    private void quitarClaveYHijoSiguiente(int indice) {
+        System.arraycopy(claves, indice + 1, claves, indice, numClaves - indice - 1);
+        System.arraycopy(datos, indice + 1, datos, indice, numClaves - indice - 1);
+        System.arraycopy(hijos, indice + 2, hijos, indice + 1, numClaves - indice - 1);
+        numClaves--;
+        datos[numClaves] = null;
+        hijos[numClaves + 1] = null;
+    }
+
+    /**
+     * Agrega una clave y su dato a continuación de la última clave del nodo. Lo utiliza la carga masiva,
+     * que recibe las claves ya ordenadas.
+     *
+     * @param clave La clave a agregar, mayor que todas las claves del nodo.
+     * @param dato El dato asociado a la clave.
+     */
+    void agregarAlFinal(int clave, Object dato) {
+        claves[numClaves] = clave;
+        datos[numClaves] = dato;
+        numClaves++;
+    }
+
+    /**
+     * Coloca un hijo a la derecha de la última clave del nodo, o como primer hijo si el nodo aún no tiene claves.
+     *
+     * @param hijo El hijo a agregar.
+     */
+    void agregarHijoAlFinal(TElementoBEntero<T> hijo) {
+        hijos[numClaves] = hijo;
+    }
+
+    /**
+     * Realiza un recorrido en preorden del nodo y sus hijos.
+     *
+     * @param lista Lista en la cual se agregan los datos en preorden.
+     */
+    public void preOrden(List<T> lista) {
+        for(int i = 0; i < numClaves; i++) {
+            lista.add(getDato(i));
+        }
+        if(!esHoja()) {
+            for(int i = 0; i <= numClaves; i++) {
+                hijos[i].preOrden(lista);
+            }
+        }
+    }
+
+    /**
+     * Realiza un recorrido en inorden del nodo y sus hijos.
+     *
+     * @param lista Lista en la cual se agregan los datos en inorden.
+     */
+    public void inOrden(List<T> lista) {
+        for(int i = 0; i < numClaves; i++) {
+            if(!esHoja()) {
+                hijos[i].inOrden(lista);
+            }
+            lista.add(getDato(i));
+        }
+        if(!esHoja()) {
+            hijos[numClaves].inOrden(lista);
+        }
+    }
+
+    /**
+     * Realiza un recorrido en postorden del nodo y sus hijos.
+     *
+     * @param lista Lista en la cual se agregan los datos en postorden.
+     */
+    public void postOrden(List<T> lista) {
+        if(!esHoja()) {
+            for(int i = 0; i <= numClaves; i++) {
+                hijos[i].postOrden(lista);
+            }
+        }
+        for(int i = 0; i < numClaves; i++) {
+            lista.add(getDato(i));
+        }
+    }
+}
@@ -0,0 +1,501 @@
+package Proyecto.Package;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+@SuppressWarnings({"rawtypes"})
+/**
+ * Clase que representa un nodo de un árbol B+. Los nodos internos solo guardan claves que dirigen la búsqueda:
+ * la clave i es la menor clave del subárbol del hijo i + 1. Los datos se guardan únicamente en las hojas, que
+ * además están enlazadas con sus hojas vecinas para recorrerlas en orden sin volver a subir por el árbol.
+ *
+ * Igual que en TElementoBEntero, los arreglos tienen lugar para una clave de desborde, que se resuelve dividiendo
+ * el nodo al volver del descenso de la inserción.
+ *
+ * @param <T> Tipo de dato que se almacena en las hojas.
+ */
+public class TElementoBMas<T> implements Serializable {
+    private Comparable[] claves;                  //Claves ordenadas del nodo
+    private Object[] datos;                       //Datos asociados a cada clave, null si el nodo es interno
+    private TElementoBMas<T>[] hijos;             //Hijos del nodo, null si el nodo es una hoja
+    private int numClaves;                        //Cantidad de claves ocupadas
+    private int t;                                //Grado mínimo del árbol
+    private boolean busquedaBinaria;              //Indica si las claves se localizan con búsqueda binaria
+    private transient TElementoBMas<T> anterior;  //Hoja anterior en el orden de las claves
+    private transient TElementoBMas<T> siguiente; //Hoja siguiente en el orden de las claves
+
+    @SuppressWarnings("unchecked")
+    public TElementoBMas(int t, boolean hoja) {
+        this.t = t;
+        this.claves = new Comparable[2 * t];
+        this.datos = hoja ? new Object[2 * t] : null;
+        this.hijos = hoja ? null : (TElementoBMas<T>[]) new TElementoBMas[2 * t + 1];
+        this.numClaves = 0;
+        this.busquedaBinaria = 2 * t - 1 >= TElementoB.UMBRAL_BUSQUEDA_BINARIA;
+    }
+
+    /**
+     * Indica si el nodo es una hoja.
+     *
+     * @return Verdadero si el nodo no tiene hijos.
+     */
+    public boolean esHoja() {
+        return hijos == null;
+    }
+
+    /**
+     * Obtiene el número de claves en el nodo.
+     *
+     * @return Número de claves en el nodo.
+     */
+    public int getNumClaves() {
+        return numClaves;
+    }
+
+    /**
+     * Obtiene la clave en la posición dada.
+     *
+     * @param i Posición de la clave.
+     * @return La clave en la posición i.
+     */
+    public Comparable getClave(int i) {
+        return claves[i];
+    }
+
+    /**
+     * Obtiene el dato en la posición dada de una hoja.
+     *
+     * @param i Posición del dato.
+     * @return El dato asociado a la clave en la posición i.
+     */
+    @SuppressWarnings("unchecked")
+    public T getDato(int i) {
+        return (T) datos[i];
+    }
+
+    /**
+     * Obtiene el hijo en la posición dada de un nodo interno.
+     *
+     * @param i Posición del hijo.
+     * @return El hijo en la posición i.
+     */
+    public TElementoBMas<T> getHijo(int i) {
+        return hijos[i];
+    }
+
+    /**
+     * Obtiene la hoja anterior en el orden de las claves.
+     *
+     * @return La hoja anterior, o null si esta es la primera hoja.
+     */
+    public TElementoBMas<T> getAnterior() {
+        return anterior;
+    }
+
+    /**
+     * Obtiene la hoja siguiente en el orden de las claves.
+     *
+     * @return La hoja siguiente, o null si esta es la última hoja.
+     */
+    public TElementoBMas<T> getSiguiente() {
+        return siguiente;
+    }
+
+    /**
+     * Encuentra el índice de la primera clave del nodo mayor o igual a la clave dada.
+     *
+     * @param clave La clave a buscar.
+     * @return El índice de la clave en el nodo, o el índice donde debería estar si no está presente.
+     *
+     * Orden de tiempo de ejecución: O(log t) con búsqueda binaria, O(t) con recorrido lineal.
+     */
+    public int encontrarClave(Comparable clave) {
+        if(busquedaBinaria) {
+            int inferior = 0;
+            int superior = numClaves;
+            while(inferior < superior) {
+                int medio = (inferior + superior) >>> 1;
+                if(TElementoB.comparar(claves[medio], clave) < 0) {
+                    inferior = medio + 1;
+                } else {
+                    superior = medio;
+                }
+            }
+            return inferior;
+        }
+        int indice = 0;
+        while(indice < numClaves && TElementoB.comparar(claves[indice], clave) < 0) {
+            indice++;
+        }
+        return indice;
+    }
+
+    /**
+     * Obtiene la posición del hijo de un nodo interno por el que continúa la búsqueda de la clave dada, que es la
+     * cantidad de claves del nodo menores o iguales a ella.
+     *
+     * @param clave La clave a buscar.
+     * @return La posición del hijo cuyo subárbol puede contener la clave.
+     */
+    public int indiceHijo(Comparable clave) {
+        int i = encontrarClave(clave);
+        if(i < numClaves && TElementoB.comparar(claves[i], clave) == 0) {
+            i++;
+        }
+        return i;
+    }
+
+    /**
+     * Busca la hoja del subárbol cuya raíz es el nodo actual donde está, o debería estar, la clave dada.
+     *
+     * @param clave La clave a buscar.
+     * @return La hoja correspondiente a la clave.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    public TElementoBMas<T> buscarHoja(Comparable clave) {
+        TElementoBMas<T> actual = this;
+        while(!actual.esHoja()) {
+            actual = actual.hijos[actual.indiceHijo(clave)];
+        }
+        return actual;
+    }
+
+    /**
+     * Busca el dato asociado a la clave dada en el subárbol cuya raíz es el nodo actual.
+     *
+     * @param clave La clave a buscar.
+     * @return El dato asociado a la clave, o null si la clave no está en el subárbol.
+     *
+     * Orden de tiempo de ejecución: O(log n)
+     */
+    public T buscar(Comparable clave) {
+        TElementoBMas<T> hoja = buscarHoja(clave);
+        int i = hoja.encontrarClave(clave);
+        if(i < hoja.numClaves && TElementoB.comparar(hoja.claves[i], clave) == 0) {
+            return hoja.getDato(i);
+        }
+        return null;
+    }
+
+    /**
+     * Inserta una clave y su dato en el subárbol cuya raíz es el nodo actual con un único descenso. Si la clave
+     * ya existe no se modifica ningún nodo; los hijos que quedan desbordados se dividen al volver del descenso.
+     *
+     * @param clave La clave del elemento a insertar.
+     * @param dato El dato asociado al elemento a insertar.
+     * @return Verdadero si la clave fue insertada, falso si ya existía en el subárbol.
+     *
+     * Postcondiciones:
+     * - Si se insertó, el nodo actual puede quedar desbordado y debe dividirlo su padre, o dividirRaiz
+     *   si es la raíz.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    public boolean insertar(Comparable clave, T dato) {
+        if(esHoja()) {
+            int i = encontrarClave(clave);
+            if(i < numClaves && TElementoB.comparar(claves[i], clave) == 0) {
+                return false;
+            }
+            System.arraycopy(claves, i, claves, i + 1, numClaves - i);
+            System.arraycopy(datos, i, datos, i + 1, numClaves - i);
+            claves[i] = clave;
+            datos[i] = dato;
+            numClaves++;
+            return true;
+        }
+
+        int i = indiceHijo(clave);
+        if(!hijos[i].insertar(clave, dato)) {
+            return false;
+        }
+        if(hijos[i].estaDesbordado()) {
+            dividirHijo(i);
+        }
+        return true;
+    }
+
+    /**
+     * Indica si el nodo tiene una clave más que el máximo permitido (2t - 1).
+     *
+     * @return Verdadero si el nodo debe dividirse.
+     */
+    public boolean estaDesbordado() {
+        return numClaves > 2 * t - 1;
+    }
+
+    /**
+     * Divide el hijo desbordado en la posición i. Si el hijo es una hoja, cada mitad queda con t claves y la
+     * primera clave de la mitad derecha se copia al nodo actual como separadora; si es un nodo interno, la clave
+     * mediana sube al nodo actual y deja de estar en el hijo.
+     *
+     * @param i El índice del hijo desbordado.
+     *
+     * Postcondiciones:
+     * - El nodo actual tiene una clave y un hijo más, por lo que puede quedar desbordado.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    public void dividirHijo(int i) {
+        TElementoBMas<T> hijo = hijos[i];
+        TElementoBMas<T> nuevo = new TElementoBMas<>(t, hijo.esHoja());
+        Comparable separadora;
+
+        if(hijo.esHoja()) {
+            System.arraycopy(hijo.claves, t, nuevo.claves, 0, t);
+            System.arraycopy(hijo.datos, t, nuevo.datos, 0, t);
+            Arrays.fill(hijo.claves, t, 2 * t, null);
+            Arrays.fill(hijo.datos, t, 2 * t, null);
+            nuevo.numClaves = t;
+            hijo.numClaves = t;
+            separadora = nuevo.claves[0];
+
+            //Enlazamos la nueva hoja entre el hijo y su siguiente
+            nuevo.siguiente = hijo.siguiente;
+            if(hijo.siguiente != null) {
+                hijo.siguiente.anterior = nuevo;
+            }
+            hijo.siguiente = nuevo;
+            nuevo.anterior = hijo;
+        } else {
+            separadora = hijo.claves[t];
+            System.arraycopy(hijo.claves, t + 1, nuevo.claves, 0, t - 1);
+            System.arraycopy(hijo.hijos, t + 1, nuevo.hijos, 0, t);
+            Arrays.fill(hijo.claves, t, 2 * t, null);
+            Arrays.fill(hijo.hijos, t + 1, 2 * t + 1, null);
+            nuevo.numClaves = t - 1;
+            hijo.numClaves = t;
+        }
+
+        System.arraycopy(claves, i, claves, i + 1, numClaves - i);
+        System.arraycopy(hijos, i + 1, hijos, i + 2, numClaves - i);
+        claves[i] = separadora;
+        hijos[i + 1] = nuevo;
+        numClaves++;
+    }
+
+    /**
+     * Crea una nueva raíz cuyo único hijo es el nodo actual y divide el nodo actual.
+     *
+     * @return La nueva raíz, con una clave y dos hijos.
+     *
+     * Precondiciones:
+     * - El nodo actual debe estar desbordado y ser la raíz del árbol.
+     *
+     * Orden de tiempo de ejecución: O(t)
+     */
+    public TElementoBMas<T> dividirRaiz() {
+        TElementoBMas<T> nuevaRaiz = new TElementoBMas<>(t, false);
+        nuevaRaiz.hijos[0] = this;
+        nuevaRaiz.dividirHijo(0);
+        return nuevaRaiz;
+    }
+
+    /**
+     * Elimina la clave dada del subárbol cuya raíz es el nodo actual. Los hijos que quedan con menos de t - 1
+     * claves se completan al volver del descenso.
+     *
+     * @param clave La clave a eliminar.
+     * @return Verdadero si la clave estaba en el subárbol y fue eliminada, falso en caso contrario.
+     *
+     * Orden de tiempo de ejecución: O(t log n)
+     */
+    public boolean eliminar(Comparable clave) {
+        if(esHoja()) {
+            int i = encontrarClave(clave);
+            if(i >= numClaves || TElementoB.comparar(claves[i], clave) != 0) {
+                return false;
+            }
+            System.arraycopy(claves, i + 1, claves, i, numClaves - i - 1);
+            System.arraycopy(datos, i + 1, datos, i, numClaves - i - 1);
+            numClaves--;
+            claves[numClaves] = null;
+            datos[numClaves] = null;
+            return true;
+        }
+
+        int i = indiceHijo(clave);
+        if(!hijos[i].eliminar(clave)) {
+            return false;
+        }
+        if(hijos[i].numClaves < t - 1) {
+            rellenar(i);
+        }
+        return true;
+    }
+
+    /**
+     * Completa el hijo en la posición dada tomando una clave prestada de un hermano, o combinándolo con uno si
+     * ninguno tiene claves de sobra.
+     *
+     * @param i La posición del hijo a completar.
+     */
+    private void rellenar(int i) {
+        if(i > 0 && hijos[i - 1].numClaves > t - 1) {
+            tomarPrestadoDeAnterior(i);
+        } else if(i < numClaves && hijos[i + 1].numClaves > t - 1) {
+            tomarPrestadoDeSiguiente(i);
+        } else if(i > 0) {
+            combinar(i - 1);
+        } else {
+            combinar(i);
+        }
+    }
+
+    private void tomarPrestadoDeAnterior(int i) {
+        TElementoBMas<T> hijo = hijos[i];
+        TElementoBMas<T> hermano = hijos[i - 1];
+        int ultima = hermano.numClaves - 1;
+
+        System.arraycopy(hijo.claves, 0, hijo.claves, 1, hijo.numClaves);
+        if(hijo.esHoja()) {
+            //La última entrada del hermano pasa al hijo y pasa a ser la separadora
+            System.arraycopy(hijo.datos, 0, hijo.datos, 1, hijo.numClaves);
+            hijo.claves[0] = hermano.claves[ultima];
+            hijo.datos[0] = hermano.datos[ultima];
+            hermano.datos[ultima] = null;
+            claves[i - 1] = hijo.claves[0];
+        } else {
+            //La separadora baja al hijo y la última clave del hermano sube en su lugar
+            System.arraycopy(hijo.hijos, 0, hijo.hijos, 1, hijo.numClaves + 1);
+            hijo.claves[0] = claves[i - 1];
+            hijo.hijos[0] = hermano.hijos[ultima + 1];
+            hermano.hijos[ultima + 1] = null;
+            claves[i - 1] = hermano.claves[ultima];
+        }
+        hermano.claves[ultima] = null;
+        hermano.numClaves--;
+        hijo.numClaves++;
+    }
+
+    private void tomarPrestadoDeSiguiente(int i) {
+        TElementoBMas<T> hijo = hijos[i];
+        TElementoBMas<T> hermano = hijos[i + 1];
+
+        if(hijo.esHoja()) {
+            //La primera entrada del hermano pasa al hijo y la nueva primera del hermano es la separadora
+            hijo.claves[hijo.numClaves] = hermano.claves[0];
+            hijo.datos[hijo.numClaves] = hermano.datos[0];
+            System.arraycopy(hermano.datos, 1, hermano.datos, 0, hermano.numClaves - 1);
+            hermano.datos[hermano.numClaves - 1] = null;
+            System.arraycopy(hermano.claves, 1, hermano.claves, 0, hermano.numClaves - 1);
+            claves[i] = hermano.claves[0];
+        } else {
+            //La separadora baja al hijo y la primera clave del hermano sube en su lugar
+            hijo.claves[hijo.numClaves] = claves[i];
+            hijo.hijos[hijo.numClaves + 1] = hermano.hijos[0];
+            claves[i] = hermano.claves[0];
+            System.arraycopy(hermano.claves, 1, hermano.claves, 0, hermano.numClaves - 1);
+            System.arraycopy(hermano.hijos, 1, hermano.hijos, 0, hermano.numClaves);
+            hermano.hijos[hermano.numClaves] = null;
+        }
+        hermano.claves[hermano.numClaves - 1] = null;
+        hermano.numClaves--;
+        hijo.numClaves++;
+    }
+
+    /**
+     * Combina el hijo en la posición dada con su hermano siguiente y quita del nodo actual la clave que los separa.
+     *
+     * @param i La posición del hijo izquierdo.
+     */
+    private void combinar(int i) {
+        TElementoBMas<T> izquierdo = hijos[i];
+        TElementoBMas<T> derecho = hijos[i + 1];
+
+        if(izquierdo.esHoja()) {
+            izquierdo.absorberSiguiente();
+        } else {
+            int n = izquierdo.numClaves;
+            izquierdo.claves[n] = claves[i];
+            System.arraycopy(derecho.claves, 0, izquierdo.claves, n + 1, derecho.numClaves);
+            System.arraycopy(derecho.hijos, 0, izquierdo.hijos, n + 1, derecho.numClaves + 1);
+            izquierdo.numClaves += derecho.numClaves + 1;
+        }
+
+        System.arraycopy(claves, i + 1, claves, i, numClaves - i - 1);
+        System.arraycopy(hijos, i + 2, hijos, i + 1, numClaves - i - 1);
+        claves[numClaves - 1] = null;
+        hijos[numClaves] = null;
+        numClaves--;
+    }
+
+    /**
+     * Mueve todas las entradas de la hoja siguiente al final de esta hoja y quita la hoja siguiente de la lista
+     * de hojas.
+     *
+     * Precondiciones:
+     * - Ambas hojas deben caber en una sola hoja.
+     */
+    void absorberSiguiente() {
+        TElementoBMas<T> derecha = siguiente;
+        System.arraycopy(derecha.claves, 0, claves, numClaves, derecha.numClaves);
+        System.arraycopy(derecha.datos, 0, datos, numClaves, derecha.numClaves);
+        numClaves += derecha.numClaves;
+
+        siguiente = derecha.siguiente;
+        if(siguiente != null) {
+            siguiente.anterior = this;
+        }
+        derecha.siguiente = null;
+        derecha.anterior = null;
+    }
+
+    /**
+     * Mueve las últimas entradas de esta hoja al principio de la hoja siguiente.
+     *
+     * @param cantidad Cantidad de entradas a mover.
+     */
+    void moverUltimasASiguiente(int cantidad) {
+        TElementoBMas<T> derecha = siguiente;
+        System.arraycopy(derecha.claves, 0, derecha.claves, cantidad, derecha.numClaves);
+        System.arraycopy(derecha.datos, 0, derecha.datos, cantidad, derecha.numClaves);
+        System.arraycopy(claves, numClaves - cantidad, derecha.claves, 0, cantidad);
+        System.arraycopy(datos, numClaves - cantidad, derecha.datos, 0, cantidad);
+        Arrays.fill(claves, numClaves - cantidad, numClaves, null);
+        Arrays.fill(datos, numClaves - cantidad, numClaves, null);
+        numClaves -= cantidad;
+        derecha.numClaves += cantidad;
+    }
+
+    /**
+     * Agrega una clave y su dato al final de una hoja. Lo utiliza la carga masiva, que recibe las claves ordenadas.
+     *
+     * @param clave La clave a agregar, mayor que todas las claves de la hoja.
+     * @param dato El dato asociado a la clave.
+     */
+    void agregarAlFinal(Comparable clave, Object dato) {
+        claves[numClaves] = clave;
+        datos[numClaves] = dato;
+        numClaves++;
+    }
+
+    /**
+     * Agrega un hijo al final de un nodo interno. Lo utiliza la carga masiva.
+     *
+     * @param separadora La menor clave del subárbol del hijo, o null si es el primer hijo del nodo.
+     * @param hijo El hijo a agregar.
+     */
+    void agregarHijoAlFinal(Comparable separadora, TElementoBMas<T> hijo) {
+        if(separadora == null) {
+            hijos[0] = hijo;
+        } else {
+            claves[numClaves] = separadora;
+            hijos[numClaves + 1] = hijo;
+            numClaves++;
+        }
+    }
+
+    /**
+     * Enlaza esta hoja con la hoja que la sigue en el orden de las claves.
+     *
+     * @param hoja La hoja siguiente, o null si esta es la última hoja.
+     */
+    void enlazarSiguiente(TElementoBMas<T> hoja) {
+        this.siguiente = hoja;
+        if(hoja != null) {
+            hoja.anterior = this;
+        }
+    }
+}
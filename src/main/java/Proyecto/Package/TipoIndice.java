@@ -0,0 +1,103 @@
+package Proyecto.Package;
+
+import java.util.Iterator;
+import java.util.Map;
+
+/**
+ * Estructuras que BaseDeDatos puede usar como índice de los registros por id.
+ */
+public enum TipoIndice {
+    /**
+     * Árbol B genérico, con datos en todos los nodos.
+     */
+    ARBOL_B {
+        @Override
+        public <T> IArbolB<T> crear(int t) {
+            return new TArbolB<>(t);
+        }
+
+        @Override
+        public <T> IArbolB<T> construir(int t, Iterator<? extends Map.Entry<Integer, ? extends T>> entradasOrdenadas, double factorLlenado) {
+            return CargadorMasivoArbolB.construir(t, entradasOrdenadas, factorLlenado);
+        }
+    },
+    /**
+     * Árbol B especializado en claves enteras, que guarda los ids sin encapsularlos.
+     */
+    ARBOL_B_ENTERO {
+        @Override
+        public <T> IArbolB<T> crear(int t) {
+            return new TArbolBEntero<>(t);
+        }
+
+        @Override
+        public <T> IArbolB<T> construir(int t, Iterator<? extends Map.Entry<Integer, ? extends T>> entradasOrdenadas, double factorLlenado) {
+            return CargadorMasivoArbolB.construirEnteroDesdeEntradas(t, entradasOrdenadas, factorLlenado);
+        }
+    },
+    /**
+     * Árbol B+, con los datos solo en las hojas y las hojas enlazadas, pensado para recorridos y rangos largos.
+     */
+    ARBOL_B_MAS {
+        @Override
+        public <T> IArbolB<T> crear(int t) {
+            return new TArbolBMas<>(t);
+        }
+
+        @Override
+        public <T> IArbolB<T> construir(int t, Iterator<? extends Map.Entry<Integer, ? extends T>> entradasOrdenadas, double factorLlenado) {
+            return CargadorMasivoArbolB.construirMas(t, entradasOrdenadas, factorLlenado);
+        }
+    },
+    /**
+     * Árbol B con un latch por nodo, que admite búsquedas en paralelo y escrituras concurrentes en subárboles
+     * distintos sin un lock global.
+     */
+    ARBOL_B_CONCURRENTE {
+        @Override
+        public <T> IArbolB<T> crear(int t) {
+            return new TArbolBConcurrente<>(t);
+        }
+
+        @Override
+        public <T> IArbolB<T> construir(int t, Iterator<? extends Map.Entry<Integer, ? extends T>> entradasOrdenadas, double factorLlenado) {
+            TArbolB<T> arbol = CargadorMasivoArbolB.construir(t, entradasOrdenadas, factorLlenado);
+            return new TArbolBConcurrente<>(t, arbol.getRaiz());
+        }
+
+        @Override
+        public boolean esConcurrente() {
+            return true;
+        }
+    };
+
+    /**
+     * Indica si los índices de este tipo admiten operaciones concurrentes de varios hilos sin sincronización
+     * externa.
+     *
+     * @return Verdadero si el índice es seguro para uso concurrente.
+     */
+    public boolean esConcurrente() {
+        return false;
+    }
+
+    /**
+     * Crea un índice vacío de este tipo.
+     *
+     * @param t Grado mínimo del índice.
+     * @return El índice vacío.
+     */
+    public abstract <T> IArbolB<T> crear(int t);
+
+    /**
+     * Construye un índice de este tipo de abajo hacia arriba con CargadorMasivoArbolB.
+     *
+     * @param t Grado mínimo del índice.
+     * @param entradasOrdenadas Pares (id, dato) ordenados de forma ascendente por id.
+     * @param factorLlenado Fracción de cada hoja del índice que se ocupa, en el intervalo (0, 1].
+     * @return El índice construido.
+     *
+     * Orden de tiempo de ejecución: O(n)
+     */
+    public abstract <T> IArbolB<T> construir(int t, Iterator<? extends Map.Entry<Integer, ? extends T>> entradasOrdenadas, double factorLlenado);
+}
@@ -0,0 +1,480 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+public class BaseDeDatosTest {
+
+    @Test
+    public void testRegistrosSobreInstantanea() {
+        BaseDeDatos baseDeDatos = new BaseDeDatos(2, TipoIndice.ARBOL_B);
+        for(int i = 0; i < 1000; i++) {
+            baseDeDatos.insertarRegistro(i, "dato " + i);
+        }
+        Iterator<RegistroBD> registros = baseDeDatos.registros().iterator();
+        //Las escrituras no esperan al recorrido ni lo alteran
+        for(int i = 0; i < 1000; i += 2) {
+            baseDeDatos.eliminarRegistro(i);
+            baseDeDatos.insertarRegistro(i + 1000, "nuevo");
+        }
+        int cantidad = 0;
+        while(registros.hasNext()) {
+            assertEquals(cantidad++, registros.next().getId());
+        }
+        assertEquals(1000, cantidad);
+        assertEquals(1000, baseDeDatos.listarRegistrosInOrden().size());
+        assertNull(baseDeDatos.buscarRegistro(0));
+    }
+
+    @Test
+    public void testListadosPorDefectoMientrasSeInserta() throws Exception {
+        BaseDeDatos baseDeDatos = new BaseDeDatos(3);
+        for(int i = 0; i < 5000; i++) {
+            baseDeDatos.insertarRegistro(i, "dato " + i);
+        }
+        Iterator<RegistroBD> registros = baseDeDatos.registros().iterator();
+        ExecutorService ejecutor = Executors.newSingleThreadExecutor();
+        Future<?> escritor = ejecutor.submit(() -> {
+            for(int i = 5000; i < 60000; i++) {
+                baseDeDatos.insertarRegistro(i, "dato " + i);
+            }
+        });
+        //El recorrido empezado antes de las escrituras solo ve los registros de entonces
+        int cantidad = 0;
+        while(registros.hasNext()) {
+            assertEquals(cantidad++, registros.next().getId());
+        }
+        assertEquals(5000, cantidad);
+        //Cada listado es un estado de la base de datos: los ids se insertan en orden, así que no puede faltar ninguno
+        int listados = 0;
+        while(!escritor.isDone() || listados == 0) {
+            List<RegistroBD> listado = baseDeDatos.listarRegistrosInOrden();
+            assertTrue(listado.size() >= 5000);
+            for(int i = 0; i < listado.size(); i++) {
+                assertEquals(i, listado.get(i).getId());
+            }
+            assertTrue(baseDeDatos.listarRegistrosPreOrden().size() >= listado.size());
+            listados++;
+        }
+        escritor.get();
+        ejecutor.shutdown();
+        assertEquals(60000, baseDeDatos.registros().count());
+        assertEquals(60000, baseDeDatos.contarRegistros(registro -> true));
+    }
+
+    @Test
+    public void testIndicePorDefectoRecibeLosIdsSinEncapsular() {
+        //Índice que falla si BaseDeDatos usa las operaciones por Comparable en lugar de las de int
+        TArbolBEntero<RegistroBD> indice = new TArbolBEntero<>(3) {
+            @Override
+            public boolean insertar(Comparable etiqueta, RegistroBD dato) {
+                return fail("insertar encapsuló el id " + etiqueta);
+            }
+
+            @Override
+            public RegistroBD buscar(Comparable etiqueta) {
+                return fail("buscar encapsuló el id " + etiqueta);
+            }
+
+            @Override
+            public boolean eliminar(Comparable etiqueta) {
+                return fail("eliminar encapsuló el id " + etiqueta);
+            }
+        };
+        BaseDeDatos baseDeDatos = new BaseDeDatos(3, TipoIndice.ARBOL_B_ENTERO, 1, indice);
+        for(int i = 0; i < 200; i++) {
+            baseDeDatos.insertarRegistro(i, "dato " + i);
+        }
+        baseDeDatos.insertarRegistro(5, "repetido");
+        assertEquals("dato 5", baseDeDatos.buscarRegistro(5).getData());
+        assertNull(baseDeDatos.buscarRegistro(500));
+        assertTrue(baseDeDatos.eliminarRegistro(5));
+        assertFalse(baseDeDatos.eliminarRegistro(5));
+        baseDeDatos.usarCache(16, PoliticaCache.LRU);
+        assertEquals("dato 7", baseDeDatos.buscarRegistro(7).getData());
+        assertEquals("dato 7", baseDeDatos.buscarRegistro(7).getData());
+        assertEquals(1, baseDeDatos.getAciertosCache());
+        assertEquals(199, baseDeDatos.cantidadRegistros());
+    }
+
+    @Test
+    public void testPaginas() {
+        List<BaseDeDatos> bases = new ArrayList<>();
+        for(TipoIndice tipo : TipoIndice.values()) {
+            bases.add(new BaseDeDatos(3, tipo));
+        }
+        bases.add(new BaseDeDatos(3, TipoIndice.ARBOL_B, 4));
+        for(BaseDeDatos baseDeDatos : bases) {
+            for(int i = 0; i < 2000; i++) {
+                baseDeDatos.insertarRegistro(i * 2, "dato " + i);
+            }
+            baseDeDatos.eliminarRegistro(10);
+            assertEquals(1999, baseDeDatos.cantidadRegistros());
+            assertEquals(0, baseDeDatos.posicionDeRegistro(-5));
+            assertEquals(5, baseDeDatos.posicionDeRegistro(11));
+            assertEquals(5, baseDeDatos.posicionDeRegistro(12));
+            assertEquals(12, baseDeDatos.registroEnPosicion(5).getId());
+            assertThrows(IndexOutOfBoundsException.class, () -> baseDeDatos.registroEnPosicion(1999));
+
+            //Una posición se convierte en el token de una página con registroEnPosicion
+            List<RegistroBD> todos = baseDeDatos.listarRegistrosInOrden();
+            int desdeId = baseDeDatos.registroEnPosicion(1000).getId();
+            assertEquals(todos.subList(1000, 1020), baseDeDatos.listarRegistros(desdeId, 20).getRegistros());
+            desdeId = baseDeDatos.registroEnPosicion(1990).getId();
+            PaginaRegistros ultima = baseDeDatos.listarRegistros(desdeId, 20);
+            assertEquals(todos.subList(1990, 1999), ultima.getRegistros());
+            assertFalse(ultima.tieneSiguiente());
+
+            //Un tamaño de página enorme pide todos los registros sin reservar una lista de ese tamaño
+            PaginaRegistros completa = baseDeDatos.listarRegistros(Integer.MAX_VALUE);
+            assertEquals(todos, completa.getRegistros());
+            assertFalse(completa.tieneSiguiente());
+            assertEquals(todos.subList(1000, 1999), baseDeDatos.listarRegistros(todos.get(1000).getId(),
+                    Integer.MAX_VALUE).getRegistros());
+        }
+    }
+
+    @Test
+    public void testPaginasPorToken() {
+        List<BaseDeDatos> bases = new ArrayList<>();
+        for(TipoIndice tipo : TipoIndice.values()) {
+            bases.add(new BaseDeDatos(3, tipo));
+        }
+        bases.add(new BaseDeDatos(3, TipoIndice.ARBOL_B, 4));
+        for(BaseDeDatos baseDeDatos : bases) {
+            for(int i = 0; i < 1000; i++) {
+                baseDeDatos.insertarRegistro(i * 3, "dato " + i);
+            }
+            List<RegistroBD> esperado = baseDeDatos.listarRegistrosInOrden();
+            List<RegistroBD> recorridos = new ArrayList<>();
+            PaginaRegistros pagina = baseDeDatos.listarRegistros(64);
+            while(true) {
+                assertTrue(pagina.getRegistros().size() <= 64);
+                recorridos.addAll(pagina.getRegistros());
+                if(!pagina.tieneSiguiente()) {
+                    break;
+                }
+                pagina = baseDeDatos.listarRegistros(pagina.getSiguienteId(), 64);
+            }
+            assertEquals(esperado, recorridos);
+
+            //Los cambios entre dos pedidos no repiten ni saltean los registros que no cambiaron
+            pagina = baseDeDatos.listarRegistros(300, 10);
+            assertEquals(300, pagina.getRegistros().get(0).getId());
+            assertEquals(330, pagina.getSiguienteId());
+            baseDeDatos.eliminarRegistro(330);
+            baseDeDatos.insertarRegistro(301, "anterior");
+            pagina = baseDeDatos.listarRegistros(pagina.getSiguienteId(), 10);
+            assertEquals(333, pagina.getRegistros().get(0).getId());
+
+            pagina = baseDeDatos.listarRegistros(2997, 10);
+            assertEquals(1, pagina.getRegistros().size());
+            assertFalse(pagina.tieneSiguiente());
+            assertTrue(baseDeDatos.listarRegistros(5000, 10).getRegistros().isEmpty());
+            assertThrows(IllegalArgumentException.class, () -> baseDeDatos.listarRegistros(0));
+        }
+    }
+
+    @Test
+    public void testParticionadaConcurrente() throws Exception {
+        BaseDeDatos baseDeDatos = new BaseDeDatos(3, TipoIndice.ARBOL_B_ENTERO, 4);
+        assertEquals(4, baseDeDatos.getParticiones());
+        BaseDeDatos otra = new BaseDeDatos(2);
+        for(int i = 0; i < 1000; i++) {
+            otra.insertarRegistro(-1 - i, "otra " + i);
+        }
+        ExecutorService ejecutor = Executors.newFixedThreadPool(4);
+        List<Future<?>> tareas = new ArrayList<>();
+        for(int h = 0; h < 4; h++) {
+            int hilo = h;
+            tareas.add(ejecutor.submit(() -> {
+                for(int i = hilo; i < 20000; i += 4) {
+                    baseDeDatos.insertarRegistro(i, "dato " + i);
+                    if(i == 10000) {
+                        baseDeDatos.merge(otra);
+                    }
+                    if(i % 10 == 0) {
+                        assertTrue(baseDeDatos.eliminarRegistro(i));
+                    }
+                    //Los listados concurrentes siguen ordenados por id
+                    if(i % 1000 == 0) {
+                        int anterior = Integer.MIN_VALUE;
+                        for(RegistroBD registro : baseDeDatos.buscarRegistrosEnRango(i - 500, i)) {
+                            assertTrue(registro.getId() > anterior);
+                            anterior = registro.getId();
+                        }
+                    }
+                }
+            }));
+        }
+        for(Future<?> tarea : tareas) {
+            tarea.get(1, TimeUnit.MINUTES);
+        }
+        ejecutor.shutdown();
+
+        List<Integer> esperados = new ArrayList<>();
+        for(int i = -1000; i < 20000; i++) {
+            if(i < 0 || i % 10 != 0) {
+                esperados.add(i);
+            }
+        }
+        assertEquals(esperados, baseDeDatos.registros().map(RegistroBD::getId).toList());
+        assertEquals("otra 5", baseDeDatos.buscarRegistro(-6).getData());
+        assertNull(baseDeDatos.buscarRegistro(20));
+        assertEquals(esperados.size(), baseDeDatos.listarRegistrosInOrden().size());
+        assertEquals(esperados.size(), baseDeDatos.cantidadRegistros());
+    }
+
+    @Test
+    public void testParticionadaContraTreeMap() {
+        for(TipoIndice tipo : TipoIndice.values()) {
+            BaseDeDatos baseDeDatos = new BaseDeDatos(3, tipo, 4);
+            TreeMap<Integer, String> esperado = new TreeMap<>();
+            Random random = new Random(tipo.ordinal());
+            for(int ronda = 0; ronda < 3000; ronda++) {
+                //Ids negativos incluidos, que también deben repartirse entre las particiones
+                int id = random.nextInt(3500) - 500;
+                int operacion = random.nextInt(10);
+                if(operacion < 5) {
+                    baseDeDatos.insertarRegistro(id, "dato " + ronda);
+                    esperado.putIfAbsent(id, "dato " + ronda);
+                } else if(operacion < 8) {
+                    assertEquals(esperado.remove(id) != null, baseDeDatos.eliminarRegistro(id));
+                } else if(operacion == 8) {
+                    List<RegistroBD> lote = new ArrayList<>();
+                    for(int i = 0; i < 20; i++) {
+                        lote.add(new RegistroBD(id + i, "lote " + ronda));
+                    }
+                    int insertados = 0;
+                    for(RegistroBD registro : lote) {
+                        insertados += esperado.putIfAbsent(registro.getId(), registro.getData()) == null ? 1 : 0;
+                    }
+                    assertEquals(insertados, baseDeDatos.insertarRegistros(lote));
+                } else {
+                    int[] ids = new int[20];
+                    int eliminados = 0;
+                    for(int i = 0; i < ids.length; i++) {
+                        ids[i] = id + 3 * i;
+                        eliminados += esperado.remove(ids[i]) != null ? 1 : 0;
+                    }
+                    assertEquals(eliminados, baseDeDatos.eliminarRegistros(ids));
+                }
+                if(ronda % 500 == 0) {
+                    verificarContraTreeMap(baseDeDatos, esperado, random);
+                }
+            }
+            verificarContraTreeMap(baseDeDatos, esperado, random);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new BaseDeDatos(3, TipoIndice.ARBOL_B, 0));
+    }
+
+    /**
+     * Compara los listados, rangos, páginas, posiciones y reducciones de la base de datos con los del mapa.
+     */
+    private static void verificarContraTreeMap(BaseDeDatos baseDeDatos, TreeMap<Integer, String> esperado, Random random) {
+        List<Integer> ids = new ArrayList<>(esperado.keySet());
+        assertEquals(ids, baseDeDatos.registros().map(RegistroBD::getId).toList());
+        assertEquals(ids, baseDeDatos.listarRegistrosInOrden().stream().map(RegistroBD::getId).toList());
+        assertEquals(ids.size(), baseDeDatos.cantidadRegistros());
+        assertEquals(ids.size(), baseDeDatos.contarRegistros(registro -> true));
+        assertEquals(ids.stream().mapToLong(Integer::longValue).sum(),
+                baseDeDatos.reducirRegistros(0L, (suma, registro) -> suma + registro.getId(), Long::sum));
+
+        int desde = random.nextInt(3500) - 500;
+        int hasta = desde + random.nextInt(400);
+        assertEquals(new ArrayList<>(esperado.subMap(desde, true, hasta, true).keySet()),
+                baseDeDatos.buscarRegistrosEnRango(desde, hasta).stream().map(RegistroBD::getId).toList());
+        assertEquals(esperado.subMap(desde, false, hasta, false).descendingKeySet().stream().limit(5).toList(),
+                baseDeDatos.buscarRegistrosEnRango(desde, false, hasta, false, true, 5).stream().map(RegistroBD::getId).toList());
+        assertEquals(esperado.headMap(desde).size(), baseDeDatos.posicionDeRegistro(desde));
+        if(!ids.isEmpty()) {
+            int posicion = random.nextInt(ids.size());
+            assertEquals(ids.get(posicion), baseDeDatos.registroEnPosicion(posicion).getId());
+            assertEquals(esperado.get(ids.get(posicion)), baseDeDatos.buscarRegistro(ids.get(posicion)).getData());
+        }
+
+        List<Integer> paginados = new ArrayList<>();
+        PaginaRegistros pagina = baseDeDatos.listarRegistros(37);
+        while(true) {
+            pagina.getRegistros().forEach(registro -> paginados.add(registro.getId()));
+            if(!pagina.tieneSiguiente()) {
+                break;
+            }
+            pagina = baseDeDatos.listarRegistros(pagina.getSiguienteId(), 37);
+        }
+        assertEquals(ids, paginados);
+    }
+
+    @Test
+    public void testFusionesCruzadasConEscrituras() throws Exception {
+        for(TipoIndice tipo : List.of(TipoIndice.ARBOL_B, TipoIndice.ARBOL_B_CONCURRENTE)) {
+            BaseDeDatos a = new BaseDeDatos(3, TipoIndice.ARBOL_B_MAS);
+            BaseDeDatos b = new BaseDeDatos(3, tipo);
+            for(int i = 0; i < 1000; i++) {
+                a.insertarRegistro(2 * i, "a");
+                b.insertarRegistro(2 * i + 1, "b");
+            }
+            assertThrows(IllegalArgumentException.class, () -> a.merge(a));
+
+            ExecutorService ejecutor = Executors.newFixedThreadPool(3);
+            //Escribe en b mientras se fusiona en un sentido y en el otro; ninguna fusión debe ver a b a medias
+            Future<?> escritor = ejecutor.submit(() -> {
+                Random random = new Random(5);
+                for(int i = 0; i < 20000; i++) {
+                    int id = 2000 + random.nextInt(2000);
+                    if(random.nextBoolean()) {
+                        b.insertarRegistro(id, "b");
+                    } else {
+                        b.eliminarRegistro(id);
+                    }
+                }
+            });
+            Future<?> deBEnA = ejecutor.submit(() -> {
+                for(int i = 0; i < 100; i++) {
+                    a.merge(b);
+                    List<RegistroBD> listado = a.listarRegistrosInOrden();
+                    for(int j = 1; j < listado.size(); j++) {
+                        assertTrue(listado.get(j - 1).getId() < listado.get(j).getId());
+                    }
+                    assertEquals(listado.size(), a.cantidadRegistros());
+                }
+            });
+            Future<?> deAEnB = ejecutor.submit(() -> {
+                for(int i = 0; i < 100; i++) {
+                    b.merge(a);
+                }
+            });
+            escritor.get(1, TimeUnit.MINUTES);
+            deBEnA.get(1, TimeUnit.MINUTES);
+            deAEnB.get(1, TimeUnit.MINUTES);
+            ejecutor.shutdown();
+
+            b.merge(a);
+            a.merge(b);
+            assertEquals(a.registros().map(RegistroBD::getId).toList(), b.registros().map(RegistroBD::getId).toList());
+            for(int i = 0; i < 2000; i++) {
+                assertNotNull(a.buscarRegistro(i));
+            }
+        }
+    }
+
+    @Test
+    public void testCacheSeInvalidaAlModificar() {
+        List<BaseDeDatos> bases = new ArrayList<>();
+        for(TipoIndice tipo : TipoIndice.values()) {
+            bases.add(new BaseDeDatos(3, tipo));
+        }
+        bases.add(new BaseDeDatos(3, TipoIndice.ARBOL_B, 4));
+        for(BaseDeDatos baseDeDatos : bases) {
+            for(PoliticaCache politica : PoliticaCache.values()) {
+                baseDeDatos.usarCache(50, politica);
+                for(int i = 0; i < 200; i++) {
+                    baseDeDatos.insertarRegistro(i, "dato " + i);
+                }
+                for(int vuelta = 0; vuelta < 3; vuelta++) {
+                    for(int i = 0; i < 10; i++) {
+                        assertEquals("dato " + i, baseDeDatos.buscarRegistro(i).getData());
+                    }
+                }
+                assertEquals(20, baseDeDatos.getAciertosCache());
+                assertEquals(10, baseDeDatos.getFallosCache());
+                assertNull(baseDeDatos.buscarRegistro(500));
+
+                assertTrue(baseDeDatos.eliminarRegistro(3));
+                assertNull(baseDeDatos.buscarRegistro(3));
+                baseDeDatos.insertarRegistro(3, "nuevo 3");
+                assertEquals("nuevo 3", baseDeDatos.buscarRegistro(3).getData());
+
+                assertEquals(2, baseDeDatos.eliminarRegistros(new int[]{4, 5}));
+                assertNull(baseDeDatos.buscarRegistro(4));
+                assertEquals(1, baseDeDatos.insertarRegistros(List.of(new RegistroBD(4, "nuevo 4"))));
+                assertEquals("nuevo 4", baseDeDatos.buscarRegistro(4).getData());
+
+                BaseDeDatos otra = new BaseDeDatos(3);
+                otra.insertarRegistro(6, "otro 6");
+                baseDeDatos.buscarRegistro(6);
+                baseDeDatos.merge(otra, PoliticaDuplicados.conservarDerecho());
+                assertEquals("otro 6", baseDeDatos.buscarRegistro(6).getData());
+
+                for(int i = 0; i < 200; i++) {
+                    baseDeDatos.buscarRegistro(i);
+                }
+                assertTrue(baseDeDatos.getDesalojosCache() > 0);
+
+                baseDeDatos.quitarCache();
+                assertEquals(0, baseDeDatos.getAciertosCache());
+                assertEquals("dato 0", baseDeDatos.buscarRegistro(0).getData());
+                baseDeDatos.eliminarRegistros(new int[]{3, 4, 6});
+                baseDeDatos.insertarRegistros(List.of(new RegistroBD(3, "dato 3"), new RegistroBD(4, "dato 4"),
+                        new RegistroBD(5, "dato 5"), new RegistroBD(6, "dato 6")));
+            }
+        }
+    }
+
+    @Test
+    public void testCacheNoDevuelveRegistrosReemplazadosConEscriturasConcurrentes() throws Exception {
+        for(PoliticaCache politica : PoliticaCache.values()) {
+            List<BaseDeDatos> bases = List.of(new BaseDeDatos(3), new BaseDeDatos(3, TipoIndice.ARBOL_B_CONCURRENTE),
+                    new BaseDeDatos(3, TipoIndice.ARBOL_B, 4));
+            for(BaseDeDatos baseDeDatos : bases) {
+                baseDeDatos.usarCache(8, politica);
+                int cantidadIds = 20;
+                AtomicIntegerArray versiones = new AtomicIntegerArray(cantidadIds); //Última versión escrita de cada id
+                for(int id = 0; id < cantidadIds; id++) {
+                    baseDeDatos.insertarRegistro(id, "0");
+                }
+                ExecutorService ejecutor = Executors.newFixedThreadPool(4);
+                AtomicInteger lectoresActivos = new AtomicInteger(3);
+                //El escritor sigue hasta que terminan los lectores, para que todas las lecturas sean concurrentes
+                Future<?> escritor = ejecutor.submit(() -> {
+                    for(int version = 1; lectoresActivos.get() > 0; version++) {
+                        int id = version % cantidadIds;
+                        assertTrue(baseDeDatos.eliminarRegistro(id));
+                        baseDeDatos.insertarRegistro(id, Integer.toString(version));
+                        versiones.set(id, version);
+                    }
+                });
+                List<Future<?>> lectores = new ArrayList<>();
+                for(int h = 0; h < 3; h++) {
+                    int semilla = h;
+                    lectores.add(ejecutor.submit(() -> {
+                        Random random = new Random(semilla);
+                        for(int i = 0; i < 20000; i++) {
+                            int id = random.nextInt(cantidadIds);
+                            int escrita = versiones.get(id);
+                            RegistroBD registro = baseDeDatos.buscarRegistro(id);
+                            //Entre la eliminación y la inserción el id puede no estar, pero nunca con un dato anterior
+                            if(registro != null) {
+                                assertTrue(Integer.parseInt(registro.getData()) >= escrita);
+                            }
+                        }
+                        lectoresActivos.decrementAndGet();
+                    }));
+                }
+                for(Future<?> lector : lectores) {
+                    lector.get(1, TimeUnit.MINUTES);
+                }
+                escritor.get(1, TimeUnit.MINUTES);
+                ejecutor.shutdown();
+                for(int id = 0; id < cantidadIds; id++) {
+                    assertEquals(Integer.toString(versiones.get(id)), baseDeDatos.buscarRegistro(id).getData());
+                }
+                baseDeDatos.buscarRegistro(0);
+                long aciertos = baseDeDatos.getAciertosCache();
+                baseDeDatos.buscarRegistro(0);
+                assertEquals(aciertos + 1, baseDeDatos.getAciertosCache());
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class BitacoraEscrituraTest {
+
+    @TempDir
+    Path directorio;
+
+    private static List<Integer> ids(BaseDeDatos baseDeDatos) {
+        return baseDeDatos.registros().map(RegistroBD::getId).toList();
+    }
+
+    /**
+     * Canal que delega en el del archivo y, desde que se activa fallar, simula un disco que no confirma los datos.
+     */
+    private static class CanalQueFalla extends FileChannel {
+        private final FileChannel canal;
+        private volatile boolean fallar;
+
+        private CanalQueFalla(FileChannel canal) {
+            this.canal = canal;
+        }
+
+        @Override
+        public void force(boolean metadatos) throws IOException {
+            if(fallar) {
+                throw new IOException("Disco lleno");
+            }
+            canal.force(metadatos);
+        }
+
+        @Override
+        public int read(ByteBuffer destino) throws IOException {
+            return canal.read(destino);
+        }
+
+        @Override
+        public long read(ByteBuffer[] destinos, int desde, int cantidad) throws IOException {
+            return canal.read(destinos, desde, cantidad);
+        }
+
+        @Override
+        public int write(ByteBuffer origen) throws IOException {
+            return canal.write(origen);
+        }
+
+        @Override
+        public long write(ByteBuffer[] origenes, int desde, int cantidad) throws IOException {
+            return canal.write(origenes, desde, cantidad);
+        }
+
+        @Override
+        public long position() throws IOException {
+            return canal.position();
+        }
+
+        @Override
+        public FileChannel position(long posicion) throws IOException {
+            canal.position(posicion);
+            return this;
+        }
+
+        @Override
+        public long size() throws IOException {
+            return canal.size();
+        }
+
+        @Override
+        public FileChannel truncate(long tamaño) throws IOException {
+            canal.truncate(tamaño);
+            return this;
+        }
+
+        @Override
+        public long transferTo(long posicion, long cantidad, WritableByteChannel destino) throws IOException {
+            return canal.transferTo(posicion, cantidad, destino);
+        }
+
+        @Override
+        public long transferFrom(ReadableByteChannel origen, long posicion, long cantidad) throws IOException {
+            return canal.transferFrom(origen, posicion, cantidad);
+        }
+
+        @Override
+        public int read(ByteBuffer destino, long posicion) throws IOException {
+            return canal.read(destino, posicion);
+        }
+
+        @Override
+        public int write(ByteBuffer origen, long posicion) throws IOException {
+            return canal.write(origen, posicion);
+        }
+
+        @Override
+        public MappedByteBuffer map(MapMode modo, long posicion, long tamaño) throws IOException {
+            return canal.map(modo, posicion, tamaño);
+        }
+
+        @Override
+        public FileLock lock(long posicion, long tamaño, boolean compartido) throws IOException {
+            return canal.lock(posicion, tamaño, compartido);
+        }
+
+        @Override
+        public FileLock tryLock(long posicion, long tamaño, boolean compartido) throws IOException {
+            return canal.tryLock(posicion, tamaño, compartido);
+        }
+
+        @Override
+        protected void implCloseChannel() throws IOException {
+            canal.close();
+        }
+    }
+
+    @Test
+    public void testReabrirReproduceLaBitacora() throws IOException {
+        Path archivo = directorio.resolve("bd.wal");
+        try(BaseDeDatos baseDeDatos = BaseDeDatos.abrir(3, TipoIndice.ARBOL_B_ENTERO, archivo, Duration.ZERO)) {
+            for(int i = 0; i < 100; i++) {
+                baseDeDatos.insertarRegistro(i, "dato " + i);
+            }
+            baseDeDatos.insertarRegistro(5, "repetido");
+            baseDeDatos.insertarRegistro(200, null);
+            baseDeDatos.insertarRegistro(201, "ñandú");
+            for(int i = 0; i < 100; i += 3) {
+                assertTrue(baseDeDatos.eliminarRegistro(i));
+            }
+            assertFalse(baseDeDatos.eliminarRegistro(0));
+
+            BaseDeDatos otra = new BaseDeDatos(3);
+            otra.insertarRegistro(1, "de la otra");
+            otra.insertarRegistro(300, "nuevo");
+            baseDeDatos.merge(otra, PoliticaDuplicados.conservarDerecho());
+        }
+
+        for(TipoIndice tipo : TipoIndice.values()) {
+            try(BaseDeDatos reabierta = BaseDeDatos.abrir(3, tipo, archivo, Duration.ZERO)) {
+                List<Integer> esperados = new ArrayList<>();
+                for(int i = 0; i < 100; i++) {
+                    if(i % 3 != 0) {
+                        esperados.add(i);
+                    }
+                }
+                esperados.addAll(List.of(200, 201, 300));
+                assertEquals(esperados, ids(reabierta));
+                assertEquals("dato 5", reabierta.buscarRegistro(5).getData());
+                assertEquals("de la otra", reabierta.buscarRegistro(1).getData());
+                assertNull(reabierta.buscarRegistro(200).getData());
+                assertEquals("ñandú", reabierta.buscarRegistro(201).getData());
+            }
+        }
+    }
+
+    @Test
+    public void testEscritoresConcurrentesSeConfirmanEnGrupo() throws Exception {
+        Path archivo = directorio.resolve("bd.wal");
+        int hilos = 8;
+        int porHilo = 500;
+        long sincronizaciones;
+        try(BaseDeDatos baseDeDatos = BaseDeDatos.abrir(4, TipoIndice.ARBOL_B_ENTERO, archivo, Duration.ofMillis(2))) {
+            ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+            List<Future<?>> tareas = new ArrayList<>();
+            for(int h = 0; h < hilos; h++) {
+                int inicio = h * porHilo;
+                tareas.add(ejecutor.submit(() -> {
+                    for(int i = inicio; i < inicio + porHilo; i++) {
+                        baseDeDatos.insertarRegistro(i, "dato " + i);
+                    }
+                }));
+            }
+            for(Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            ejecutor.shutdown();
+            sincronizaciones = baseDeDatos.getBitacora().getSincronizaciones();
+        }
+        //Con 8 escritores cada force confirma varios registros a la vez
+        assertTrue(sincronizaciones < hilos * porHilo / 4, "sincronizaciones: " + sincronizaciones);
+
+        try(BaseDeDatos reabierta = BaseDeDatos.abrir(4, TipoIndice.ARBOL_B_ENTERO, archivo, Duration.ZERO)) {
+            assertEquals(hilos * porHilo, ids(reabierta).size());
+        }
+    }
+
+    @Test
+    public void testDescartaRegistroIncompletoAlFinal() throws IOException {
+        Path archivo = directorio.resolve("bd.wal");
+        try(BaseDeDatos baseDeDatos = BaseDeDatos.abrir(2, TipoIndice.ARBOL_B, archivo, Duration.ZERO)) {
+            baseDeDatos.insertarRegistro(1, "uno");
+            baseDeDatos.insertarRegistro(2, "dos");
+        }
+        long tamañoValido = Files.size(archivo);
+        try(BaseDeDatos baseDeDatos = BaseDeDatos.abrir(2, TipoIndice.ARBOL_B, archivo, Duration.ZERO)) {
+            baseDeDatos.insertarRegistro(3, "tres");
+        }
+        //Simula una interrupción a mitad de la escritura del último registro
+        try(FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+            canal.truncate(Files.size(archivo) - 2);
+        }
+
+        try(BaseDeDatos reabierta = BaseDeDatos.abrir(2, TipoIndice.ARBOL_B, archivo, Duration.ZERO)) {
+            assertEquals(List.of(1, 2), ids(reabierta));
+            assertEquals(tamañoValido, Files.size(archivo));
+            reabierta.insertarRegistro(4, "cuatro");
+        }
+        try(BaseDeDatos reabierta = BaseDeDatos.abrir(2, TipoIndice.ARBOL_B, archivo, Duration.ZERO)) {
+            assertEquals(List.of(1, 2, 4), ids(reabierta));
+        }
+
+        Files.write(archivo, new byte[]{1, 2, 3, 4, 5});
+        assertThrows(IOException.class, () -> BaseDeDatos.abrir(2, TipoIndice.ARBOL_B, archivo, Duration.ZERO));
+    }
+
+    @Test
+    public void testDescartaRegistroConLargoDañado() throws IOException {
+        Path archivo = directorio.resolve("bd.wal");
+        try(BaseDeDatos baseDeDatos = BaseDeDatos.abrir(2, TipoIndice.ARBOL_B, archivo, Duration.ZERO)) {
+            baseDeDatos.insertarRegistro(1, "uno");
+            baseDeDatos.insertarRegistro(2, "dos");
+        }
+        long tamañoValido = Files.size(archivo);
+        for(int largo : new int[]{Integer.MAX_VALUE, 100, -7}) {
+            //Inserción del id 9 cuyo largo no coincide con los bytes que quedan en el archivo
+            ByteBuffer registro = ByteBuffer.allocate(1 + 3 * Integer.BYTES).put((byte) 1).putInt(9).putInt(largo)
+                    .putInt(0).flip();
+            try(FileChannel canal = FileChannel.open(archivo, StandardOpenOption.WRITE)) {
+                canal.write(registro, tamañoValido);
+            }
+            try(BaseDeDatos reabierta = BaseDeDatos.abrir(2, TipoIndice.ARBOL_B, archivo, Duration.ZERO)) {
+                assertEquals(List.of(1, 2), ids(reabierta));
+                assertEquals(tamañoValido, Files.size(archivo));
+            }
+        }
+    }
+
+    @Test
+    public void testLotesSeRegistranEnLaBitacora() throws IOException {
+        Path archivo = directorio.resolve("lotes.wal");
+        try(BaseDeDatos baseDeDatos = BaseDeDatos.abrir(2, TipoIndice.ARBOL_B_ENTERO, archivo, Duration.ZERO)) {
+            baseDeDatos.insertarRegistro(3, "suelto");
+            List<RegistroBD> lote = new ArrayList<>();
+            for(int i = 0; i < 50; i++) {
+                lote.add(new RegistroBD(i, "lote " + i));
+            }
+            assertEquals(49, baseDeDatos.insertarRegistros(lote));
+            assertEquals(2, baseDeDatos.eliminarRegistros(new int[]{40, 10, 77}));
+        }
+        try(BaseDeDatos reabierta = BaseDeDatos.abrir(2, TipoIndice.ARBOL_B, archivo, Duration.ZERO)) {
+            assertEquals(48, ids(reabierta).size());
+            assertEquals("suelto", reabierta.buscarRegistro(3).getData());
+            assertNull(reabierta.buscarRegistro(40));
+            assertEquals("lote 41", reabierta.buscarRegistro(41).getData());
+        }
+    }
+
+    @Test
+    public void testEscrituraConcurrenteDelMismoIdReproduceElEstadoFinal() throws Exception {
+        Path archivo = directorio.resolve("concurrente.wal");
+        int hilos = 8;
+        List<Integer> finales;
+        try(BaseDeDatos baseDeDatos = BaseDeDatos.abrir(3, TipoIndice.ARBOL_B_CONCURRENTE, archivo, Duration.ofMillis(1))) {
+            ExecutorService ejecutor = Executors.newFixedThreadPool(hilos);
+            List<Future<?>> tareas = new ArrayList<>();
+            for(int h = 0; h < hilos; h++) {
+                int semilla = h;
+                tareas.add(ejecutor.submit(() -> {
+                    Random aleatorio = new Random(semilla);
+                    for(int i = 0; i < 2000; i++) {
+                        int id = aleatorio.nextInt(100);
+                        int operacion = aleatorio.nextInt(4);
+                        if(operacion == 0) {
+                            baseDeDatos.insertarRegistro(id, "dato " + id);
+                        } else if(operacion == 1) {
+                            baseDeDatos.eliminarRegistro(id);
+                        } else if(operacion == 2) {
+                            baseDeDatos.insertarRegistros(List.of(new RegistroBD(id, "dato " + id),
+                                    new RegistroBD(id + 1, "dato " + (id + 1))));
+                        } else {
+                            baseDeDatos.eliminarRegistros(new int[]{id, id + 1});
+                        }
+                    }
+                }));
+            }
+            for(Future<?> tarea : tareas) {
+                tarea.get();
+            }
+            ejecutor.shutdown();
+            finales = ids(baseDeDatos);
+        }
+
+        try(BaseDeDatos reabierta = BaseDeDatos.abrir(3, TipoIndice.ARBOL_B, archivo, Duration.ZERO)) {
+            assertEquals(finales, ids(reabierta));
+        }
+    }
+
+    @Test
+    public void testEscriturasPosterioresAUnFalloNoModificanElIndice() throws IOException {
+        for(TipoIndice tipo : List.of(TipoIndice.ARBOL_B_ENTERO, TipoIndice.ARBOL_B_CONCURRENTE)) {
+            Path archivo = directorio.resolve(tipo + ".wal");
+            CanalQueFalla canal = new CanalQueFalla(FileChannel.open(archivo, StandardOpenOption.CREATE,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE));
+            BaseDeDatos baseDeDatos = BaseDeDatos.abrir(3, tipo, canal, Duration.ZERO);
+            baseDeDatos.insertarRegistro(1, "uno");
+            baseDeDatos.insertarRegistro(2, "dos");
+            canal.fallar = true;
+
+            //La inserción cuyo lote falla queda en memoria aunque se informa el error
+            assertThrows(UncheckedIOException.class, () -> baseDeDatos.insertarRegistro(3, "tres"));
+            assertEquals(List.of(1, 2, 3), ids(baseDeDatos));
+
+            //Las posteriores se rechazan antes de tocar el índice
+            assertThrows(UncheckedIOException.class, () -> baseDeDatos.insertarRegistro(4, "cuatro"));
+            assertThrows(UncheckedIOException.class, () -> baseDeDatos.eliminarRegistro(1));
+            assertThrows(UncheckedIOException.class, () -> baseDeDatos.insertarRegistros(
+                    List.of(new RegistroBD(5, "cinco"), new RegistroBD(6, "seis"))));
+            assertThrows(UncheckedIOException.class, () -> baseDeDatos.eliminarRegistros(new int[]{1, 2}));
+            BaseDeDatos otra = new BaseDeDatos(3);
+            otra.insertarRegistro(7, "siete");
+            assertThrows(UncheckedIOException.class, () -> baseDeDatos.merge(otra));
+            assertEquals(List.of(1, 2, 3), ids(baseDeDatos));
+            assertNull(baseDeDatos.buscarRegistro(4));
+            assertEquals("uno", baseDeDatos.buscarRegistro(1).getData());
+            assertThrows(IOException.class, baseDeDatos::close);
+
+            try(BaseDeDatos reabierta = BaseDeDatos.abrir(3, tipo, archivo, Duration.ZERO)) {
+                List<Integer> reproducidos = ids(reabierta);
+                assertEquals(List.of(1, 2), reproducidos.subList(0, 2));
+                assertTrue(reproducidos.size() <= 3);
+            }
+        }
+    }
+}
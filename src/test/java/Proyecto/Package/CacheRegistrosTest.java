@@ -0,0 +1,81 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CacheRegistrosTest {
+
+    /**
+     * Busca un id en la caché y, si no está, lo agrega como lo hace BaseDeDatos.buscarRegistro.
+     */
+    private static boolean buscar(CacheRegistros cache, int id) {
+        if(cache.obtener(id) != null) {
+            return true;
+        }
+        cache.agregar(id, new RegistroBD(id, "dato " + id), cache.getGeneracion());
+        return false;
+    }
+
+    @Test
+    public void testLRUDesalojaAlMenosReciente() {
+        CacheRegistros cache = new CacheRegistros(3, PoliticaCache.LRU);
+        buscar(cache, 1);
+        buscar(cache, 2);
+        buscar(cache, 3);
+        assertTrue(buscar(cache, 1));
+        buscar(cache, 4);
+        assertEquals(3, cache.tamaño());
+        assertEquals(1, cache.getDesalojos());
+        assertNull(cache.obtener(2));
+        assertNotNull(cache.obtener(1));
+        assertNotNull(cache.obtener(3));
+        assertEquals(3, cache.getAciertos());
+        assertEquals(5, cache.getFallos());
+        assertThrows(IllegalArgumentException.class, () -> new CacheRegistros(0, PoliticaCache.LRU));
+    }
+
+    @Test
+    public void testWTinyLFUResisteUnRecorrido() {
+        for(PoliticaCache politica : PoliticaCache.values()) {
+            CacheRegistros cache = new CacheRegistros(100, politica);
+            for(int vuelta = 0; vuelta < 20; vuelta++) {
+                for(int id = 0; id < 50; id++) {
+                    buscar(cache, id);
+                }
+            }
+            for(int id = 1000; id < 11000; id++) {
+                buscar(cache, id);
+            }
+            assertTrue(cache.tamaño() <= 100);
+            int conservados = 0;
+            for(int id = 0; id < 50; id++) {
+                if(cache.obtener(id) != null) {
+                    conservados++;
+                }
+            }
+            if(politica == PoliticaCache.LRU) {
+                assertEquals(0, conservados);
+            } else {
+                assertTrue(conservados >= 45, "Solo se conservaron " + conservados);
+            }
+        }
+    }
+
+    @Test
+    public void testNoAgregaLoLeidoAntesDeUnaInvalidacion() {
+        for(PoliticaCache politica : PoliticaCache.values()) {
+            CacheRegistros cache = new CacheRegistros(10, politica);
+            assertNull(cache.obtener(7));
+            long generacion = cache.getGeneracion();
+            cache.invalidar(7);
+            cache.agregar(7, new RegistroBD(7, "viejo"), generacion);
+            assertNull(cache.obtener(7));
+            assertEquals(0, cache.tamaño());
+
+            buscar(cache, 7);
+            buscar(cache, 8);
+            cache.invalidarTodo();
+            assertEquals(0, cache.tamaño());
+        }
+    }
+}
@@ -0,0 +1,167 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class CargadorMasivoArbolBTest {
+
+    private static List<Map.Entry<Integer, Integer>> entradas(int desde, int hasta) {
+        List<Map.Entry<Integer, Integer>> lista = new ArrayList<>();
+        for (int i = desde; i < hasta; i++) {
+            lista.add(new AbstractMap.SimpleEntry<>(i, i));
+        }
+        return lista;
+    }
+
+    @Test
+    public void testConstruirOrdenadoEsArbolBValido() {
+        for (int t = 2; t <= 5; t++) {
+            for (int n = 0; n <= 300; n++) {
+                for (double factor : new double[]{0.1, 0.5, 0.75, 1.0}) {
+                    TArbolB<Integer> arbol = CargadorMasivoArbolB.construir(t, entradas(0, n).iterator(), factor);
+                    List<Integer> esperado = new ArrayList<>();
+                    for (int i = 0; i < n; i++) {
+                        esperado.add(i);
+                    }
+                    assertEquals(esperado, arbol.inOrden());
+                    if (n > 0) {
+                        VerificadorArbolB.verificar(arbol.getRaiz(), t);
+                    } else {
+                        assertNull(arbol.getRaiz());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testArbolCargadoAdmiteInsertarYEliminar() {
+        TArbolB<Integer> arbol = CargadorMasivoArbolB.construir(3, entradas(0, 1000).iterator(), 0.7);
+        for (int i = 1000; i < 1200; i++) {
+            assertTrue(arbol.insertar(i, i));
+        }
+        assertFalse(arbol.insertar(500, -1));
+        for (int i = 0; i < 1200; i += 2) {
+            arbol.eliminar(i);
+        }
+        for (int i = 0; i < 1200; i++) {
+            assertEquals(i % 2 == 0 ? null : i, arbol.buscar(i));
+        }
+        VerificadorArbolB.verificar(arbol.getRaiz(), 3);
+    }
+
+    @Test
+    public void testConstruirOrdenadoRechazaClavesDesordenadas() {
+        List<Map.Entry<Integer, Integer>> lista = entradas(0, 10);
+        Collections.swap(lista, 3, 7);
+        assertThrows(IllegalArgumentException.class, () -> CargadorMasivoArbolB.construir(2, lista.iterator(), 1.0));
+        assertThrows(IllegalArgumentException.class, () -> CargadorMasivoArbolB.construir(2, entradas(0, 10).iterator(), 0));
+        assertThrows(IllegalArgumentException.class, () -> CargadorMasivoArbolB.construir(2, entradas(0, 10).iterator(), 1.5));
+    }
+
+    @Test
+    public void testConstruirDesordenadoConservaPrimerDuplicado() {
+        Random random = new Random(7);
+        List<Map.Entry<Integer, String>> lista = new ArrayList<>();
+        TreeMap<Integer, String> esperado = new TreeMap<>();
+        for (int i = 0; i < 5000; i++) {
+            int clave = random.nextInt(2000);
+            lista.add(new AbstractMap.SimpleEntry<>(clave, "v" + i));
+            esperado.putIfAbsent(clave, "v" + i);
+        }
+
+        TArbolB<String> arbol = CargadorMasivoArbolB.construirDesordenado(4, lista.iterator(), 0.75);
+        assertEquals(new ArrayList<>(esperado.values()), arbol.inOrden());
+        VerificadorArbolB.verificar(arbol.getRaiz(), 4);
+    }
+
+    @Test
+    public void testOrdenar() {
+        List<Integer> numeros = List.of(9, 3, 7, 1, 8, 2, 6, 4, 5, 0);
+        Iterator<Integer> ordenados = CargadorMasivoArbolB.ordenar(numeros.iterator(), Integer::compare);
+        List<Integer> resultado = new ArrayList<>();
+        ordenados.forEachRemaining(resultado::add);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), resultado);
+    }
+
+    @Test
+    public void testOrdenarRegistrosEnDisco() throws IOException {
+        Random random = new Random(11);
+        for (int tramo : new int[]{250, 1000, 10000}) {
+            List<RegistroBD> registros = new ArrayList<>();
+            TreeMap<Integer, String> esperado = new TreeMap<>();
+            for (int i = 0; i < 5000; i++) {
+                int id = random.nextInt(2000) - 1000;
+                registros.add(new RegistroBD(id, i % 10 == 0 ? null : "v" + i));
+                if (!esperado.containsKey(id)) {
+                    esperado.put(id, registros.get(i).getData());
+                }
+            }
+
+            Iterator<RegistroBD> ordenados = CargadorMasivoArbolB.ordenarRegistrosEnDisco(registros.iterator(), tramo);
+            //Entre tramos puede repetirse un id, pero siempre aparece primero el registro recibido antes
+            TreeMap<Integer, String> primeros = new TreeMap<>();
+            int anterior = Integer.MIN_VALUE;
+            while (ordenados.hasNext()) {
+                RegistroBD registro = ordenados.next();
+                assertTrue(registro.getId() >= anterior);
+                if (registro.getId() != anterior) {
+                    primeros.put(registro.getId(), registro.getData());
+                }
+                anterior = registro.getId();
+            }
+            assertEquals(esperado, primeros);
+        }
+        assertFalse(CargadorMasivoArbolB.ordenarRegistrosEnDisco(new ArrayList<RegistroBD>().iterator(), 10).hasNext());
+        assertThrows(IllegalArgumentException.class,
+                () -> CargadorMasivoArbolB.ordenarRegistrosEnDisco(new ArrayList<RegistroBD>().iterator(), 0));
+    }
+
+    @Test
+    public void testConstruirEntero() {
+        for (int n = 0; n <= 500; n += 7) {
+            List<Integer> ids = new ArrayList<>();
+            for (int i = 0; i < n; i++) {
+                ids.add(i * 3);
+            }
+            TArbolBEntero<Integer> arbol = CargadorMasivoArbolB.construirEntero(3, ids.iterator(), Integer::intValue, 0.6);
+            assertEquals(ids, arbol.inOrden());
+            for (int i = 0; i < n; i++) {
+                assertEquals(i * 3, arbol.buscar(i * 3));
+                assertNull(arbol.buscar(i * 3 + 1));
+            }
+        }
+    }
+
+    @Test
+    public void testCargarBaseDeDatosDesordenada() {
+        List<RegistroBD> registros = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            registros.add(new RegistroBD(i, "dato" + i));
+        }
+        Collections.shuffle(registros, new Random(3));
+
+        BaseDeDatos bd = BaseDeDatos.cargar(5, registros.iterator(), false, 0.8);
+        List<RegistroBD> inOrden = bd.listarRegistrosInOrden();
+        assertEquals(3000, inOrden.size());
+        for (int i = 0; i < 3000; i++) {
+            assertEquals(i, inOrden.get(i).getId());
+        }
+        assertEquals("dato42", bd.buscarRegistro(42).getData());
+        assertTrue(bd.eliminarRegistro(42));
+        assertNull(bd.buscarRegistro(42));
+
+        TArbolBEntero<RegistroBD> indice = CargadorMasivoArbolB.construirEnteroDesordenado(5, registros.iterator(),
+                RegistroBD::getId, 0.8);
+        VerificadorArbolB.verificar(indice.getRaiz(), 5);
+    }
+}
@@ -0,0 +1,73 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.List;
+
+public class InstantaneaIndiceTest {
+
+    @TempDir
+    Path directorio;
+
+    @Test
+    public void testGuardarYCargarConservaLosRegistros() throws IOException {
+        int n = 3 * InstantaneaIndice.REGISTROS_POR_BLOQUE + 17;
+        BaseDeDatos baseDeDatos = new BaseDeDatos(3);
+        for(int i = 0; i < n; i++) {
+            baseDeDatos.insertarRegistro(i * 2 - n, i % 100 == 0 ? null : "dato ñ " + i);
+        }
+        Path archivo = directorio.resolve("indice.bdi");
+        baseDeDatos.guardarInstantanea(archivo);
+
+        TArbolB<RegistroBD> arbol = InstantaneaIndice.cargar(archivo, 4, 1.0);
+        assertEquals(n, arbol.inOrden().size());
+        assertEquals("dato ñ 1", arbol.buscar(2 - n).getData());
+        assertNull(arbol.buscar(-n).getData());
+
+        for(TipoIndice tipo : TipoIndice.values()) {
+            BaseDeDatos cargada = BaseDeDatos.cargarInstantanea(3, tipo, archivo);
+            Iterator<RegistroBD> esperados = baseDeDatos.registros().iterator();
+            Iterator<RegistroBD> obtenidos = cargada.registros().iterator();
+            while(esperados.hasNext()) {
+                RegistroBD esperado = esperados.next();
+                RegistroBD obtenido = obtenidos.next();
+                assertEquals(esperado.getId(), obtenido.getId());
+                assertEquals(esperado.getData(), obtenido.getData());
+            }
+            assertFalse(obtenidos.hasNext());
+        }
+
+        Path vacio = directorio.resolve("vacio.bdi");
+        new BaseDeDatos(2).guardarInstantanea(vacio);
+        assertFalse(InstantaneaIndice.leer(vacio).hasNext());
+    }
+
+    @Test
+    public void testRechazaArchivosDañados() throws IOException {
+        Path archivo = directorio.resolve("indice.bdi");
+        List<RegistroBD> registros = List.of(new RegistroBD(1, "uno"), new RegistroBD(2, "dos"));
+        InstantaneaIndice.escribir(archivo, registros.iterator());
+        byte[] original = Files.readAllBytes(archivo);
+
+        byte[] dañado = original.clone();
+        dañado[16] ^= 1; //Primer byte de los datos del primer registro
+        Files.write(archivo, dañado);
+        assertThrows(IOException.class, () -> InstantaneaIndice.leer(archivo));
+
+        Files.write(archivo, Arrays.copyOf(original, original.length - 3));
+        assertThrows(IOException.class, () -> InstantaneaIndice.leer(archivo));
+
+        //Una escritura que falla no reemplaza la instantánea anterior
+        Files.write(archivo, original);
+        List<RegistroBD> desordenados = List.of(new RegistroBD(2, "dos"), new RegistroBD(1, "uno"));
+        assertThrows(IllegalArgumentException.class, () -> InstantaneaIndice.escribir(archivo, desordenados.iterator()));
+        assertArrayEquals(original, Files.readAllBytes(archivo));
+        assertFalse(Files.exists(directorio.resolve("indice.bdi.tmp")));
+    }
+}
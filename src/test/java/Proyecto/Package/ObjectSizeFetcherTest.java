@@ -0,0 +1,53 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ObjectSizeFetcherTest {
+
+    @Test
+    public void testObjetosCompartidosSeCuentanUnaVez() {
+        long[] arreglo = new long[1000];
+        long tamañoArreglo = ObjectSizeFetcher.getObjectSize(arreglo);
+        assertTrue(tamañoArreglo >= 8 * 1000);
+
+        Object[] contenedor = {arreglo, arreglo, arreglo};
+        long tamañoContenedor = ObjectSizeFetcher.getShallowSize(contenedor);
+        assertEquals(tamañoContenedor + tamañoArreglo, ObjectSizeFetcher.getObjectSize(contenedor));
+        assertEquals(0, ObjectSizeFetcher.getObjectSize(null));
+    }
+
+    @Test
+    public void testCiclosYEstructurasProfundas() {
+        Object[] a = new Object[1];
+        Object[] b = {a};
+        a[0] = b;
+        assertEquals(2 * ObjectSizeFetcher.getShallowSize(a), ObjectSizeFetcher.getObjectSize(a));
+
+        //Un árbol binario degenerado es una lista: recorrerlo con recursión agotaría la pila
+        TElementoAB<Integer> raiz = new TElementoAB<>(0, 0);
+        TElementoAB<Integer> actual = raiz;
+        for(int i = 1; i < 200000; i++) {
+            TElementoAB<Integer> siguiente = new TElementoAB<>(i, i);
+            actual.setHijoDer(siguiente);
+            actual = siguiente;
+        }
+        long tamañoNodo = ObjectSizeFetcher.getShallowSize(raiz);
+        assertTrue(ObjectSizeFetcher.getObjectSize(raiz) >= 200000 * tamañoNodo);
+    }
+
+    @Test
+    public void testTamañoCreceConElArbol() {
+        TArbolB<Integer> chico = new TArbolB<>(4);
+        TArbolB<Integer> grande = new TArbolB<>(4);
+        for(int i = 0; i < 1000; i++) {
+            chico.insertar(i, i);
+        }
+        for(int i = 0; i < 100000; i++) {
+            grande.insertar(i, i);
+        }
+        long tamañoChico = ObjectSizeFetcher.getObjectSize(chico);
+        long tamañoGrande = ObjectSizeFetcher.getObjectSize(grande);
+        assertTrue(tamañoGrande > 50 * tamañoChico);
+    }
+}
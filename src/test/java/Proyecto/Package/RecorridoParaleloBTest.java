@@ -0,0 +1,92 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+public class RecorridoParaleloBTest {
+
+    @Test
+    public void testOperacionesParalelasCoincidenConElInorden() {
+        for(int t = 2; t <= 16; t *= 2) {
+            TArbolB<Integer> arbol = new TArbolB<>(t);
+            TArbolBEntero<Integer> arbolEntero = new TArbolBEntero<>(t);
+            TreeSet<Integer> esperado = new TreeSet<>();
+            Random random = new Random(t);
+            for(int i = 0; i < 100000; i++) {
+                int clave = random.nextInt(1000000);
+                arbol.insertar(clave, clave);
+                arbolEntero.insertar(clave, clave);
+                esperado.add(clave);
+            }
+            List<Integer> enOrden = new ArrayList<>(esperado);
+            long suma = esperado.stream().mapToLong(Integer::longValue).sum();
+
+            assertEquals(enOrden, arbol.recolectarParalelo(ArrayList::new, ArrayList::add, ArrayList::addAll));
+            assertEquals(enOrden, arbolEntero.recolectarParalelo(ArrayList::new, ArrayList::add, ArrayList::addAll));
+            //Una concatenación no es conmutativa: solo da el inorden si se combina en orden
+            String concatenado = arbol.reducirParalelo("", (parcial, dato) -> parcial + (dato % 10), String::concat);
+            StringBuilder digitos = new StringBuilder();
+            enOrden.forEach(dato -> digitos.append(dato % 10));
+            assertEquals(digitos.toString(), concatenado);
+
+            assertEquals(suma, arbol.reducirParaleloSinOrden(0L, (parcial, dato) -> parcial + dato, Long::sum));
+            assertEquals(suma, arbolEntero.reducirParaleloSinOrden(0L, (parcial, dato) -> parcial + dato, Long::sum));
+            List<Integer> sinOrden = arbolEntero.recolectarParaleloSinOrden(ArrayList::new, ArrayList::add, ArrayList::addAll);
+            Collections.sort(sinOrden);
+            assertEquals(enOrden, sinOrden);
+
+            LongAdder visitados = new LongAdder();
+            Set<Integer> vistos = ConcurrentHashMap.newKeySet();
+            arbol.paraCadaParalelo(dato -> {
+                visitados.increment();
+                vistos.add(dato);
+            });
+            assertEquals(esperado.size(), visitados.sum());
+            assertEquals(esperado, vistos);
+        }
+    }
+
+    @Test
+    public void testArbolVacioYPequeño() {
+        TArbolB<Integer> arbol = new TArbolB<>(3);
+        assertEquals(List.of(), arbol.recolectarParalelo(ArrayList::new, ArrayList::add, ArrayList::addAll));
+        assertEquals(0L, arbol.reducirParaleloSinOrden(0L, (parcial, dato) -> parcial + dato, Long::sum));
+        arbol.paraCadaParalelo(dato -> fail());
+        for(int i = 10; i > 0; i--) {
+            arbol.insertar(i, i);
+        }
+        assertEquals(arbol.inOrden(), arbol.recolectarParalelo(ArrayList::new, ArrayList::add, ArrayList::addAll));
+    }
+
+    @Test
+    public void testAgregacionesDeBaseDeDatos() {
+        List<BaseDeDatos> bases = new ArrayList<>();
+        for(TipoIndice tipo : TipoIndice.values()) {
+            bases.add(new BaseDeDatos(3, tipo));
+        }
+        bases.add(new BaseDeDatos(3, TipoIndice.ARBOL_B_ENTERO, 4));
+        for(BaseDeDatos baseDeDatos : bases) {
+            for(int i = 0; i < 20000; i++) {
+                baseDeDatos.insertarRegistro(i, "d".repeat(i % 5));
+            }
+            long largoTotal = 0;
+            for(int i = 0; i < 20000; i++) {
+                largoTotal += i % 5;
+            }
+            assertEquals(largoTotal, (long) baseDeDatos.reducirRegistros(0L,
+                    (suma, registro) -> suma + registro.getData().length(), Long::sum));
+            assertEquals(4000, baseDeDatos.contarRegistros(registro -> registro.getData().isEmpty()));
+            List<RegistroBD> filtrados = baseDeDatos.filtrarRegistros(registro -> registro.getId() % 1000 == 0);
+            assertEquals(List.of(0, 1000, 2000), filtrados.subList(0, 3).stream().map(RegistroBD::getId).toList());
+            assertEquals(20, filtrados.size());
+        }
+    }
+}
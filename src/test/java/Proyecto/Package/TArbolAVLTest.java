@@ -0,0 +1,108 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TArbolAVLTest {
+
+    /**
+     * Altura máxima de un árbol AVL con n nodos.
+     */
+    private static double alturaMaxima(int n) {
+        return 1.4405 * Math.log(n + 2) / Math.log(2) - 0.3277;
+    }
+
+    @Test
+    public void testInsercionEnOrdenMantieneAlturaLogaritmica() {
+        TArbolAVL<Integer> arbol = new TArbolAVL<>();
+        int n = 1_000_000;
+        for (int i = 0; i < n; i++) {
+            assertTrue(arbol.insertar(i, i));
+        }
+        assertFalse(arbol.insertar(n / 2, -1));
+        assertTrue(arbol.getAltura() <= alturaMaxima(n));
+        assertTrue(arbol.getRaiz().esBalanceado());
+        assertEquals(n - 1, arbol.buscar(n - 1));
+        assertNull(arbol.buscar(n));
+        assertEquals(n, arbol.getRaiz().obtenerTamaño());
+
+        for (int i = 0; i < n; i += 2) {
+            arbol.eliminar(i);
+        }
+        assertTrue(arbol.getAltura() <= alturaMaxima(n / 2));
+        assertTrue(arbol.getRaiz().esBalanceado());
+        assertNull(arbol.buscar(0));
+        assertEquals(1, arbol.buscar(1));
+    }
+
+    @Test
+    public void testInsertarComoTElementoABConservaLaRaiz() {
+        TElementoAB<Integer> raiz = new TElementoAVL<>(0, 0);
+        for (int i = 1; i < 1000; i++) {
+            assertTrue(raiz.insertar(new TElementoAVL<>(i, i)));
+            raiz.insertar(new TElementoAB<>(-i, -i));
+        }
+        assertFalse(raiz.insertar(new TElementoAB<>(500, -1)));
+        TElementoAVL<Integer> avl = (TElementoAVL<Integer>) raiz;
+        assertTrue(avl.esBalanceado());
+        assertTrue(avl.getAltura() <= alturaMaxima(1999));
+        assertEquals(1999, raiz.obtenerTamaño());
+        for (int i = -999; i < 1000; i++) {
+            assertEquals(i, raiz.buscar(i).getDatos());
+        }
+    }
+
+    @Test
+    public void testOperacionesAleatoriasContraTreeMap() {
+        TArbolAVL<Integer> arbol = new TArbolAVL<>();
+        TreeMap<Integer, Integer> esperado = new TreeMap<>();
+        Random random = new Random(13);
+        for (int i = 0; i < 20000; i++) {
+            int clave = random.nextInt(2000);
+            if (random.nextInt(5) < 3) {
+                assertEquals(!esperado.containsKey(clave), arbol.insertar(clave, i));
+                esperado.putIfAbsent(clave, i);
+            } else {
+                arbol.eliminar(clave);
+                esperado.remove(clave);
+            }
+            if (i % 500 == 0 && !arbol.esVacio()) {
+                assertTrue(arbol.getRaiz().esBalanceado());
+                assertTrue(arbol.getAltura() <= alturaMaxima(esperado.size()));
+            }
+        }
+        assertEquals(new ArrayList<>(esperado.values()), arbol.inOrden());
+        for (int clave : new ArrayList<>(esperado.keySet())) {
+            arbol.eliminar(clave);
+        }
+        assertTrue(arbol.esVacio());
+        assertNull(arbol.inOrden());
+    }
+
+    @Test
+    public void testRotacionesDobles() {
+        TArbolAVL<String> arbol = new TArbolAVL<>();
+        arbol.insertar(30, "30");
+        arbol.insertar(10, "10");
+        arbol.insertar(20, "20"); // Rotación izquierda-derecha
+        assertEquals(List.of("20", "10", "30"), arbol.preOrden());
+        arbol.insertar(40, "40");
+        arbol.insertar(35, "35"); // Rotación derecha-izquierda
+        assertEquals(List.of("20", "10", "35", "30", "40"), arbol.preOrden());
+        assertEquals(List.of("10", "30", "40", "35", "20"), arbol.postOrden());
+
+        arbol.eliminar(10); // La raíz queda desbalanceada hacia la derecha
+        assertEquals(List.of("35", "20", "30", "40"), arbol.preOrden());
+        TElementoAVL<String> raiz = arbol.getRaiz();
+        assertTrue(raiz.insertar(new TElementoAB<>(25, "25")));
+        assertEquals(List.of("35", "25", "20", "30", "40"), arbol.preOrden());
+        assertTrue(raiz.insertar(new TElementoAB<>(22, "22"))); // Rotación derecha en la raíz, que conserva su nodo
+        assertSame(raiz, arbol.getRaiz());
+        assertEquals(List.of("25", "20", "22", "35", "30", "40"), arbol.preOrden());
+        assertTrue(raiz.esBalanceado());
+    }
+}
@@ -0,0 +1,107 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TArbolBBTest {
+
+    private static final int PROFUNDIDAD = 1_000_000;
+
+    /**
+     * Arma en tiempo lineal el árbol degenerado que resulta de insertar las claves 0..n-1 en orden.
+     */
+    private static TArbolBB<Integer> arbolDegenerado(int n) {
+        TArbolBB<Integer> arbol = new TArbolBB<>();
+        arbol.raiz = new TElementoAB<>(0, 0);
+        TElementoAB<Integer> actual = arbol.raiz;
+        for (int i = 1; i < n; i++) {
+            TElementoAB<Integer> siguiente = new TElementoAB<>(i, i);
+            actual.setHijoDer(siguiente);
+            actual = siguiente;
+        }
+        return arbol;
+    }
+
+    @Test
+    public void testOperacionesContraTreeMap() {
+        TArbolBB<Integer> arbol = new TArbolBB<>();
+        TreeMap<Integer, Integer> esperado = new TreeMap<>();
+        Random random = new Random(3);
+        for (int i = 0; i < 5000; i++) {
+            int clave = random.nextInt(500);
+            if (random.nextInt(3) < 2) {
+                assertEquals(!esperado.containsKey(clave), arbol.insertar(clave, i));
+                esperado.putIfAbsent(clave, i);
+            } else {
+                arbol.eliminar(clave);
+                esperado.remove(clave);
+            }
+            assertEquals(esperado.get(clave), arbol.buscar(clave));
+        }
+        assertEquals(new ArrayList<>(esperado.values()), arbol.inOrden());
+        assertEquals(esperado.size(), arbol.getRaiz().obtenerTamaño());
+        assertEquals(esperado.size(), arbol.preOrden().size());
+        assertEquals(esperado.size(), arbol.postOrden().size());
+    }
+
+    @Test
+    public void testRecorridos() {
+        TArbolBB<String> arbol = new TArbolBB<>();
+        for (int clave : new int[]{8, 3, 10, 1, 6, 14, 4, 7, 13}) {
+            arbol.insertar(clave, "v" + clave);
+        }
+        assertEquals(List.of("v8", "v3", "v1", "v6", "v4", "v7", "v10", "v14", "v13"), arbol.preOrden());
+        assertEquals(List.of("v1", "v3", "v4", "v6", "v7", "v8", "v10", "v13", "v14"), arbol.inOrden());
+        assertEquals(List.of("v1", "v4", "v7", "v6", "v3", "v13", "v14", "v10", "v8"), arbol.postOrden());
+        assertEquals("1-3-4-6-7-8-10-13-14", arbol.getRaiz().inOrden());
+
+        arbol.eliminar(3);
+        arbol.eliminar(8);
+        arbol.eliminar(99);
+        assertEquals(List.of("v1", "v4", "v6", "v7", "v10", "v13", "v14"), arbol.inOrden());
+        assertEquals("v7", arbol.preOrden().get(0));
+    }
+
+    @Test
+    public void testArbolDegeneradoNoAgotaLaPila() {
+        TArbolBB<Integer> arbol = arbolDegenerado(PROFUNDIDAD);
+        assertTrue(arbol.insertar(PROFUNDIDAD, PROFUNDIDAD));
+        assertFalse(arbol.insertar(PROFUNDIDAD / 2, 0));
+        assertEquals(PROFUNDIDAD - 1, arbol.buscar(PROFUNDIDAD - 1));
+        assertEquals(PROFUNDIDAD + 1, arbol.getRaiz().obtenerTamaño());
+        assertEquals(PROFUNDIDAD + 1, arbol.inOrden().size());
+        assertEquals(PROFUNDIDAD + 1, arbol.preOrden().size());
+        assertEquals(PROFUNDIDAD, arbol.postOrden().get(0));
+
+        arbol.eliminar(PROFUNDIDAD - 1);
+        assertNull(arbol.buscar(PROFUNDIDAD - 1));
+        assertEquals(PROFUNDIDAD, arbol.buscar(PROFUNDIDAD));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerializacionDeArbolDegenerado() throws Exception {
+        TArbolBB<Integer> arbol = arbolDegenerado(200_000);
+        arbol.insertar(-5, -5);
+        arbol.insertar(-7, -7);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream salida = new ObjectOutputStream(bytes)) {
+            salida.writeObject(arbol);
+            salida.writeObject(new TArbolBB<Integer>());
+        }
+        try (ObjectInputStream entrada = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            TArbolBB<Integer> leido = (TArbolBB<Integer>) entrada.readObject();
+            assertEquals(arbol.preOrden(), leido.preOrden());
+            assertEquals(arbol.postOrden(), leido.postOrden());
+            assertTrue(((TArbolBB<Integer>) entrada.readObject()).esVacio());
+        }
+    }
+}
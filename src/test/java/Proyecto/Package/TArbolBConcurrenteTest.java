@@ -0,0 +1,222 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class TArbolBConcurrenteTest {
+
+    private static void verificar(TArbolBConcurrente<Integer> arbol) {
+        if(arbol.getRaiz() != null) {
+            VerificadorArbolB.verificar(arbol.getRaiz(), arbol.getGradoMinimo());
+        }
+    }
+
+    private static List<Integer> datos(Iterator<Integer> iterador) {
+        List<Integer> lista = new ArrayList<>();
+        iterador.forEachRemaining(lista::add);
+        return lista;
+    }
+
+    @Test
+    public void testOperacionesAleatoriasContraTreeMap() {
+        for(int t = 2; t <= 4; t++) {
+            TArbolBConcurrente<Integer> arbol = new TArbolBConcurrente<>(t);
+            TreeMap<Integer, Integer> esperado = new TreeMap<>();
+            Random random = new Random(17 + t);
+            for(int i = 0; i < 20000; i++) {
+                int clave = random.nextInt(2000);
+                if(random.nextInt(5) < 3) {
+                    assertEquals(!esperado.containsKey(clave), arbol.insertar(clave, clave));
+                    esperado.putIfAbsent(clave, clave);
+                } else {
+                    assertEquals(esperado.remove(clave) != null, arbol.eliminar(clave));
+                }
+                if(i % 1000 == 0) {
+                    verificar(arbol);
+                }
+            }
+            verificar(arbol);
+            assertEquals(new ArrayList<>(esperado.values()), arbol.inOrden());
+            assertEquals(esperado.size(), arbol.tamaño());
+            assertEquals(esperado.size(), arbol.preOrden().size());
+            assertEquals(esperado.size(), arbol.postOrden().size());
+            for(int i = 0; i < 200; i++) {
+                int desde = random.nextInt(2200) - 100;
+                int hasta = desde + random.nextInt(300);
+                boolean incluirDesde = random.nextBoolean();
+                boolean incluirHasta = random.nextBoolean();
+                NavigableMap<Integer, Integer> rango = esperado.subMap(desde, incluirDesde, hasta, incluirHasta);
+                assertEquals(new ArrayList<>(rango.values()),
+                        datos(arbol.iteradorRango(desde, incluirDesde, hasta, incluirHasta, false)));
+                assertEquals(new ArrayList<>(rango.descendingMap().values()),
+                        datos(arbol.iteradorRango(desde, incluirDesde, hasta, incluirHasta, true)));
+            }
+            assertEquals(new ArrayList<>(esperado.descendingMap().values()),
+                    datos(arbol.iteradorRango(null, true, null, true, true)));
+            for(int clave : new ArrayList<>(esperado.keySet())) {
+                assertTrue(arbol.eliminar(clave));
+            }
+            assertNull(arbol.getRaiz());
+            assertFalse(arbol.iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void testRecorridosEnArbolPequeño() {
+        TArbolBConcurrente<Integer> arbol = new TArbolBConcurrente<>(2);
+        for(int i = 1; i <= 4; i++) {
+            arbol.insertar(i, i);
+        }
+        //Con t = 2 la raíz se desborda al insertar la cuarta clave y sube la tercera
+        assertEquals(List.of(3, 1, 2, 4), arbol.preOrden());
+        assertEquals(List.of(1, 2, 4, 3), arbol.postOrden());
+    }
+
+    @Test
+    public void testEscriturasYLecturasConcurrentes() throws Exception {
+        int hilosEscritores = 8;
+        int operaciones = 20000;
+        TArbolBConcurrente<Integer> arbol = new TArbolBConcurrente<>(3);
+        ConcurrentSkipListMap<Integer, Integer> esperado = new ConcurrentSkipListMap<>();
+        ExecutorService ejecutor = Executors.newFixedThreadPool(hilosEscritores + 4);
+        CountDownLatch largada = new CountDownLatch(1);
+        AtomicBoolean terminado = new AtomicBoolean();
+        List<Future<?>> escritores = new ArrayList<>();
+        for(int h = 0; h < hilosEscritores; h++) {
+            int hilo = h;
+            escritores.add(ejecutor.submit(() -> {
+                //Cada escritor es dueño de las claves congruentes con su número, así que su resultado es predecible
+                Random random = new Random(hilo);
+                largada.await();
+                for(int i = 0; i < operaciones; i++) {
+                    int clave = random.nextInt(5000) * hilosEscritores + hilo;
+                    if(random.nextInt(3) < 2) {
+                        assertEquals(!esperado.containsKey(clave), arbol.insertar(clave, clave));
+                        esperado.put(clave, clave);
+                    } else {
+                        assertEquals(esperado.remove(clave) != null, arbol.eliminar(clave));
+                    }
+                }
+                return null;
+            }));
+        }
+        List<Future<?>> lectores = new ArrayList<>();
+        for(int h = 0; h < 4; h++) {
+            int hilo = h;
+            lectores.add(ejecutor.submit(() -> {
+                Random random = new Random(100 + hilo);
+                largada.await();
+                while(!terminado.get()) {
+                    int clave = random.nextInt(5000 * hilosEscritores);
+                    Integer dato = arbol.buscar(clave);
+                    assertTrue(dato == null || dato == clave);
+                    //Los recorridos concurrentes devuelven claves estrictamente ordenadas
+                    int anterior = Integer.MIN_VALUE;
+                    Iterator<Integer> rango = arbol.iteradorRango(clave, true, clave + 500, false, hilo % 2 == 1);
+                    while(rango.hasNext()) {
+                        int actual = rango.next();
+                        assertTrue(actual >= clave && actual < clave + 500);
+                        assertTrue(anterior == Integer.MIN_VALUE || (hilo % 2 == 1 ? actual < anterior : actual > anterior));
+                        anterior = actual;
+                    }
+                }
+                return null;
+            }));
+        }
+        largada.countDown();
+        for(Future<?> escritor : escritores) {
+            escritor.get(2, TimeUnit.MINUTES);
+        }
+        terminado.set(true);
+        for(Future<?> lector : lectores) {
+            lector.get(1, TimeUnit.MINUTES);
+        }
+        ejecutor.shutdown();
+
+        verificar(arbol);
+        assertEquals(new ArrayList<>(esperado.keySet()), arbol.inOrden());
+        assertEquals(esperado.size(), arbol.tamaño());
+    }
+
+    @Test
+    public void testBusquedasOptimistasVenClavesEstables() throws Exception {
+        //Las claves pares nunca cambian; las impares se insertan y eliminan sin parar, dividiendo y combinando nodos
+        TArbolBConcurrente<Integer> arbol = new TArbolBConcurrente<>(2);
+        int n = 4000;
+        for(int i = 0; i < n; i += 2) {
+            arbol.insertar(i, i);
+        }
+        ExecutorService ejecutor = Executors.newFixedThreadPool(4);
+        AtomicBoolean terminado = new AtomicBoolean();
+        List<Future<?>> lectores = new ArrayList<>();
+        for(int h = 0; h < 3; h++) {
+            int hilo = h;
+            lectores.add(ejecutor.submit(() -> {
+                Random random = new Random(hilo);
+                while(!terminado.get()) {
+                    int clave = random.nextInt(n / 2) * 2;
+                    assertEquals(clave, arbol.buscar(clave));
+                    assertNull(arbol.buscar(-1 - clave));
+                }
+                return null;
+            }));
+        }
+        Random random = new Random(42);
+        for(int i = 0; i < 200000; i++) {
+            int clave = random.nextInt(n / 2) * 2 + 1;
+            if(!arbol.insertar(clave, clave)) {
+                assertTrue(arbol.eliminar(clave));
+            }
+        }
+        terminado.set(true);
+        for(Future<?> lector : lectores) {
+            lector.get(1, TimeUnit.MINUTES);
+        }
+        ejecutor.shutdown();
+        verificar(arbol);
+    }
+
+    @Test
+    public void testBaseDeDatosConcurrente() throws Exception {
+        BaseDeDatos baseDeDatos = new BaseDeDatos(3, TipoIndice.ARBOL_B_CONCURRENTE);
+        assertTrue(TipoIndice.ARBOL_B_CONCURRENTE.esConcurrente());
+        assertFalse(TipoIndice.ARBOL_B.esConcurrente());
+        BaseDeDatos otra = new BaseDeDatos(2);
+        for(int i = 0; i < 1000; i++) {
+            otra.insertarRegistro(-1 - i, "otra " + i);
+        }
+        ExecutorService ejecutor = Executors.newFixedThreadPool(4);
+        List<Future<?>> tareas = new ArrayList<>();
+        for(int h = 0; h < 4; h++) {
+            int hilo = h;
+            tareas.add(ejecutor.submit(() -> {
+                for(int i = hilo; i < 20000; i += 4) {
+                    baseDeDatos.insertarRegistro(i, "dato " + i);
+                    if(i == 10000) {
+                        baseDeDatos.merge(otra);
+                    }
+                    assertEquals("dato " + i, baseDeDatos.buscarRegistro(i).getData());
+                }
+            }));
+        }
+        for(Future<?> tarea : tareas) {
+            tarea.get(1, TimeUnit.MINUTES);
+        }
+        ejecutor.shutdown();
+        assertEquals(21000, baseDeDatos.registros().count());
+        assertEquals("otra 5", baseDeDatos.buscarRegistro(-6).getData());
+    }
+}
@@ -0,0 +1,138 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TArbolBDiscoTest {
+
+    @TempDir
+    Path directorio;
+
+    private static List<Integer> ids(Iterator<RegistroBD> registros) {
+        List<Integer> ids = new ArrayList<>();
+        registros.forEachRemaining(registro -> ids.add(registro.getId()));
+        return ids;
+    }
+
+    @Test
+    public void testOperacionesAleatoriasContraTreeMap() throws IOException {
+        Path archivo = directorio.resolve("arbol.bdd");
+        TreeMap<Integer, String> esperado = new TreeMap<>();
+        Random random = new Random(16);
+        //Páginas de 128 bytes dan t = 4, y con 8 marcos casi todo acceso reemplaza una página
+        try(TArbolBDisco arbol = TArbolBDisco.abrir(archivo, 128, TArbolBDisco.MARCOS_MINIMOS)) {
+            assertEquals(4, arbol.getGradoMinimo());
+            for(int i = 0; i < 20000; i++) {
+                int clave = random.nextInt(3000);
+                if(random.nextInt(5) < 3) {
+                    String datos = "dato " + i;
+                    assertEquals(!esperado.containsKey(clave), arbol.insertar(clave, new RegistroBD(clave, datos)));
+                    esperado.putIfAbsent(clave, datos);
+                } else {
+                    assertEquals(esperado.remove(clave) != null, arbol.eliminar(clave));
+                }
+            }
+            assertEquals(esperado.size(), arbol.getCantidad());
+            assertEquals(new ArrayList<>(esperado.keySet()), ids(arbol.iterator()));
+            assertTrue(arbol.getBuffer().getEscrituras() > 0);
+        }
+
+        try(TArbolBDisco arbol = TArbolBDisco.abrir(archivo, 4096, TArbolBDisco.MARCOS_MINIMOS)) {
+            assertEquals(4, arbol.getGradoMinimo()); //El tamaño de página es el del archivo
+            assertEquals(esperado.size(), arbol.getCantidad());
+            for(int clave = 0; clave < 3000; clave++) {
+                RegistroBD registro = arbol.buscar(clave);
+                assertEquals(esperado.get(clave), registro == null ? null : registro.getData());
+            }
+            for(int i = 0; i < 50; i++) {
+                int desde = random.nextInt(3200) - 100;
+                int hasta = desde + random.nextInt(400);
+                boolean incluirDesde = random.nextBoolean();
+                boolean incluirHasta = random.nextBoolean();
+                NavigableMap<Integer, String> rango = esperado.subMap(desde, incluirDesde, hasta, incluirHasta);
+                assertEquals(new ArrayList<>(rango.keySet()),
+                        ids(arbol.iteradorRango(desde, incluirDesde, hasta, incluirHasta, false)));
+                assertEquals(new ArrayList<>(rango.descendingKeySet()),
+                        ids(arbol.iteradorRango(desde, incluirDesde, hasta, incluirHasta, true)));
+            }
+            assertEquals(esperado.size(), arbol.preOrden().size());
+            assertEquals(esperado.size(), arbol.postOrden().size());
+            for(int clave : new ArrayList<>(esperado.keySet())) {
+                assertTrue(arbol.eliminar(clave));
+            }
+            assertEquals(0, arbol.getAltura());
+            assertFalse(arbol.iterator().hasNext());
+        }
+    }
+
+    @Test
+    public void testRecorridosYRegistrosLargos() throws IOException {
+        try(TArbolBDisco arbol = TArbolBDisco.abrir(directorio.resolve("arbol.bdd"), 128, TArbolBDisco.MARCOS_MINIMOS)) {
+            for(int i = 1; i <= 7; i++) {
+                arbol.insertar(i, new RegistroBD(i, String.valueOf(i)));
+            }
+            //Con t = 4 la raíz llena se divide al insertar la octava clave
+            arbol.insertar(8, new RegistroBD(8, "ñ".repeat(500)));
+            arbol.insertar(9, new RegistroBD(9, null));
+            assertEquals(2, arbol.getAltura());
+            assertEquals(List.of(4, 1, 2, 3, 5, 6, 7, 8, 9), ids(arbol.preOrden().iterator()));
+            assertEquals(List.of(1, 2, 3, 5, 6, 7, 8, 9, 4), ids(arbol.postOrden().iterator()));
+            assertEquals("ñ".repeat(500), arbol.buscar(8).getData());
+            assertNull(arbol.buscar(9).getData());
+            assertThrows(IllegalArgumentException.class, () -> arbol.buscar("8"));
+        }
+    }
+
+    @Test
+    public void testBusquedaLeeALoSumoLaAlturaMasUnaPagina() throws IOException {
+        try(TArbolBDisco arbol = TArbolBDisco.abrir(directorio.resolve("arbol.bdd"), 512, TArbolBDisco.MARCOS_MINIMOS)) {
+            int n = 200_000;
+            for(int i = 0; i < n; i++) {
+                arbol.insertar(i, new RegistroBD(i, "dato " + i));
+            }
+            int altura = arbol.getAltura();
+            assertTrue(altura >= 3);
+            Random random = new Random(7);
+            for(int i = 0; i < 1000; i++) {
+                long lecturas = arbol.getBuffer().getLecturas();
+                int clave = random.nextInt(n);
+                assertEquals("dato " + clave, arbol.buscar(clave).getData());
+                assertTrue(arbol.getBuffer().getLecturas() - lecturas <= altura + 1);
+            }
+        }
+    }
+
+    @Test
+    public void testBaseDeDatosEnDisco() throws IOException {
+        Path archivo = directorio.resolve("bd.bdd");
+        try(BaseDeDatos baseDeDatos = BaseDeDatos.abrirEnDisco(archivo, 1024, 16)) {
+            assertNull(baseDeDatos.getTipoIndice());
+            for(int i = 0; i < 5000; i++) {
+                baseDeDatos.insertarRegistro(i, "dato " + i);
+            }
+            assertTrue(baseDeDatos.eliminarRegistro(10));
+            BaseDeDatos otra = new BaseDeDatos(2);
+            otra.insertarRegistro(11, "reemplazo");
+            otra.insertarRegistro(10, "vuelve");
+            otra.insertarRegistro(6000, "nuevo");
+            baseDeDatos.merge(otra, PoliticaDuplicados.conservarDerecho());
+        }
+        try(BaseDeDatos baseDeDatos = BaseDeDatos.abrirEnDisco(archivo, 1024, 16)) {
+            assertEquals(5001, baseDeDatos.registros().count());
+            assertEquals("vuelve", baseDeDatos.buscarRegistro(10).getData());
+            assertEquals("reemplazo", baseDeDatos.buscarRegistro(11).getData());
+            assertEquals("dato 12", baseDeDatos.buscarRegistro(12).getData());
+            assertEquals(List.of(6000, 4999), ids(baseDeDatos.buscarRegistrosEnRango(4999, true, 7000, true, true,
+                    10).iterator()));
+        }
+    }
+}
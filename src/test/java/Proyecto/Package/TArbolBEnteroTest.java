@@ -0,0 +1,351 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TArbolBEnteroTest {
+
+    private TArbolBEntero<String> arbol;
+
+    @BeforeEach
+    public void setUp() {
+        arbol = new TArbolBEntero<>(2);
+    }
+
+    @Test
+    public void testInsertarMultiplesElementos() {
+        assertTrue(arbol.insertarEntero(10, "10"));
+        assertTrue(arbol.insertarEntero(20, "20"));
+        assertTrue(arbol.insertarEntero(5, "5"));
+        assertTrue(arbol.insertarEntero(6, "6"));
+        assertTrue(arbol.insertarEntero(12, "12"));
+        assertTrue(arbol.insertarEntero(30, "30"));
+        assertTrue(arbol.insertarEntero(7, "7"));
+        assertTrue(arbol.insertarEntero(17, "17"));
+
+        assertEquals(List.of("5", "6", "7", "10", "12", "17", "20", "30"), arbol.inOrden());
+        assertEquals(List.of("10", "20", "5", "6", "7", "12", "17", "30"), arbol.preOrden());
+        assertEquals(List.of("5", "6", "7", "12", "17", "30", "10", "20"), arbol.postOrden());
+    }
+
+    @Test
+    public void testInsertarClavesDuplicadas() {
+        assertTrue(arbol.insertarEntero(10, "10"));
+        assertFalse(arbol.insertarEntero(10, "otro"));
+        //Con datos Integer la inserción genérica se puede llamar sin conversiones
+        TArbolBEntero<Integer> enteros = new TArbolBEntero<>(2);
+        assertTrue(enteros.insertar(5, 7));
+        assertTrue(enteros.insertarEntero(6, 8));
+        assertEquals(7, enteros.buscar(5));
+        assertEquals(List.of("10"), arbol.inOrden());
+    }
+
+    @Test
+    public void testBuscar() {
+        arbol.insertarEntero(10, "10");
+        arbol.insertarEntero(20, "20");
+        arbol.insertarEntero(5, "5");
+
+        assertEquals("10", arbol.buscar(10));
+        assertEquals("5", arbol.buscar(Integer.valueOf(5)));
+        assertNull(arbol.buscar(15));
+    }
+
+    @Test
+    public void testEliminar() {
+        assertFalse(arbol.eliminar(10));
+        for (int i = 1; i <= 20; i++) {
+            arbol.insertarEntero(i, "" + i);
+        }
+        assertTrue(arbol.eliminar(8));
+        assertFalse(arbol.eliminar(8));
+        assertFalse(arbol.eliminar(99));
+        assertNull(arbol.buscar(8));
+        assertEquals(19, arbol.inOrden().size());
+    }
+
+    @Test
+    public void testOperacionesAleatoriasContraTreeMap() {
+        TArbolBEntero<String> arbolGrande = new TArbolBEntero<>(8);
+        TreeMap<Integer, String> esperado = new TreeMap<>();
+        Random random = new Random(42);
+
+        for (int i = 0; i < 20000; i++) {
+            int clave = random.nextInt(5000);
+            if (random.nextInt(3) == 0) {
+                assertEquals(esperado.remove(clave) != null, arbolGrande.eliminar(clave));
+            } else {
+                assertEquals(!esperado.containsKey(clave), arbolGrande.insertarEntero(clave, "v" + clave));
+                esperado.putIfAbsent(clave, "v" + clave);
+            }
+        }
+
+        assertEquals(new ArrayList<>(esperado.values()), arbolGrande.inOrden());
+        assertEquals(esperado.size(), arbolGrande.tamaño());
+        contarClaves(arbolGrande.getRaiz());
+        for (int clave = 0; clave < 5000; clave++) {
+            assertEquals(esperado.get(clave), arbolGrande.buscar(clave));
+        }
+    }
+
+    @Test
+    public void testMerge() {
+        TArbolBEntero<String> otro = new TArbolBEntero<>(2);
+        arbol.insertarEntero(1, "1");
+        arbol.insertarEntero(3, "3");
+        otro.insertarEntero(2, "2");
+        otro.insertarEntero(3, "treinta");
+        otro.insertarEntero(4, "4");
+
+        assertTrue(arbol.merge(otro));
+        assertEquals(List.of("1", "2", "3", "4"), arbol.inOrden());
+    }
+
+    @Test
+    public void testMergeConPoliticaYArbolGenerico() {
+        TArbolBEntero<String> otro = new TArbolBEntero<>(3);
+        for (int i = 0; i < 50; i++) {
+            arbol.insertarEntero(i * 2, "a" + i * 2);
+            otro.insertarEntero(i * 3, "b" + i * 3);
+        }
+        arbol.merge(otro, PoliticaDuplicados.conservarDerecho());
+        assertEquals("b6", arbol.buscar(6));
+        assertEquals("a4", arbol.buscar(4));
+        assertEquals("b9", arbol.buscar(9));
+        assertEquals(arbol.inOrden().size(), 50 + 50 - 17);
+
+        TArbolB<String> generico = new TArbolB<>(2);
+        generico.insertar(1, "g1");
+        generico.insertar(6, "g6");
+        assertTrue(arbol.merge(generico));
+        assertEquals("g1", arbol.buscar(1));
+        assertEquals("b6", arbol.buscar(6));
+    }
+
+    @Test
+    public void testIteradorYStream() {
+        for (int i = 100; i > 0; i--) {
+            arbol.insertarEntero(i, "" + i);
+        }
+        List<String> recorrido = new ArrayList<>();
+        arbol.forEach(recorrido::add);
+        assertEquals(arbol.inOrden(), recorrido);
+        assertEquals(100, arbol.parallelStream().count());
+        assertEquals("1", arbol.stream().findFirst().orElseThrow());
+    }
+
+    @Test
+    public void testBuscarRango() {
+        for (int i = 0; i < 200; i += 2) {
+            arbol.insertarEntero(i, "" + i);
+        }
+        assertEquals(List.of("10", "12", "14"), arbol.buscarRango(10, 14));
+        assertEquals(List.of("14", "12"), arbol.buscarRango(11, false, 14, true, true, 10));
+        assertEquals(List.of("12"), arbol.buscarRango(10, false, 14, false, false, 10));
+        assertEquals(List.of("198", "196"), arbol.buscarRango(190, true, 500, true, true, 2));
+
+        BaseDeDatos bd = new BaseDeDatos(3);
+        for (int i = 1; i <= 100; i++) {
+            bd.insertarRegistro(i, "r" + i);
+        }
+        List<RegistroBD> registros = bd.buscarRegistrosEnRango(40, 45);
+        assertEquals(6, registros.size());
+        assertEquals(40, registros.get(0).getId());
+        assertEquals(List.of(100, 99), bd.buscarRegistrosEnRango(90, true, 200, true, true, 2).stream().map(RegistroBD::getId).toList());
+    }
+
+    /**
+     * Verifica que cada nodo del subárbol lleve su tamaño al día y devuelve la cantidad de claves del subárbol.
+     */
+    private static int contarClaves(TElementoBEntero<String> nodo) {
+        int cantidad = nodo.getNumClaves();
+        if (!nodo.esHoja()) {
+            for (int i = 0; i <= nodo.getNumClaves(); i++) {
+                cantidad += contarClaves(nodo.getHijo(i));
+            }
+        }
+        assertEquals(cantidad, nodo.getTamaño());
+        return cantidad;
+    }
+
+    private static int[] loteAleatorio(Random random, int tamaño, int rango) {
+        return random.ints(tamaño, 0, rango).distinct().sorted().toArray();
+    }
+
+    @Test
+    public void testLotesAleatoriosContraTreeMap() {
+        for (int t = 2; t <= 8; t += 3) {
+            TArbolBEntero<String> arbolLotes = new TArbolBEntero<>(t);
+            TreeMap<Integer, String> esperado = new TreeMap<>();
+            Random random = new Random(t);
+            for (int ronda = 0; ronda < 300; ronda++) {
+                //Lotes de tamaños muy distintos: desde una clave hasta varias veces el tamaño del árbol
+                int tamaño = random.nextInt(4) == 0 ? random.nextInt(3000) : random.nextInt(40);
+                int[] claves = loteAleatorio(random, tamaño, 5000);
+                if (random.nextInt(5) < 3) {
+                    String[] datos = new String[claves.length];
+                    for (int i = 0; i < claves.length; i++) {
+                        datos[i] = "v" + claves[i] + "-" + ronda;
+                    }
+                    boolean[] nuevas = new boolean[claves.length];
+                    int esperadas = 0;
+                    for (int i = 0; i < claves.length; i++) {
+                        nuevas[i] = esperado.putIfAbsent(claves[i], datos[i]) == null;
+                        esperadas += nuevas[i] ? 1 : 0;
+                    }
+                    boolean[] insertados = new boolean[claves.length];
+                    assertEquals(esperadas, arbolLotes.insertarLote(claves, datos, insertados));
+                    assertArrayEquals(nuevas, insertados);
+                } else {
+                    boolean[] eliminados = new boolean[claves.length];
+                    int esperadas = 0;
+                    for (int i = 0; i < claves.length; i++) {
+                        eliminados[i] = esperado.remove(claves[i]) != null;
+                        esperadas += eliminados[i] ? 1 : 0;
+                    }
+                    boolean[] marcados = new boolean[claves.length];
+                    assertEquals(esperadas, arbolLotes.eliminarLote(claves, marcados));
+                    assertArrayEquals(eliminados, marcados);
+                }
+                //Las operaciones de a una siguen funcionando sobre el árbol que dejan los lotes
+                int clave = random.nextInt(5000);
+                assertEquals(esperado.remove(clave) != null, arbolLotes.eliminar(clave));
+                if (arbolLotes.getRaiz() != null) {
+                    VerificadorArbolB.verificar(arbolLotes.getRaiz(), t);
+                    contarClaves(arbolLotes.getRaiz());
+                }
+                assertEquals(new ArrayList<>(esperado.values()), arbolLotes.inOrden());
+                assertEquals(esperado.size(), arbolLotes.tamaño());
+                int sonda = random.nextInt(5200) - 100;
+                assertEquals(esperado.headMap(sonda).size(), arbolLotes.posicion(sonda));
+                if (!esperado.isEmpty()) {
+                    int posicion = random.nextInt(esperado.size());
+                    assertEquals(esperado.values().stream().skip(posicion).findFirst().get(), arbolLotes.seleccionar(posicion));
+                }
+            }
+            int[] todas = esperado.keySet().stream().mapToInt(Integer::intValue).toArray();
+            assertEquals(todas.length, arbolLotes.eliminarLote(todas, null));
+            assertNull(arbolLotes.getRaiz());
+        }
+    }
+
+    @Test
+    public void testSnapshotNoVeLosCambiosPosteriores() {
+        TArbolBEntero<String> grande = new TArbolBEntero<>(3);
+        TreeMap<Integer, String> esperado = new TreeMap<>();
+        List<TArbolBEntero<String>> instantaneas = new ArrayList<>();
+        List<TreeMap<Integer, String>> contenidos = new ArrayList<>();
+        Random random = new Random(19);
+        for (int ronda = 0; ronda < 3000; ronda++) {
+            int clave = random.nextInt(3000);
+            int operacion = random.nextInt(10);
+            if (operacion < 5) {
+                assertEquals(esperado.putIfAbsent(clave, "v" + ronda) == null, grande.insertarEntero(clave, "v" + ronda));
+            } else if (operacion < 8) {
+                assertEquals(esperado.remove(clave) != null, grande.eliminar(clave));
+            } else if (operacion == 8) {
+                int[] claves = loteAleatorio(random, random.nextInt(200), 3000);
+                String[] datos = new String[claves.length];
+                for (int i = 0; i < claves.length; i++) {
+                    datos[i] = "l" + ronda;
+                    esperado.putIfAbsent(claves[i], datos[i]);
+                }
+                grande.insertarLote(claves, datos, null);
+            } else {
+                int[] claves = loteAleatorio(random, random.nextInt(200), 3000);
+                for (int c : claves) {
+                    esperado.remove(c);
+                }
+                grande.eliminarLote(claves, null);
+            }
+            if (ronda % 300 == 0) {
+                instantaneas.add(grande.snapshot());
+                contenidos.add(new TreeMap<>(esperado));
+            }
+        }
+        assertEquals(new ArrayList<>(esperado.values()), grande.inOrden());
+        VerificadorArbolB.verificar(grande.getRaiz(), 3);
+        contarClaves(grande.getRaiz());
+        for (int i = 0; i < instantaneas.size(); i++) {
+            TArbolBEntero<String> instantanea = instantaneas.get(i);
+            assertEquals(new ArrayList<>(contenidos.get(i).values()), instantanea.inOrden());
+            assertEquals(contenidos.get(i).size(), instantanea.tamaño());
+            if (instantanea.getRaiz() != null) {
+                VerificadorArbolB.verificar(instantanea.getRaiz(), 3);
+                contarClaves(instantanea.getRaiz());
+            }
+        }
+
+        TArbolBEntero<String> instantanea = grande.snapshot();
+        assertSame(instantanea, instantanea.snapshot());
+        assertThrows(UnsupportedOperationException.class, () -> instantanea.insertarEntero(-1, "x"));
+        assertThrows(UnsupportedOperationException.class, () -> instantanea.insertar(-1, "x"));
+        assertThrows(UnsupportedOperationException.class, () -> instantanea.eliminar(esperado.firstKey()));
+        assertThrows(UnsupportedOperationException.class, () -> instantanea.insertarLote(new int[]{-1}, new String[]{"x"}, null));
+        assertThrows(UnsupportedOperationException.class, () -> instantanea.eliminarLote(new int[]{esperado.firstKey()}, null));
+        assertThrows(UnsupportedOperationException.class, () -> instantanea.merge(new TArbolBEntero<>(3)));
+        assertThrows(UnsupportedOperationException.class, () -> instantanea.merge(new TArbolB<>(3)));
+        assertEquals(new ArrayList<>(esperado.values()), instantanea.inOrden());
+    }
+
+    @Test
+    public void testInsertarDuplicadoNoCopiaNodosCompartidos() {
+        TArbolBEntero<String> grande = new TArbolBEntero<>(3);
+        for (int i = 0; i < 10000; i++) {
+            grande.insertarEntero(i, i % 3 == 0 ? null : "v" + i);
+        }
+        TArbolBEntero<String> instantanea = grande.snapshot();
+        for (int i = 0; i < 10000; i += 7) {
+            assertFalse(grande.insertarEntero(i, "x"));
+        }
+        //Ninguna inserción rechazada copió la raíz ni, por lo tanto, el resto del camino
+        assertSame(instantanea.getRaiz(), grande.getRaiz());
+
+        assertTrue(grande.insertarEntero(-1, "nuevo"));
+        assertNotSame(instantanea.getRaiz(), grande.getRaiz());
+        assertFalse(grande.insertarEntero(9999, "x"));
+        assertNull(grande.buscar(9999));
+        assertEquals(10001, grande.tamaño());
+        assertEquals(10000, instantanea.tamaño());
+        VerificadorArbolB.verificar(grande.getRaiz(), 3);
+    }
+
+    @Test
+    public void testLoteDesordenadoSeRechaza() {
+        assertThrows(IllegalArgumentException.class, () -> arbol.insertarLote(new int[]{1, 3, 2}, new String[3], null));
+        assertThrows(IllegalArgumentException.class, () -> arbol.eliminarLote(new int[]{1, 1}, null));
+        assertEquals(0, arbol.insertarLote(new int[0], new String[0], null));
+        assertNull(arbol.getRaiz());
+    }
+
+    @Test
+    public void testLotesEnBaseDeDatos() {
+        for (TipoIndice tipo : List.of(TipoIndice.ARBOL_B_ENTERO, TipoIndice.ARBOL_B_MAS)) {
+            BaseDeDatos bd = new BaseDeDatos(3, tipo);
+            bd.insertarRegistro(7, "existente");
+            List<RegistroBD> lote = new ArrayList<>();
+            for (int i = 999; i >= 0; i--) {
+                lote.add(new RegistroBD(i, "r" + i));
+            }
+            lote.add(new RegistroBD(5, "repetido"));
+            assertEquals(999, bd.insertarRegistros(lote));
+            assertEquals("existente", bd.buscarRegistro(7).getData());
+            assertEquals("r5", bd.buscarRegistro(5).getData());
+            assertEquals(1000, bd.registros().count());
+
+            int[] ids = {10, 3, 10, 2000, 500, -1};
+            assertEquals(3, bd.eliminarRegistros(ids));
+            assertEquals(10, ids[0]);
+            assertNull(bd.buscarRegistro(500));
+            assertEquals(997, bd.registros().count());
+            assertArrayEquals(new int[]{0, 1, 2, 4}, bd.registros().limit(4).mapToInt(RegistroBD::getId).toArray());
+            assertTrue(Arrays.stream(bd.registros().mapToInt(RegistroBD::getId).toArray()).noneMatch(id -> id == 10));
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+public class TArbolBMasTest {
+
+    /**
+     * Verifica el árbol y que la lista de hojas, recorrida en ambos sentidos, contenga exactamente las claves del mapa.
+     */
+    private static void verificarArbol(TArbolBMas<Integer> arbol, int t, NavigableMap<Integer, Integer> esperado) {
+        TElementoBMas<Integer> raiz = arbol.getRaiz();
+        if(esperado.isEmpty()) {
+            assertNull(raiz);
+            return;
+        }
+        VerificadorArbolB.verificar(raiz, t);
+
+        TElementoBMas<Integer> hoja = raiz;
+        while(!hoja.esHoja()) {
+            hoja = hoja.getHijo(0);
+        }
+        assertNull(hoja.getAnterior());
+        List<Integer> haciaLaDerecha = new ArrayList<>();
+        TElementoBMas<Integer> ultima = null;
+        for(; hoja != null; ultima = hoja, hoja = hoja.getSiguiente()) {
+            for(int i = 0; i < hoja.getNumClaves(); i++) {
+                haciaLaDerecha.add((Integer) hoja.getClave(i));
+                assertEquals(esperado.get(hoja.getClave(i)), hoja.getDato(i));
+            }
+        }
+        List<Integer> haciaLaIzquierda = new ArrayList<>();
+        for(hoja = ultima; hoja != null; hoja = hoja.getAnterior()) {
+            for(int i = hoja.getNumClaves() - 1; i >= 0; i--) {
+                haciaLaIzquierda.add((Integer) hoja.getClave(i));
+            }
+        }
+        assertEquals(new ArrayList<>(esperado.keySet()), haciaLaDerecha);
+        assertEquals(new ArrayList<>(esperado.descendingKeySet()), haciaLaIzquierda);
+    }
+
+    @Test
+    public void testInsertarBuscarYEliminar() {
+        TArbolBMas<String> arbol = new TArbolBMas<>(2);
+        assertNull(arbol.buscar(1));
+        assertFalse(arbol.eliminar(1));
+        for(int i = 1; i <= 20; i++) {
+            assertTrue(arbol.insertar(i, "v" + i));
+        }
+        assertFalse(arbol.insertar(7, "otro"));
+        assertEquals("v7", arbol.buscar(7));
+        assertNull(arbol.buscar(21));
+        assertTrue(arbol.eliminar(7));
+        assertFalse(arbol.eliminar(7));
+        assertNull(arbol.buscar(7));
+        assertEquals(19, arbol.inOrden().size());
+        assertEquals(arbol.inOrden(), arbol.preOrden());
+        assertEquals(arbol.inOrden(), arbol.postOrden());
+    }
+
+    @Test
+    public void testOperacionesAleatoriasContraTreeMap() {
+        for(int t : new int[]{2, 3, 9}) {
+            TArbolBMas<Integer> arbol = new TArbolBMas<>(t);
+            TreeMap<Integer, Integer> esperado = new TreeMap<>();
+            Random random = new Random(t);
+            for(int i = 0; i < 4000; i++) {
+                int clave = random.nextInt(600);
+                if(random.nextInt(3) < 2) {
+                    assertEquals(!esperado.containsKey(clave), arbol.insertar(clave, i));
+                    esperado.putIfAbsent(clave, i);
+                } else {
+                    assertEquals(esperado.remove(clave) != null, arbol.eliminar(clave));
+                }
+                if(i % 200 == 0) {
+                    verificarArbol(arbol, t, esperado);
+                }
+            }
+            verificarArbol(arbol, t, esperado);
+            assertEquals(new ArrayList<>(esperado.values()), arbol.inOrden());
+            for(int clave : esperado.keySet()) {
+                assertTrue(arbol.eliminar(clave));
+            }
+            assertNull(arbol.getRaiz());
+        }
+    }
+
+    @Test
+    public void testBuscarRangoContraTreeMap() {
+        TArbolBMas<Integer> arbol = new TArbolBMas<>(3);
+        TreeMap<Integer, Integer> esperado = new TreeMap<>();
+        for(int i = 0; i < 300; i += 3) {
+            arbol.insertar(i, i);
+            esperado.put(i, i);
+        }
+        Random random = new Random(5);
+        for(int i = 0; i < 300; i++) {
+            int desde = random.nextInt(320) - 10;
+            int hasta = desde + random.nextInt(60);
+            boolean incluirDesde = random.nextBoolean();
+            boolean incluirHasta = random.nextBoolean();
+            NavigableMap<Integer, Integer> rango = esperado.subMap(desde, incluirDesde, hasta, incluirHasta);
+            assertEquals(new ArrayList<>(rango.values()),
+                    arbol.buscarRango(desde, incluirDesde, hasta, incluirHasta, false, Integer.MAX_VALUE));
+            assertEquals(new ArrayList<>(rango.descendingMap().values()),
+                    arbol.buscarRango(desde, incluirDesde, hasta, incluirHasta, true, Integer.MAX_VALUE));
+        }
+        assertEquals(List.of(297, 294), arbol.buscarRango(null, true, null, true, true, 2));
+        assertTrue(arbol.buscarRango(10, 5).isEmpty());
+        assertEquals(esperado.values().stream().toList(), arbol.stream().toList());
+    }
+
+    @Test
+    public void testConstruirMasYMerge() {
+        for(int t : new int[]{2, 4}) {
+            for(int n = 0; n < 60; n++) {
+                List<Map.Entry<Integer, Integer>> entradas = IntStream.range(0, n)
+                        .mapToObj(i -> (Map.Entry<Integer, Integer>) new AbstractMap.SimpleImmutableEntry<>(2 * i, i))
+                        .collect(Collectors.toList());
+                TArbolBMas<Integer> arbol = CargadorMasivoArbolB.construirMas(t, entradas.iterator(), 1.0);
+                TreeMap<Integer, Integer> esperado = new TreeMap<>();
+                entradas.forEach(e -> esperado.put(e.getKey(), e.getValue()));
+                verificarArbol(arbol, t, esperado);
+
+                TArbolBMas<Integer> otro = new TArbolBMas<>(t);
+                for(int i = 0; i < n; i += 2) {
+                    otro.insertar(i + 1, -i);
+                    otro.insertar(i, -i);
+                    esperado.putIfAbsent(i + 1, -i);
+                }
+                arbol.merge(otro, PoliticaDuplicados.conservarIzquierdo());
+                verificarArbol(arbol, t, esperado);
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    public void testSerializacionReenlazaLasHojas() throws Exception {
+        TArbolBMas<Integer> arbol = new TArbolBMas<>(2);
+        TreeMap<Integer, Integer> esperado = new TreeMap<>();
+        for(int i = 0; i < 100; i++) {
+            arbol.insertar(i, i * i);
+            esperado.put(i, i * i);
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try(ObjectOutputStream salida = new ObjectOutputStream(bytes)) {
+            salida.writeObject(arbol);
+        }
+        TArbolBMas<Integer> leido;
+        try(ObjectInputStream entrada = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            leido = (TArbolBMas<Integer>) entrada.readObject();
+        }
+        verificarArbol(leido, 2, esperado);
+        assertEquals(List.of(60, 59), leido.buscarRango(58, false, 60, true, true, 10).stream().map(v -> (int) Math.sqrt(v)).toList());
+    }
+
+    @Test
+    public void testBaseDeDatosConIndiceBMas() {
+        BaseDeDatos bd = new BaseDeDatos(3, TipoIndice.ARBOL_B_MAS);
+        assertEquals(TipoIndice.ARBOL_B_MAS, bd.getTipoIndice());
+        for(int i = 1; i <= 100; i++) {
+            bd.insertarRegistro(i, "r" + i);
+        }
+        assertTrue(bd.eliminarRegistro(50));
+        assertNull(bd.buscarRegistro(50));
+        assertEquals(List.of(48, 49, 51), bd.buscarRegistrosEnRango(48, 51).stream().map(RegistroBD::getId).toList());
+
+        BaseDeDatos otra = BaseDeDatos.cargar(2, TipoIndice.ARBOL_B, IntStream.rangeClosed(95, 110)
+                .mapToObj(i -> new RegistroBD(i, "o" + i)).iterator(), true, 1.0);
+        bd.merge(otra);
+        assertEquals(109, bd.registros().count());
+        assertEquals("r95", bd.buscarRegistro(95).getData());
+        assertEquals("o110", bd.buscarRegistro(110).getData());
+    }
+}
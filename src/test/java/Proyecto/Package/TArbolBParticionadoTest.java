@@ -0,0 +1,73 @@
+package Proyecto.Package;
+
+import org.junit.jupiter.api.Test;
+import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+
+public class TArbolBParticionadoTest {
+
+    private static List<Integer> datos(Iterator<Integer> iterador) {
+        List<Integer> lista = new ArrayList<>();
+        iterador.forEachRemaining(lista::add);
+        return lista;
+    }
+
+    @Test
+    public void testOperacionesAleatoriasContraTreeMap() {
+        for(TipoIndice tipo : TipoIndice.values()) {
+            TArbolBParticionado<Integer> arbol = new TArbolBParticionado<>(3, 4, tipo, dato -> dato);
+            TreeMap<Integer, Integer> esperado = new TreeMap<>();
+            Random random = new Random(tipo.ordinal());
+            for(int i = 0; i < 10000; i++) {
+                int clave = random.nextInt(3000) - 1000;
+                if(random.nextInt(3) < 2) {
+                    assertEquals(!esperado.containsKey(clave), arbol.insertar(clave, clave));
+                    esperado.putIfAbsent(clave, clave);
+                } else {
+                    assertEquals(esperado.remove(clave) != null, arbol.eliminar(clave));
+                }
+            }
+            assertEquals(new ArrayList<>(esperado.values()), arbol.inOrden());
+            assertEquals(esperado.size(), arbol.tamaño());
+            for(int clave = -1100; clave < 2100; clave += 13) {
+                assertEquals(esperado.headMap(clave).size(), arbol.posicion(clave));
+            }
+            assertEquals(esperado.firstEntry().getValue(), arbol.seleccionar(0));
+            assertEquals(esperado.size(), arbol.preOrden().size());
+            assertEquals(esperado.size(), arbol.postOrden().size());
+            for(int clave = -1000; clave < 2000; clave += 7) {
+                assertEquals(esperado.get(clave), arbol.buscar(clave));
+            }
+            //Rangos que atraviesan varios lotes de cada partición
+            for(int i = 0; i < 50; i++) {
+                int desde = random.nextInt(3200) - 1100;
+                int hasta = desde + random.nextInt(2000);
+                boolean incluirDesde = random.nextBoolean();
+                boolean incluirHasta = random.nextBoolean();
+                NavigableMap<Integer, Integer> rango = esperado.subMap(desde, incluirDesde, hasta, incluirHasta);
+                assertEquals(new ArrayList<>(rango.values()),
+                        datos(arbol.iteradorRango(desde, incluirDesde, hasta, incluirHasta, false)));
+                assertEquals(new ArrayList<>(rango.descendingMap().values()),
+                        datos(arbol.iteradorRango(desde, incluirDesde, hasta, incluirHasta, true)));
+            }
+        }
+    }
+
+    @Test
+    public void testLasClavesSeRepartenEntreLasParticiones() {
+        TArbolBParticionado<Integer> arbol = new TArbolBParticionado<>(2, 8, TipoIndice.ARBOL_B_ENTERO, dato -> dato);
+        for(int i = 0; i < 8000; i++) {
+            arbol.insertar(i, i);
+        }
+        for(int p = 0; p < arbol.getCantidadParticiones(); p++) {
+            int cantidad = arbol.getParticion(p).inOrden().size();
+            assertTrue(cantidad > 700 && cantidad < 1300);
+        }
+        assertThrows(IllegalArgumentException.class, () -> new TArbolBParticionado<Integer>(2, 0, TipoIndice.ARBOL_B, dato -> dato));
+    }
+}
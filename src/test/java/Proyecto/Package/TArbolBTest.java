@@ -3,7 +3,19 @@ package Proyecto.Package;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import static org.junit.jupiter.api.Assertions.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.Set;
+import java.util.Spliterator;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 public class TArbolBTest {
 
@@ -40,6 +52,17 @@ public class TArbolBTest {
         assertEquals(List.of(10), arbol.inOrden());
     }
 
+    @Test
+    public void testInsertarDuplicadoNoDivideNodos() {
+        arbol.insertar(10, 10);
+        arbol.insertar(20, 20);
+        arbol.insertar(5, 5); // La raíz queda llena
+
+        assertFalse(arbol.insertar(20, 20));
+        assertEquals(3, arbol.getRaiz().getNumClaves());
+        assertTrue(arbol.getRaiz().esHoja());
+    }
+
     @Test
     public void testInsertarMultiplesElementos() {
         assertTrue(arbol.insertar(10, 10));
@@ -51,7 +74,6 @@ public class TArbolBTest {
         assertTrue(arbol.insertar(7, 7));
         assertTrue(arbol.insertar(17, 17)); // Esto debería provocar múltiples divisiones
 
-
         assertEquals(List.of(5, 6, 7, 10, 12, 17, 20, 30), arbol.inOrden());
     }
 
@@ -164,7 +186,6 @@ public class TArbolBTest {
         assertEquals(List.of(5, 10, 12, 20), arbol.inOrden());
     }
 
-
     @Test
     public void testEliminarClaveQueProvocaFusion() {
         arbol.insertar(10, 10);
@@ -225,4 +246,345 @@ public class TArbolBTest {
         List<Integer> postOrden = arbol.postOrden();
         assertEquals(List.of(5, 6, 7, 12, 17, 30, 10, 20), postOrden);
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testOperacionesAleatoriasConGradoAlto() {
+        TArbolB<Integer> arbolGrande = new TArbolB<>(32);
+        TreeMap<Integer, Integer> esperado = new TreeMap<>();
+        Random random = new Random(7);
+
+        for (int i = 0; i < 30000; i++) {
+            int clave = random.nextInt(8000);
+            if (random.nextInt(3) == 0) {
+                arbolGrande.eliminar(clave);
+                esperado.remove(clave);
+            } else {
+                arbolGrande.insertar(clave, clave);
+                esperado.putIfAbsent(clave, clave);
+            }
+        }
+
+        assertEquals(new ArrayList<>(esperado.values()), arbolGrande.inOrden());
+        for (int clave = 0; clave < 8000; clave++) {
+            assertEquals(esperado.get(clave), arbolGrande.buscar(clave));
+        }
+    }
+
+    @Test
+    public void testMergeConPoliticasDeDuplicados() {
+        TArbolB<String> izquierdo = new TArbolB<>(2);
+        TArbolB<String> derecho = new TArbolB<>(2);
+        for (int i = 0; i < 100; i += 2) {
+            izquierdo.insertar(i, "i" + i);
+        }
+        for (int i = 0; i < 100; i += 3) {
+            derecho.insertar(i, "d" + i);
+        }
+
+        TArbolB<String> conservarIzquierdo = new TArbolB<>(2);
+        conservarIzquierdo.merge(izquierdo);
+        assertTrue(conservarIzquierdo.merge(derecho));
+        assertEquals("i6", conservarIzquierdo.buscar(6));
+        assertEquals("d3", conservarIzquierdo.buscar(3));
+        assertEquals("i4", conservarIzquierdo.buscar(4));
+        assertNull(conservarIzquierdo.buscar(5));
+        assertEquals(67, conservarIzquierdo.inOrden().size());
+
+        izquierdo.merge(derecho, PoliticaDuplicados.combinar((a, b) -> a + "+" + b));
+        assertEquals("i6+d6", izquierdo.buscar(6));
+        derecho.merge(izquierdo, PoliticaDuplicados.conservarDerecho());
+        assertEquals("i6+d6", derecho.buscar(6));
+        assertEquals("i4", derecho.buscar(4));
+
+        //El árbol fusionado no comparte nodos con el original
+        izquierdo.eliminar(4);
+        assertEquals("i4", derecho.buscar(4));
+    }
+
+    @Test
+    public void testMergeContraTreeMap() {
+        Random random = new Random(11);
+        TArbolB<Integer> otro = new TArbolB<>(3);
+        TreeMap<Integer, Integer> esperado = new TreeMap<>();
+        for (int i = 0; i < 2000; i++) {
+            int clave = random.nextInt(3000);
+            arbol.insertar(clave, clave);
+            esperado.putIfAbsent(clave, clave);
+        }
+        for (int i = 0; i < 2000; i++) {
+            int clave = random.nextInt(3000);
+            otro.insertar(clave, -clave);
+            esperado.putIfAbsent(clave, -clave);
+        }
+
+        assertTrue(arbol.merge(otro));
+        assertEquals(new ArrayList<>(esperado.values()), arbol.inOrden());
+        for (int clave : esperado.keySet()) {
+            assertTrue(arbol.eliminar(clave));
+        }
+        assertTrue(arbol.inOrden().isEmpty());
+    }
+
+    @Test
+    public void testIteradorRecorreEnInOrden() {
+        assertFalse(arbol.iterator().hasNext());
+        Random random = new Random(5);
+        for (int i = 0; i < 3000; i++) {
+            int clave = random.nextInt(10000);
+            arbol.insertar(clave, clave);
+        }
+
+        List<Integer> recorrido = new ArrayList<>();
+        for (Integer dato : arbol) {
+            recorrido.add(dato);
+        }
+        assertEquals(arbol.inOrden(), recorrido);
+
+        //El recorrido puede terminarse antes de visitar todo el árbol
+        Iterator<Integer> iterador = arbol.iterator();
+        assertEquals(recorrido.get(0), iterador.next());
+        assertEquals(recorrido.get(1), iterador.next());
+    }
+
+    @Test
+    public void testStreamYParallelStream() {
+        TArbolB<Integer> arbolGrande = CargadorMasivoArbolB.construir(4,
+                IntStream.range(0, 50000).mapToObj(i -> Map.entry(i, i)).iterator(), 0.7);
+
+        assertEquals(arbolGrande.inOrden(), arbolGrande.stream().collect(Collectors.toList()));
+        assertEquals(arbolGrande.inOrden(), arbolGrande.parallelStream().collect(Collectors.toList()));
+        assertEquals(49999L * 50000 / 2, arbolGrande.parallelStream().mapToLong(Integer::longValue).sum());
+        assertEquals(List.of(0, 1, 2), arbolGrande.stream().limit(3).collect(Collectors.toList()));
+    }
+
+    @Test
+    public void testSpliteratorSeDividePorSubarboles() {
+        for (int i = 0; i < 500; i++) {
+            arbol.insertar(i, i);
+        }
+        Spliterator<Integer> derecha = arbol.spliterator();
+        Spliterator<Integer> izquierda = derecha.trySplit();
+        assertNotNull(izquierda);
+        assertTrue(izquierda.estimateSize() > 0);
+
+        List<Integer> recorrido = new ArrayList<>();
+        izquierda.tryAdvance(recorrido::add);
+        Spliterator<Integer> resto = izquierda.trySplit();
+        if (resto != null) {
+            resto.forEachRemaining(recorrido::add);
+        }
+        izquierda.forEachRemaining(recorrido::add);
+        derecha.forEachRemaining(recorrido::add);
+        assertFalse(derecha.tryAdvance(recorrido::add));
+        assertEquals(arbol.inOrden(), recorrido);
+    }
+
+    @Test
+    public void testBuscarRangoContraTreeMap() {
+        for (int t : new int[]{2, 9}) {
+            TArbolB<Integer> arbolRango = new TArbolB<>(t);
+            TreeMap<Integer, Integer> esperado = new TreeMap<>();
+            Random random = new Random(t);
+            for (int i = 0; i < 600; i++) {
+                int clave = random.nextInt(1000) * 2;
+                arbolRango.insertar(clave, clave);
+                esperado.put(clave, clave);
+            }
+
+            for (int i = 0; i < 300; i++) {
+                int desde = random.nextInt(2100) - 50;
+                int hasta = desde + random.nextInt(400);
+                boolean incluirDesde = random.nextBoolean();
+                boolean incluirHasta = random.nextBoolean();
+                NavigableMap<Integer, Integer> rango = esperado.subMap(desde, incluirDesde, hasta, incluirHasta);
+
+                assertEquals(new ArrayList<>(rango.values()),
+                        arbolRango.buscarRango(desde, incluirDesde, hasta, incluirHasta, false, Integer.MAX_VALUE));
+                assertEquals(new ArrayList<>(rango.descendingMap().values()),
+                        arbolRango.buscarRango(desde, incluirDesde, hasta, incluirHasta, true, Integer.MAX_VALUE));
+                assertEquals(rango.values().stream().limit(5).collect(Collectors.toList()),
+                        arbolRango.buscarRango(desde, incluirDesde, hasta, incluirHasta, false, 5));
+            }
+
+            assertEquals(new ArrayList<>(esperado.headMap(500, true).values()), arbolRango.buscarRango(null, true, 500, true, false, Integer.MAX_VALUE));
+            assertEquals(new ArrayList<>(esperado.tailMap(1500, false).descendingMap().values()),
+                    arbolRango.buscarRango(1500, false, null, true, true, Integer.MAX_VALUE));
+        }
+    }
+
+    @Test
+    public void testBuscarRangoVacioOInvertido() {
+        assertTrue(arbol.buscarRango(1, 10).isEmpty());
+        for (int i = 0; i < 20; i++) {
+            arbol.insertar(i, i);
+        }
+        assertTrue(arbol.buscarRango(10, 5).isEmpty());
+        assertTrue(arbol.buscarRango(5, false, 5, true, false, 10).isEmpty());
+        assertEquals(List.of(5), arbol.buscarRango(5, 5));
+        assertEquals(List.of(19, 18, 17), arbol.streamRango(null, true, null, true, true).limit(3).collect(Collectors.toList()));
+    }
+
+    private static void contarNodos(TElementoB<Integer> nodo, Set<TElementoB<Integer>> nodos) {
+        nodos.add(nodo);
+        for(int i = 0; i < nodo.getNumHijos(); i++) {
+            contarNodos(nodo.getHijo(i), nodos);
+        }
+    }
+
+    @Test
+    public void testSnapshotNoVeLosCambiosPosteriores() {
+        TArbolB<Integer> grande = new TArbolB<>(3);
+        TreeMap<Integer, Integer> esperado = new TreeMap<>();
+        List<TArbolB<Integer>> instantaneas = new ArrayList<>();
+        List<List<Integer>> contenidos = new ArrayList<>();
+        Random random = new Random(19);
+        for(int i = 0; i < 30000; i++) {
+            int clave = random.nextInt(3000);
+            if(random.nextInt(5) < 3) {
+                assertEquals(!esperado.containsKey(clave), grande.insertar(clave, i));
+                esperado.putIfAbsent(clave, i);
+            } else {
+                grande.eliminar(clave);
+                esperado.remove(clave);
+            }
+            if(i % 3000 == 0) {
+                instantaneas.add(grande.snapshot());
+                contenidos.add(new ArrayList<>(esperado.values()));
+            }
+        }
+        assertEquals(new ArrayList<>(esperado.values()), grande.inOrden());
+        for(int i = 0; i < instantaneas.size(); i++) {
+            assertEquals(contenidos.get(i), instantaneas.get(i).inOrden());
+        }
+
+        TArbolB<Integer> instantanea = grande.snapshot();
+        assertSame(instantanea, instantanea.snapshot());
+        assertThrows(UnsupportedOperationException.class, () -> instantanea.insertar(-1, -1));
+        assertThrows(UnsupportedOperationException.class, () -> instantanea.eliminar(esperado.firstKey()));
+        assertThrows(UnsupportedOperationException.class, () -> instantanea.merge(new TArbolB<>(3)));
+    }
+
+    @Test
+    public void testSnapshotCompartePorCopiaDeCamino() {
+        for(int i = 0; i < 10000; i++) {
+            arbol.insertar(i, i);
+        }
+        TArbolB<Integer> instantanea = arbol.snapshot();
+        arbol.insertar(10000, 10000);
+        arbol.eliminar(5000);
+
+        Set<TElementoB<Integer>> originales = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<TElementoB<Integer>> actuales = Collections.newSetFromMap(new IdentityHashMap<>());
+        contarNodos(instantanea.getRaiz(), originales);
+        contarNodos(arbol.getRaiz(), actuales);
+        int nuevos = 0;
+        for(TElementoB<Integer> nodo : actuales) {
+            if(!originales.contains(nodo)) {
+                nuevos++;
+            }
+        }
+        //Dos caminos de la raíz a una hoja, con los hermanos que toque la eliminación
+        assertTrue(nuevos <= 6 * 14, "nodos copiados: " + nuevos);
+        assertTrue(originales.size() > 1000);
+        assertEquals(10000, instantanea.inOrden().size());
+        assertEquals(5000, instantanea.buscar(5000));
+        assertNull(arbol.buscar(5000));
+        assertNull(instantanea.buscar(10000));
+    }
+
+    @Test
+    public void testInsertarDuplicadoNoCopiaNodosCompartidos() {
+        for(int i = 0; i < 10000; i++) {
+            arbol.insertar(i, i);
+        }
+        TArbolB<Integer> instantanea = arbol.snapshot();
+        TElementoB<Integer> raiz = arbol.getRaiz();
+        for(int i = 0; i < 10000; i += 7) {
+            assertFalse(arbol.insertar(i, -i));
+        }
+        //Ninguna inserción rechazada copió la raíz ni, por lo tanto, el resto del camino
+        assertSame(raiz, arbol.getRaiz());
+        assertSame(instantanea.getRaiz(), arbol.getRaiz());
+
+        assertTrue(arbol.insertar(-1, -1));
+        assertNotSame(instantanea.getRaiz(), arbol.getRaiz());
+        //La raíz ya es propia, pero su último hijo sigue compartido y no se copia para rechazar el duplicado
+        int ultimo = arbol.getRaiz().getNumHijos() - 1;
+        assertFalse(arbol.insertar(9999, 0));
+        assertSame(instantanea.getRaiz().getHijo(ultimo), arbol.getRaiz().getHijo(ultimo));
+        assertEquals(10001, arbol.inOrden().size());
+        assertEquals(10000, instantanea.inOrden().size());
+        VerificadorArbolB.verificar(arbol.getRaiz(), 2);
+    }
+
+    /**
+     * Verifica que cada nodo del subárbol lleve su tamaño al día y devuelve la cantidad de claves del subárbol.
+     */
+    private static int contarClaves(TElementoB<Integer> nodo) {
+        int cantidad = nodo.getNumClaves();
+        for(int i = 0; i < nodo.getNumHijos(); i++) {
+            cantidad += contarClaves(nodo.getHijo(i));
+        }
+        assertEquals(cantidad, nodo.obtenerTamaño());
+        return cantidad;
+    }
+
+    private static void verificarPosiciones(TArbolB<Integer> arbol, TreeMap<Integer, Integer> esperado, Random random) {
+        assertEquals(esperado.size(), arbol.tamaño());
+        if(arbol.getRaiz() != null) {
+            contarClaves(arbol.getRaiz());
+        }
+        List<Integer> valores = new ArrayList<>(esperado.values());
+        for(int i = 0; i < 20; i++) {
+            int clave = random.nextInt(3200) - 100;
+            assertEquals(esperado.headMap(clave).size(), arbol.posicion(clave));
+            if(!valores.isEmpty()) {
+                int posicion = random.nextInt(valores.size());
+                assertEquals(valores.get(posicion), arbol.seleccionar(posicion));
+            }
+        }
+        assertThrows(IndexOutOfBoundsException.class, () -> arbol.seleccionar(esperado.size()));
+        assertThrows(IndexOutOfBoundsException.class, () -> arbol.seleccionar(-1));
+    }
+
+    @Test
+    public void testTamañoPosicionYSeleccionContraTreeMap() {
+        for(int t : new int[]{2, 5, 9}) {
+            TArbolB<Integer> grande = new TArbolB<>(t);
+            TreeMap<Integer, Integer> esperado = new TreeMap<>();
+            Random random = new Random(t);
+            TArbolB<Integer> instantanea = null;
+            TreeMap<Integer, Integer> contenidoInstantanea = null;
+            for(int i = 0; i < 30000; i++) {
+                int clave = random.nextInt(3000);
+                if(random.nextInt(5) < 3) {
+                    assertEquals(!esperado.containsKey(clave), grande.insertar(clave, i));
+                    esperado.putIfAbsent(clave, i);
+                } else {
+                    assertEquals(esperado.remove(clave) != null, grande.eliminar(clave));
+                }
+                if(i % 1000 == 0) {
+                    verificarPosiciones(grande, esperado, random);
+                }
+                if(i == 15000) {
+                    instantanea = grande.snapshot();
+                    contenidoInstantanea = new TreeMap<>(esperado);
+                }
+            }
+            verificarPosiciones(grande, esperado, random);
+            //La copia de camino no altera los tamaños que ve la instantánea
+            verificarPosiciones(instantanea, contenidoInstantanea, random);
+
+            TArbolB<Integer> otro = new TArbolB<>(t);
+            for(int clave = 2500; clave < 4000; clave++) {
+                otro.insertar(clave, -clave);
+                esperado.putIfAbsent(clave, -clave);
+            }
+            grande.merge(otro);
+            verificarPosiciones(grande, esperado, random);
+        }
+        assertEquals(0, arbol.tamaño());
+        assertEquals(0, arbol.posicion(5));
+        assertThrows(IndexOutOfBoundsException.class, () -> arbol.seleccionar(0));
+    }
+}
@@ -101,6 +101,23 @@ public class TElementoBTest {
         assertEquals(5, nodo.encontrarClave(55));
     }
 
+    @Test
+    void testEncontrarClaveBinaria() {
+        TElementoB<Integer> nodo = new TElementoB<>(16); // 2t - 1 supera el umbral de búsqueda binaria
+
+        for (int i = 1; i <= 31; i++) {
+            nodo.insertarEnNodoNoLleno(i * 10, i * 100);
+        }
+
+        for (int i = 1; i <= 31; i++) {
+            assertEquals(i - 1, nodo.encontrarClave(i * 10));
+            assertEquals(i - 1, nodo.encontrarClave(i * 10 - 5));
+        }
+        assertEquals(31, nodo.encontrarClave(315));
+        assertEquals(Integer.valueOf(1500), nodo.buscarDato(15 * 10));
+        assertNull(nodo.buscarDato(155));
+    }
+
     @Test
     public void testObtenerPredecesor() {
         // Crear un nodo con hijos para encontrar el predecesor
@@ -0,0 +1,154 @@
+package Proyecto.Package;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Verificación de las propiedades estructurales de los árboles B de las pruebas: la cantidad de claves de cada
+ * nodo, el orden de las claves respecto de las de sus ancestros y que todas las hojas estén a la misma altura.
+ */
+final class VerificadorArbolB {
+
+    private VerificadorArbolB() {
+    }
+
+    /**
+     * Acceso a los nodos de cada implementación, que no comparten una interfaz con las claves.
+     */
+    private interface Nodos<N> {
+        int numClaves(N nodo);
+
+        Comparable clave(N nodo, int i);
+
+        boolean esHoja(N nodo);
+
+        N hijo(N nodo, int i);
+    }
+
+    private static final Nodos<TElementoB<?>> NODOS_B = new Nodos<>() {
+        @Override
+        public int numClaves(TElementoB<?> nodo) {
+            return nodo.getNumClaves();
+        }
+
+        @Override
+        public Comparable clave(TElementoB<?> nodo, int i) {
+            return nodo.getClave(i);
+        }
+
+        @Override
+        public boolean esHoja(TElementoB<?> nodo) {
+            if(!nodo.esHoja()) {
+                assertEquals(nodo.getNumClaves() + 1, nodo.getNumHijos());
+            }
+            return nodo.esHoja();
+        }
+
+        @Override
+        public TElementoB<?> hijo(TElementoB<?> nodo, int i) {
+            return nodo.getHijo(i);
+        }
+    };
+
+    private static final Nodos<TElementoBEntero<?>> NODOS_ENTERO = new Nodos<>() {
+        @Override
+        public int numClaves(TElementoBEntero<?> nodo) {
+            return nodo.getNumClaves();
+        }
+
+        @Override
+        public Comparable clave(TElementoBEntero<?> nodo, int i) {
+            return nodo.getClave(i);
+        }
+
+        @Override
+        public boolean esHoja(TElementoBEntero<?> nodo) {
+            return nodo.esHoja();
+        }
+
+        @Override
+        public TElementoBEntero<?> hijo(TElementoBEntero<?> nodo, int i) {
+            return nodo.getHijo(i);
+        }
+    };
+
+    private static final Nodos<TElementoBMas<?>> NODOS_MAS = new Nodos<>() {
+        @Override
+        public int numClaves(TElementoBMas<?> nodo) {
+            return nodo.getNumClaves();
+        }
+
+        @Override
+        public Comparable clave(TElementoBMas<?> nodo, int i) {
+            return nodo.getClave(i);
+        }
+
+        @Override
+        public boolean esHoja(TElementoBMas<?> nodo) {
+            return nodo.esHoja();
+        }
+
+        @Override
+        public TElementoBMas<?> hijo(TElementoBMas<?> nodo, int i) {
+            return nodo.getHijo(i);
+        }
+    };
+
+    /**
+     * Verifica el árbol B cuya raíz es el nodo dado.
+     *
+     * @return La altura del árbol, 1 si la raíz es una hoja.
+     */
+    static int verificar(TElementoB<?> raiz, int t) {
+        return verificar(NODOS_B, raiz, t, true, null, null, false);
+    }
+
+    /**
+     * Verifica el árbol B de claves enteras cuya raíz es el nodo dado.
+     *
+     * @return La altura del árbol, 1 si la raíz es una hoja.
+     */
+    static int verificar(TElementoBEntero<?> raiz, int t) {
+        return verificar(NODOS_ENTERO, raiz, t, true, null, null, false);
+    }
+
+    /**
+     * Verifica el árbol B+ cuya raíz es el nodo dado. Como las claves separadoras se repiten en las hojas, cada una
+     * es la menor clave de su subárbol derecho.
+     *
+     * @return La altura del árbol, 1 si la raíz es una hoja.
+     */
+    static int verificar(TElementoBMas<?> raiz, int t) {
+        return verificar(NODOS_MAS, raiz, t, true, null, null, true);
+    }
+
+    /**
+     * Verifica el subárbol, cuyas claves deben estar entre minimo y maximo, y devuelve su altura.
+     */
+    private static <N> int verificar(Nodos<N> nodos, N nodo, int t, boolean esRaiz, Comparable minimo,
+                                     Comparable maximo, boolean minimoIncluido) {
+        int n = nodos.numClaves(nodo);
+        assertTrue(n <= 2 * t - 1);
+        assertTrue(esRaiz ? n >= 1 : n >= t - 1);
+        for(int i = 0; i < n; i++) {
+            Comparable clave = nodos.clave(nodo, i);
+            if(minimo != null) {
+                int comparacion = TElementoB.comparar(clave, minimo);
+                assertTrue(minimoIncluido ? comparacion >= 0 : comparacion > 0);
+            }
+            assertTrue(maximo == null || TElementoB.comparar(clave, maximo) < 0);
+            assertTrue(i == 0 || TElementoB.comparar(nodos.clave(nodo, i - 1), clave) < 0);
+        }
+        if(nodos.esHoja(nodo)) {
+            return 1;
+        }
+        int altura = -1;
+        for(int i = 0; i <= n; i++) {
+            Comparable desde = i == 0 ? minimo : nodos.clave(nodo, i - 1);
+            Comparable hasta = i == n ? maximo : nodos.clave(nodo, i);
+            int alturaHijo = verificar(nodos, nodos.hijo(nodo, i), t, false, desde, hasta, minimoIncluido);
+            assertTrue(altura == -1 || altura == alturaHijo);
+            altura = alturaHijo;
+        }
+        return altura + 1;
+    }
+}